@@ -0,0 +1,253 @@
+package com.dauphine.blogger.cache;
+
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.repositories.CategoryRepository;
+import com.dauphine.blogger.search.TextNormalizer;
+import com.dauphine.blogger.transactions.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * In-process, read-through cache of all categories.
+ * </p>
+ *
+ * <p>
+ * The category set is small and rarely changes, so the cache loads the whole table on the first lookup and serves
+ * every lookup by ID or by name from memory until it is invalidated. Writers must call {@link #invalidate()} after
+ * their change, which also invalidates the cache again when the surrounding transaction completes; a load racing with
+ * an invalidation is discarded rather than published, so a stale snapshot never outlives the change that invalidated
+ * it.
+ * </p>
+ *
+ * <p>
+ * Cached categories are never handed out: each lookup returns copies, so that callers may modify them freely.
+ * Lookups are counted in the {@value #REQUESTS_METRIC} metric, tagged with {@code result=hit} or {@code result=miss}.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class CategoryCache {
+
+    /**
+     * Name of the metric counting the cache lookups.
+     */
+    public static final String REQUESTS_METRIC = "blogger.category.cache.requests";
+
+    /**
+     * Name of the metric holding the number of cached categories.
+     */
+    public static final String SIZE_METRIC = "blogger.category.cache.size";
+
+    /**
+     * Repository the categories are loaded from.
+     */
+    private final CategoryRepository categoryRepository;
+
+    /**
+     * Counter of the lookups served from memory.
+     */
+    private final Counter hits;
+
+    /**
+     * Counter of the lookups which loaded the categories from the database.
+     */
+    private final Counter misses;
+
+    /**
+     * The current snapshot, replaced by an unloaded one on invalidation.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.unloaded());
+
+    /**
+     * Constructs a new CategoryCache loading the categories from the specified repository.
+     *
+     * @param categoryRepository Repository the categories are loaded from
+     * @param meterRegistry      Registry of the hit, miss and size metrics
+     */
+    public CategoryCache(CategoryRepository categoryRepository, MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.hits = Counter.builder(REQUESTS_METRIC)
+                .description("Category cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(REQUESTS_METRIC)
+                .description("Category cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+
+        Gauge.builder(SIZE_METRIC, snapshot, reference -> reference.get().size())
+                .description("Number of cached categories")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves all categories.
+     *
+     * @return A list of all categories
+     */
+    public List<Category> getAll() {
+        return copy(current().all());
+    }
+
+    /**
+     * Retrieves a category by its ID.
+     *
+     * @param id The ID of the category
+     * @return The category with the specified ID, or an empty optional if it does not exist
+     */
+    public Optional<Category> get(UUID id) {
+        return Optional.ofNullable(current().byId().get(id)).map(CategoryCache::copy);
+    }
+
+    /**
+     * Retrieves the categories whose name contains a fragment, ignoring case and accents, like
+     * {@link CategoryRepository#findAllByName(String)}.
+     *
+     * @param name The fragment of the name to look for
+     * @return A list of the categories whose name contains the fragment
+     */
+    public List<Category> getByName(String name) {
+        final String folded = TextNormalizer.normalize(name);
+        final Snapshot current = current();
+
+        return current.all().stream()
+                .filter(category -> {
+                    final String normalizedName = current.normalizedNames().get(category.getId());
+
+                    return normalizedName != null && normalizedName.contains(folded);
+                })
+                .map(CategoryCache::copy)
+                .toList();
+    }
+
+    /**
+     * Discards the cached categories, so that the next lookup reloads them from the database.
+     * Within a transaction, the categories are discarded again once it completes, since a lookup made before the
+     * commit may have reloaded the previous state.
+     */
+    public void invalidate() {
+        snapshot.set(Snapshot.unloaded());
+        AfterCommit.onCompletion(() -> snapshot.set(Snapshot.unloaded()));
+    }
+
+    /**
+     * Retrieves the current snapshot, loading it from the database if needed.
+     *
+     * @return The current snapshot
+     */
+    private Snapshot current() {
+        final Snapshot seen = snapshot.get();
+
+        if (seen.isLoaded()) {
+            hits.increment();
+
+            return seen;
+        }
+
+        misses.increment();
+
+        final Snapshot loaded = Snapshot.of(categoryRepository.findAll());
+
+        snapshot.compareAndSet(seen, loaded);
+
+        return loaded;
+    }
+
+    /**
+     * Copies a category.
+     *
+     * @param category The category to copy
+     * @return A new category with the same ID, name and version
+     */
+    private static Category copy(Category category) {
+        final Category copy = new Category(category.getId(), category.getName());
+
+        copy.setVersion(category.getVersion());
+
+        return copy;
+    }
+
+    /**
+     * Copies a list of categories.
+     *
+     * @param categories The categories to copy
+     * @return A new list of copies of the categories
+     */
+    private static List<Category> copy(List<Category> categories) {
+        return categories.stream()
+                .map(CategoryCache::copy)
+                .toList();
+    }
+
+    /**
+     * <p>
+     * Immutable snapshot of the categories, or an unloaded marker when all fields are null.
+     * </p>
+     *
+     * @param all             All categories
+     * @param byId            The categories keyed by ID
+     * @param normalizedNames The names of the categories folded by {@link TextNormalizer} when the snapshot was
+     *                        loaded, keyed by ID
+     */
+    private record Snapshot(List<Category> all, Map<UUID, Category> byId, Map<UUID, String> normalizedNames) {
+
+        /**
+         * Creates a new unloaded marker. Each marker is a distinct instance, so that a load started before an
+         * invalidation cannot replace the marker published by the invalidation.
+         *
+         * @return A new unloaded marker
+         */
+        static Snapshot unloaded() {
+            return new Snapshot(null, null, null);
+        }
+
+        /**
+         * Creates a loaded snapshot of the specified categories.
+         *
+         * @param categories The categories
+         * @return The loaded snapshot
+         */
+        static Snapshot of(List<Category> categories) {
+            final List<Category> all = copy(categories);
+            final Map<UUID, Category> byId = new HashMap<>();
+            final Map<UUID, String> normalizedNames = new HashMap<>();
+
+            all.forEach(category -> {
+                byId.put(category.getId(), category);
+
+                if (category.getName() != null) {
+                    normalizedNames.put(category.getId(), TextNormalizer.normalize(category.getName()));
+                }
+            });
+
+            return new Snapshot(all, Map.copyOf(byId), Map.copyOf(normalizedNames));
+        }
+
+        /**
+         * Checks whether the snapshot holds the categories.
+         *
+         * @return true if the snapshot is loaded, false otherwise
+         */
+        boolean isLoaded() {
+            return all != null;
+        }
+
+        /**
+         * Retrieves the number of categories of the snapshot.
+         *
+         * @return The number of categories, 0 if the snapshot is not loaded
+         */
+        int size() {
+            return isLoaded() ? all.size() : 0;
+        }
+
+    }
+
+}
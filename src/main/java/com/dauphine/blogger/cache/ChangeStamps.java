@@ -0,0 +1,189 @@
+package com.dauphine.blogger.cache;
+
+import com.dauphine.blogger.transactions.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Change stamps of the post and category collections, validating the conditional requests of their listings.
+ * </p>
+ *
+ * <p>
+ * Each collection has a version, bumped whenever one of its elements is created, updated or deleted, and the time of
+ * its last change. The entity tag of a collection is made of its version and of the startup time of the application,
+ * so that a tag issued before a restart is never matched afterwards.
+ * </p>
+ *
+ * <p>
+ * The last change time is the second of the change, never earlier than the previous one and never in the future.
+ * Since HTTP dates only hold seconds, changes within the same second share it, and only their versions tell them
+ * apart: a last change time only validates conditional requests once its second has elapsed, see
+ * {@link #isSettled(Stamp)}.
+ * </p>
+ *
+ * <p>
+ * Writers must call {@link #touch(Scope...)} after their change; within a transaction, the stamps are bumped once
+ * the transaction commits. A listing must read the stamp of its collection before reading the collection, so that a
+ * listing racing with a write is tagged with the stamp preceding the write and fetched again by the next request.
+ * </p>
+ *
+ * <p>
+ * The posts embed the name of their category, so a change to a category also changes the post collection.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class ChangeStamps {
+
+    /**
+     * Prefix of the entity tags, identifying the run of the application.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    /**
+     * The current stamp of each collection.
+     */
+    private final Map<Scope, AtomicReference<Stamp>> stamps = new EnumMap<>(Scope.class);
+
+    /**
+     * Clock providing the change times.
+     */
+    private final Clock clock;
+
+    /**
+     * Constructs a new ChangeStamps using the system clock, considering every collection changed at startup.
+     */
+    public ChangeStamps() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new ChangeStamps using the specified clock, considering every collection changed at startup.
+     *
+     * @param clock Clock providing the change times
+     */
+    public ChangeStamps(Clock clock) {
+        this.clock = clock;
+
+        final Instant startup = now();
+
+        for (Scope scope : Scope.values()) {
+            stamps.put(scope, new AtomicReference<>(new Stamp(0, startup, eTag(0))));
+        }
+    }
+
+    /**
+     * Retrieves the current stamp of a collection.
+     *
+     * @param scope The collection
+     * @return The stamp of the last committed change of the collection
+     */
+    public Stamp get(Scope scope) {
+        return stamps.get(scope).get();
+    }
+
+    /**
+     * Tells whether the last change time of a stamp has settled, that is whether its second has elapsed. Until then,
+     * a later change may share the same second, so the last change time cannot tell a client the collection changed.
+     *
+     * @param stamp The stamp of a collection
+     * @return true if no later change can share the last change time of the stamp
+     */
+    public boolean isSettled(Stamp stamp) {
+        return stamp.lastModified().isBefore(now());
+    }
+
+    /**
+     * Bumps the stamps of changed collections, once the current transaction commits or right away outside of any
+     * transaction.
+     *
+     * @param scopes The changed collections
+     */
+    public void touch(Scope... scopes) {
+        AfterCommit.run(() -> bump(scopes));
+    }
+
+    /**
+     * Bumps the stamps of changed collections right away.
+     *
+     * @param scopes The changed collections
+     */
+    private void bump(Scope... scopes) {
+        for (Scope scope : scopes) {
+            stamps.get(scope).updateAndGet(this::next);
+        }
+    }
+
+    /**
+     * Computes the stamp following a change.
+     *
+     * @param current The stamp before the change
+     * @return The stamp after the change, with the next version and the current second as last change time
+     */
+    private Stamp next(Stamp current) {
+        final Instant now = now();
+        final long version = current.version() + 1;
+
+        return new Stamp(version, now.isAfter(current.lastModified()) ? now : current.lastModified(), eTag(version));
+    }
+
+    /**
+     * Reads the current time, truncated to seconds like the HTTP dates.
+     *
+     * @return The current second
+     */
+    private Instant now() {
+        return clock.instant().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Builds the weak entity tag of a version. Tags are weak since the listings of a collection vary with their
+     * parameters and encodings, while they are only compared to tell whether the collection changed.
+     *
+     * @param version The version of the collection
+     * @return The quoted entity tag
+     */
+    private String eTag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * <p>
+     * Collections whose changes are stamped.
+     * </p>
+     */
+    public enum Scope {
+
+        /**
+         * The posts, along with the names of their categories.
+         */
+        POSTS,
+
+        /**
+         * The categories.
+         */
+        CATEGORIES
+
+    }
+
+    /**
+     * <p>
+     * Stamp of the last change of a collection.
+     * </p>
+     *
+     * @param version      The number of changes of the collection since startup
+     * @param lastModified The time of the last change, truncated to seconds
+     * @param eTag         The weak entity tag of the collection, quoted
+     */
+    public record Stamp(long version, Instant lastModified, String eTag) {
+    }
+
+}
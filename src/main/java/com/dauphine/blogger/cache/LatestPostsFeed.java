@@ -0,0 +1,336 @@
+package com.dauphine.blogger.cache;
+
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.transactions.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>
+ * In-memory feed of the newest posts, overall and of each category, serving the first pages of the post listings.
+ * </p>
+ *
+ * <p>
+ * Each feed holds an immutable snapshot of at most {@code capacity} posts, ordered from the newest to the oldest like
+ * the keyset pages of the database, and known to be the newest posts of its scope. Snapshots are replaced with a
+ * compare-and-set, so that readers never lock and writers never block each other. A snapshot is exhaustive when it
+ * holds every post of its scope, in which case pages longer than the snapshot are still served from memory.
+ * </p>
+ *
+ * <p>
+ * Writers must call {@link #add(Post)}, {@link #remove(UUID)} and {@link #renameCategory(Category)} after their
+ * change; within a transaction, the change is applied once the transaction commits. A feed which is not loaded yet, or
+ * which holds fewer posts than the requested page, loads the newest posts from the database and publishes them only
+ * if no write replaced its snapshot meanwhile, so that a load racing with a write is discarded rather than published.
+ * The feed of all categories is loaded at startup, and the feed of each category by its first listing.
+ * </p>
+ *
+ * <p>
+ * Cached posts are never handed out: each lookup returns copies, so that callers may modify them freely.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class LatestPostsFeed {
+
+    /**
+     * Order of the keyset pages: newest first, then by descending ID, compared as unsigned like the database does.
+     */
+    static final Comparator<Post> NEWEST_FIRST = Comparator.comparing(Post::getCreatedDate)
+            .thenComparing(LatestPostsFeed::compareIds)
+            .reversed();
+
+    /**
+     * Maximum number of posts held by each feed.
+     */
+    private final int capacity;
+
+    /**
+     * The snapshot of the newest posts of all categories.
+     */
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>(Snapshot.unloaded());
+
+    /**
+     * The snapshots of the newest posts of each category, keyed by category ID.
+     */
+    private final ConcurrentMap<UUID, AtomicReference<Snapshot>> latestByCategory = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new LatestPostsFeed.
+     *
+     * @param capacity Maximum number of posts held by each feed
+     */
+    public LatestPostsFeed(@Value("${blogger.feed.capacity:100}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Retrieves the maximum number of posts held by each feed.
+     *
+     * @return The capacity of the feeds
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Retrieves the first page of the newest posts, overall or of a category, from memory when the feed can serve it.
+     * Otherwise, the newest {@code capacity} posts are loaded and published, unless the page is longer than the feed.
+     *
+     * @param categoryId The ID of the category of the posts, or null for every category
+     * @param limit      The maximum number of posts to retrieve
+     * @param loader     Function loading the newest posts of the scope from the database, given their number
+     * @return A list of at most {@code limit} posts, ordered from the newest to the oldest
+     */
+    public List<Post> getLatest(UUID categoryId, int limit, IntFunction<List<Post>> loader) {
+        final AtomicReference<Snapshot> feed = feed(categoryId);
+        final Snapshot seen = feed.get();
+
+        if (seen.isLoaded() && (seen.exhaustive() || seen.posts().size() >= limit)) {
+            return seen.posts().stream()
+                    .limit(limit)
+                    .map(Post::copy)
+                    .toList();
+        }
+
+        if (limit > capacity) {
+            return loader.apply(limit);
+        }
+
+        final List<Post> loaded = loader.apply(capacity);
+
+        feed.compareAndSet(seen, Snapshot.of(loaded, capacity));
+
+        return loaded.size() > limit ? loaded.subList(0, limit) : loaded;
+    }
+
+    /**
+     * Adds a created or updated post to the feeds, and removes it from the feeds of the other categories.
+     * The post is copied once the transaction commits, so that the copy holds the values written on flush.
+     *
+     * @param post The created or updated post
+     */
+    public void add(Post post) {
+        AfterCommit.run(() -> {
+            final Post copy = post.copy();
+            final UUID categoryId = copy.getCategory() != null ? copy.getCategory().getId() : null;
+
+            update(latest, snapshot -> snapshot.with(copy, capacity));
+
+            if (categoryId != null) {
+                update(feed(categoryId), snapshot -> snapshot.with(copy, capacity));
+            }
+
+            latestByCategory.forEach((id, feed) -> {
+                if (!id.equals(categoryId)) {
+                    update(feed, snapshot -> snapshot.without(copy.getId()));
+                }
+            });
+        });
+    }
+
+    /**
+     * Removes a deleted post from the feeds.
+     *
+     * @param id The ID of the deleted post
+     */
+    public void remove(UUID id) {
+        AfterCommit.run(() -> {
+            update(latest, snapshot -> snapshot.without(id));
+            latestByCategory.values().forEach(feed -> update(feed, snapshot -> snapshot.without(id)));
+        });
+    }
+
+    /**
+     * Renames the category of the posts held by the feeds.
+     *
+     * @param category The renamed category
+     */
+    public void renameCategory(Category category) {
+        final Category copy = new Category(category.getId(), category.getName());
+
+        AfterCommit.run(() -> {
+            update(latest, snapshot -> snapshot.withCategory(copy));
+            update(feed(copy.getId()), snapshot -> snapshot.withCategory(copy));
+        });
+    }
+
+    /**
+     * Discards every feed, so that the next lookups reload them from the database.
+     */
+    public void invalidate() {
+        update(latest, snapshot -> Snapshot.unloaded());
+        latestByCategory.values().forEach(feed -> update(feed, snapshot -> Snapshot.unloaded()));
+    }
+
+    /**
+     * Retrieves the feed of a scope, creating an unloaded one if needed.
+     *
+     * @param categoryId The ID of the category, or null for every category
+     * @return The feed of the scope
+     */
+    private AtomicReference<Snapshot> feed(UUID categoryId) {
+        return categoryId == null
+                ? latest
+                : latestByCategory.computeIfAbsent(categoryId, id -> new AtomicReference<>(Snapshot.unloaded()));
+    }
+
+    /**
+     * Replaces the snapshot of a feed, retrying until no other writer replaced it meanwhile. The snapshot is always
+     * replaced by a new instance, even when the change leaves it as is or when it is not loaded, so that any load
+     * started before the change is discarded.
+     *
+     * @param feed   The feed to update
+     * @param change The change to apply to a loaded snapshot
+     */
+    private static void update(AtomicReference<Snapshot> feed, UnaryOperator<Snapshot> change) {
+        Snapshot current;
+        Snapshot next;
+
+        do {
+            current = feed.get();
+            next = current.isLoaded() ? change.apply(current) : Snapshot.unloaded();
+        } while (!feed.compareAndSet(current, next));
+    }
+
+    /**
+     * Compares two post IDs as unsigned 128-bit numbers, like PostgreSQL orders UUIDs.
+     *
+     * @param first  The first post
+     * @param second The second post
+     * @return A negative number, zero or a positive number as the first ID is lower than, equal to or greater than the
+     * second one
+     */
+    private static int compareIds(Post first, Post second) {
+        final int high = Long.compareUnsigned(first.getId().getMostSignificantBits(), second.getId().getMostSignificantBits());
+
+        return high != 0 ? high : Long.compareUnsigned(first.getId().getLeastSignificantBits(), second.getId().getLeastSignificantBits());
+    }
+
+    /**
+     * <p>
+     * Immutable snapshot of the newest posts of a scope, or an unloaded marker when the posts are null.
+     * </p>
+     *
+     * @param posts      The newest posts of the scope, ordered from the newest to the oldest
+     * @param exhaustive Whether the posts are all the posts of the scope
+     */
+    private record Snapshot(List<Post> posts, boolean exhaustive) {
+
+        /**
+         * Creates a new unloaded marker. Each marker is a distinct instance, so that a load started before a write
+         * cannot replace the marker published by the write.
+         *
+         * @return A new unloaded marker
+         */
+        static Snapshot unloaded() {
+            return new Snapshot(null, false);
+        }
+
+        /**
+         * Creates a loaded snapshot of the newest posts of a scope.
+         *
+         * @param posts    The newest posts of the scope, ordered from the newest to the oldest
+         * @param capacity The number of posts which were requested
+         * @return The loaded snapshot, exhaustive if fewer posts than requested were found
+         */
+        static Snapshot of(List<Post> posts, int capacity) {
+            return new Snapshot(posts.stream().map(Post::copy).toList(), posts.size() < capacity);
+        }
+
+        /**
+         * Checks whether the snapshot holds the posts.
+         *
+         * @return true if the snapshot is loaded, false otherwise
+         */
+        boolean isLoaded() {
+            return posts != null;
+        }
+
+        /**
+         * Creates a snapshot holding a created or updated post. A post which was not held is only added if it is
+         * newer than the oldest held post, or if the snapshot is exhaustive, since older posts may be missing.
+         * Posts without creation date never appear in the pages, so they are removed.
+         *
+         * @param post     The created or updated post
+         * @param capacity The maximum number of posts held
+         * @return The new snapshot
+         */
+        Snapshot with(Post post, int capacity) {
+            final List<Post> kept = new ArrayList<>(posts.size() + 1);
+            boolean held = false;
+
+            for (Post existing : posts) {
+                if (existing.getId().equals(post.getId())) {
+                    held = true;
+                } else {
+                    kept.add(existing);
+                }
+            }
+
+            if (post.getCreatedDate() == null) {
+                return new Snapshot(List.copyOf(kept), exhaustive);
+            }
+
+            if (!held && !exhaustive && (kept.isEmpty() || NEWEST_FIRST.compare(post, kept.get(kept.size() - 1)) > 0)) {
+                return new Snapshot(List.copyOf(kept), false);
+            }
+
+            final int index = Collections.binarySearch(kept, post, NEWEST_FIRST);
+
+            kept.add(index < 0 ? -index - 1 : index, post);
+
+            if (kept.size() > capacity) {
+                return new Snapshot(List.copyOf(kept.subList(0, capacity)), false);
+            }
+
+            return new Snapshot(List.copyOf(kept), exhaustive);
+        }
+
+        /**
+         * Creates a snapshot without a deleted post.
+         *
+         * @param id The ID of the deleted post
+         * @return The new snapshot
+         */
+        Snapshot without(UUID id) {
+            return new Snapshot(posts.stream().filter(post -> !post.getId().equals(id)).toList(), exhaustive);
+        }
+
+        /**
+         * Creates a snapshot whose posts of a renamed category hold its new name.
+         *
+         * @param category The renamed category
+         * @return The new snapshot
+         */
+        Snapshot withCategory(Category category) {
+            return new Snapshot(posts.stream()
+                    .map(post -> {
+                        if (post.getCategory() == null || !post.getCategory().getId().equals(category.getId())) {
+                            return post;
+                        }
+
+                        final Post renamed = post.copy();
+                        renamed.setCategory(new Category(category.getId(), category.getName()));
+
+                        return renamed;
+                    })
+                    .toList(), exhaustive);
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.dauphine.blogger.cache;
+
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.services.PostService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Component loading the feed of all categories of the {@link LatestPostsFeed} once the application is ready.
+ * </p>
+ *
+ * <p>
+ * The first page of the feed is requested once, which loads the feed from the database. The feeds of the categories
+ * are not loaded here, so that the startup does not run a query per category: each is loaded by its first request.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class LatestPostsFeedInitializer {
+
+    /**
+     * The logger object to log the load.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LatestPostsFeedInitializer.class);
+
+    /**
+     * Service whose first page loads the feed.
+     */
+    private final PostService postService;
+
+    /**
+     * Feed to load.
+     */
+    private final LatestPostsFeed latestPostsFeed;
+
+    /**
+     * Constructs a new LatestPostsFeedInitializer with the specified service and feed.
+     *
+     * @param postService     Service whose first page loads the feed
+     * @param latestPostsFeed Feed to load
+     */
+    public LatestPostsFeedInitializer(PostService postService, LatestPostsFeed latestPostsFeed) {
+        this.postService = postService;
+        this.latestPostsFeed = latestPostsFeed;
+    }
+
+    /**
+     * Loads the feed of all categories.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        final long start = System.currentTimeMillis();
+
+        postService.getPosts(PostCursor.START, latestPostsFeed.getCapacity());
+
+        logger.info("Latest posts feed loaded in {} ms", System.currentTimeMillis() - start);
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.dauphine.blogger.cache;
+
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.search.TextNormalizer;
+import com.dauphine.blogger.transactions.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * In-process cache of the results of the unpaginated topic searches, keyed by the topic folded by
+ * {@link TextNormalizer}.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by the total weight of its results, each post weighing the number of characters of its title
+ * and content, and evicts with the W-TinyLFU policy of Caffeine, which keeps the few hot topics of a traffic peak
+ * while rejecting one-off searches.
+ * </p>
+ *
+ * <p>
+ * Entries are tagged with the version of the posts they were loaded at. Writers must call {@link #invalidate()} after
+ * their change, which bumps the version and also bumps it again when the surrounding transaction completes; since a
+ * lookup only reads the entries of the current version, a result loaded before a committed write is never served
+ * after it. Cached posts are never handed out: each lookup returns copies, so that callers may modify them freely.
+ * </p>
+ *
+ * <p>
+ * Lookups and evictions are published under the {@value #CACHE_NAME} cache name by {@link CaffeineCacheMetrics}, and
+ * the hit ratio in the {@value #HIT_RATIO_METRIC} metric.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class TopicSearchCache {
+
+    /**
+     * Name of the cache in the {@code cache.*} metrics.
+     */
+    public static final String CACHE_NAME = "topicSearch";
+
+    /**
+     * Name of the metric holding the ratio of the lookups served from memory.
+     */
+    public static final String HIT_RATIO_METRIC = "blogger.search.topic-cache.hit-ratio";
+
+    /**
+     * The cached results, keyed by folded topic and version.
+     */
+    private final Cache<Key, List<Post>> results;
+
+    /**
+     * Version of the posts, bumped on each write.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Constructs a new TopicSearchCache.
+     *
+     * @param maxWeight     Maximum total number of characters of the titles and contents of the cached posts
+     * @param meterRegistry Registry of the lookup, eviction and hit ratio metrics
+     */
+    public TopicSearchCache(@Value("${blogger.search.topic-cache.max-weight:5000000}") long maxWeight,
+                            MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(TopicSearchCache::weigh)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+
+        Gauge.builder(HIT_RATIO_METRIC, results, cache -> cache.stats().hitRate())
+                .description("Ratio of the topic searches served from memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves the posts matching a topic, loading and caching them on a miss.
+     * The version is read before loading, so that a result racing with a write is cached under the version it may
+     * predate, which is never read again.
+     *
+     * @param topic  The topic of the posts to retrieve
+     * @param loader Function loading the posts matching a topic from the database
+     * @return Copies of the posts matching the topic
+     */
+    public List<Post> get(String topic, Function<String, List<Post>> loader) {
+        final Key key = new Key(TextNormalizer.normalize(topic), version.get());
+        final List<Post> cached = results.getIfPresent(key);
+
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        final List<Post> loaded = loader.apply(topic);
+
+        results.put(key, copy(loaded));
+
+        return loaded;
+    }
+
+    /**
+     * Bumps the version of the posts and discards the cached results, so that the next lookups reload them.
+     * Within a transaction, the version is bumped again once it completes, since a lookup made before the commit may
+     * have cached the previous state.
+     */
+    public void invalidate() {
+        bump();
+        AfterCommit.onCompletion(this::bump);
+    }
+
+    /**
+     * Bumps the version of the posts and discards the results of the previous versions, which can no longer be read.
+     */
+    private void bump() {
+        version.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    /**
+     * Computes the weight of a cached result.
+     *
+     * @param key   The key of the result
+     * @param posts The posts of the result
+     * @return The number of characters of the topic and of the titles and contents of the posts, at least 1
+     */
+    private static int weigh(Key key, List<Post> posts) {
+        long weight = key.topic().length();
+
+        for (Post post : posts) {
+            weight += 1 + length(post.getTitle()) + length(post.getContent());
+        }
+
+        return (int) Math.min(Math.max(weight, 1), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the length of a possibly null text.
+     *
+     * @param text The text
+     * @return The length of the text, 0 if it is null
+     */
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    /**
+     * Copies a list of posts along with their categories.
+     *
+     * @param posts The posts to copy
+     * @return A new immutable list of copies of the posts
+     */
+    private static List<Post> copy(List<Post> posts) {
+        return posts.stream()
+                .map(Post::copy)
+                .toList();
+    }
+
+    /**
+     * <p>
+     * Key of a cached result.
+     * </p>
+     *
+     * @param topic   The topic folded by {@link TextNormalizer}
+     * @param version The version of the posts the result was loaded at
+     */
+    private record Key(String topic, long version) {
+    }
+
+}
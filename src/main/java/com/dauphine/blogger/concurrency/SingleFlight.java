@@ -0,0 +1,169 @@
+package com.dauphine.blogger.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * Coalesces identical concurrent calls, so that they share a single execution and its outcome.
+ * </p>
+ *
+ * <p>
+ * The first caller of a key runs the call, and every caller arriving with the same key while it is in flight waits
+ * for it and receives the same result, or the same exception. The key is forgotten as soon as the call completes, so
+ * that a later caller runs its own call: under a burst of identical requests, the database is queried once per key
+ * for each duration of the query. A caller may thus receive the result of a call started just before it arrived.
+ * </p>
+ *
+ * <p>
+ * Results are shared between the callers and must not be modified. Callers running within a transaction always run
+ * their own call, so that writers read their own changes and are never handed an entity of another persistence
+ * context.
+ * </p>
+ *
+ * <p>
+ * Calls are counted in the {@value #CALLS_METRIC} metric, tagged with {@code result=executed} or
+ * {@code result=shared}.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class SingleFlight {
+
+    /**
+     * Name of the metric counting the calls.
+     */
+    public static final String CALLS_METRIC = "blogger.single-flight.calls";
+
+    /**
+     * The calls in flight, keyed by their key.
+     */
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Counter of the calls which ran their own execution.
+     */
+    private final Counter executed;
+
+    /**
+     * Counter of the calls which shared the execution of an identical call in flight.
+     */
+    private final Counter shared;
+
+    /**
+     * Constructs a new SingleFlight.
+     *
+     * @param meterRegistry Registry of the executed and shared calls metrics
+     */
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.executed = Counter.builder(CALLS_METRIC)
+                .description("Coalesced calls")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.shared = Counter.builder(CALLS_METRIC)
+                .description("Coalesced calls")
+                .tag("result", "shared")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the key of a call from its parts, typically the name of the called method followed by its arguments.
+     * The parts must implement {@link Object#equals(Object)} and {@link Object#hashCode()}, and may be null.
+     *
+     * @param parts The parts of the key
+     * @return The key
+     */
+    public static Object key(Object... parts) {
+        return Arrays.asList(parts.clone());
+    }
+
+    /**
+     * Runs a call, or waits for the identical call in flight and returns its outcome.
+     *
+     * @param key  The key identifying identical calls, see {@link #key(Object...)}
+     * @param call The call to run
+     * @param <T>  The type of the result
+     * @param <E>  The type of the checked exception thrown by the call
+     * @return The result of the call
+     * @throws E if the call throws it
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T execute(Object key, Call<T, E> call) throws E {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            executed.increment();
+
+            return call.call();
+        }
+
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+
+        if (leader != null) {
+            shared.increment();
+
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+
+                throw (E) cause;
+            }
+        }
+
+        executed.increment();
+
+        try {
+            final T result = call.call();
+
+            flight.complete(result);
+
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * <p>
+     * Call which may be coalesced.
+     * </p>
+     *
+     * @param <T> The type of the result
+     * @param <E> The type of the checked exception thrown by the call
+     */
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+
+        /**
+         * Runs the call.
+         *
+         * @return The result of the call
+         * @throws E if the call fails
+         */
+        T call() throws E;
+
+    }
+
+}
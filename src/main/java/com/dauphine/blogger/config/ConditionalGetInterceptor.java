@@ -0,0 +1,81 @@
+package com.dauphine.blogger.config;
+
+import com.dauphine.blogger.cache.ChangeStamps;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * <p>
+ * Interceptor answering the conditional reads of a collection from its change stamp, before the handler runs.
+ * </p>
+ *
+ * <p>
+ * GET and HEAD requests are tagged with the entity tag and the last change time of the collection, and asked to be
+ * revalidated on every use. When the {@code If-None-Match} or the {@code If-Modified-Since} header of the request
+ * shows the client already holds the current collection, the request is answered with {@code 304 Not Modified}
+ * without calling the handler, so that no query is run and nothing is serialized. Other requests are left as is.
+ * </p>
+ *
+ * <p>
+ * The last change time is only sent once its second has elapsed, since a later change within the same second would
+ * share it: until then, the requests are only validated by their entity tag.
+ * </p>
+ *
+ * <p>
+ * The interceptor is registered by {@link WebConfig} on the paths of the listings of each collection.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /**
+     * Stamps of the collections.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * The collection read by the intercepted requests.
+     */
+    private final ChangeStamps.Scope scope;
+
+    /**
+     * Constructs a new ConditionalGetInterceptor.
+     *
+     * @param changeStamps The stamps of the collections
+     * @param scope        The collection read by the intercepted requests
+     */
+    public ConditionalGetInterceptor(ChangeStamps changeStamps, ChangeStamps.Scope scope) {
+        this.changeStamps = changeStamps;
+        this.scope = scope;
+    }
+
+    /**
+     * Answers a conditional read with {@code 304 Not Modified} if the collection did not change since the client read
+     * it, and tags the response with the stamp of the collection otherwise.
+     *
+     * @param request  The request
+     * @param response The response
+     * @param handler  The handler of the request
+     * @return false if the request was answered, true if the handler must run
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        final ChangeStamps.Stamp stamp = changeStamps.get(scope);
+        final long lastModified = changeStamps.isSettled(stamp) ? stamp.lastModified().toEpochMilli() : -1;
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+
+        return !new ServletWebRequest(request, response).checkNotModified(stamp.eTag(), lastModified);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.dauphine.blogger.config;
+
+import com.dauphine.blogger.ids.IdGenerator;
+import com.dauphine.blogger.ids.IdGenerators;
+import com.dauphine.blogger.ids.RandomIdGenerator;
+import com.dauphine.blogger.ids.TimeOrderedIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * <p>
+ * ID generation configuration class for the Blogger application.
+ * </p>
+ *
+ * <p>
+ * This class installs the generator of the IDs of new posts and categories selected by the
+ * {@code blogger.ids.generator} property: {@code time-ordered} for version 7 UUIDs, the default, or {@code random}
+ * for version 4 UUIDs.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Constructs a new IdGeneratorConfig and installs the selected generator.
+     *
+     * @param generator The name of the generator
+     */
+    public IdGeneratorConfig(@Value("${blogger.ids.generator:time-ordered}") String generator) {
+        IdGenerators.use(create(generator));
+    }
+
+    /**
+     * Creates the generator with the specified name.
+     *
+     * @param generator The name of the generator
+     * @return The generator
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static IdGenerator create(String generator) {
+        return switch (generator) {
+            case "time-ordered" -> new TimeOrderedIdGenerator();
+            case "random" -> new RandomIdGenerator();
+            default -> throw new IllegalArgumentException("Unknown ID generator " + generator);
+        };
+    }
+
+}
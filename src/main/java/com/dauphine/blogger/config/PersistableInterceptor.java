@@ -0,0 +1,40 @@
+package com.dauphine.blogger.config;
+
+import org.hibernate.Interceptor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * <p>
+ * Hibernate interceptor telling Hibernate whether an entity is transient from its {@link Persistable#isNew()} flag.
+ * </p>
+ *
+ * <p>
+ * Entities with assigned IDs carry no hint Hibernate could use to tell a new instance from a detached one, so without
+ * this interceptor it looks the row up in the database, for instance when a new post references a category taken
+ * from the cache. Entities which do not implement {@link Persistable} keep the default behavior.
+ * </p>
+ *
+ * <p>
+ * The interceptor is registered through the {@code hibernate.session_factory.interceptor} property.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class PersistableInterceptor implements Interceptor {
+
+    /**
+     * Checks whether an entity is transient.
+     *
+     * @param entity The entity
+     * @return true if the entity is new, false if it was persisted or loaded, or null to let Hibernate decide
+     */
+    @Override
+    public Boolean isTransient(Object entity) {
+        if (entity instanceof Persistable<?> persistable) {
+            return persistable.isNew();
+        }
+
+        return null;
+    }
+
+}
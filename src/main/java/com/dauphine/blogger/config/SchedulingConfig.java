@@ -0,0 +1,21 @@
+package com.dauphine.blogger.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * <p>
+ * Scheduling configuration class for the Blogger application.
+ * </p>
+ *
+ * <p>
+ * This class enables the scheduled background tasks, such as the periodic flush and merge of the post search index
+ * segments.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
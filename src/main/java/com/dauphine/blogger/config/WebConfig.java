@@ -1,10 +1,21 @@
 package com.dauphine.blogger.config;
 
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.controllers.Pagination;
+import com.dauphine.blogger.streaming.TransferFormat;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 /**
  * <p>
  * Web configuration class for the Blogger application.
@@ -19,11 +30,23 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * </p>
  *
  * <p>
+ * It also configures the asynchronous request processing used by streamed responses, which run on the application
+ * task executor and may take longer than regular requests.
+ * </p>
+ *
+ * <p>
+ * The listings of the posts and categories answer conditional requests from the change stamps of their collection,
+ * through a {@link ConditionalGetInterceptor} registered on their paths.
+ * </p>
+ *
+ * <p>
  * The configuration is enabled using the {@link EnableWebMvc} annotation.
  * </p>
  *
  * <p>
  * The CORS settings are applied to all endpoints (/**) and allow requests from "<a href="http://localhost:4200">...</a>".
+ * The pagination cursor header is exposed so that browser clients can request the following pages, and the
+ * validators so that they can send conditional requests.
  * </p>
  *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
@@ -32,6 +55,32 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
+    /**
+     * Maximum duration of an asynchronous request, such as a streamed response.
+     */
+    private static final Duration ASYNC_REQUEST_TIMEOUT = Duration.ofMinutes(10);
+
+    /**
+     * Executor running the asynchronous requests.
+     */
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    /**
+     * Stamps of the collections, validating the conditional requests.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * Constructs a new WebConfig with the specified executor and change stamps.
+     *
+     * @param applicationTaskExecutor the executor running the asynchronous requests
+     * @param changeStamps            the stamps of the collections, validating the conditional requests
+     */
+    public WebConfig(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor, ChangeStamps changeStamps) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.changeStamps = changeStamps;
+    }
+
     /**
      * Configures CORS mappings for the application.
      *
@@ -39,7 +88,44 @@ public class WebConfig implements WebMvcConfigurer {
      */
     @Override
     public void addCorsMappings(CorsRegistry registry) {
-        registry.addMapping("/**").allowedOrigins("*").allowedMethods("*");
+        registry.addMapping("/**").allowedOrigins("*").allowedMethods("*")
+                .exposedHeaders(Pagination.NEXT_CURSOR_HEADER, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+    }
+
+    /**
+     * Registers the interceptors answering the conditional reads of the post and category listings.
+     * The posts of a category belong to the post collection, which changes along with the categories. A single
+     * category is tagged with its own version by its endpoint instead.
+     *
+     * @param registry the {@link InterceptorRegistry} to configure
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(changeStamps, ChangeStamps.Scope.POSTS))
+                .addPathPatterns("/v1/posts", "/v1/posts/**", "/v1/categories/*/posts", "/v1/categories/*/posts/**");
+        registry.addInterceptor(new ConditionalGetInterceptor(changeStamps, ChangeStamps.Scope.CATEGORIES))
+                .addPathPatterns("/v1/categories");
+    }
+
+    /**
+     * Configures asynchronous request processing for the application.
+     *
+     * @param configurer the {@link AsyncSupportConfigurer} to configure
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(applicationTaskExecutor)
+                .setDefaultTimeout(ASYNC_REQUEST_TIMEOUT.toMillis());
+    }
+
+    /**
+     * Registers the converters of request parameters, such as the case-insensitive transfer format.
+     *
+     * @param registry the {@link FormatterRegistry} to configure
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TransferFormat.class, TransferFormat::fromName);
     }
 
 }
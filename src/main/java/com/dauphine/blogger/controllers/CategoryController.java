@@ -1,18 +1,26 @@
 package com.dauphine.blogger.controllers;
 
 import com.dauphine.blogger.dto.CategoryRequest;
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Category;
 import com.dauphine.blogger.models.Post;
 import com.dauphine.blogger.services.CategoryService;
 import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.streaming.JsonArrayStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
@@ -50,16 +58,23 @@ public class CategoryController {
      */
     private final PostService postService;
 
+    /**
+     * Writer for streamed JSON responses
+     */
+    private final JsonArrayStreamWriter jsonArrayStreamWriter;
+
     /**
      * Constructor for the CategoryController class.
-     * Initializes the CategoryController with the specified CategoryService and PostService.
+     * Initializes the CategoryController with the specified CategoryService, PostService and JsonArrayStreamWriter.
      *
-     * @param categoryService The CategoryService to be used by the controller
-     * @param postService     The PostService to be used by the controller
+     * @param categoryService       The CategoryService to be used by the controller
+     * @param postService           The PostService to be used by the controller
+     * @param jsonArrayStreamWriter The JsonArrayStreamWriter to be used for streamed responses
      */
-    public CategoryController(CategoryService categoryService, PostService postService) {
+    public CategoryController(CategoryService categoryService, PostService postService, JsonArrayStreamWriter jsonArrayStreamWriter) {
         this.categoryService = categoryService;
         this.postService = postService;
+        this.jsonArrayStreamWriter = jsonArrayStreamWriter;
     }
 
     /**
@@ -87,6 +102,8 @@ public class CategoryController {
 
     /**
      * Endpoint for retrieving a category by ID.
+     * The category is returned with its entity tag, to be sent back in the {@code If-Match} header of an update, and
+     * a request whose {@code If-None-Match} header holds that tag is answered with {@code 304 Not Modified}.
      *
      * @param id the ID of the category to retrieve
      * @return response containing the category with the specified ID
@@ -104,7 +121,7 @@ public class CategoryController {
     public ResponseEntity<Category> getCategory(@PathVariable UUID id) throws CategoryNotFoundByIdException {
         final Category category = categoryService.getCategory(id);
 
-        return ResponseEntity.ok(category);
+        return EntityTags.tag(ResponseEntity.ok(), category.getVersion()).body(category);
     }
 
     /**
@@ -121,22 +138,27 @@ public class CategoryController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Category created successfully"),
-            @ApiResponse(responseCode = "400", description = "Bad request")
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "409", description = "Category name already taken")
     })
     public ResponseEntity<Category> postCategory(@RequestBody CategoryRequest categoryRequest) throws CategoryAlreadyExistsException {
         final Category category = categoryService.createCategory(categoryRequest.getName());
 
-        return ResponseEntity.created(URI.create("v1/categories/" + category.getId())).body(category);
+        return EntityTags.tag(ResponseEntity.created(URI.create("v1/categories/" + category.getId())), category.getVersion()).body(category);
     }
 
     /**
      * Endpoint for updating the name of a category.
+     * When an {@code If-Match} header is sent, the category is only renamed if it is still at the version of that
+     * tag, and the renamed category is returned with its new tag.
      *
      * @param id              the ID of the category to update
      * @param categoryRequest the request body containing updated category details
+     * @param ifMatch         (optional) the entity tag of the version the client read
      * @return response indicating the success or failure of the operation and the updated category
      * @throws CategoryNotFoundByIdException  if the category with the specified ID is not found
      * @throws CategoryAlreadyExistsException if a category with the same name already exists
+     * @throws StaleVersionException          if the category was modified since the version of the tag
      */
     @PutMapping("/{id}")
     @Operation(
@@ -146,12 +168,15 @@ public class CategoryController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Category updated successfully"),
             @ApiResponse(responseCode = "400", description = "Bad request"),
-            @ApiResponse(responseCode = "404", description = "Category not found")
+            @ApiResponse(responseCode = "404", description = "Category not found"),
+            @ApiResponse(responseCode = "409", description = "Category name already taken"),
+            @ApiResponse(responseCode = "412", description = "Category modified since the version of the If-Match tag")
     })
-    public ResponseEntity<Category> putCategoryName(@PathVariable UUID id, @RequestBody CategoryRequest categoryRequest) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
-        final Category category = categoryService.updateCategoryName(id, categoryRequest.getName());
+    public ResponseEntity<Category> putCategoryName(@PathVariable UUID id, @RequestBody CategoryRequest categoryRequest,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException {
+        final Category category = categoryService.updateCategoryName(id, categoryRequest.getName(), EntityTags.resolveIfMatch(ifMatch));
 
-        return ResponseEntity.ok(category);
+        return EntityTags.tag(ResponseEntity.ok(), category.getVersion()).body(category);
     }
 
     /**
@@ -180,24 +205,98 @@ public class CategoryController {
 
     /**
      * Endpoint for retrieving all posts belonging to a specific category.
+     * When a limit or a cursor is given, posts are paginated from the newest to the oldest and the cursor of the
+     * following page is returned in the {@value Pagination#NEXT_CURSOR_HEADER} header.
      *
-     * @param id the ID of the category
+     * @param id     the ID of the category
+     * @param limit  (optional) the maximum number of posts to return
+     * @param cursor (optional) the cursor of the page to return, as returned by a previous page
      * @return response containing a list of all posts belonging to the specified category
      * @throws CategoryNotFoundByIdException if the category with the specified ID is not found
+     * @throws InvalidPageRequestException   if the limit or the cursor is invalid
      */
     @GetMapping("/{id}/posts")
     @Operation(
             summary = "Retrieve all posts for a category",
-            description = "Endpoint for retrieving all posts belonging to a specific category"
+            description = "Endpoint for retrieving all posts belonging to a specific category, optionally paginated with a limit and a cursor"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved posts for the category"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
             @ApiResponse(responseCode = "404", description = "Category not found")
     })
-    public ResponseEntity<List<Post>> getPostsForCategory(@PathVariable UUID id) throws CategoryNotFoundByIdException {
+    public ResponseEntity<List<Post>> getPostsForCategory(@PathVariable UUID id,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String cursor) throws CategoryNotFoundByIdException, InvalidPageRequestException {
+        if (Pagination.isPaginated(limit, cursor)) {
+            final int pageSize = Pagination.resolveLimit(limit);
+            final PostCursor after = Pagination.resolveCursor(cursor);
+
+            return Pagination.page(postService.getPostsByCategoryId(id, after, pageSize), pageSize);
+        }
+
         final List<Post> posts = postService.getPostsByCategoryId(id);
 
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Endpoint for retrieving the summaries of all posts belonging to a specific category, selected with
+     * {@code view=summary}. Summaries hold an excerpt of the content instead of the whole content, which is never
+     * read from the database. Pagination works as for the full view.
+     *
+     * @param id     the ID of the category
+     * @param limit  (optional) the maximum number of summaries to return
+     * @param cursor (optional) the cursor of the page to return, as returned by a previous page
+     * @return response containing a list of the summaries of all posts belonging to the specified category
+     * @throws InvalidPageRequestException if the limit or the cursor is invalid
+     */
+    @GetMapping(value = "/{id}/posts", params = "view=summary")
+    @Operation(
+            summary = "Retrieve the summaries of all posts for a category",
+            description = "Endpoint for retrieving the ID, title, creation date, category and content excerpt of all posts belonging to a specific category, optionally paginated with a limit and a cursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved post summaries for the category"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<List<PostSummary>> getPostSummariesForCategory(@PathVariable UUID id,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(required = false) String cursor) throws InvalidPageRequestException {
+        if (Pagination.isPaginated(limit, cursor)) {
+            final int pageSize = Pagination.resolveLimit(limit);
+            final PostCursor after = Pagination.resolveCursor(cursor);
+
+            return Pagination.summaryPage(postService.getPostSummariesByCategoryId(id, after, pageSize), pageSize);
+        }
+
+        final List<PostSummary> summaries = postService.getPostSummariesByCategoryId(id);
+
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * Endpoint for streaming all posts belonging to a specific category.
+     * Posts are written to the response one at a time as they are read from the database, so the memory used
+     * does not depend on the number of posts.
+     *
+     * @param id the ID of the category
+     * @return response streaming a JSON array of all posts belonging to the specified category
+     */
+    @GetMapping("/{id}/posts/stream")
+    @Operation(
+            summary = "Stream all posts for a category",
+            description = "Endpoint for streaming all posts belonging to a specific category with constant memory usage"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed posts for the category")
+    })
+    public ResponseEntity<StreamingResponseBody> streamPostsForCategory(@PathVariable UUID id) {
+        final StreamingResponseBody body = jsonArrayStreamWriter.<Post>writeArray(action -> postService.forEachPostByCategoryId(id, action));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
 }
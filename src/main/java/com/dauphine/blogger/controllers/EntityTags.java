@@ -0,0 +1,81 @@
+package com.dauphine.blogger.controllers;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * <p>
+ * Helper class shared by the controllers serving versioned posts and categories.
+ * </p>
+ *
+ * <p>
+ * The entity tag of a post or a category is its version, quoted, and sent in the {@code ETag} response header when the
+ * version is known. A client updates the entity only if it was not modified since it read it by sending that tag
+ * back in the {@code If-Match} request header; an update sent without that header applies to any version.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public final class EntityTags {
+
+    /**
+     * Version expected by an {@code If-Match} header which cannot match any entity, such as a weak tag, a list of
+     * tags or a malformed one. Versions start at 0, so no entity is ever at this version.
+     */
+    public static final long NO_MATCH = -1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private EntityTags() {
+    }
+
+    /**
+     * Builds the entity tag of a version.
+     *
+     * @param version the version of the entity
+     * @return the quoted entity tag
+     */
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Tags a response with the entity tag of a version, if it is known.
+     *
+     * @param response the response to tag
+     * @param version  (optional) the version of the returned entity
+     * @return the response, tagged if the version is known
+     */
+    public static ResponseEntity.BodyBuilder tag(ResponseEntity.BodyBuilder response, Long version) {
+        return version != null ? response.eTag(of(version)) : response;
+    }
+
+    /**
+     * Resolves the version an update expects from its {@code If-Match} header.
+     * Weak tags never match, as {@code If-Match} compares tags strongly.
+     *
+     * @param ifMatch (optional) the {@code If-Match} header sent by the client
+     * @return the expected version, null if the client sent no header or {@code *} to update any version, or
+     * {@value #NO_MATCH} if the header cannot match any version
+     */
+    public static Long resolveIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        final String tag = ifMatch.trim();
+
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_MATCH;
+        }
+
+        try {
+            final long version = Long.parseLong(tag.substring(1, tag.length() - 1));
+
+            return version >= 0 ? version : NO_MATCH;
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.dauphine.blogger.controllers;
+
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostSummary;
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
+import com.dauphine.blogger.models.Post;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Helper class shared by the controllers serving paginated lists of posts.
+ * </p>
+ *
+ * <p>
+ * A list endpoint is paginated as soon as the client sends a {@code limit} or a {@code cursor} request parameter.
+ * Pages are ordered from the newest to the oldest post, and the cursor of the following page is returned in the
+ * {@value #NEXT_CURSOR_HEADER} response header when more posts may be available.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public final class Pagination {
+
+    /**
+     * Name of the response header holding the cursor of the following page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Number of posts per page when the client sends a cursor without a limit.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Maximum number of posts a client can request in a single page.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Pagination() {
+    }
+
+    /**
+     * Checks whether a request asks for a paginated response.
+     *
+     * @param limit  (optional) the requested page size
+     * @param cursor (optional) the requested cursor
+     * @return true if at least one pagination parameter is present, false otherwise
+     */
+    public static boolean isPaginated(Integer limit, String cursor) {
+        return limit != null || cursor != null;
+    }
+
+    /**
+     * Resolves the page size of a request.
+     *
+     * @param limit (optional) the requested page size
+     * @return the page size to use
+     * @throws InvalidPageRequestException if the requested page size is not between 1 and {@value #MAX_LIMIT}
+     */
+    public static int resolveLimit(Integer limit) throws InvalidPageRequestException {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidPageRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return limit;
+    }
+
+    /**
+     * Resolves the cursor of a request.
+     *
+     * @param cursor (optional) the opaque cursor sent by the client
+     * @return the decoded cursor, or {@link PostCursor#START} when no cursor is sent
+     * @throws InvalidPageRequestException if the cursor is malformed
+     */
+    public static PostCursor resolveCursor(String cursor) throws InvalidPageRequestException {
+        return cursor == null || cursor.isBlank() ? PostCursor.START : PostCursor.decode(cursor);
+    }
+
+    /**
+     * Builds the response of a page of posts.
+     * The next cursor header is only set when the page is full, meaning more posts may follow.
+     *
+     * @param posts the posts of the page
+     * @param limit the requested page size
+     * @return response containing the page and, if any, the cursor of the following page
+     */
+    public static ResponseEntity<List<Post>> page(List<Post> posts, int limit) {
+        return page(posts, limit, PostCursor::after);
+    }
+
+    /**
+     * Builds the response of a page of post summaries.
+     * The next cursor header is only set when the page is full, meaning more posts may follow.
+     *
+     * @param summaries the post summaries of the page
+     * @param limit     the requested page size
+     * @return response containing the page and, if any, the cursor of the following page
+     */
+    public static ResponseEntity<List<PostSummary>> summaryPage(List<PostSummary> summaries, int limit) {
+        return page(summaries, limit, PostCursor::after);
+    }
+
+    /**
+     * Builds the response of a page of items.
+     *
+     * @param items    the items of the page
+     * @param limit    the requested page size
+     * @param cursorOf function returning the cursor pointing right after an item
+     * @param <T>      the type of the items
+     * @return response containing the page and, if any, the cursor of the following page
+     */
+    private static <T> ResponseEntity<List<T>> page(List<T> items, int limit, Function<T, PostCursor> cursorOf) {
+        if (items.size() < limit) {
+            return ResponseEntity.ok(items);
+        }
+
+        final PostCursor next = cursorOf.apply(items.get(items.size() - 1));
+
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, next.encode())
+                .body(items);
+    }
+
+}
@@ -1,16 +1,26 @@
 package com.dauphine.blogger.controllers;
 
+import com.dauphine.blogger.dto.FacetedPosts;
+import com.dauphine.blogger.dto.PostBatchResult;
+import com.dauphine.blogger.dto.PostCursor;
 import com.dauphine.blogger.dto.PostRequest;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
 import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Post;
 import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.streaming.JsonArrayStreamWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
@@ -42,32 +52,57 @@ public class PostController {
      */
     private final PostService postService;
 
+    /**
+     * Writer for streamed JSON responses
+     */
+    private final JsonArrayStreamWriter jsonArrayStreamWriter;
+
     /**
      * Constructor for the PostController class.
-     * Initializes the PostController with the specified PostService.
+     * Initializes the PostController with the specified PostService and JsonArrayStreamWriter.
      *
-     * @param postService The PostService to be used by the controller
+     * @param postService           The PostService to be used by the controller
+     * @param jsonArrayStreamWriter The JsonArrayStreamWriter to be used for streamed responses
      */
-    public PostController(PostService postService) {
+    public PostController(PostService postService, JsonArrayStreamWriter jsonArrayStreamWriter) {
         this.postService = postService;
+        this.jsonArrayStreamWriter = jsonArrayStreamWriter;
     }
 
     /**
      * Endpoint for retrieving all posts ordered by creation date.
+     * When a limit or a cursor is given, posts are paginated from the newest to the oldest and the cursor of the
+     * following page is returned in the {@value Pagination#NEXT_CURSOR_HEADER} header.
      *
-     * @param topic (optional) the topic to filter by
+     * @param topic  (optional) the topic to filter by
+     * @param limit  (optional) the maximum number of posts to return
+     * @param cursor (optional) the cursor of the page to return, as returned by a previous page
      * @return response containing a list of all posts ordered by creation date or filtered by topic
+     * @throws InvalidPageRequestException if the limit or the cursor is invalid
      */
     @GetMapping()
     @Operation(
             summary = "Retrieve all posts ordered by creation date",
-            description = "Endpoint for retrieving all posts ordered by creation date"
+            description = "Endpoint for retrieving all posts ordered by creation date, optionally paginated with a limit and a cursor"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation"),
             @ApiResponse(responseCode = "400", description = "Bad request")
     })
-    public ResponseEntity<List<Post>> getPosts(@RequestParam(required = false) String topic) {
+    public ResponseEntity<List<Post>> getPosts(@RequestParam(required = false) String topic,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String cursor) throws InvalidPageRequestException {
+        if (Pagination.isPaginated(limit, cursor)) {
+            final int pageSize = Pagination.resolveLimit(limit);
+            final PostCursor after = Pagination.resolveCursor(cursor);
+
+            final List<Post> page = topic != null
+                    ? postService.getPostsByTopic(topic, after, pageSize)
+                    : postService.getPosts(after, pageSize);
+
+            return Pagination.page(page, pageSize);
+        }
+
         List<Post> posts;
 
         if (topic != null) {
@@ -79,6 +114,99 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Endpoint for retrieving the summaries of all posts ordered by creation date, selected with {@code view=summary}.
+     * Summaries hold an excerpt of the content instead of the whole content, which is never read from the database.
+     * Pagination works as for the full view.
+     *
+     * @param topic  (optional) the topic to filter by
+     * @param limit  (optional) the maximum number of summaries to return
+     * @param cursor (optional) the cursor of the page to return, as returned by a previous page
+     * @return response containing a list of the summaries of all posts ordered by creation date or filtered by topic
+     * @throws InvalidPageRequestException if the limit or the cursor is invalid
+     */
+    @GetMapping(params = "view=summary")
+    @Operation(
+            summary = "Retrieve the summaries of all posts ordered by creation date",
+            description = "Endpoint for retrieving the ID, title, creation date, category and content excerpt of all posts, optionally paginated with a limit and a cursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<List<PostSummary>> getPostSummaries(@RequestParam(required = false) String topic,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              @RequestParam(required = false) String cursor) throws InvalidPageRequestException {
+        if (Pagination.isPaginated(limit, cursor)) {
+            final int pageSize = Pagination.resolveLimit(limit);
+            final PostCursor after = Pagination.resolveCursor(cursor);
+
+            final List<PostSummary> page = topic != null
+                    ? postService.getPostSummariesByTopic(topic, after, pageSize)
+                    : postService.getPostSummaries(after, pageSize);
+
+            return Pagination.summaryPage(page, pageSize);
+        }
+
+        final List<PostSummary> summaries = topic != null
+                ? postService.getPostSummariesByTopic(topic)
+                : postService.getPostSummaries();
+
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * Endpoint for retrieving the posts matching a topic, optionally restricted to a category, selected with
+     * {@code facets=true}.
+     * The response holds the matching posts ordered by creation date and the number of posts matching the topic in
+     * each category, whatever the requested category, so that the categories can be offered as filters. Without
+     * {@code facets=true}, topic searches keep being served as plain lists, paginated or not.
+     *
+     * @param topic      the topic to filter by
+     * @param categoryId (optional) the ID of the category to filter by, every category if empty
+     * @return response containing the posts matching the topic and their count by category
+     */
+    @GetMapping(params = {"topic", "facets=true", "!view"})
+    @Operation(
+            summary = "Retrieve the posts matching a topic with their count by category",
+            description = "Endpoint for retrieving the posts matching every word of a topic, optionally in a single category, along with the number of matching posts of each category"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<FacetedPosts> getFacetedPosts(@RequestParam String topic,
+                                                        @RequestParam(required = false) UUID categoryId) {
+        return ResponseEntity.ok(postService.getFacetedPostsByTopic(topic, categoryId));
+    }
+
+    /**
+     * Endpoint for streaming all posts ordered by creation date.
+     * Posts are written to the response one at a time as they are read from the database, so the memory used
+     * does not depend on the number of posts.
+     *
+     * @param topic (optional) the topic to filter by
+     * @return response streaming a JSON array of all posts ordered by creation date or filtered by topic
+     */
+    @GetMapping("/stream")
+    @Operation(
+            summary = "Stream all posts ordered by creation date",
+            description = "Endpoint for streaming all posts ordered by creation date with constant memory usage"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<StreamingResponseBody> streamPosts(@RequestParam(required = false) String topic) {
+        final StreamingResponseBody body = topic != null
+                ? jsonArrayStreamWriter.<Post>writeArray(action -> postService.forEachPostByTopic(topic, action))
+                : jsonArrayStreamWriter.writeArray(postService::forEachPost);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Endpoint for creating a new post.
      *
@@ -98,17 +226,44 @@ public class PostController {
     public ResponseEntity<Post> postPost(@RequestBody PostRequest postRequest) throws CategoryNotFoundByIdException {
         final Post post = postService.createPost(postRequest.getTitle(), postRequest.getContent(), postRequest.getCategoryId());
 
-        return ResponseEntity.created(URI.create("/v1/posts/" + post.getId())).body(post);
+        return EntityTags.tag(ResponseEntity.created(URI.create("/v1/posts/" + post.getId())), post.getVersion()).body(post);
+    }
+
+    /**
+     * Endpoint for creating several posts at once.
+     * All posts are created in a single transaction and inserted with JDBC batches. Items referencing a missing
+     * category are rejected without failing the others.
+     *
+     * @param postRequests the request body containing the details of the posts to create
+     * @return response containing the outcome of each item, in request order
+     */
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Create several posts",
+            description = "Endpoint for creating several posts in a single transaction, returning the outcome of each item"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the outcome of each item"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<List<PostBatchResult>> postPosts(@RequestBody List<PostRequest> postRequests) {
+        final List<PostBatchResult> results = postService.createPosts(postRequests);
+
+        return ResponseEntity.ok(results);
     }
 
     /**
      * Endpoint for updating an existing post.
+     * When an {@code If-Match} header is sent, the post is only updated if it is still at the version of that tag,
+     * and the updated post is returned with its new tag.
      *
      * @param id          the ID of the post to be updated
      * @param postRequest the request body containing updated post details
+     * @param ifMatch     (optional) the entity tag of the version the client read
      * @return response indicating the success or failure of the operation and the updated post
      * @throws CategoryNotFoundByIdException if the specified category ID does not exist
      * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     * @throws StaleVersionException         if the post was modified since the version of the tag
      */
     @PutMapping("/{id}")
     @Operation(
@@ -118,12 +273,15 @@ public class PostController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Post updated successfully"),
             @ApiResponse(responseCode = "400", description = "Bad request"),
-            @ApiResponse(responseCode = "404", description = "Not found")
+            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "409", description = "Concurrent update"),
+            @ApiResponse(responseCode = "412", description = "Post modified since the version of the If-Match tag")
     })
-    public ResponseEntity<Post> putPost(@PathVariable UUID id, @RequestBody PostRequest postRequest) throws CategoryNotFoundByIdException, PostNotFoundByIdException {
-        final Post post = postService.update(id, postRequest.getTitle(), postRequest.getContent(), postRequest.getCategoryId());
+    public ResponseEntity<Post> putPost(@PathVariable UUID id, @RequestBody PostRequest postRequest,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
+        final Post post = postService.update(id, postRequest.getTitle(), postRequest.getContent(), postRequest.getCategoryId(), EntityTags.resolveIfMatch(ifMatch));
 
-        return ResponseEntity.ok(post);
+        return EntityTags.tag(ResponseEntity.ok(), post.getVersion()).body(post);
     }
 
     /**
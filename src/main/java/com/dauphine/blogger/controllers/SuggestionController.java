@@ -0,0 +1,75 @@
+package com.dauphine.blogger.controllers;
+
+import com.dauphine.blogger.dto.Suggestion;
+import com.dauphine.blogger.services.SuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Controller class containing the autocomplete endpoint.
+ * </p>
+ *
+ * <p>
+ * This controller completes the prefixes typed by the clients with the names of the categories and the titles of
+ * the posts, served from memory so that it can be called on every keystroke.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@RestController
+@RequestMapping("/v1/suggest")
+@Tag(
+        name = "Suggestions API",
+        description = "Endpoint for completing category names and post titles"
+)
+public class SuggestionController {
+
+    /**
+     * Service for completing prefixes
+     */
+    private final SuggestionService suggestionService;
+
+    /**
+     * Constructor for the SuggestionController class.
+     * Initializes the SuggestionController with the specified SuggestionService.
+     *
+     * @param suggestionService The SuggestionService to be used by the controller
+     */
+    public SuggestionController(SuggestionService suggestionService) {
+        this.suggestionService = suggestionService;
+    }
+
+    /**
+     * Endpoint for completing a prefix with category names and post titles.
+     *
+     * @param prefix the prefix to complete, ignoring case and accents
+     * @param limit  (optional) the maximum number of suggestions to return
+     * @return response containing the most popular categories, then the most recent posts, starting with the prefix
+     */
+    @GetMapping()
+    @Operation(
+            summary = "Complete a prefix",
+            description = "Endpoint for retrieving the category names and post titles starting with a prefix, the most popular categories first, then the most recent posts"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<List<Suggestion>> getSuggestions(@RequestParam String prefix,
+                                                           @RequestParam(required = false) Integer limit) {
+        final List<Suggestion> suggestions = suggestionService.getSuggestions(prefix, limit);
+
+        return ResponseEntity.ok(suggestions);
+    }
+
+}
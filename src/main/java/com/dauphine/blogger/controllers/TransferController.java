@@ -0,0 +1,155 @@
+package com.dauphine.blogger.controllers;
+
+import com.dauphine.blogger.dto.TransferRecord;
+import com.dauphine.blogger.dto.TransferResult;
+import com.dauphine.blogger.exceptions.InvalidTransferException;
+import com.dauphine.blogger.services.TransferService;
+import com.dauphine.blogger.streaming.TransferCodec;
+import com.dauphine.blogger.streaming.TransferFormat;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * <p>
+ * Controller class containing endpoints for copying the whole blog corpus between environments.
+ * </p>
+ *
+ * <p>
+ * This controller provides an endpoint to export all categories and posts, and an endpoint to import them back.
+ * Both endpoints exchange gzip-compressed NDJSON or CSV files and process them one record at a time.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@RestController
+@RequestMapping("/v1")
+@Tag(
+        name = "Transfer API",
+        description = "Endpoints for exporting and importing the blog corpus"
+)
+public class TransferController {
+
+    /**
+     * Media type of the exported and imported files.
+     */
+    public static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    /**
+     * Service for exporting and importing the corpus
+     */
+    private final TransferService transferService;
+
+    /**
+     * Codec for reading and writing transfer records
+     */
+    private final TransferCodec transferCodec;
+
+    /**
+     * Constructor for the TransferController class.
+     * Initializes the TransferController with the specified TransferService and TransferCodec.
+     *
+     * @param transferService The TransferService to be used by the controller
+     * @param transferCodec   The TransferCodec to be used by the controller
+     */
+    public TransferController(TransferService transferService, TransferCodec transferCodec) {
+        this.transferService = transferService;
+        this.transferCodec = transferCodec;
+    }
+
+    /**
+     * Endpoint for exporting all categories and posts.
+     *
+     * @param format (optional) the format of the export, NDJSON by default
+     * @return response streaming the gzip-compressed export
+     */
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export all categories and posts",
+            description = "Endpoint for streaming all categories and posts as gzip-compressed NDJSON or CSV"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation"),
+            @ApiResponse(responseCode = "400", description = "Bad request")
+    })
+    public ResponseEntity<StreamingResponseBody> exportAll(@RequestParam(defaultValue = "ndjson") TransferFormat format) {
+        final StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = transferCodec.openWriter(new GZIPOutputStream(outputStream), format)) {
+                transferService.exportAll(record -> {
+                    try {
+                        writer.write(record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        final ContentDisposition contentDisposition = ContentDisposition.attachment()
+                .filename("blogger-box-export." + format.getExtension() + ".gz")
+                .build();
+
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .body(body);
+    }
+
+    /**
+     * Endpoint for importing categories and posts.
+     * Existing categories and posts are updated, missing ones are created. A record breaking a constraint, such as a
+     * category name already taken by another category or a post referencing an unknown category, rolls back its
+     * batch and is answered with a 409 status code; the batches committed before it are kept.
+     *
+     * @param format      (optional) the format of the import, NDJSON by default
+     * @param inputStream the gzip-compressed request body
+     * @return response containing the number of imported categories and posts
+     * @throws InvalidTransferException if the request body is not a valid gzip-compressed file in the requested format
+     * @throws IOException              if the request body cannot be read
+     */
+    @PostMapping("/import")
+    @Operation(
+            summary = "Import categories and posts",
+            description = "Endpoint for importing categories and posts from gzip-compressed NDJSON or CSV"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import completed successfully"),
+            @ApiResponse(responseCode = "400", description = "Bad request"),
+            @ApiResponse(responseCode = "409", description = "Constraint violation, such as a duplicate category name or an unknown category")
+    })
+    public ResponseEntity<TransferResult> importAll(@RequestParam(defaultValue = "ndjson") TransferFormat format, InputStream inputStream) throws InvalidTransferException, IOException {
+        final InputStream decompressed;
+
+        try {
+            decompressed = new GZIPInputStream(inputStream);
+        } catch (ZipException | EOFException e) {
+            throw new InvalidTransferException("request body is not gzip-compressed");
+        }
+
+        try (MappingIterator<TransferRecord> records = transferCodec.openReader(decompressed, format)) {
+            final TransferResult result = transferService.importAll(records);
+
+            return ResponseEntity.ok(result);
+        }
+    }
+
+}
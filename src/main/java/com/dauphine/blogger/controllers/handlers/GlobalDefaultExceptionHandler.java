@@ -2,11 +2,18 @@ package com.dauphine.blogger.controllers.handlers;
 
 import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
+import com.dauphine.blogger.exceptions.InvalidTransferException;
 import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import org.apache.coyote.Response;
+import org.hibernate.exception.ConstraintViolationException;
 import org.postgresql.util.PSQLException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -20,7 +27,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  *
  * <p>
  * This class is annotated with {@link ControllerAdvice}, indicating that it serves as an exception handler for
- * controllers. It handles exceptions of type {@link CategoryAlreadyExistsException} and {@link PostNotFoundByIdException}.
+ * controllers. It handles exceptions of type {@link CategoryAlreadyExistsException} and {@link PostNotFoundByIdException},
+ * the version conflicts of the updates: {@link StaleVersionException} when the client read an outdated version,
+ * and {@link OptimisticLockingFailureException} when another update was committed concurrently, and the
+ * {@link DataIntegrityViolationException} and {@link ConstraintViolationException} raised when a write breaks a
+ * constraint of the database.
  * </p>
  *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
@@ -50,13 +61,13 @@ public class GlobalDefaultExceptionHandler {
     }
 
     /**
-     * Exception handler for CategoryAlreadyExistsException.
+     * Exception handler for InvalidPageRequestException and InvalidTransferException.
      * Logs the warning message and returns a ResponseEntity with a 400 status code.
      *
      * @param e The exception to handle
      * @return ResponseEntity containing the status code and error message
      */
-    @ExceptionHandler(CategoryAlreadyExistsException.class)
+    @ExceptionHandler({InvalidPageRequestException.class, InvalidTransferException.class})
     public ResponseEntity<String> handleBadRequestException(Exception e) {
         logger.warn("[BAD REQUEST] {}", e.getMessage());
 
@@ -66,13 +77,46 @@ public class GlobalDefaultExceptionHandler {
     }
 
     /**
-     * Exception handler for PSQLException.
+     * Exception handler for StaleVersionException.
+     * Logs the warning message and returns a ResponseEntity with a 412 status code.
+     *
+     * @param e The exception to handle
+     * @return ResponseEntity containing the status code and error message
+     */
+    @ExceptionHandler(StaleVersionException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(Exception e) {
+        logger.warn("[PRECONDITION FAILED] {}", e.getMessage());
+
+        return ResponseEntity
+                .status(412)
+                .body(e.getMessage());
+    }
+
+    /**
+     * Exception handler for OptimisticLockingFailureException, thrown when an entity was updated concurrently between
+     * the time it was read and the time it was written.
+     * Logs the warning message and returns a ResponseEntity with a 409 status code.
+     *
+     * @param e The exception to handle
+     * @return ResponseEntity containing the status code and error message
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentUpdateException(Exception e) {
+        logger.warn("[CONFLICT] {}", e.getMessage());
+
+        return ResponseEntity
+                .status(409)
+                .body("The entity was updated concurrently, read it again before retrying!");
+    }
+
+    /**
+     * Exception handler for CategoryAlreadyExistsException and PSQLException.
      * Logs the warning message and returns a ResponseEntity with a 409 status code.
      *
      * @param e The exception to handle
      * @return ResponseEntity containing the status code and error message
      */
-    @ExceptionHandler(PSQLException.class)
+    @ExceptionHandler({CategoryAlreadyExistsException.class, PSQLException.class})
     public ResponseEntity<String> handleConflictException(Exception e) {
         logger.warn("[CONFLICT] {}", e.getMessage());
 
@@ -81,4 +125,25 @@ public class GlobalDefaultExceptionHandler {
                 .body(e.getMessage());
     }
 
+    /**
+     * Exception handler for DataIntegrityViolationException and ConstraintViolationException, thrown when a write
+     * breaks a unique or foreign key constraint, such as a category name taken by a concurrent write, a category
+     * deleted while it still holds posts, or an imported post referencing an unknown category. Writes flushed through
+     * the entity manager, like the imports, raise the exception of Hibernate, which Spring only translates for the
+     * repositories.
+     * Logs the cause of the violation and returns a ResponseEntity with a 409 status code, without exposing the
+     * statement to the client.
+     *
+     * @param e The exception to handle
+     * @return ResponseEntity containing the status code and error message
+     */
+    @ExceptionHandler({DataIntegrityViolationException.class, ConstraintViolationException.class})
+    public ResponseEntity<String> handleDataIntegrityViolationException(Exception e) {
+        logger.warn("[CONFLICT] {}", NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+
+        return ResponseEntity
+                .status(409)
+                .body("The request conflicts with the stored data!");
+    }
+
 }
@@ -0,0 +1,59 @@
+package com.dauphine.blogger.dto;
+
+import com.dauphine.blogger.models.Post;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Represents the result of a faceted topic search.
+ * This class holds the matching posts, optionally restricted to a category, and the number of matching posts of
+ * every category, whatever the requested category.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class FacetedPosts {
+
+    /**
+     * The matching posts, ordered by creation date.
+     */
+    private final List<Post> posts;
+
+    /**
+     * The number of matching posts of each category holding any, keyed by category ID.
+     */
+    private final Map<UUID, Integer> categoryCounts;
+
+    /**
+     * Constructs a new FacetedPosts with the specified values.
+     *
+     * @param posts          The matching posts, ordered by creation date
+     * @param categoryCounts The number of matching posts of each category holding any, keyed by category ID
+     */
+    public FacetedPosts(List<Post> posts, Map<UUID, Integer> categoryCounts) {
+        this.posts = posts;
+        this.categoryCounts = categoryCounts;
+    }
+
+    /**
+     * Retrieves the matching posts.
+     *
+     * @return The matching posts, ordered by creation date
+     */
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    /**
+     * Retrieves the number of matching posts of each category.
+     *
+     * @return The number of matching posts of each category holding any, keyed by category ID
+     */
+    public Map<UUID, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.dauphine.blogger.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Represents the outcome of one item of a batch post creation.
+ * This class holds the position of the item in the request, whether the post was created, and either the ID of the
+ * created post or the reason why it was rejected.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostBatchResult {
+
+    /**
+     * Possible outcomes of an item.
+     */
+    public enum Status {
+
+        /**
+         * The post was created.
+         */
+        CREATED,
+
+        /**
+         * The post was not created because its category does not exist.
+         */
+        CATEGORY_NOT_FOUND
+
+    }
+
+    /**
+     * The position of the item in the request, starting at 0.
+     */
+    private final int index;
+
+    /**
+     * The outcome of the item.
+     */
+    private final Status status;
+
+    /**
+     * The ID of the created post, or null if the item was rejected.
+     */
+    private final UUID id;
+
+    /**
+     * The reason why the item was rejected, or null if the post was created.
+     */
+    private final String error;
+
+    /**
+     * Constructs a new PostBatchResult with the specified values.
+     *
+     * @param index  The position of the item in the request
+     * @param status The outcome of the item
+     * @param id     The ID of the created post, or null if the item was rejected
+     * @param error  The reason why the item was rejected, or null if the post was created
+     */
+    private PostBatchResult(int index, Status status, UUID id, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    /**
+     * Constructs the result of a created post.
+     *
+     * @param index The position of the item in the request
+     * @param id    The ID of the created post
+     * @return The result of the item
+     */
+    public static PostBatchResult created(int index, UUID id) {
+        return new PostBatchResult(index, Status.CREATED, id, null);
+    }
+
+    /**
+     * Constructs the result of a rejected item.
+     *
+     * @param index  The position of the item in the request
+     * @param status The reason why the item was rejected
+     * @param error  The message describing the rejection
+     * @return The result of the item
+     */
+    public static PostBatchResult rejected(int index, Status status, String error) {
+        return new PostBatchResult(index, status, null, error);
+    }
+
+    /**
+     * Retrieves the position of the item in the request.
+     *
+     * @return The position of the item in the request, starting at 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Retrieves the outcome of the item.
+     *
+     * @return The outcome of the item
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieves the ID of the created post.
+     *
+     * @return The ID of the created post, or null if the item was rejected
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the reason why the item was rejected.
+     *
+     * @return The reason why the item was rejected, or null if the post was created
+     */
+    public String getError() {
+        return error;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.dauphine.blogger.dto;
+
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
+import com.dauphine.blogger.models.Post;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Represents a position in a list of posts ordered from the newest to the oldest.
+ * A cursor is made of the creation date and the ID of the last post of a page, which together identify a unique
+ * position in the {@code (created_date, id)} ordering used by keyset pagination.
+ * </p>
+ *
+ * <p>
+ * Cursors are exchanged with clients as opaque URL-safe strings, see {@link #encode()} and {@link #decode(String)}.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class PostCursor {
+
+    /**
+     * The cursor positioned before the newest possible post, used to request the first page.
+     */
+    public static final PostCursor START = new PostCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    /**
+     * Separator between the creation date and the ID in the decoded cursor.
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * The creation date of the last post of the previous page.
+     */
+    private final LocalDateTime createdDate;
+
+    /**
+     * The ID of the last post of the previous page.
+     */
+    private final UUID id;
+
+    /**
+     * Constructs a new PostCursor with the specified creation date and ID.
+     *
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     */
+    public PostCursor(LocalDateTime createdDate, UUID id) {
+        this.createdDate = createdDate;
+        this.id = id;
+    }
+
+    /**
+     * Constructs the cursor pointing right after the specified post.
+     *
+     * @param post The last post of a page
+     * @return The cursor of the following page
+     */
+    public static PostCursor after(Post post) {
+        return new PostCursor(post.getCreatedDate(), post.getId());
+    }
+
+    /**
+     * Constructs the cursor pointing right after the specified post summary.
+     *
+     * @param summary The last post summary of a page
+     * @return The cursor of the following page
+     */
+    public static PostCursor after(PostSummary summary) {
+        return new PostCursor(summary.getCreatedDate(), summary.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param value The opaque cursor value
+     * @return The decoded cursor
+     * @throws InvalidPageRequestException if the value is not a valid cursor
+     */
+    public static PostCursor decode(String value) throws InvalidPageRequestException {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            final int separatorIndex = decoded.indexOf(SEPARATOR);
+
+            if (separatorIndex < 0) {
+                throw new InvalidPageRequestException("malformed cursor " + value);
+            }
+
+            return new PostCursor(
+                    LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    UUID.fromString(decoded.substring(separatorIndex + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPageRequestException("malformed cursor " + value);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe string.
+     *
+     * @return The encoded cursor
+     */
+    public String encode() {
+        final String decoded = createdDate + SEPARATOR + id;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retrieves the creation date of the last post of the previous page.
+     *
+     * @return The creation date of the cursor
+     */
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * Retrieves the ID of the last post of the previous page.
+     *
+     * @return The ID of the cursor
+     */
+    public UUID getId() {
+        return id;
+    }
+
+}
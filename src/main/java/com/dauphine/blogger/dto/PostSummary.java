@@ -0,0 +1,120 @@
+package com.dauphine.blogger.dto;
+
+import com.dauphine.blogger.models.Category;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Represents the summary view of a blog post, used by list endpoints when clients only render titles.
+ * This class holds the ID, title, creation date and category of a post, and an excerpt of its content.
+ * </p>
+ *
+ * <p>
+ * Summaries are built by constructor projections of the repository, which select the first
+ * {@value #EXCERPT_LENGTH} characters of the content instead of the whole column.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class PostSummary {
+
+    /**
+     * The maximum number of characters of the excerpt.
+     */
+    public static final int EXCERPT_LENGTH = 200;
+
+    /**
+     * The unique identifier of the post.
+     */
+    private final UUID id;
+
+    /**
+     * The title of the post.
+     */
+    private final String title;
+
+    /**
+     * The timestamp when the post was created.
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime createdDate;
+
+    /**
+     * The category to which the post belongs, serialized without its version like in the posts.
+     */
+    @JsonIgnoreProperties("version")
+    private final Category category;
+
+    /**
+     * The first characters of the content of the post.
+     */
+    private final String excerpt;
+
+    /**
+     * Constructs a new PostSummary with the specified values.
+     *
+     * @param id           The unique identifier of the post
+     * @param title        The title of the post
+     * @param createdDate  The timestamp when the post was created
+     * @param categoryId   The ID of the category of the post, or null if the post has no category
+     * @param categoryName The name of the category of the post
+     * @param excerpt      The first characters of the content of the post
+     */
+    public PostSummary(UUID id, String title, LocalDateTime createdDate, UUID categoryId, String categoryName, String excerpt) {
+        this.id = id;
+        this.title = title;
+        this.createdDate = createdDate;
+        this.category = categoryId != null ? new Category(categoryId, categoryName) : null;
+        this.excerpt = excerpt;
+    }
+
+    /**
+     * Retrieves the ID of the post.
+     *
+     * @return The ID of the post
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the title of the post.
+     *
+     * @return The title of the post
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Retrieves the creation date of the post.
+     *
+     * @return The creation date of the post
+     */
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * Retrieves the category of the post.
+     *
+     * @return The category of the post
+     */
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Retrieves the excerpt of the content of the post.
+     *
+     * @return The first characters of the content of the post
+     */
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+}
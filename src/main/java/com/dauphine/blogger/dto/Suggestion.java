@@ -0,0 +1,88 @@
+package com.dauphine.blogger.dto;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Represents a completion of a prefix typed by a client.
+ * This class holds the completed text, whether it is the name of a category or the title of a post, and the ID of
+ * that category or post.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class Suggestion {
+
+    /**
+     * Possible sources of a suggestion.
+     */
+    public enum Type {
+
+        /**
+         * The suggestion is the name of a category.
+         */
+        CATEGORY,
+
+        /**
+         * The suggestion is the title of a post.
+         */
+        POST
+
+    }
+
+    /**
+     * The completed text.
+     */
+    private final String text;
+
+    /**
+     * The source of the suggestion.
+     */
+    private final Type type;
+
+    /**
+     * The ID of the category or post the text belongs to.
+     */
+    private final UUID id;
+
+    /**
+     * Constructs a new Suggestion with the specified values.
+     *
+     * @param text The completed text
+     * @param type The source of the suggestion
+     * @param id   The ID of the category or post the text belongs to
+     */
+    public Suggestion(String text, Type type, UUID id) {
+        this.text = text;
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * Retrieves the completed text.
+     *
+     * @return The name of the category or the title of the post
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Retrieves the source of the suggestion.
+     *
+     * @return Whether the suggestion is the name of a category or the title of a post
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the ID of the category or post the text belongs to.
+     *
+     * @return The ID of the category or post
+     */
+    public UUID getId() {
+        return id;
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.dauphine.blogger.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Represents a single row of a bulk export or import of the blog corpus.
+ * A record either describes a category or a post, as indicated by its {@link #getType() type}; the fields that do
+ * not apply to its type are left empty.
+ * </p>
+ *
+ * <p>
+ * The same record is used for the NDJSON format, where each line is a JSON object, and for the CSV format,
+ * where each line holds the columns in the declared property order.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "id", "name", "title", "content", "createdDate", "categoryId"})
+public class TransferRecord {
+
+    /**
+     * Type of the records describing a category.
+     */
+    public static final String CATEGORY = "category";
+
+    /**
+     * Type of the records describing a post.
+     */
+    public static final String POST = "post";
+
+    /**
+     * The type of the record, either {@value #CATEGORY} or {@value #POST}.
+     */
+    private String type;
+
+    /**
+     * The ID of the category or post.
+     */
+    private UUID id;
+
+    /**
+     * The name of the category.
+     */
+    private String name;
+
+    /**
+     * The title of the post.
+     */
+    private String title;
+
+    /**
+     * The content of the post.
+     */
+    private String content;
+
+    /**
+     * The timestamp when the post was created.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private LocalDateTime createdDate;
+
+    /**
+     * The ID of the category to which the post belongs.
+     */
+    private UUID categoryId;
+
+    /**
+     * Default constructor.
+     */
+    public TransferRecord() {
+    }
+
+    /**
+     * Constructs a record describing a category.
+     *
+     * @param id   The ID of the category
+     * @param name The name of the category
+     */
+    public TransferRecord(UUID id, String name) {
+        this.type = CATEGORY;
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Constructs a record describing a post.
+     *
+     * @param id          The ID of the post
+     * @param title       The title of the post
+     * @param content     The content of the post
+     * @param createdDate The timestamp when the post was created
+     * @param categoryId  The ID of the category to which the post belongs
+     */
+    public TransferRecord(UUID id, String title, String content, LocalDateTime createdDate, UUID categoryId) {
+        this.type = POST;
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.createdDate = createdDate;
+        this.categoryId = categoryId;
+    }
+
+    /**
+     * Retrieves the type of the record.
+     *
+     * @return The type of the record
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type of the record.
+     *
+     * @param type The type of the record
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the ID of the category or post.
+     *
+     * @return The ID of the category or post
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the category or post.
+     *
+     * @param id The ID of the category or post
+     */
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    /**
+     * Retrieves the name of the category.
+     *
+     * @return The name of the category
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Sets the name of the category.
+     *
+     * @param name The name of the category
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Retrieves the title of the post.
+     *
+     * @return The title of the post
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title of the post.
+     *
+     * @param title The title of the post
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Retrieves the content of the post.
+     *
+     * @return The content of the post
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Sets the content of the post.
+     *
+     * @param content The content of the post
+     */
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    /**
+     * Retrieves the timestamp when the post was created.
+     *
+     * @return The timestamp of the post creation date
+     */
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * Sets the timestamp when the post was created.
+     *
+     * @param createdDate The timestamp of the post creation date
+     */
+    public void setCreatedDate(LocalDateTime createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    /**
+     * Retrieves the ID of the category to which the post belongs.
+     *
+     * @return The ID of the category
+     */
+    public UUID getCategoryId() {
+        return categoryId;
+    }
+
+    /**
+     * Sets the ID of the category to which the post belongs.
+     *
+     * @param categoryId The ID of the category
+     */
+    public void setCategoryId(UUID categoryId) {
+        this.categoryId = categoryId;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.dauphine.blogger.dto;
+
+/**
+ * <p>
+ * Represents the outcome of a bulk import of the blog corpus.
+ * This class holds the number of categories and posts written to the database.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TransferResult {
+
+    /**
+     * The number of imported categories.
+     */
+    private final long categories;
+
+    /**
+     * The number of imported posts.
+     */
+    private final long posts;
+
+    /**
+     * Constructs a new TransferResult with the specified counts.
+     *
+     * @param categories The number of imported categories
+     * @param posts      The number of imported posts
+     */
+    public TransferResult(long categories, long posts) {
+        this.categories = categories;
+        this.posts = posts;
+    }
+
+    /**
+     * Retrieves the number of imported categories.
+     *
+     * @return The number of imported categories
+     */
+    public long getCategories() {
+        return categories;
+    }
+
+    /**
+     * Retrieves the number of imported posts.
+     *
+     * @return The number of imported posts
+     */
+    public long getPosts() {
+        return posts;
+    }
+
+}
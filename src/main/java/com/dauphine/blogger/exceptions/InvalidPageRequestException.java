@@ -0,0 +1,27 @@
+package com.dauphine.blogger.exceptions;
+
+/**
+ * <p>
+ * Exception thrown when a paginated request carries an invalid limit or cursor.
+ * </p>
+ *
+ * <p>
+ * This exception is used to indicate that the client sent pagination parameters that cannot be honored,
+ * such as a non-positive limit or a cursor that was not produced by the server.
+ * It extends {@link Exception}, so it is an checked exception.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class InvalidPageRequestException extends Exception {
+
+    /**
+     * Constructs a new InvalidPageRequestException with the specified reason.
+     *
+     * @param reason The reason why the page request is invalid
+     */
+    public InvalidPageRequestException(String reason) {
+        super("Invalid page request: " + reason + "!");
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.dauphine.blogger.exceptions;
+
+/**
+ * <p>
+ * Exception thrown when a bulk import cannot be read.
+ * </p>
+ *
+ * <p>
+ * This exception is used to indicate that the imported data is not compressed as expected, cannot be parsed in the
+ * requested format, or contains a record that does not describe a category or a post.
+ * It extends {@link Exception}, so it is an checked exception.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class InvalidTransferException extends Exception {
+
+    /**
+     * Constructs a new InvalidTransferException with the specified reason.
+     *
+     * @param reason The reason why the imported data is invalid
+     */
+    public InvalidTransferException(String reason) {
+        super("Invalid import: " + reason + "!");
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.dauphine.blogger.exceptions;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Exception thrown when a post or a category is updated from a version which is no longer its current version.
+ * </p>
+ *
+ * <p>
+ * This exception is used to indicate that the entity was modified since the client read it, so that the update would
+ * overwrite changes the client has not seen.
+ * It extends {@link Exception}, so it is an checked exception.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class StaleVersionException extends Exception {
+
+    /**
+     * Constructs a new StaleVersionException with the specified entity type, ID and version.
+     *
+     * @param type    The type of the entity, such as "Post" or "Category"
+     * @param id      The ID of the entity
+     * @param version The version the client read
+     */
+    public StaleVersionException(String type, UUID id, long version) {
+        super(type + " with id " + id + " is no longer at version " + version + "!");
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.dauphine.blogger.ids;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Generator of the IDs assigned to new posts and categories.
+ * </p>
+ *
+ * <p>
+ * Implementations must be thread-safe and never return the same ID twice.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public interface IdGenerator {
+
+    /**
+     * Generates a new ID.
+     *
+     * @return A new ID
+     */
+    UUID next();
+
+}
@@ -0,0 +1,48 @@
+package com.dauphine.blogger.ids;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Holder of the ID generator used by the entity constructors.
+ * </p>
+ *
+ * <p>
+ * Entities are not Spring beans, so the generator selected by the {@code blogger.ids.generator} property is installed
+ * here at startup. Until then, and in tests which do not start the application, time-ordered IDs are generated.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public final class IdGenerators {
+
+    /**
+     * The current generator.
+     */
+    private static volatile IdGenerator generator = new TimeOrderedIdGenerator();
+
+    /**
+     * Private constructor, this class only has static members.
+     */
+    private IdGenerators() {
+    }
+
+    /**
+     * Generates a new ID with the current generator.
+     *
+     * @return A new ID
+     */
+    public static UUID next() {
+        return generator.next();
+    }
+
+    /**
+     * Replaces the current generator.
+     *
+     * @param generator The new generator
+     */
+    public static void use(IdGenerator generator) {
+        IdGenerators.generator = generator;
+    }
+
+}
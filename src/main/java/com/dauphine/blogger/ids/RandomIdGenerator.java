@@ -0,0 +1,29 @@
+package com.dauphine.blogger.ids;
+
+import java.util.UUID;
+
+/**
+ * <p>
+ * Generator of random version 4 UUIDs.
+ * </p>
+ *
+ * <p>
+ * Random IDs are spread over the whole key space, so consecutive inserts land on random pages of the primary key
+ * index. Kept for deployments which must not disclose the creation time of their rows through their IDs.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    /**
+     * Generates a new random UUID.
+     *
+     * @return A new version 4 UUID
+     */
+    @Override
+    public UUID next() {
+        return UUID.randomUUID();
+    }
+
+}
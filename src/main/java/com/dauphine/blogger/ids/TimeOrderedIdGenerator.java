@@ -0,0 +1,112 @@
+package com.dauphine.blogger.ids;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Generator of time-ordered version 7 UUIDs, as specified by RFC 9562.
+ * </p>
+ *
+ * <p>
+ * Each ID starts with the 48-bit Unix timestamp in milliseconds, followed by a 12-bit counter and 62 random bits.
+ * Consecutive IDs therefore sort in creation order, so inserts append to the right-most pages of the primary key
+ * index instead of splitting random pages, and recent rows stay together in the cache.
+ * </p>
+ *
+ * <p>
+ * IDs are strictly increasing for a given generator: the counter starts at a random value in the lower half of its
+ * range on each new millisecond and is incremented within the same millisecond. When it overflows, or when the clock
+ * goes backwards, the generator keeps using its last timestamp, advanced by one millisecond on overflow.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    /**
+     * Largest value of the counter.
+     */
+    private static final int MAX_COUNTER = 0xFFF;
+
+    /**
+     * Bits of the version and counter field holding the version.
+     */
+    private static final long VERSION_BITS = 0x7000L;
+
+    /**
+     * Bits of the least significant half holding the variant.
+     */
+    private static final long VARIANT_BITS = 0x8000000000000000L;
+
+    /**
+     * Mask of the random bits of the least significant half.
+     */
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    /**
+     * Clock providing the timestamps.
+     */
+    private final Clock clock;
+
+    /**
+     * Source of the counter seeds and random bits.
+     */
+    private final Random random;
+
+    /**
+     * The timestamp of the last generated ID.
+     */
+    private long timestamp = -1;
+
+    /**
+     * The counter of the last generated ID.
+     */
+    private int counter;
+
+    /**
+     * Constructs a new TimeOrderedIdGenerator using the system clock and a secure random source.
+     */
+    public TimeOrderedIdGenerator() {
+        this(Clock.systemUTC(), new SecureRandom());
+    }
+
+    /**
+     * Constructs a new TimeOrderedIdGenerator using the specified clock and random source.
+     *
+     * @param clock  Clock providing the timestamps
+     * @param random Source of the counter seeds and random bits
+     */
+    public TimeOrderedIdGenerator(Clock clock, Random random) {
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * Generates a new time-ordered UUID, greater than every UUID previously generated by this generator.
+     *
+     * @return A new version 7 UUID
+     */
+    @Override
+    public synchronized UUID next() {
+        final long now = clock.millis();
+
+        if (now > timestamp) {
+            timestamp = now;
+            counter = random.nextInt((MAX_COUNTER + 1) / 2);
+        } else if (counter < MAX_COUNTER) {
+            counter++;
+        } else {
+            timestamp++;
+            counter = 0;
+        }
+
+        final long mostSignificantBits = timestamp << 16 | VERSION_BITS | counter;
+        final long leastSignificantBits = VARIANT_BITS | random.nextLong() & RANDOM_MASK;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+}
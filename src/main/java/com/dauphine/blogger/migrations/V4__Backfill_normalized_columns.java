@@ -0,0 +1,85 @@
+package com.dauphine.blogger.migrations;
+
+import com.dauphine.blogger.search.TextNormalizer;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * <p>
+ * Migration filling the normalized columns added by the V3 migration for the existing categories and posts.
+ * </p>
+ *
+ * <p>
+ * The columns are folded by {@link TextNormalizer}, the same way the application writes them, which the database
+ * cannot reproduce exactly. Rows are read with a cursor and updated in batches, so that the migration never holds
+ * the whole table in memory.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class V4__Backfill_normalized_columns extends BaseJavaMigration {
+
+    /**
+     * Number of rows read per round trip and updated per batch.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Fills the normalized columns of the categories and posts.
+     *
+     * @param context The context of the migration, holding the connection of its transaction
+     * @throws SQLException if the rows cannot be read or updated
+     */
+    @Override
+    public void migrate(Context context) throws SQLException {
+        final Connection connection = context.getConnection();
+
+        backfill(connection, "SELECT id, name FROM category", "UPDATE category SET normalized_name = ? WHERE id = ?");
+        backfill(connection, "SELECT id, title, content FROM post", "UPDATE post SET normalized_title = ?, normalized_content = ? WHERE id = ?");
+    }
+
+    /**
+     * Folds the columns selected by a query and writes them back with an update statement.
+     *
+     * @param connection The connection of the migration
+     * @param select     The query selecting the ID, then the columns to fold
+     * @param update     The statement writing the folded columns, in the same order, then the ID
+     * @throws SQLException if the rows cannot be read or updated
+     */
+    private static void backfill(Connection connection, String select, String update) throws SQLException {
+        try (Statement query = connection.createStatement();
+             PreparedStatement statement = connection.prepareStatement(update)) {
+            query.setFetchSize(BATCH_SIZE);
+
+            try (ResultSet resultSet = query.executeQuery(select)) {
+                final int columns = resultSet.getMetaData().getColumnCount();
+                int pending = 0;
+
+                while (resultSet.next()) {
+                    for (int column = 2; column <= columns; column++) {
+                        statement.setString(column - 1, TextNormalizer.normalize(resultSet.getString(column)));
+                    }
+
+                    statement.setObject(columns, resultSet.getObject(1));
+                    statement.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+
+}
@@ -1,9 +1,11 @@
 package com.dauphine.blogger.models;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import com.dauphine.blogger.ids.IdGenerators;
+import com.dauphine.blogger.search.TextNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 import java.util.UUID;
 
@@ -13,11 +15,34 @@ import java.util.UUID;
  * This class encapsulates the properties of a blog category, including its unique identifier and name.
  * </p>
  *
+ * <p>
+ * The proxy properties are ignored so that a lazily loaded category can still be serialized.
+ * </p>
+ *
+ * <p>
+ * Categories created with a generated ID report themselves as new until they are persisted, so that saving them runs a
+ * single INSERT instead of merging them.
+ * </p>
+ *
+ * <p>
+ * The name is also stored folded by {@link TextNormalizer}, ignoring case and accents, in a column computed when the
+ * category is created and whenever it is written, which the name search compares instead of folding every row at
+ * query time.
+ * </p>
+ *
+ * <p>
+ * Categories are versioned: every update increments the version and only applies if the row is still at the version
+ * the category was read at, so that concurrent editors are detected without locking the row. The version is
+ * serialized like that of the posts, and also sent as the entity tag of the responses holding a single category.
+ * The categories embedded in posts omit it, since they are never updated through the posts.
+ * </p>
+ *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
  */
 @Entity
 @Table(name = "category")
-public class Category {
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Category implements Persistable<UUID> {
 
     /**
      * The unique identifier of the category.
@@ -27,11 +52,30 @@ public class Category {
     private UUID id;
 
     /**
-     * The name of the category.
+     * The name of the category, unique regardless of case.
      */
-    @Column(name = "name")
+    @Column(name = "name", unique = true)
     private String name;
 
+    /**
+     * The name of the category folded by {@link TextNormalizer}, searched instead of the name.
+     */
+    @Column(name = "normalized_name")
+    private String normalizedName;
+
+    /**
+     * The version of the category, incremented by every update.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    /**
+     * Whether the category was created by the application and has not been persisted yet.
+     */
+    @Transient
+    private boolean isNew;
+
     /**
      * Default constructor.
      * Initializes id and name to null.
@@ -53,12 +97,43 @@ public class Category {
     }
 
     /**
-     * Constructs a Category object with a random UUID and the specified name.
+     * Constructs a Category object with a generated ID and the specified name.
      *
      * @param name The name of the category
      */
     public Category(String name) {
-        this(UUID.randomUUID(), name);
+        this(IdGenerators.next(), name);
+        this.isNew = true;
+        normalize();
+    }
+
+    /**
+     * Checks whether the category has not been persisted yet.
+     *
+     * @return true if the category was created with a generated ID and has not been persisted yet, false otherwise
+     */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Marks the category as persisted once it has been inserted or loaded.
+     */
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * Folds the name into its normalized column before the category is inserted or updated.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        this.normalizedName = TextNormalizer.normalize(name);
     }
 
     /**
@@ -66,6 +141,7 @@ public class Category {
      *
      * @return The ID of the category
      */
+    @Override
     public UUID getId() {
         return id;
     }
@@ -97,4 +173,32 @@ public class Category {
         this.name = name;
     }
 
+    /**
+     * Retrieves the name of the category folded by {@link TextNormalizer}, as of its last write.
+     *
+     * @return The normalized name of the category
+     */
+    @JsonIgnore
+    public String getNormalizedName() {
+        return normalizedName;
+    }
+
+    /**
+     * Retrieves the version of the category.
+     *
+     * @return The version of the category, or null if it is unknown
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the category.
+     *
+     * @param version The version of the category
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 }
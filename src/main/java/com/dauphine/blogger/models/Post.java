@@ -1,7 +1,12 @@
 package com.dauphine.blogger.models;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.dauphine.blogger.ids.IdGenerators;
+import com.dauphine.blogger.search.TextNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -14,11 +19,34 @@ import java.util.UUID;
  * This class encapsulates information about a blog post, including its ID, title, content, creation date, and category.
  * </p>
  *
+ * <p>
+ * Posts created with a generated ID report themselves as new until they are persisted, so that saving them runs a single
+ * INSERT instead of merging them, which would first look for an existing row with the same ID.
+ * </p>
+ *
+ * <p>
+ * The title and the content are also stored folded by {@link TextNormalizer}, ignoring case and accents, in columns
+ * computed when the post is created and whenever it is written, which the keyword searches compare instead of folding
+ * every row at query time.
+ * </p>
+ *
+ * <p>
+ * The timestamp of the last write is kept along with the creation date, and set whenever the post is inserted or
+ * updated.
+ * </p>
+ *
+ * <p>
+ * Posts are versioned: every update increments the version and only applies if the row is still at the version the
+ * post was loaded at, so that concurrent editors are detected without locking the row. The version is serialized,
+ * so that a client listing the posts can update one of them conditionally, and also sent as the entity tag of the
+ * responses holding a single post.
+ * </p>
+ *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
  */
 @Entity
 @Table(name = "post")
-public class Post {
+public class Post implements Persistable<UUID> {
 
     /**
      * The unique identifier of the post.
@@ -39,6 +67,18 @@ public class Post {
     @Column(name = "content")
     private String content;
 
+    /**
+     * The title of the post folded by {@link TextNormalizer}, searched instead of the title.
+     */
+    @Column(name = "normalized_title")
+    private String normalizedTitle;
+
+    /**
+     * The content of the post folded by {@link TextNormalizer}, searched instead of the content.
+     */
+    @Column(name = "normalized_content")
+    private String normalizedContent;
+
     /**
      * The timestamp when the post was created.
      */
@@ -46,13 +86,36 @@ public class Post {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime createdDate;
 
+    /**
+     * The timestamp when the post was last written.
+     */
+    @Column(name = "updated_date")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedDate;
+
+    /**
+     * The version of the post, incremented by every update.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     /**
      * The category to which the post belongs.
+     * Loaded lazily, the repository queries fetch it together with the posts. Serialized without its version, which
+     * is only sent with the category itself.
      */
-    @ManyToOne
+    @JsonIgnoreProperties("version")
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
+    /**
+     * Whether the post was created by the application and has not been persisted yet.
+     */
+    @Transient
+    private boolean isNew;
+
     /**
      * Default constructor.
      * Initializes id, title, content, createdDate, and category to null.
@@ -79,7 +142,7 @@ public class Post {
     }
 
     /**
-     * Constructs a Post object with a random UUID, the specified title, content, and category.
+     * Constructs a Post object with a generated ID, the specified title, content, and category.
      * The created date will be set to the current system time.
      *
      * @param title    The title of the post
@@ -87,7 +150,47 @@ public class Post {
      * @param category The category to which the post belongs
      */
     public Post(String title, String content, Category category) {
-        this(UUID.randomUUID(), title, content, LocalDateTime.ofInstant(Instant.ofEpochMilli(System.currentTimeMillis()), ZoneId.systemDefault()), category);
+        this(IdGenerators.next(), title, content, LocalDateTime.ofInstant(Instant.ofEpochMilli(System.currentTimeMillis()), ZoneId.systemDefault()), category);
+        this.isNew = true;
+        normalize();
+    }
+
+    /**
+     * Checks whether the post has not been persisted yet.
+     *
+     * @return true if the post was created with a generated ID and has not been persisted yet, false otherwise
+     */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Marks the post as persisted once it has been inserted or loaded.
+     */
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * Folds the title and the content and stamps the write time before the post is inserted or updated.
+     */
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        normalize();
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    /**
+     * Folds the title and the content into their normalized columns.
+     */
+    void normalize() {
+        this.normalizedTitle = TextNormalizer.normalize(title);
+        this.normalizedContent = TextNormalizer.normalize(content);
     }
 
     /**
@@ -95,6 +198,7 @@ public class Post {
      *
      * @return The ID of the post
      */
+    @Override
     public UUID getId() {
         return id;
     }
@@ -144,6 +248,26 @@ public class Post {
         this.content = content;
     }
 
+    /**
+     * Retrieves the title of the post folded by {@link TextNormalizer}, as of its last write.
+     *
+     * @return The normalized title of the post
+     */
+    @JsonIgnore
+    public String getNormalizedTitle() {
+        return normalizedTitle;
+    }
+
+    /**
+     * Retrieves the content of the post folded by {@link TextNormalizer}, as of its last write.
+     *
+     * @return The normalized content of the post
+     */
+    @JsonIgnore
+    public String getNormalizedContent() {
+        return normalizedContent;
+    }
+
     /**
      * Retrieves the timestamp when the post was created.
      *
@@ -162,6 +286,42 @@ public class Post {
         this.createdDate = createdDate;
     }
 
+    /**
+     * Retrieves the timestamp when the post was last written.
+     *
+     * @return The timestamp of the last write of the post, or null if it was never persisted
+     */
+    public LocalDateTime getUpdatedDate() {
+        return updatedDate;
+    }
+
+    /**
+     * Sets the timestamp when the post was last written.
+     *
+     * @param updatedDate The timestamp of the last write of the post
+     */
+    public void setUpdatedDate(LocalDateTime updatedDate) {
+        this.updatedDate = updatedDate;
+    }
+
+    /**
+     * Retrieves the version of the post.
+     *
+     * @return The version of the post, or null if it was never persisted
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the post.
+     *
+     * @param version The version of the post
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * Retrieves the category to which the post belongs.
      *
@@ -180,4 +340,19 @@ public class Post {
         this.category = category;
     }
 
+    /**
+     * Copies the post along with its category, so that the copy can be kept or handed out without sharing the entity.
+     *
+     * @return A new post with the same ID, title, content, creation date, last write date, version and category
+     */
+    public Post copy() {
+        final Category category = getCategory();
+        final Post copy = new Post(getId(), getTitle(), getContent(), getCreatedDate(), category != null ? new Category(category.getId(), category.getName()) : null);
+
+        copy.setUpdatedDate(getUpdatedDate());
+        copy.setVersion(getVersion());
+
+        return copy;
+    }
+
 }
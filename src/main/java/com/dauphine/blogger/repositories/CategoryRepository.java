@@ -1,12 +1,20 @@
 package com.dauphine.blogger.repositories;
 
+import com.dauphine.blogger.dto.TransferRecord;
 import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.search.TextNormalizer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -14,29 +22,100 @@ import java.util.UUID;
  * This interface extends JpaRepository to provide CRUD operations for Category entities.
  * </p>
  *
+ * <p>
+ * Category names are unique regardless of case, which is enforced by a unique index on {@code UPPER(name)}: writes
+ * giving a category a name already taken fail with a {@link org.springframework.dao.DataIntegrityViolationException}.
+ * </p>
+ *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
  */
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
 
     /**
-     * Finds all categories by name, ignoring case.
+     * Finds all categories by name, ignoring case and accents.
      *
-     * @param name The name of the category (case-insensitive)
+     * @param name The name of the category, folded by {@link TextNormalizer}
      * @return A list of categories with names containing the specified name
      */
     @Query("""
                 SELECT c
                 FROM Category c
-                WHERE UPPER(c.name) LIKE UPPER(CONCAT('%', :name, '%'))
+                WHERE c.normalizedName LIKE CONCAT('%', :name, '%')
             """)
     List<Category> findAllByName(@Param("name") String name);
 
     /**
-     * Checks if a category with the specified name exists.
+     * Streams all categories as transfer records, without loading category entities.
+     * The stream must be consumed and closed within a transaction.
+     *
+     * @return A stream of transfer records describing all categories
+     */
+    @Query("""
+                SELECT new com.dauphine.blogger.dto.TransferRecord(c.id, c.name)
+                FROM Category c
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PostRepository.STREAM_FETCH_SIZE))
+    Stream<TransferRecord> streamTransferRecords();
+
+    /**
+     * Renames the category with the specified ID with a single statement, without loading it, and increments the
+     * version. Must be called within a transaction.
+     *
+     * @param id             The ID of the category
+     * @param name           The new name of the category
+     * @param normalizedName The new name of the category folded by {@link TextNormalizer}
+     * @return The number of updated categories, 0 if the category does not exist
+     */
+    @Modifying
+    @Query("""
+                UPDATE Category c
+                SET c.name = :name, c.normalizedName = :normalizedName, c.version = c.version + 1
+                WHERE c.id = :id
+            """)
+    int updateName(@Param("id") UUID id, @Param("name") String name, @Param("normalizedName") String normalizedName);
+
+    /**
+     * Retrieves the version of the category with the specified ID, without loading it.
+     *
+     * @param id The ID of the category
+     * @return The version of the category, or an empty optional if the category does not exist
+     */
+    @Query("""
+                SELECT c.version FROM Category c
+                WHERE c.id = :id
+            """)
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    /**
+     * Renames the category with the specified ID with a single statement, without loading it, only if it is still at
+     * the specified version. Must be called within a transaction.
      *
-     * @param name The name of the category
-     * @return true if a category with the specified name exists, false otherwise
+     * @param id             The ID of the category
+     * @param name           The new name of the category
+     * @param normalizedName The new name of the category folded by {@link TextNormalizer}
+     * @param version        The version the category must be at
+     * @return The number of updated categories, 0 if the category does not exist or is at another version
      */
-    boolean existsByName(String name);
+    @Modifying
+    @Query("""
+                UPDATE Category c
+                SET c.name = :name, c.normalizedName = :normalizedName, c.version = c.version + 1
+                WHERE c.id = :id AND c.version = :version
+            """)
+    int updateNameIfVersion(@Param("id") UUID id, @Param("name") String name, @Param("normalizedName") String normalizedName, @Param("version") long version);
+
+    /**
+     * Deletes the category with the specified ID with a single statement, without loading it.
+     * Must be called within a transaction.
+     *
+     * @param id The ID of the category
+     * @return The number of deleted categories, 0 if the category does not exist
+     */
+    @Modifying
+    @Query("""
+                DELETE FROM Category c
+                WHERE c.id = :id
+            """)
+    int deleteCategoryById(@Param("id") UUID id);
 
 }
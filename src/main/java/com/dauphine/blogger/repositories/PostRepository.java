@@ -1,12 +1,25 @@
 package com.dauphine.blogger.repositories;
 
+import com.dauphine.blogger.dto.PostSummary;
+import com.dauphine.blogger.dto.TransferRecord;
 import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.search.TextNormalizer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -14,20 +27,72 @@ import java.util.UUID;
  * This interface extends JpaRepository to provide CRUD operations for Post entities.
  * <p>
  *
+ * <p>
+ * The category of a post is a lazy association. Every query returning posts fetches it in the same statement, either
+ * with a {@code JOIN FETCH} or with an entity graph, so that loading a list of posts never issues one extra query
+ * per category.
+ * </p>
+ *
+ * <p>
+ * The summary queries return {@link PostSummary} projections, which never select the whole content of the posts.
+ * </p>
+ *
+ * <p>
+ * The keyword searches ignore case and accents by comparing the normalized title and content columns, written along
+ * with the post, to a keyword folded by {@link TextNormalizer} beforehand, so that the trigram indexes of these
+ * columns serve them. The full-text search is a native query over the generated {@code search_vector} column, which
+ * only exists in PostgreSQL.
+ * </p>
+ *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
  */
 public interface PostRepository extends JpaRepository<Post, UUID> {
 
     /**
-     * Finds posts by title or content containing a keyword, ignoring case.
+     * Number of rows fetched from the database per round trip by the streaming queries.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Select and from clauses of the summary queries, projecting each post to a {@link PostSummary} with an excerpt
+     * of {@value PostSummary#EXCERPT_LENGTH} characters instead of the whole content.
+     */
+    String SELECT_SUMMARY = "SELECT new com.dauphine.blogger.dto.PostSummary(p.id, p.title, p.createdDate, c.id, c.name, "
+            + "SUBSTRING(p.content, 1, " + PostSummary.EXCERPT_LENGTH + ")) FROM Post p LEFT JOIN p.category c ";
+
+    /**
+     * Finds a post by its ID, with its category.
+     *
+     * @param id The ID of the post
+     * @return The post with the specified ID, or an empty optional if it does not exist
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Post> findById(UUID id);
+
+    /**
+     * Finds posts by their IDs, with their categories.
      *
-     * @param keyword The keyword to search for in post titles or content (case-insensitive)
-     * @return A list of posts containing the specified keyword in their title or content
+     * @param ids The IDs of the posts
+     * @return The posts with the specified IDs
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Post> findAllById(Iterable<UUID> ids);
+
+    /**
+     * Finds posts by title or content containing a keyword, ordered by creation date like the posts found through the
+     * search index.
+     *
+     * @param keyword The keyword to search for in post titles or content, folded by {@link TextNormalizer}
+     * @return A list of posts containing the specified keyword in their title or content, ordered by creation date
      */
     @Query("""
                 SELECT p
                 FROM Post p
-                WHERE UPPER(p.title) LIKE UPPER(CONCAT('%', :keyword, '%')) OR UPPER(p.content) LIKE UPPER(CONCAT('%', :keyword, '%'))
+                LEFT JOIN FETCH p.category
+                WHERE p.normalizedTitle LIKE CONCAT('%', :keyword, '%') OR p.normalizedContent LIKE CONCAT('%', :keyword, '%')
+                ORDER BY p.createdDate NULLS FIRST
             """)
     List<Post> findByTitleOrContentContainingKeyword(@Param("keyword") String keyword);
 
@@ -36,6 +101,7 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      *
      * @return A list of all posts ordered by creation date
      */
+    @EntityGraph(attributePaths = "category")
     List<Post> findAllByOrderByCreatedDate();
 
     /**
@@ -44,6 +110,270 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
      * @param categoryId The ID of the category
      * @return A list of posts belonging to the specified category
      */
+    @EntityGraph(attributePaths = "category")
     List<Post> findAllByCategoryId(UUID categoryId);
 
+    /**
+     * Retrieves a page of posts created before the specified cursor, ordered from the newest to the oldest.
+     * The {@code (created_date, id)} pair is used as the keyset so that deep pages cost as much as the first one.
+     *
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     * @param limit       The maximum number of posts to return
+     * @return A list of at most {@code limit} posts following the cursor
+     */
+    @Query("""
+                SELECT p
+                FROM Post p
+                LEFT JOIN FETCH p.category
+                WHERE p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id)
+                ORDER BY p.createdDate DESC, p.id DESC
+            """)
+    List<Post> findPage(@Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Retrieves a page of posts containing a keyword created before the specified cursor, ordered from the newest
+     * to the oldest.
+     *
+     * @param keyword     The keyword to search for in post titles or content, folded by {@link TextNormalizer}
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     * @param limit       The maximum number of posts to return
+     * @return A list of at most {@code limit} matching posts following the cursor
+     */
+    @Query("""
+                SELECT p
+                FROM Post p
+                LEFT JOIN FETCH p.category
+                WHERE (p.normalizedTitle LIKE CONCAT('%', :keyword, '%') OR p.normalizedContent LIKE CONCAT('%', :keyword, '%'))
+                AND (p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id))
+                ORDER BY p.createdDate DESC, p.id DESC
+            """)
+    List<Post> findPageByTitleOrContentContainingKeyword(@Param("keyword") String keyword, @Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Finds the IDs of the posts matching every word of a query with the PostgreSQL full-text search, from the most
+     * to the least relevant. Matches in the title rank above matches in the content. Only the IDs are selected, the
+     * posts are then loaded with {@link #findAllById(Iterable)} along with their categories.
+     *
+     * @param query The words to search for in post titles or content, folded by {@link TextNormalizer}
+     * @param limit The maximum number of IDs to return
+     * @return A list of at most {@code limit} IDs of matching posts, ordered by relevance
+     */
+    @Query(value = """
+                SELECT p.id
+                FROM post p, plainto_tsquery('simple', :query) q
+                WHERE p.search_vector @@ q
+                ORDER BY ts_rank(p.search_vector, q) DESC, p.created_date DESC, p.id DESC
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findIdsByFullTextQuery(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Retrieves a page of posts belonging to a specific category created before the specified cursor,
+     * ordered from the newest to the oldest.
+     *
+     * @param categoryId  The ID of the category
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     * @param limit       The maximum number of posts to return
+     * @return A list of at most {@code limit} posts of the category following the cursor
+     */
+    @Query("""
+                SELECT p
+                FROM Post p
+                LEFT JOIN FETCH p.category
+                WHERE p.category.id = :categoryId
+                AND (p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id))
+                ORDER BY p.createdDate DESC, p.id DESC
+            """)
+    List<Post> findPageByCategoryId(@Param("categoryId") UUID categoryId, @Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Retrieves the summaries of all posts ordered by their creation date.
+     *
+     * @return A list of the summaries of all posts ordered by creation date
+     */
+    @Query(SELECT_SUMMARY + """
+                ORDER BY p.createdDate
+            """)
+    List<PostSummary> findAllSummaries();
+
+    /**
+     * Retrieves the summaries of the posts with the specified IDs whose title or content contains a keyword.
+     * Used to check the candidates returned by the search index without loading their content.
+     *
+     * @param ids     The IDs of the candidate posts
+     * @param keyword The keyword to search for in post titles or content, folded by {@link TextNormalizer}
+     * @return A list of the summaries of the matching posts
+     */
+    @Query(SELECT_SUMMARY + """
+                WHERE p.id IN :ids
+                AND (p.normalizedTitle LIKE CONCAT('%', :keyword, '%') OR p.normalizedContent LIKE CONCAT('%', :keyword, '%'))
+            """)
+    List<PostSummary> findSummariesByIdInAndKeyword(@Param("ids") Collection<UUID> ids, @Param("keyword") String keyword);
+
+    /**
+     * Retrieves the summaries of the posts whose title or content contains a keyword, ordered by creation date like
+     * the summaries of the posts found through the search index.
+     *
+     * @param keyword The keyword to search for in post titles or content, folded by {@link TextNormalizer}
+     * @return A list of the summaries of the matching posts, ordered by creation date
+     */
+    @Query(SELECT_SUMMARY + """
+                WHERE p.normalizedTitle LIKE CONCAT('%', :keyword, '%') OR p.normalizedContent LIKE CONCAT('%', :keyword, '%')
+                ORDER BY p.createdDate NULLS FIRST
+            """)
+    List<PostSummary> findSummariesByKeyword(@Param("keyword") String keyword);
+
+    /**
+     * Retrieves the summaries of all posts belonging to a specific category.
+     *
+     * @param categoryId The ID of the category
+     * @return A list of the summaries of the posts belonging to the specified category
+     */
+    @Query(SELECT_SUMMARY + """
+                WHERE c.id = :categoryId
+            """)
+    List<PostSummary> findSummariesByCategoryId(@Param("categoryId") UUID categoryId);
+
+    /**
+     * Retrieves a page of post summaries created before the specified cursor, ordered from the newest to the oldest.
+     *
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     * @param limit       The maximum number of summaries to return
+     * @return A list of at most {@code limit} summaries following the cursor
+     */
+    @Query(SELECT_SUMMARY + """
+                WHERE p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id)
+                ORDER BY p.createdDate DESC, p.id DESC
+            """)
+    List<PostSummary> findSummaryPage(@Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Retrieves a page of the summaries of the posts containing a keyword, created before the
+     * specified cursor, ordered from the newest to the oldest.
+     *
+     * @param keyword     The keyword to search for in post titles or content, folded by {@link TextNormalizer}
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     * @param limit       The maximum number of summaries to return
+     * @return A list of at most {@code limit} summaries of matching posts following the cursor
+     */
+    @Query(SELECT_SUMMARY + """
+                WHERE (p.normalizedTitle LIKE CONCAT('%', :keyword, '%') OR p.normalizedContent LIKE CONCAT('%', :keyword, '%'))
+                AND (p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id))
+                ORDER BY p.createdDate DESC, p.id DESC
+            """)
+    List<PostSummary> findSummaryPageByKeyword(@Param("keyword") String keyword, @Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Retrieves a page of the summaries of the posts belonging to a specific category created before the specified
+     * cursor, ordered from the newest to the oldest.
+     *
+     * @param categoryId  The ID of the category
+     * @param createdDate The creation date of the last post of the previous page
+     * @param id          The ID of the last post of the previous page
+     * @param limit       The maximum number of summaries to return
+     * @return A list of at most {@code limit} summaries of the posts of the category following the cursor
+     */
+    @Query(SELECT_SUMMARY + """
+                WHERE c.id = :categoryId
+                AND (p.createdDate < :createdDate OR (p.createdDate = :createdDate AND p.id < :id))
+                ORDER BY p.createdDate DESC, p.id DESC
+            """)
+    List<PostSummary> findSummaryPageByCategoryId(@Param("categoryId") UUID categoryId, @Param("createdDate") LocalDateTime createdDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Streams all posts ordered by their creation date.
+     * Rows are fetched from the database in chunks of {@value #STREAM_FETCH_SIZE}, so the stream must be consumed
+     * and closed within a transaction.
+     *
+     * @return A stream of all posts ordered by creation date
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @EntityGraph(attributePaths = "category")
+    Stream<Post> streamAllByOrderByCreatedDate();
+
+    /**
+     * Streams the posts created or updated at or after a date, ordered by the date of their last write.
+     * Rows are fetched from the database in chunks of {@value #STREAM_FETCH_SIZE}, so the stream must be consumed
+     * and closed within a transaction.
+     *
+     * @param updatedDate The date of the last write from which posts are streamed
+     * @return A stream of the posts written at or after the specified date
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @EntityGraph(attributePaths = "category")
+    Stream<Post> streamAllByUpdatedDateGreaterThanEqualOrderByUpdatedDate(LocalDateTime updatedDate);
+
+    /**
+     * Streams the IDs of all posts, without loading post entities.
+     * Rows are fetched from the database in chunks of {@value #STREAM_FETCH_SIZE}, so the stream must be consumed
+     * and closed within a transaction.
+     *
+     * @return A stream of the IDs of all posts
+     */
+    @Query("SELECT p.id FROM Post p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<UUID> streamAllIds();
+
+    /**
+     * Streams posts by title or content containing a keyword.
+     * Rows are fetched from the database in chunks of {@value #STREAM_FETCH_SIZE}, so the stream must be consumed
+     * and closed within a transaction.
+     *
+     * @param keyword The keyword to search for in post titles or content, folded by {@link TextNormalizer}
+     * @return A stream of posts containing the specified keyword in their title or content
+     */
+    @Query("""
+                SELECT p
+                FROM Post p
+                LEFT JOIN FETCH p.category
+                WHERE p.normalizedTitle LIKE CONCAT('%', :keyword, '%') OR p.normalizedContent LIKE CONCAT('%', :keyword, '%')
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Post> streamByTitleOrContentContainingKeyword(@Param("keyword") String keyword);
+
+    /**
+     * Streams all posts belonging to a specific category.
+     * Rows are fetched from the database in chunks of {@value #STREAM_FETCH_SIZE}, so the stream must be consumed
+     * and closed within a transaction.
+     *
+     * @param categoryId The ID of the category
+     * @return A stream of posts belonging to the specified category
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @EntityGraph(attributePaths = "category")
+    Stream<Post> streamAllByCategoryId(UUID categoryId);
+
+    /**
+     * Streams all posts as transfer records, without loading post or category entities.
+     * Rows are fetched from the database in chunks of {@value #STREAM_FETCH_SIZE}, so the stream must be consumed
+     * and closed within a transaction.
+     *
+     * @return A stream of transfer records describing all posts
+     */
+    @Query("""
+                SELECT new com.dauphine.blogger.dto.TransferRecord(p.id, p.title, p.content, p.createdDate, p.category.id)
+                FROM Post p
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<TransferRecord> streamTransferRecords();
+
+    /**
+     * Deletes the post with the specified ID with a single statement, without loading it.
+     * Must be called within a transaction.
+     *
+     * @param id The ID of the post
+     * @return The number of deleted posts, 0 if the post does not exist
+     */
+    @Modifying
+    @Query("""
+                DELETE FROM Post p
+                WHERE p.id = :id
+            """)
+    int deletePostById(@Param("id") UUID id);
+
 }
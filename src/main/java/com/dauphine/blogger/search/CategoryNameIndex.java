@@ -0,0 +1,345 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * In-memory trigram index of the category names.
+ * </p>
+ *
+ * <p>
+ * Names are folded by {@link TextNormalizer}, ignoring case and accents, and split into words made of letters and
+ * digits. Each word is padded with two spaces before and one space after, like the {@code pg_trgm} extension does,
+ * and cut into the trigrams mapped to the posting lists of the IDs of the categories containing them. The index is
+ * updated when categories are created, renamed or deleted, and loaded from the database at startup.
+ * </p>
+ *
+ * <p>
+ * A search returns the categories whose folded name contains the folded query first, then the categories whose name
+ * is similar enough to the query to tolerate typos. The similarity of two texts is the number of trigrams they share
+ * divided by the number of distinct trigrams of both. Within each group, categories are ordered from the most to the
+ * least similar, then by name.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class CategoryNameIndex {
+
+    /**
+     * Minimum similarity for a category not containing the query to be returned.
+     */
+    private final double similarityThreshold;
+
+    /**
+     * Maximum number of categories returned by a search.
+     */
+    private final int maxResults;
+
+    /**
+     * Posting lists of the IDs of the categories containing each trigram.
+     */
+    private final Map<String, Set<UUID>> postings = new HashMap<>();
+
+    /**
+     * Indexed categories, keyed by ID.
+     */
+    private final Map<UUID, Entry> entries = new HashMap<>();
+
+    /**
+     * Lock guarding the posting lists and the entries.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Whether the index holds every category of the database.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new CategoryNameIndex.
+     *
+     * @param similarityThreshold Minimum similarity, between 0 and 1, for a category not containing the query to be
+     *                            returned
+     * @param maxResults          Maximum number of categories returned by a search
+     */
+    public CategoryNameIndex(@Value("${blogger.search.categories.similarity-threshold:0.3}") double similarityThreshold,
+                             @Value("${blogger.search.categories.max-results:20}") int maxResults) {
+        this.similarityThreshold = similarityThreshold;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Splits a folded text into the trigrams of its padded words.
+     *
+     * @param folded The text folded by {@link TextNormalizer}
+     * @return The distinct trigrams of the text
+     */
+    static Set<String> trigrams(String folded) {
+        final Set<String> trigrams = new HashSet<>();
+
+        for (String word : words(folded)) {
+            final String padded = "  " + word + " ";
+
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+
+        return trigrams;
+    }
+
+    /**
+     * Splits a folded text into words made of letters and digits.
+     *
+     * @param folded The text folded by {@link TextNormalizer}
+     * @return The words of the text, in order
+     */
+    private static List<String> words(String folded) {
+        final List<String> words = new ArrayList<>();
+        int start = -1;
+
+        for (int i = 0; i <= folded.length(); i++) {
+            final boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * Adds a category to the index, replacing its previous name if it is already indexed.
+     *
+     * @param category The category to index
+     */
+    public void index(Category category) {
+        if (category.getName() == null) {
+            remove(category.getId());
+            return;
+        }
+
+        final String folded = TextNormalizer.normalize(category.getName());
+        final Entry entry = new Entry(category.getId(), category.getName(), category.getVersion(), folded, trigrams(folded));
+
+        lock.writeLock().lock();
+
+        try {
+            unindex(category.getId());
+
+            for (String trigram : entry.trigrams()) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(entry.id());
+            }
+
+            entries.put(entry.id(), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a category from the index.
+     *
+     * @param id The ID of the category to remove
+     */
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a category from its posting lists. Must be called with the write lock held.
+     *
+     * @param id The ID of the category to remove
+     */
+    private void unindex(UUID id) {
+        final Entry entry = entries.remove(id);
+
+        if (entry == null) {
+            return;
+        }
+
+        for (String trigram : entry.trigrams()) {
+            final Set<UUID> ids = postings.get(trigram);
+
+            ids.remove(id);
+
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Marks the index as holding every category of the database, so that searches can be resolved through it.
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    /**
+     * Checks whether the index holds every category of the database.
+     *
+     * @return true if searches can be resolved through the index, false otherwise
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Searches the categories whose name contains or resembles a query, ignoring case and accents.
+     * The categories containing the query are found among those holding every trigram of its words, and the similar
+     * ones among those sharing at least one trigram with it.
+     *
+     * @param query The name, or fragment of name, to look for
+     * @return Copies of at most {@code maxResults} matching categories, those containing the query first, or an empty
+     * optional if the index is not ready yet
+     */
+    public Optional<List<Category>> search(String query) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        final String folded = TextNormalizer.normalize(query);
+        final Set<String> queryTrigrams = trigrams(folded);
+        final List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+
+        try {
+            final Map<UUID, Integer> shared = new HashMap<>();
+
+            for (String trigram : queryTrigrams) {
+                for (UUID id : postings.getOrDefault(trigram, Set.of())) {
+                    shared.merge(id, 1, Integer::sum);
+                }
+            }
+
+            for (Entry entry : containing(folded)) {
+                matches.add(new Match(entry, true, similarity(shared.getOrDefault(entry.id(), 0), queryTrigrams.size(), entry.trigrams().size())));
+            }
+
+            shared.forEach((id, count) -> {
+                final Entry entry = entries.get(id);
+                final double similarity = similarity(count, queryTrigrams.size(), entry.trigrams().size());
+
+                if (similarity >= similarityThreshold && !entry.folded().contains(folded)) {
+                    matches.add(new Match(entry, false, similarity));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return Optional.of(matches.stream()
+                .sorted(Comparator.comparing(Match::contains).reversed()
+                        .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+                        .thenComparing(match -> match.entry().name()))
+                .limit(maxResults)
+                .map(match -> copy(match.entry()))
+                .toList());
+    }
+
+    /**
+     * Builds a copy of an indexed category.
+     *
+     * @param entry The indexed category
+     * @return A new category with the ID, name and version of the entry
+     */
+    private static Category copy(Entry entry) {
+        final Category category = new Category(entry.id(), entry.name());
+
+        category.setVersion(entry.version());
+
+        return category;
+    }
+
+    /**
+     * Retrieves the categories whose folded name contains a folded fragment. Only the categories holding every
+     * trigram inside the words of the fragment are checked; every category is checked when the fragment has no word
+     * of three characters or more. Must be called with the read lock held.
+     *
+     * @param folded The fragment folded by {@link TextNormalizer}
+     * @return The categories containing the fragment
+     */
+    private List<Entry> containing(String folded) {
+        Set<UUID> candidates = null;
+
+        for (String word : words(folded)) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                final Set<UUID> ids = postings.getOrDefault(word.substring(i, i + 3), Set.of());
+
+                if (candidates == null) {
+                    candidates = new HashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+            }
+        }
+
+        final Collection<Entry> checked = candidates == null
+                ? entries.values()
+                : candidates.stream().map(entries::get).toList();
+
+        return checked.stream()
+                .filter(entry -> entry.folded().contains(folded))
+                .toList();
+    }
+
+    /**
+     * Computes the similarity of two texts from their trigram counts.
+     *
+     * @param shared The number of trigrams both texts hold
+     * @param first  The number of distinct trigrams of the first text
+     * @param second The number of distinct trigrams of the second text
+     * @return The similarity, between 0 and 1
+     */
+    private static double similarity(int shared, int first, int second) {
+        final int union = first + second - shared;
+
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    /**
+     * <p>
+     * Category held by the index.
+     * </p>
+     *
+     * @param id       The ID of the category
+     * @param name     The name of the category
+     * @param version  The version of the category, or null if it is unknown
+     * @param folded   The name folded by {@link TextNormalizer}
+     * @param trigrams The trigrams of the folded name
+     */
+    private record Entry(UUID id, String name, Long version, String folded, Set<String> trigrams) {
+    }
+
+    /**
+     * <p>
+     * Category matching a search.
+     * </p>
+     *
+     * @param entry      The matching category
+     * @param contains   Whether the name of the category contains the query
+     * @param similarity The similarity of the name of the category to the query
+     */
+    private record Match(Entry entry, boolean contains, double similarity) {
+    }
+
+}
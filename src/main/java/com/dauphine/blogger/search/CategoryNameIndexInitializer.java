@@ -0,0 +1,63 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.services.CategoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Component loading the {@link CategoryNameIndex} once the application is ready.
+ * </p>
+ *
+ * <p>
+ * Until the load completes, category name searches are served by the category cache.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class CategoryNameIndexInitializer {
+
+    /**
+     * The logger object to log the load.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CategoryNameIndexInitializer.class);
+
+    /**
+     * Service used to retrieve every category.
+     */
+    private final CategoryService categoryService;
+
+    /**
+     * Index to load.
+     */
+    private final CategoryNameIndex categoryNameIndex;
+
+    /**
+     * Constructs a new CategoryNameIndexInitializer with the specified service and index.
+     *
+     * @param categoryService   Service used to retrieve every category
+     * @param categoryNameIndex Index to load
+     */
+    public CategoryNameIndexInitializer(CategoryService categoryService, CategoryNameIndex categoryNameIndex) {
+        this.categoryService = categoryService;
+        this.categoryNameIndex = categoryNameIndex;
+    }
+
+    /**
+     * Indexes every category of the database, then marks the index as ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        final long start = System.currentTimeMillis();
+
+        categoryService.getCategories().forEach(categoryNameIndex::index);
+        categoryNameIndex.markReady();
+
+        logger.info("Category name index loaded in {} ms", System.currentTimeMillis() - start);
+    }
+
+}
@@ -0,0 +1,441 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Post;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * In-memory index of the posts by term and by category, counting the hits of a topic in each category.
+ * </p>
+ *
+ * <p>
+ * Each post is given a small integer ordinal, reused once the post is removed, and the index keeps a compressed
+ * {@link RoaringBitmap} of the ordinals of the posts containing each term, split like the {@link PostSearchIndex}
+ * does, and of the posts of each category. A search unions the bitmaps of the terms containing each word of the
+ * topic, intersects these unions, then intersects the result with the bitmap of each category to count its hits,
+ * without reading any post.
+ * </p>
+ *
+ * <p>
+ * The hits are the posts containing every word of the topic, each word possibly within a longer term.
+ * The index is updated incrementally when posts are created, updated or deleted. At startup, it is loaded from the
+ * snapshot written by the {@link PostIndexSnapshots}, then from the posts written since, or from the whole database
+ * when there is no snapshot.
+ * </p>
+ *
+ * <p>
+ * Writes keep being applied while the index loads, so a post read by the load may have been updated or deleted
+ * since. The index remembers the posts written until it is ready, and the load skips them: the write carried a
+ * newer state than the row the load read.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class PostFacetIndex {
+
+    /**
+     * Ordinals of the indexed posts, keyed by ID.
+     */
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+
+    /**
+     * Indexed posts, by ordinal. Removed posts leave a null slot until their ordinal is reused.
+     */
+    private final List<Document> documents = new ArrayList<>();
+
+    /**
+     * Ordinals of the removed posts, available for the next indexed posts.
+     */
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    /**
+     * Ordinals of the posts containing each term.
+     */
+    private final Map<String, RoaringBitmap> terms = new HashMap<>();
+
+    /**
+     * Ordinals of the posts of each category.
+     */
+    private final Map<UUID, RoaringBitmap> categories = new HashMap<>();
+
+    /**
+     * IDs of the posts indexed or removed by writes before the index was ready, skipped by the load.
+     */
+    private final Set<UUID> written = new HashSet<>();
+
+    /**
+     * Lock guarding the ordinals, the bitmaps and the written posts.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Whether the index holds every post of the database.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Adds a post to the index, replacing its previous terms and category if it is already indexed.
+     *
+     * @param post The post to index
+     */
+    public void index(Post post) {
+        final Document document = document(post);
+
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                written.add(post.getId());
+            }
+
+            put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a post read by the load to the index, unless a write already indexed or removed it.
+     *
+     * @param post The post to index
+     */
+    public void load(Post post) {
+        final Document document = document(post);
+
+        lock.writeLock().lock();
+
+        try {
+            if (!written.contains(post.getId())) {
+                put(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the posts loaded from a snapshot which are no longer in the database, unless a write indexed them
+     * since.
+     *
+     * @param storedIds The IDs of the posts of the database
+     */
+    public void unloadMissing(Set<UUID> storedIds) {
+        lock.writeLock().lock();
+
+        try {
+            for (UUID id : new ArrayList<>(ordinals.keySet())) {
+                if (!storedIds.contains(id) && !written.contains(id)) {
+                    unindex(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the indexed posts to a snapshot: the dictionary of their terms, then each post with its category and the
+     * positions of its terms in the dictionary. The posts are copied under the read lock, then written without it.
+     *
+     * @param output The content of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        final List<Document> indexed;
+
+        lock.readLock().lock();
+
+        try {
+            indexed = documents.stream().filter(Objects::nonNull).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        for (Document document : indexed) {
+            for (String term : document.terms()) {
+                dictionary.putIfAbsent(term, dictionary.size());
+            }
+        }
+
+        output.writeInt(dictionary.size());
+
+        for (String term : dictionary.keySet()) {
+            PostIndexSnapshots.writeString(output, term);
+        }
+
+        output.writeInt(indexed.size());
+
+        for (Document document : indexed) {
+            PostIndexSnapshots.writeId(output, document.id());
+            PostIndexSnapshots.writeId(output, document.categoryId());
+            output.writeInt(document.terms().size());
+
+            for (String term : document.terms()) {
+                output.writeInt(dictionary.get(term));
+            }
+        }
+    }
+
+    /**
+     * Loads the posts of a snapshot written by {@link #writeTo(DataOutput)}, unless a write already indexed or removed
+     * them. The snapshot is read entirely before any post is indexed, so that a malformed snapshot loads nothing.
+     *
+     * @param input The content of the snapshot
+     * @throws IOException if the snapshot cannot be read or is malformed
+     */
+    public void readFrom(DataInput input) throws IOException {
+        final int termCount = input.readInt();
+        final List<String> dictionary = new ArrayList<>();
+
+        for (int i = 0; i < termCount; i++) {
+            dictionary.add(PostIndexSnapshots.readString(input));
+        }
+
+        final int documentCount = input.readInt();
+        final List<Document> read = new ArrayList<>();
+
+        for (int i = 0; i < documentCount; i++) {
+            final UUID id = PostIndexSnapshots.readId(input);
+            final UUID categoryId = PostIndexSnapshots.readId(input);
+            final int count = input.readInt();
+            final Set<String> postTerms = new HashSet<>();
+
+            for (int j = 0; j < count; j++) {
+                postTerms.add(dictionary.get(input.readInt()));
+            }
+
+            read.add(new Document(Objects.requireNonNull(id), categoryId, postTerms));
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            for (Document document : read) {
+                if (!written.contains(document.id())) {
+                    put(document);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits the title and content of a post into terms.
+     *
+     * @param post The post
+     * @return The post held by the index
+     */
+    private static Document document(Post post) {
+        final Set<String> postTerms = PostSearchIndex.tokenize(post.getTitle());
+        postTerms.addAll(PostSearchIndex.tokenize(post.getContent()));
+
+        return new Document(post.getId(), post.getCategory() != null ? post.getCategory().getId() : null, postTerms);
+    }
+
+    /**
+     * Adds a post to its bitmaps, replacing its previous entry. Must be called with the write lock held.
+     *
+     * @param document The post to add
+     */
+    private void put(Document document) {
+        unindex(document.id());
+
+        final int ordinal = freeOrdinals.isEmpty() ? documents.size() : freeOrdinals.pop();
+
+        if (ordinal == documents.size()) {
+            documents.add(document);
+        } else {
+            documents.set(ordinal, document);
+        }
+
+        ordinals.put(document.id(), ordinal);
+
+        for (String term : document.terms()) {
+            terms.computeIfAbsent(term, key -> new RoaringBitmap()).add(ordinal);
+        }
+
+        if (document.categoryId() != null) {
+            categories.computeIfAbsent(document.categoryId(), key -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param id The ID of the post to remove
+     */
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                written.add(id);
+            }
+
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from its bitmaps and frees its ordinal. Must be called with the write lock held.
+     *
+     * @param id The ID of the post to remove
+     */
+    private void unindex(UUID id) {
+        final Integer ordinal = ordinals.remove(id);
+
+        if (ordinal == null) {
+            return;
+        }
+
+        final Document document = documents.set(ordinal, null);
+
+        for (String term : document.terms()) {
+            clear(terms, term, ordinal);
+        }
+
+        if (document.categoryId() != null) {
+            clear(categories, document.categoryId(), ordinal);
+        }
+
+        freeOrdinals.push(ordinal);
+    }
+
+    /**
+     * Removes an ordinal from a bitmap, dropping the bitmap once it is empty.
+     *
+     * @param bitmaps The bitmaps
+     * @param key     The key of the bitmap
+     * @param ordinal The ordinal to remove
+     * @param <K>     The type of the keys
+     */
+    private static <K> void clear(Map<K, RoaringBitmap> bitmaps, K key, int ordinal) {
+        final RoaringBitmap bitmap = bitmaps.get(key);
+
+        bitmap.remove(ordinal);
+
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    /**
+     * Marks the index as holding every post of the database, so that searches can be resolved through it, and forgets
+     * the posts written during the load.
+     */
+    public void markReady() {
+        lock.writeLock().lock();
+
+        try {
+            ready = true;
+            written.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the index holds every post of the database.
+     *
+     * @return true if searches can be resolved through the index, false otherwise
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Searches the posts containing every word of a topic, and counts them by category.
+     *
+     * @param topic      The topic to search
+     * @param categoryId The ID of the category the returned posts must belong to, or null for every category
+     * @return The IDs of the matching posts of the category and the number of matching posts of every category, or
+     * an empty optional if the index cannot resolve the topic, either because it is not ready yet or because the
+     * topic has no letter nor digit
+     */
+    public Optional<Result> search(String topic, UUID categoryId) {
+        final Set<String> topicTerms = PostSearchIndex.tokenize(topic);
+
+        if (!ready || topicTerms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+
+        try {
+            final List<RoaringBitmap> unions = new ArrayList<>(topicTerms.size());
+
+            for (String topicTerm : topicTerms) {
+                final List<RoaringBitmap> matches = new ArrayList<>();
+
+                terms.forEach((term, bitmap) -> {
+                    if (term.contains(topicTerm)) {
+                        matches.add(bitmap);
+                    }
+                });
+
+                unions.add(FastAggregation.or(matches.iterator()));
+            }
+
+            final RoaringBitmap hits = FastAggregation.and(unions.iterator());
+            final Map<UUID, Integer> counts = new HashMap<>();
+
+            categories.forEach((id, bitmap) -> {
+                final int count = RoaringBitmap.andCardinality(hits, bitmap);
+
+                if (count > 0) {
+                    counts.put(id, count);
+                }
+            });
+
+            final RoaringBitmap selected = categoryId == null
+                    ? hits
+                    : RoaringBitmap.and(hits, categories.getOrDefault(categoryId, new RoaringBitmap()));
+            final Set<UUID> ids = new HashSet<>(selected.getCardinality());
+
+            selected.forEach((int ordinal) -> ids.add(documents.get(ordinal).id()));
+
+            return Optional.of(new Result(ids, counts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * <p>
+     * Outcome of a faceted search.
+     * </p>
+     *
+     * @param ids            The IDs of the matching posts of the requested category, or of every category
+     * @param categoryCounts The number of matching posts of each category holding any, keyed by category ID
+     */
+    public record Result(Set<UUID> ids, Map<UUID, Integer> categoryCounts) {
+    }
+
+    /**
+     * <p>
+     * Post held by the index.
+     * </p>
+     *
+     * @param id         The ID of the post
+     * @param categoryId The ID of the category of the post, or null if it has none
+     * @param terms      The terms of the title and content of the post
+     */
+    private record Document(UUID id, UUID categoryId, Set<String> terms) {
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.search.SearchSegmentStore.SnapshotReader;
+import com.dauphine.blogger.search.SearchSegmentStore.SnapshotWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Component persisting snapshots of the {@link PostFacetIndex} and of the posts of the {@link SuggestionIndex} in the
+ * {@link SearchSegmentStore}, so that a restart only replays the posts written since the snapshots were taken instead
+ * of reading every post again.
+ * </p>
+ *
+ * <p>
+ * A snapshot starts with a magic number and the checkpoint from which posts must be replayed, computed like the
+ * checkpoint of the {@link PostSearchIndex}: the start of the snapshot minus a margin covering the writes committed
+ * after the snapshot started but dated before it. Deleted posts are not replayed, so the loader removes the posts of
+ * the snapshots missing from the database.
+ * </p>
+ *
+ * <p>
+ * Snapshots are written once the indexes are loaded, periodically, and on shutdown. A snapshot which cannot be read is
+ * deleted, and its index rebuilt from the database.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class PostIndexSnapshots {
+
+    /**
+     * The logger object to log the snapshots which cannot be read or written.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PostIndexSnapshots.class);
+
+    /**
+     * Magic number identifying a snapshot. Changed along with the layout of the snapshots or the folding of the
+     * terms, so that older snapshots are rejected and their index rebuilt.
+     */
+    private static final int MAGIC = 0x42425031;
+
+    /**
+     * Name of the snapshot of the facet index.
+     */
+    static final String FACETS = "facets";
+
+    /**
+     * Name of the snapshot of the suggestion index.
+     */
+    static final String SUGGESTIONS = "suggestions";
+
+    /**
+     * Maximum size of a string read from a snapshot, in bytes, so that a malformed length fails the read instead of
+     * exhausting the heap.
+     */
+    private static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Directory holding the snapshots.
+     */
+    private final SearchSegmentStore store;
+
+    /**
+     * Facet index whose snapshot is persisted.
+     */
+    private final PostFacetIndex postFacetIndex;
+
+    /**
+     * Suggestion index whose posts are persisted.
+     */
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Constructs a new PostIndexSnapshots with the specified store and indexes.
+     *
+     * @param store           Directory holding the snapshots
+     * @param postFacetIndex  Facet index whose snapshot is persisted
+     * @param suggestionIndex Suggestion index whose posts are persisted
+     */
+    public PostIndexSnapshots(SearchSegmentStore store, PostFacetIndex postFacetIndex, SuggestionIndex suggestionIndex) {
+        this.store = store;
+        this.postFacetIndex = postFacetIndex;
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    /**
+     * Loads the snapshot of the facet index.
+     *
+     * @return The date of the last write from which posts must be replayed from the database, or an empty optional if
+     * the whole index must be loaded from the database
+     */
+    public Optional<LocalDateTime> loadFacets() {
+        return load(FACETS, postFacetIndex::readFrom);
+    }
+
+    /**
+     * Loads the snapshot of the posts of the suggestion index.
+     *
+     * @return The date of the last write from which posts must be replayed from the database, or an empty optional if
+     * every post must be loaded from the database
+     */
+    public Optional<LocalDateTime> loadSuggestions() {
+        return load(SUGGESTIONS, suggestionIndex::readPostsFrom);
+    }
+
+    /**
+     * Loads a snapshot, deleting it if it cannot be read.
+     *
+     * @param name   The name of the snapshot
+     * @param reader The reader loading the content of the snapshot in its index
+     * @return The checkpoint of the snapshot, or an empty optional if it does not exist or cannot be read
+     */
+    private Optional<LocalDateTime> load(String name, SnapshotReader reader) {
+        final LocalDateTime[] checkpoint = new LocalDateTime[1];
+
+        try {
+            final boolean read = store.readSnapshot(name, input -> {
+                if (input.readInt() != MAGIC) {
+                    throw new IOException("Not a post index snapshot: " + name);
+                }
+
+                checkpoint[0] = LocalDateTime.parse(input.readUTF());
+                reader.read(input);
+            });
+
+            return read ? Optional.of(checkpoint[0]) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Post index snapshot {} cannot be read, loading the index from the database", name, e);
+
+            try {
+                store.deleteSnapshot(name);
+            } catch (IOException deleteException) {
+                logger.warn("Post index snapshot {} cannot be deleted", name, deleteException);
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the snapshots of the indexes which are ready.
+     * Runs once the indexes are loaded, periodically, and on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${blogger.search.snapshots.interval-ms:600000}")
+    @PreDestroy
+    public synchronized void persist() {
+        persist(FACETS, postFacetIndex.isReady(), postFacetIndex::writeTo);
+        persist(SUGGESTIONS, suggestionIndex.isReady(), suggestionIndex::writePostsTo);
+    }
+
+    /**
+     * Writes a snapshot, unless its index is not loaded yet.
+     *
+     * @param name   The name of the snapshot
+     * @param ready  Whether the index is loaded
+     * @param writer The writer producing the content of the index
+     */
+    private void persist(String name, boolean ready, SnapshotWriter writer) {
+        if (!ready) {
+            return;
+        }
+
+        final LocalDateTime checkpoint = LocalDateTime.now().minus(PostSearchIndex.REPLAY_MARGIN);
+
+        try {
+            store.writeSnapshot(name, output -> {
+                output.writeInt(MAGIC);
+                output.writeUTF(checkpoint.toString());
+                writer.write(output);
+            });
+        } catch (IOException | RuntimeException e) {
+            logger.error("Post index snapshot {} cannot be written", name, e);
+        }
+    }
+
+    /**
+     * Writes a string to a snapshot as its length followed by its UTF-8 bytes, whatever its length.
+     *
+     * @param output The content of the snapshot
+     * @param value  The string
+     * @throws IOException if the string cannot be written
+     */
+    static void writeString(DataOutput output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param input The content of the snapshot
+     * @return The string
+     * @throws IOException if the string cannot be read or its length is malformed
+     */
+    static String readString(DataInput input) throws IOException {
+        final int length = input.readInt();
+
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Malformed string length " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an ID to a snapshot as a presence flag followed by its two 64-bit halves.
+     *
+     * @param output The content of the snapshot
+     * @param id     The ID, possibly null
+     * @throws IOException if the ID cannot be written
+     */
+    static void writeId(DataOutput output, UUID id) throws IOException {
+        output.writeBoolean(id != null);
+
+        if (id != null) {
+            output.writeLong(id.getMostSignificantBits());
+            output.writeLong(id.getLeastSignificantBits());
+        }
+    }
+
+    /**
+     * Reads an ID written by {@link #writeId(DataOutput, UUID)}.
+     *
+     * @param input The content of the snapshot
+     * @return The ID, or null if none was written
+     * @throws IOException if the ID cannot be read
+     */
+    static UUID readId(DataInput input) throws IOException {
+        return input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null;
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.services.CategoryService;
+import com.dauphine.blogger.services.PostService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>
+ * Component loading the {@link PostSearchIndex}, the {@link PostFacetIndex} and the {@link SuggestionIndex} once the
+ * application is ready, in a single pass over the posts run in the background.
+ * </p>
+ *
+ * <p>
+ * Each index first reopens what it persisted: the search index its segments, the facet and suggestion indexes the
+ * snapshots written by the {@link PostIndexSnapshots}. The posts written since the oldest checkpoint are then streamed
+ * once, each index taking the posts written since its own checkpoint, whatever their creation date. An index without
+ * persisted state makes the pass stream every post instead. Since deleted posts are not streamed, the posts of the
+ * snapshots missing from the database are removed afterwards; the deleted posts left in the segments only yield
+ * search candidates that callers cannot load.
+ * </p>
+ *
+ * <p>
+ * Writes keep being applied to the indexes during the load, and the indexes skip the streamed posts a write already
+ * indexed or removed. Until the load completes, topic and faceted searches fall back to the database and no
+ * completion is suggested. If the load fails, the indexes stay in that state until the next start.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class PostIndexesInitializer {
+
+    /**
+     * The logger object to log the load.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PostIndexesInitializer.class);
+
+    /**
+     * Service used to stream the posts and their IDs.
+     */
+    private final PostService postService;
+
+    /**
+     * Service used to retrieve every category.
+     */
+    private final CategoryService categoryService;
+
+    /**
+     * Search index to load.
+     */
+    private final PostSearchIndex postSearchIndex;
+
+    /**
+     * Facet index to load.
+     */
+    private final PostFacetIndex postFacetIndex;
+
+    /**
+     * Suggestion index to load.
+     */
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Snapshots of the facet and suggestion indexes.
+     */
+    private final PostIndexSnapshots postIndexSnapshots;
+
+    /**
+     * Executor running the load off the thread publishing the application events.
+     */
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    /**
+     * Constructs a new PostIndexesInitializer with the specified services, indexes and executor.
+     *
+     * @param postService             Service used to stream the posts and their IDs
+     * @param categoryService         Service used to retrieve every category
+     * @param postSearchIndex         Search index to load
+     * @param postFacetIndex          Facet index to load
+     * @param suggestionIndex         Suggestion index to load
+     * @param postIndexSnapshots      Snapshots of the facet and suggestion indexes
+     * @param applicationTaskExecutor Executor running the load
+     */
+    public PostIndexesInitializer(PostService postService, CategoryService categoryService, PostSearchIndex postSearchIndex, PostFacetIndex postFacetIndex, SuggestionIndex suggestionIndex, PostIndexSnapshots postIndexSnapshots,
+                                  @Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor) {
+        this.postService = postService;
+        this.categoryService = categoryService;
+        this.postSearchIndex = postSearchIndex;
+        this.postFacetIndex = postFacetIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.postIndexSnapshots = postIndexSnapshots;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    /**
+     * Starts loading the indexes in the background.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        applicationTaskExecutor.execute(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                logger.error("Post indexes cannot be loaded, searches keep falling back to the database", e);
+            }
+        });
+    }
+
+    /**
+     * Loads the indexes from their persisted state and the posts written since, or from every post of the database,
+     * then marks them as ready and persists their snapshots.
+     */
+    public void load() {
+        final long start = System.currentTimeMillis();
+        final Optional<LocalDateTime> searchCheckpoint = postSearchIndex.load();
+        final Optional<LocalDateTime> facetCheckpoint = postIndexSnapshots.loadFacets();
+        final Optional<LocalDateTime> suggestionCheckpoint = postIndexSnapshots.loadSuggestions();
+
+        categoryService.getCategories().forEach(suggestionIndex::loadCategory);
+
+        final Optional<LocalDateTime> since = oldest(searchCheckpoint, facetCheckpoint, suggestionCheckpoint);
+
+        if (since.isPresent()) {
+            postService.forEachPostUpdatedSince(since.get(), post -> load(post, searchCheckpoint, facetCheckpoint, suggestionCheckpoint));
+        } else {
+            postService.forEachPost(post -> load(post, searchCheckpoint, facetCheckpoint, suggestionCheckpoint));
+        }
+
+        if (facetCheckpoint.isPresent() || suggestionCheckpoint.isPresent()) {
+            final Set<UUID> storedIds = new HashSet<>();
+
+            postService.forEachPostId(storedIds::add);
+            postFacetIndex.unloadMissing(storedIds);
+            suggestionIndex.unloadMissing(storedIds);
+        }
+
+        try {
+            postSearchIndex.flush();
+        } catch (Exception e) {
+            logger.error("Post search index segments cannot be written", e);
+        }
+
+        postSearchIndex.markReady();
+        postFacetIndex.markReady();
+        suggestionIndex.markReady();
+        postIndexSnapshots.persist();
+
+        logger.info("Post indexes {} in {} ms", since.isPresent() ? "reopened" : "rebuilt", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Loads a streamed post in each index whose checkpoint it follows.
+     *
+     * @param post                 The streamed post
+     * @param searchCheckpoint     The checkpoint of the search index, empty if it is rebuilt
+     * @param facetCheckpoint      The checkpoint of the facet index, empty if it is rebuilt
+     * @param suggestionCheckpoint The checkpoint of the suggestion index, empty if it is rebuilt
+     */
+    private void load(Post post, Optional<LocalDateTime> searchCheckpoint, Optional<LocalDateTime> facetCheckpoint, Optional<LocalDateTime> suggestionCheckpoint) {
+        if (isWrittenSince(post, searchCheckpoint)) {
+            postSearchIndex.load(post);
+        }
+
+        if (isWrittenSince(post, facetCheckpoint)) {
+            postFacetIndex.load(post);
+        }
+
+        if (isWrittenSince(post, suggestionCheckpoint)) {
+            suggestionIndex.loadPost(post);
+        }
+    }
+
+    /**
+     * Retrieves the checkpoint from which the posts must be streamed for every index.
+     *
+     * @param checkpoints The checkpoints of the indexes, empty for the indexes which are rebuilt
+     * @return The oldest checkpoint, or an empty optional if any index is rebuilt and every post must be streamed
+     */
+    @SafeVarargs
+    private static Optional<LocalDateTime> oldest(Optional<LocalDateTime>... checkpoints) {
+        LocalDateTime oldest = null;
+
+        for (Optional<LocalDateTime> checkpoint : checkpoints) {
+            if (checkpoint.isEmpty()) {
+                return Optional.empty();
+            }
+
+            if (oldest == null || checkpoint.get().isBefore(oldest)) {
+                oldest = checkpoint.get();
+            }
+        }
+
+        return Optional.ofNullable(oldest);
+    }
+
+    /**
+     * Checks whether a post was written at or after the checkpoint of an index.
+     *
+     * @param post       The post
+     * @param checkpoint The checkpoint of the index, empty if it is rebuilt
+     * @return true if the index must load the post, false if its persisted state already holds it
+     */
+    private static boolean isWrittenSince(Post post, Optional<LocalDateTime> checkpoint) {
+        return checkpoint.isEmpty() || post.getUpdatedDate() == null || !post.getUpdatedDate().isBefore(checkpoint.get());
+    }
+
+}
@@ -0,0 +1,855 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.search.SearchSegmentStore.Manifest;
+import com.dauphine.blogger.search.SearchSegmentStore.SegmentFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * In-memory inverted index of the terms found in post titles and contents.
+ * </p>
+ *
+ * <p>
+ * Titles and contents are folded by {@link TextNormalizer}, ignoring case and accents like the search of the
+ * repository, and split into terms made of letters and digits. Each term maps to the posting list of the IDs of the posts
+ * containing it. The index is updated incrementally when posts are created, updated or deleted, and rebuilt from the
+ * database at startup.
+ * </p>
+ *
+ * <p>
+ * Recent changes are held in an in-memory buffer, periodically flushed to an immutable, memory-mapped
+ * {@link SearchSegment}. Segments are merged in the background once there are too many of them. A post re-indexed
+ * or removed after being flushed is shadowed by a tombstone holding the sequence number from which it is live, so
+ * that older segments never need to be rewritten on the request path. After a restart, the segments listed in the
+ * manifest are reopened and only the posts created or updated since the last checkpoint are replayed from the
+ * database: a replayed post is shadowed like any re-indexed one, so that the tombstones of the updates lost with the
+ * buffer are restored. Posts deleted since the checkpoint may remain in the segments, which only yields candidates
+ * that callers cannot load. Writes keep being applied while the index loads, so the index remembers the posts written
+ * until it is ready, and the load skips them: the write carried a newer state than the row the load read.
+ * </p>
+ *
+ * <p>
+ * A topic term matches the terms containing it. Segments find them through their suffix array, and the buffer
+ * through the trigrams of its terms: the terms holding the rarest trigram of the topic term are the only ones
+ * checked. The trigrams are only maintained once the index is ready, since no search is served before, so that the
+ * initial rebuild does not pay for them.
+ * </p>
+ *
+ * <p>
+ * A search returns candidates: every post containing the topic is a candidate, but a candidate may not contain
+ * the exact topic, since the topic can span several terms. Callers must check the candidates with
+ * {@link #matches(Post, String)}.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class PostSearchIndex {
+
+    /**
+     * The logger object to log the flushes and merges.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    /**
+     * Margin subtracted from the start of a flush to compute the checkpoint, covering the posts whose write was
+     * committed after the flush started but dated before it.
+     */
+    static final Duration REPLAY_MARGIN = Duration.ofMinutes(1);
+
+    /**
+     * Length of the fragments of the buffered terms indexed to find the terms containing a topic term.
+     */
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * Directory holding the segments and the manifest.
+     */
+    private final SearchSegmentStore store;
+
+    /**
+     * Number of segments above which segments are merged.
+     */
+    private final int maxSegments;
+
+    /**
+     * Number of segments merged at once, the smallest ones first.
+     */
+    private final int mergeFactor;
+
+    /**
+     * Maximum size of a merged segment, in bytes, at most {@link SearchSegment#MAX_SIZE}.
+     */
+    private final long maxSegmentBytes;
+
+    /**
+     * Posting lists of the IDs of the buffered posts containing each term.
+     */
+    private Map<String, Set<UUID>> postings = new HashMap<>();
+
+    /**
+     * Terms of each buffered post, used to remove a post from its posting lists.
+     */
+    private Map<UUID, Set<String>> terms = new HashMap<>();
+
+    /**
+     * Buffered terms containing each trigram, once the index is ready.
+     */
+    private Map<String, Set<String>> grams = new HashMap<>();
+
+    /**
+     * Posting lists being written to a segment, still searched until the segment is published.
+     */
+    private Map<String, Set<UUID>> flushing = Map.of();
+
+    /**
+     * Terms being written to a segment containing each trigram, once the index is ready.
+     */
+    private Map<String, Set<String>> flushingGrams = Map.of();
+
+    /**
+     * Live segments, ordered by sequence number. The list is replaced, never modified.
+     */
+    private volatile List<SearchSegment> segments = List.of();
+
+    /**
+     * Sequence number from which each re-indexed or removed post is live: a post found in a segment of a lower
+     * sequence number is ignored.
+     */
+    private final Map<UUID, Long> tombstones = new ConcurrentHashMap<>();
+
+    /**
+     * Sequence number of the next flushed segment.
+     */
+    private long nextSequence;
+
+    /**
+     * Number identifying the next segment file, flushed or merged.
+     */
+    private long nextFileId;
+
+    /**
+     * Date of the last write from which posts must be replayed from the database after a restart.
+     */
+    private LocalDateTime checkpoint = LocalDateTime.MIN;
+
+    /**
+     * IDs of the posts indexed or removed by writes before the index was ready, skipped by the load.
+     */
+    private final Set<UUID> written = new HashSet<>();
+
+    /**
+     * Lock guarding the buffer, the segment list, the sequence numbers and the written posts.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Lock serializing the flushes and merges.
+     */
+    private final Object maintenanceLock = new Object();
+
+    /**
+     * Whether the index holds every post of the database.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new PostSearchIndex persisting its segments in the specified store.
+     *
+     * @param store           Directory holding the segments and the manifest
+     * @param maxSegments     Number of segments above which segments are merged
+     * @param mergeFactor     Number of segments merged at once
+     * @param maxSegmentBytes Maximum size of a merged segment, in bytes
+     */
+    public PostSearchIndex(SearchSegmentStore store,
+                           @Value("${blogger.search.segments.max-segments:8}") int maxSegments,
+                           @Value("${blogger.search.segments.merge-factor:4}") int mergeFactor,
+                           @Value("${blogger.search.segments.max-segment-bytes:1073741824}") long maxSegmentBytes) {
+        this.store = store;
+        this.maxSegments = maxSegments;
+        this.mergeFactor = Math.max(2, mergeFactor);
+        this.maxSegmentBytes = Math.min(maxSegmentBytes, SearchSegment.MAX_SIZE);
+    }
+
+    /**
+     * Folds a text by {@link TextNormalizer} and splits it into terms made of letters and digits.
+     *
+     * @param text The text to split
+     * @return The distinct terms of the text
+     */
+    public static Set<String> tokenize(String text) {
+        final Set<String> tokens = new HashSet<>();
+
+        if (text == null) {
+            return tokens;
+        }
+
+        final String folded = TextNormalizer.normalize(text);
+        int start = -1;
+
+        for (int i = 0; i <= folded.length(); i++) {
+            final boolean letterOrDigit = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Checks whether the title or the content of a post contains a topic, ignoring case and accents.
+     * The topic is compared to the normalized title and content of the post.
+     *
+     * @param post  The post to check
+     * @param topic The topic to look for
+     * @return true if the title or the content contains the topic, false otherwise
+     */
+    public static boolean matches(Post post, String topic) {
+        final String folded = TextNormalizer.normalize(topic);
+
+        return contains(post.getNormalizedTitle(), folded) || contains(post.getNormalizedContent(), folded);
+    }
+
+    /**
+     * Checks whether a normalized text contains a normalized fragment.
+     *
+     * @param text     The normalized text to check
+     * @param fragment The normalized fragment to look for
+     * @return true if the text contains the fragment, false otherwise
+     */
+    private static boolean contains(String text, String fragment) {
+        return text != null && text.contains(fragment);
+    }
+
+    /**
+     * Adds a post to the index, replacing its previous terms if it is already indexed.
+     *
+     * @param post The post to index
+     */
+    public void index(Post post) {
+        final Set<String> postTerms = tokenize(post.getTitle());
+        postTerms.addAll(tokenize(post.getContent()));
+
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                written.add(post.getId());
+            }
+
+            put(post.getId(), postTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a post read by the load to the index, unless a write already indexed or removed it.
+     *
+     * @param post The post to index
+     */
+    public void load(Post post) {
+        final Set<String> postTerms = tokenize(post.getTitle());
+        postTerms.addAll(tokenize(post.getContent()));
+
+        lock.writeLock().lock();
+
+        try {
+            if (!written.contains(post.getId())) {
+                put(post.getId(), postTerms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a post to the buffer, shadowing its previous versions. Must be called with the write lock held.
+     *
+     * @param id        The ID of the post
+     * @param postTerms The terms of the title and content of the post
+     */
+    private void put(UUID id, Set<String> postTerms) {
+        unindex(id);
+        shadow(id);
+
+        for (String term : postTerms) {
+            post(term, id);
+        }
+
+        terms.put(id, postTerms);
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param id The ID of the post to remove
+     */
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                written.add(id);
+            }
+
+            unindex(id);
+            shadow(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from its posting lists. Must be called with the write lock held.
+     *
+     * @param id The ID of the post to remove
+     */
+    private void unindex(UUID id) {
+        final Set<String> postTerms = terms.remove(id);
+
+        if (postTerms == null) {
+            return;
+        }
+
+        for (String term : postTerms) {
+            final Set<UUID> ids = postings.get(term);
+
+            ids.remove(id);
+
+            if (ids.isEmpty()) {
+                postings.remove(term);
+
+                if (ready) {
+                    forEachGram(term, gram -> ungram(grams, gram, term));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a post to the posting list of a buffered term, indexing the trigrams of the term if it is new and the
+     * index is ready. Must be called with the write lock held.
+     *
+     * @param term The term
+     * @param id   The ID of the post
+     */
+    private void post(String term, UUID id) {
+        postings.computeIfAbsent(term, key -> {
+            if (ready) {
+                forEachGram(key, gram -> grams.computeIfAbsent(gram, ignored -> new HashSet<>()).add(key));
+            }
+
+            return new HashSet<>();
+        }).add(id);
+    }
+
+    /**
+     * Removes a term from the terms of a trigram, dropping the trigram once it has no term left.
+     *
+     * @param grams The terms containing each trigram
+     * @param gram  The trigram
+     * @param term  The term
+     */
+    private static void ungram(Map<String, Set<String>> grams, String gram, String term) {
+        final Set<String> gramTerms = grams.get(gram);
+
+        if (gramTerms != null && gramTerms.remove(term) && gramTerms.isEmpty()) {
+            grams.remove(gram);
+        }
+    }
+
+    /**
+     * Performs an action for each trigram of a text.
+     *
+     * @param text   The text
+     * @param action The action to perform on each trigram
+     */
+    private static void forEachGram(String text, Consumer<String> action) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            action.accept(text.substring(i, i + GRAM_LENGTH));
+        }
+    }
+
+    /**
+     * Indexes the trigrams of terms.
+     *
+     * @param terms The terms
+     * @return The terms containing each trigram
+     */
+    private static Map<String, Set<String>> grams(Set<String> terms) {
+        final Map<String, Set<String>> grams = new HashMap<>();
+
+        for (String term : terms) {
+            forEachGram(term, gram -> grams.computeIfAbsent(gram, key -> new HashSet<>()).add(term));
+        }
+
+        return grams;
+    }
+
+    /**
+     * Shadows the previous versions of a post written to a segment. Must be called with the write lock held.
+     * Nothing is recorded while no segment exists, so that the initial rebuild leaves no tombstone behind.
+     *
+     * @param id The ID of the post
+     */
+    private void shadow(UUID id) {
+        if (!segments.isEmpty() || !flushing.isEmpty()) {
+            tombstones.put(id, nextSequence);
+        }
+    }
+
+    /**
+     * Marks the index as holding every post of the database, so that searches can be resolved through it, indexes
+     * the trigrams of the buffered terms, and forgets the posts written during the load.
+     */
+    public void markReady() {
+        lock.writeLock().lock();
+
+        try {
+            grams = grams(postings.keySet());
+            flushingGrams = grams(flushing.keySet());
+            ready = true;
+            written.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the index holds every post of the database.
+     *
+     * @return true if searches can be resolved through the index, false otherwise
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Searches the IDs of the candidate posts for a topic.
+     * Each term of the topic must be contained in a term of the post; the candidates are the intersection of the
+     * posting lists of the matching terms, across the buffer and the segments.
+     *
+     * @param topic The topic to search
+     * @return The IDs of the candidate posts, or an empty optional if the index cannot resolve the topic, either
+     * because it is not ready yet or because the topic has no letter nor digit
+     */
+    public Optional<Set<UUID>> search(String topic) {
+        final Set<String> topicTerms = tokenize(topic);
+
+        if (!ready || topicTerms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<UUID> candidates = null;
+
+        for (String topicTerm : topicTerms) {
+            final Set<UUID> matches = new HashSet<>();
+            final List<SearchSegment> searchedSegments;
+
+            lock.readLock().lock();
+
+            try {
+                collect(postings, grams, topicTerm, matches);
+                collect(flushing, flushingGrams, topicTerm, matches);
+                searchedSegments = segments;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            for (SearchSegment segment : searchedSegments) {
+                segment.forEachMatch(topicTerm, id -> {
+                    if (isLive(id, segment.getSequence())) {
+                        matches.add(id);
+                    }
+                });
+            }
+
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.retainAll(matches);
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+
+        return Optional.of(candidates);
+    }
+
+    /**
+     * Adds the IDs of the posting lists of the terms containing a fragment. Must be called with the lock held.
+     * Only the terms holding the rarest trigram of the fragment are checked; fragments shorter than a trigram match
+     * a large share of the terms anyway, so every term is checked.
+     *
+     * @param postings The posting lists to search
+     * @param grams    The terms of the posting lists containing each trigram
+     * @param fragment The folded fragment a term must contain
+     * @param matches  The set to add the IDs to
+     */
+    private static void collect(Map<String, Set<UUID>> postings, Map<String, Set<String>> grams, String fragment, Set<UUID> matches) {
+        if (fragment.length() < GRAM_LENGTH) {
+            postings.forEach((term, ids) -> {
+                if (term.contains(fragment)) {
+                    matches.addAll(ids);
+                }
+            });
+
+            return;
+        }
+
+        Set<String> rarest = null;
+
+        for (int i = 0; i + GRAM_LENGTH <= fragment.length(); i++) {
+            final Set<String> gramTerms = grams.get(fragment.substring(i, i + GRAM_LENGTH));
+
+            if (gramTerms == null) {
+                return;
+            }
+
+            if (rarest == null || gramTerms.size() < rarest.size()) {
+                rarest = gramTerms;
+            }
+        }
+
+        for (String term : rarest) {
+            if (term.contains(fragment)) {
+                matches.addAll(postings.get(term));
+            }
+        }
+    }
+
+    /**
+     * Checks whether a post found in a segment is still live, that is neither re-indexed nor removed since the
+     * segment was written.
+     *
+     * @param id       The ID of the post
+     * @param sequence The sequence number of the segment
+     * @return true if the post is live in the segment, false otherwise
+     */
+    private boolean isLive(UUID id, long sequence) {
+        final Long tombstone = tombstones.get(id);
+
+        return tombstone == null || tombstone <= sequence;
+    }
+
+    /**
+     * Reopens the segments listed in the manifest of the store.
+     * If the manifest or a segment cannot be read, the store is cleared so that the index is rebuilt from scratch.
+     *
+     * @return The date of the last write from which posts must be replayed from the database, or an empty optional if
+     * the whole index must be rebuilt
+     */
+    public Optional<LocalDateTime> load() {
+        try {
+            final Optional<Manifest> manifest = store.readManifest();
+
+            if (manifest.isEmpty()) {
+                return Optional.empty();
+            }
+
+            final List<SearchSegment> opened = new ArrayList<>();
+            long maxFileId = -1;
+
+            for (SegmentFile file : manifest.get().segments()) {
+                opened.add(SearchSegment.open(file.sequence(), file.path()));
+                maxFileId = Math.max(maxFileId, fileId(file.path()));
+            }
+
+            lock.writeLock().lock();
+
+            try {
+                segments = List.copyOf(opened);
+                tombstones.putAll(manifest.get().tombstones());
+                nextSequence = manifest.get().nextSequence();
+                nextFileId = maxFileId + 1;
+                checkpoint = manifest.get().checkpoint();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            logger.info("Post search index reopened with {} segments", opened.size());
+
+            return Optional.of(checkpoint);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Post search index segments cannot be reopened, rebuilding the index", e);
+
+            try {
+                store.clear();
+            } catch (IOException clearException) {
+                logger.warn("Post search index segments cannot be cleared", clearException);
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Flushes the buffered posts to a new segment, then merges segments if needed.
+     * Runs periodically once the index is ready, and on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${blogger.search.segments.flush-interval-ms:30000}")
+    @PreDestroy
+    public void maintain() {
+        if (!ready) {
+            return;
+        }
+
+        try {
+            flush();
+            merge();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Post search index segments cannot be written", e);
+        }
+    }
+
+    /**
+     * Writes the buffered posts to a new segment and publishes it.
+     * Searches keep reading the buffered posts while the segment is written; if the write fails, they are put back
+     * in the buffer.
+     *
+     * @throws IOException if the segment or the manifest cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (maintenanceLock) {
+            final Map<String, Set<UUID>> flushed;
+            final Map<UUID, Set<String>> flushedTerms;
+            final long sequence;
+            final long fileId;
+            final LocalDateTime start = LocalDateTime.now();
+
+            lock.writeLock().lock();
+
+            try {
+                if (terms.isEmpty()) {
+                    return;
+                }
+
+                flushed = postings;
+                flushedTerms = terms;
+                flushing = flushed;
+                flushingGrams = grams;
+                postings = new HashMap<>();
+                terms = new HashMap<>();
+                grams = new HashMap<>();
+                sequence = nextSequence++;
+                fileId = nextFileId++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            final SearchSegment segment;
+
+            try {
+                final Path path = store.segmentPath(fileId);
+
+                SearchSegment.write(path, new TreeMap<>(flushed));
+                segment = SearchSegment.open(sequence, path);
+            } catch (IOException e) {
+                restore(flushedTerms);
+                throw e;
+            }
+
+            lock.writeLock().lock();
+
+            try {
+                final List<SearchSegment> published = new ArrayList<>(segments);
+                published.add(segment);
+
+                segments = List.copyOf(published);
+                flushing = Map.of();
+                flushingGrams = Map.of();
+                checkpoint = start.minus(REPLAY_MARGIN);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            writeManifest();
+        }
+    }
+
+    /**
+     * Puts back the posts of a failed flush in the buffer, unless they were re-indexed or removed meanwhile.
+     *
+     * @param flushedTerms The terms of the flushed posts
+     */
+    private void restore(Map<UUID, Set<String>> flushedTerms) {
+        lock.writeLock().lock();
+
+        try {
+            flushedTerms.forEach((id, postTerms) -> {
+                if (!terms.containsKey(id) && tombstones.getOrDefault(id, Long.MIN_VALUE) < nextSequence) {
+                    for (String term : postTerms) {
+                        post(term, id);
+                    }
+
+                    terms.put(id, postTerms);
+                }
+            });
+
+            flushing = Map.of();
+            flushingGrams = Map.of();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the smallest segments into one when there are more than the configured maximum.
+     * Posts shadowed by a tombstone are dropped from the merged segment, which takes the highest sequence number of
+     * the merged ones, and tombstones older than every remaining segment are discarded. Segments are only merged
+     * while their total size stays within {@code maxSegmentBytes}, so once segments grow that large they are left
+     * as they are and the number of segments may exceed the maximum.
+     *
+     * @throws IOException if the merged segment or the manifest cannot be written
+     */
+    public void merge() throws IOException {
+        synchronized (maintenanceLock) {
+            final List<SearchSegment> current = segments;
+
+            if (current.size() <= maxSegments) {
+                return;
+            }
+
+            final List<SearchSegment> merged = new ArrayList<>(mergeFactor);
+            long mergedBytes = 0;
+
+            for (SearchSegment segment : current.stream().sorted(Comparator.comparingInt(SearchSegment::size)).toList()) {
+                if (merged.size() == mergeFactor || mergedBytes + segment.size() > maxSegmentBytes) {
+                    break;
+                }
+
+                merged.add(segment);
+                mergedBytes += segment.size();
+            }
+
+            if (merged.size() < 2) {
+                logger.debug("Post search index segments not merged, the smallest ones exceed {} bytes together", maxSegmentBytes);
+                return;
+            }
+
+            final SortedMap<String, Set<UUID>> mergedPostings = new TreeMap<>();
+            long sequence = Long.MIN_VALUE;
+
+            for (SearchSegment segment : merged) {
+                sequence = Math.max(sequence, segment.getSequence());
+
+                segment.forEachPosting((term, id) -> {
+                    if (isLive(id, segment.getSequence())) {
+                        mergedPostings.computeIfAbsent(term, key -> new HashSet<>()).add(id);
+                    }
+                });
+            }
+
+            final long fileId;
+
+            lock.readLock().lock();
+
+            try {
+                fileId = nextFileId;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            final Path path = store.segmentPath(fileId);
+
+            SearchSegment.write(path, mergedPostings);
+
+            final SearchSegment segment = SearchSegment.open(sequence, path);
+
+            lock.writeLock().lock();
+
+            try {
+                final List<SearchSegment> published = new ArrayList<>(segments);
+                published.removeAll(merged);
+                published.add(segment);
+                published.sort(Comparator.comparingLong(SearchSegment::getSequence));
+
+                segments = List.copyOf(published);
+                nextFileId = fileId + 1;
+
+                final long oldest = published.get(0).getSequence();
+                tombstones.values().removeIf(tombstone -> tombstone <= oldest);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            writeManifest();
+
+            for (SearchSegment mergedSegment : merged) {
+                store.delete(mergedSegment.getPath());
+            }
+
+            logger.info("Post search index merged {} segments into {}", merged.size(), path.getFileName());
+        }
+    }
+
+    /**
+     * Writes the manifest describing the current segments. Must be called with the maintenance lock held.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    private void writeManifest() throws IOException {
+        final Manifest manifest;
+
+        lock.readLock().lock();
+
+        try {
+            manifest = new Manifest(
+                    checkpoint,
+                    nextSequence,
+                    segments.stream().map(segment -> new SegmentFile(segment.getSequence(), segment.getPath())).toList(),
+                    new HashMap<>(tombstones)
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        store.writeManifest(manifest);
+    }
+
+    /**
+     * Retrieves the number of live segments.
+     *
+     * @return The number of live segments
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Extracts the file number from the name of a segment file.
+     *
+     * @param path The segment file
+     * @return The file number
+     */
+    private static long fileId(Path path) {
+        final String name = path.getFileName().toString();
+
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+}
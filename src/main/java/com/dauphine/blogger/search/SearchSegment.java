@@ -0,0 +1,451 @@
+package com.dauphine.blogger.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Immutable on-disk segment of the post search index, read through a memory-mapped file.
+ * </p>
+ *
+ * <p>
+ * A segment holds a sorted term dictionary, the posting list of each term, and a suffix array of the dictionary
+ * finding the terms containing a fragment. Its file is laid out as follows, all numbers being big-endian:
+ * </p>
+ * <ul>
+ *     <li>a header made of the {@value #MAGIC} magic number, the number of terms and the number of suffixes;</li>
+ *     <li>one fixed-width entry per term: the offset and length of the UTF-8 term, the offset of its posting list
+ *     and the number of IDs in the posting list;</li>
+ *     <li>one fixed-width entry per suffix of each term, starting at each of its characters: the index of the term
+ *     and the offset of the suffix within the term, sorted by the bytes of the suffix;</li>
+ *     <li>the UTF-8 bytes of all terms;</li>
+ *     <li>the posting lists, each ID being written as its two 64-bit halves.</li>
+ * </ul>
+ *
+ * <p>
+ * The suffixes starting with a fragment are contiguous in the suffix array, so finding the terms containing a
+ * fragment takes two binary searches instead of a scan of the dictionary. The suffix array takes 8 bytes per
+ * character of the dictionary. Terms are compared as UTF-8 bytes, so searching a segment never decodes the
+ * dictionary to strings and the operating system page cache serves the segment without copying it to the heap.
+ * </p>
+ *
+ * <p>
+ * A segment is mapped as a single buffer, addressed by int offsets, so its file cannot exceed {@value #MAX_SIZE}
+ * bytes: larger segments are rejected when written and when opened.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class SearchSegment {
+
+    /**
+     * Magic number identifying a segment file. Changed along with the folding of the terms and the layout of the file,
+     * so that segments holding terms folded or laid out differently are rejected and the index rebuilt.
+     */
+    public static final int MAGIC = 0x42425333;
+
+    /**
+     * Maximum size of a segment file, in bytes, the capacity of a mapped buffer.
+     */
+    public static final long MAX_SIZE = Integer.MAX_VALUE;
+
+    /**
+     * Size of the header, in bytes.
+     */
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    /**
+     * Size of a term entry, in bytes.
+     */
+    private static final int ENTRY_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * Size of a suffix entry, in bytes.
+     */
+    private static final int SUFFIX_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Size of an ID in a posting list, in bytes.
+     */
+    private static final int ID_SIZE = 2 * Long.BYTES;
+
+    /**
+     * The sequence number of the segment, increasing with the flushes.
+     */
+    private final long sequence;
+
+    /**
+     * The file of the segment.
+     */
+    private final Path path;
+
+    /**
+     * The memory-mapped content of the file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of terms of the segment.
+     */
+    private final int termCount;
+
+    /**
+     * The number of suffixes of the suffix array.
+     */
+    private final int suffixCount;
+
+    /**
+     * Constructs a SearchSegment over a mapped file.
+     *
+     * @param sequence The sequence number of the segment
+     * @param path     The file of the segment
+     * @param buffer   The memory-mapped content of the file
+     */
+    private SearchSegment(long sequence, Path path, ByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.buffer = buffer;
+        this.termCount = buffer.getInt(Integer.BYTES);
+        this.suffixCount = buffer.getInt(2 * Integer.BYTES);
+    }
+
+    /**
+     * Writes a segment file from sorted posting lists.
+     * The file is written next to its final location and forced to the disk, then atomically moved, so that a crash
+     * never leaves a partially written segment behind.
+     *
+     * @param path     The file of the segment
+     * @param postings The posting lists, sorted by term
+     * @throws IOException if the file cannot be written, or would exceed {@value #MAX_SIZE} bytes
+     */
+    public static void write(Path path, SortedMap<String, ? extends Collection<UUID>> postings) throws IOException {
+        final byte[][] terms = new byte[postings.size()][];
+        final int[] counts = new int[postings.size()];
+
+        int index = 0;
+        long termBytes = 0;
+        long postingBytes = 0;
+
+        for (Map.Entry<String, ? extends Collection<UUID>> entry : postings.entrySet()) {
+            terms[index] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            counts[index] = entry.getValue().size();
+            termBytes += terms[index].length;
+            postingBytes += (long) counts[index] * ID_SIZE;
+            index++;
+        }
+
+        final long[] suffixes = suffixes(terms);
+        final long size = HEADER_SIZE + (long) terms.length * ENTRY_SIZE + (long) suffixes.length * SUFFIX_SIZE + termBytes + postingBytes;
+
+        if (size > MAX_SIZE) {
+            throw new IOException("Search segment of " + size + " bytes exceeds the maximum of " + MAX_SIZE + " bytes: " + path);
+        }
+
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(terms.length);
+            output.writeInt(suffixes.length);
+
+            int termOffset = HEADER_SIZE + terms.length * ENTRY_SIZE + suffixes.length * SUFFIX_SIZE;
+            long postingsOffset = (long) termOffset + termBytes;
+
+            for (int i = 0; i < terms.length; i++) {
+                output.writeInt(termOffset);
+                output.writeInt(terms[i].length);
+                output.writeLong(postingsOffset);
+                output.writeInt(counts[i]);
+
+                termOffset += terms[i].length;
+                postingsOffset += (long) counts[i] * ID_SIZE;
+            }
+
+            for (long suffix : suffixes) {
+                output.writeInt((int) (suffix >>> Integer.SIZE));
+                output.writeInt((int) suffix);
+            }
+
+            for (byte[] term : terms) {
+                output.write(term);
+            }
+
+            for (Collection<UUID> ids : postings.values()) {
+                for (UUID id : ids) {
+                    output.writeLong(id.getMostSignificantBits());
+                    output.writeLong(id.getLeastSignificantBits());
+                }
+            }
+
+            output.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Builds the suffix array of a dictionary, holding the suffixes starting at each character of each term.
+     *
+     * @param terms The UTF-8 bytes of the terms
+     * @return The suffixes, each packing the index of its term in its high half and its offset in its low half,
+     * sorted by their bytes
+     */
+    private static long[] suffixes(byte[][] terms) {
+        int count = 0;
+
+        for (byte[] term : terms) {
+            for (byte b : term) {
+                if (!isContinuation(b)) {
+                    count++;
+                }
+            }
+        }
+
+        final long[] suffixes = new long[count];
+        int index = 0;
+
+        for (int i = 0; i < terms.length; i++) {
+            for (int offset = 0; offset < terms[i].length; offset++) {
+                if (!isContinuation(terms[i][offset])) {
+                    suffixes[index++] = (long) i << Integer.SIZE | offset;
+                }
+            }
+        }
+
+        sort(suffixes, terms);
+
+        return suffixes;
+    }
+
+    /**
+     * Checks whether a byte continues a UTF-8 character instead of starting one.
+     *
+     * @param b The byte
+     * @return true if the byte continues a character, false otherwise
+     */
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Sorts packed suffixes by their bytes, with a bottom-up merge sort avoiding to box them.
+     *
+     * @param suffixes The packed suffixes
+     * @param terms    The UTF-8 bytes of the terms
+     */
+    private static void sort(long[] suffixes, byte[][] terms) {
+        long[] source = suffixes;
+        long[] target = new long[suffixes.length];
+
+        for (int width = 1; width < suffixes.length; width *= 2) {
+            for (int low = 0; low < suffixes.length; low += 2 * width) {
+                final int middle = Math.min(low + width, suffixes.length);
+                final int high = Math.min(low + 2 * width, suffixes.length);
+                int left = low;
+                int right = middle;
+
+                for (int k = low; k < high; k++) {
+                    target[k] = right >= high || left < middle && compare(terms, source[left], source[right]) <= 0
+                            ? source[left++]
+                            : source[right++];
+                }
+            }
+
+            final long[] swapped = source;
+            source = target;
+            target = swapped;
+        }
+
+        if (source != suffixes) {
+            System.arraycopy(source, 0, suffixes, 0, suffixes.length);
+        }
+    }
+
+    /**
+     * Compares the bytes of two packed suffixes, as unsigned bytes.
+     *
+     * @param terms The UTF-8 bytes of the terms
+     * @param a     The first packed suffix
+     * @param b     The second packed suffix
+     * @return A negative number, zero or a positive number if the first suffix sorts before, with or after the second
+     */
+    private static int compare(byte[][] terms, long a, long b) {
+        final byte[] first = terms[(int) (a >>> Integer.SIZE)];
+        final byte[] second = terms[(int) (b >>> Integer.SIZE)];
+
+        return Arrays.compareUnsigned(first, (int) a, first.length, second, (int) b, second.length);
+    }
+
+    /**
+     * Opens a segment file by mapping it in memory.
+     *
+     * @param sequence The sequence number of the segment
+     * @param path     The file of the segment
+     * @return The opened segment
+     * @throws IOException if the file cannot be read, is not a segment or exceeds {@value #MAX_SIZE} bytes
+     */
+    public static SearchSegment open(long sequence, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SIZE) {
+                throw new IOException("Search segment of " + channel.size() + " bytes exceeds the maximum of " + MAX_SIZE + " bytes: " + path);
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a search segment: " + path);
+            }
+
+            return new SearchSegment(sequence, path, buffer);
+        }
+    }
+
+    /**
+     * Retrieves the sequence number of the segment.
+     *
+     * @return The sequence number of the segment
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retrieves the file of the segment.
+     *
+     * @return The file of the segment
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Retrieves the size of the segment file.
+     *
+     * @return The size of the segment file, in bytes
+     */
+    public int size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Performs an action for each ID of the posting lists of the terms containing a fragment.
+     *
+     * @param fragment The upper-cased fragment a term must contain
+     * @param action   The action to perform on each ID
+     */
+    public void forEachMatch(String fragment, Consumer<UUID> action) {
+        final byte[] needle = fragment.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = suffixCount;
+
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+
+            if (compareSuffix(middle, needle) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] matched = new int[16];
+        int count = 0;
+
+        for (int i = low; i < suffixCount && compareSuffix(i, needle) == 0; i++) {
+            if (count == matched.length) {
+                matched = Arrays.copyOf(matched, 2 * count);
+            }
+
+            matched[count++] = buffer.getInt(HEADER_SIZE + termCount * ENTRY_SIZE + i * SUFFIX_SIZE);
+        }
+
+        Arrays.sort(matched, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || matched[i] != matched[i - 1]) {
+                forEachId(HEADER_SIZE + matched[i] * ENTRY_SIZE, action);
+            }
+        }
+    }
+
+    /**
+     * Performs an action for each term of the segment with its posting list, in term order.
+     * Used to merge segments.
+     *
+     * @param action The action to perform on each term and ID
+     */
+    public void forEachPosting(BiConsumer<String, UUID> action) {
+        for (int i = 0; i < termCount; i++) {
+            final int entry = HEADER_SIZE + i * ENTRY_SIZE;
+            final byte[] term = new byte[buffer.getInt(entry + Integer.BYTES)];
+
+            buffer.get(buffer.getInt(entry), term);
+
+            final String decoded = new String(term, StandardCharsets.UTF_8);
+
+            forEachId(entry, id -> action.accept(decoded, id));
+        }
+    }
+
+    /**
+     * Performs an action for each ID of the posting list of a term entry.
+     *
+     * @param entry  The offset of the term entry
+     * @param action The action to perform on each ID
+     */
+    private void forEachId(int entry, Consumer<UUID> action) {
+        final long postingsOffset = buffer.getLong(entry + 2 * Integer.BYTES);
+        final int count = buffer.getInt(entry + 2 * Integer.BYTES + Long.BYTES);
+
+        for (int j = 0; j < count; j++) {
+            final int offset = Math.toIntExact(postingsOffset + (long) j * ID_SIZE);
+
+            action.accept(new UUID(buffer.getLong(offset), buffer.getLong(offset + Long.BYTES)));
+        }
+    }
+
+    /**
+     * Compares a suffix of the suffix array with a needle, a suffix starting with the needle being equal to it.
+     *
+     * @param index  The index of the suffix in the suffix array
+     * @param needle The UTF-8 bytes to look for
+     * @return A negative number if the suffix sorts before the needle, zero if it starts with the needle, a positive
+     * number if it sorts after the needle
+     */
+    private int compareSuffix(int index, byte[] needle) {
+        final int suffix = HEADER_SIZE + termCount * ENTRY_SIZE + index * SUFFIX_SIZE;
+        final int entry = HEADER_SIZE + buffer.getInt(suffix) * ENTRY_SIZE;
+        final int start = buffer.getInt(entry) + buffer.getInt(suffix + Integer.BYTES);
+        final int length = buffer.getInt(entry) + buffer.getInt(entry + Integer.BYTES) - start;
+
+        for (int k = 0; k < Math.min(length, needle.length); k++) {
+            final int compared = Byte.compareUnsigned(buffer.get(start + k), needle[k]);
+
+            if (compared != 0) {
+                return compared;
+            }
+        }
+
+        return length >= needle.length ? 0 : -1;
+    }
+
+}
@@ -0,0 +1,345 @@
+package com.dauphine.blogger.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Directory holding the segments of the post search index and the manifest describing them, along with the snapshots
+ * of the other post indexes.
+ * </p>
+ *
+ * <p>
+ * The manifest is a small text file listing the live segments, the tombstones of the posts removed or re-indexed
+ * since they were written to a segment, the next sequence number, and the checkpoint from which the changes must be
+ * replayed from the database after a restart. It is rewritten atomically after each flush or merge, so that the
+ * directory always describes a consistent set of segments: the manifest is forced to the disk before it replaces the
+ * previous one, and the directory is forced after the move, so that the segments it lists are durable as well.
+ * </p>
+ *
+ * <p>
+ * Snapshots are binary files written by the {@link PostIndexSnapshots}, replaced atomically the same way. They are
+ * not removed by {@link #clear()}, since they do not depend on the segments.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class SearchSegmentStore {
+
+    /**
+     * Name of the manifest file.
+     */
+    private static final String MANIFEST = "manifest";
+
+    /**
+     * Extension of the segment files.
+     */
+    private static final String SEGMENT_EXTENSION = ".seg";
+
+    /**
+     * Extension of the snapshot files.
+     */
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    /**
+     * The directory of the index.
+     */
+    private final Path directory;
+
+    /**
+     * Constructs a new SearchSegmentStore over the specified directory.
+     *
+     * @param directory The directory of the index, created if missing
+     */
+    public SearchSegmentStore(@Value("${blogger.search.segments.directory:data/search-index}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Retrieves the path of a new segment file.
+     *
+     * @param fileId A unique number identifying the file
+     * @return The path of the segment file
+     * @throws IOException if the directory cannot be created
+     */
+    public Path segmentPath(long fileId) throws IOException {
+        Files.createDirectories(directory);
+
+        return directory.resolve(String.format("segment-%019d%s", fileId, SEGMENT_EXTENSION));
+    }
+
+    /**
+     * Reads the manifest of the index.
+     *
+     * @return The manifest, or an empty optional if the index was never written
+     * @throws IOException if the manifest cannot be read or is malformed
+     */
+    public Optional<Manifest> readManifest() throws IOException {
+        final Path path = directory.resolve(MANIFEST);
+
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        LocalDateTime checkpoint = null;
+        long nextSequence = 0;
+        final List<SegmentFile> segments = new ArrayList<>();
+        final Map<UUID, Long> tombstones = new HashMap<>();
+
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                final int separator = line.indexOf('=');
+
+                if (separator < 0) {
+                    continue;
+                }
+
+                final String key = line.substring(0, separator);
+                final String value = line.substring(separator + 1);
+
+                switch (key) {
+                    case "checkpoint" -> checkpoint = LocalDateTime.parse(value);
+                    case "nextSequence" -> nextSequence = Long.parseLong(value);
+                    case "segment" -> {
+                        final String[] parts = value.split(":", 2);
+                        segments.add(new SegmentFile(Long.parseLong(parts[0]), directory.resolve(parts[1])));
+                    }
+                    case "tombstone" -> {
+                        final String[] parts = value.split(":", 2);
+                        tombstones.put(UUID.fromString(parts[0]), Long.parseLong(parts[1]));
+                    }
+                    default -> throw new IOException("Unknown manifest entry " + key);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed manifest " + path, e);
+        }
+
+        if (checkpoint == null) {
+            throw new IOException("Manifest without checkpoint " + path);
+        }
+
+        return Optional.of(new Manifest(checkpoint, nextSequence, segments, tombstones));
+    }
+
+    /**
+     * Writes the manifest of the index, replacing the previous one atomically once it is forced to the disk.
+     *
+     * @param manifest The manifest to write
+     * @throws IOException if the manifest cannot be written
+     */
+    public void writeManifest(Manifest manifest) throws IOException {
+        Files.createDirectories(directory);
+
+        final StringBuilder content = new StringBuilder()
+                .append("checkpoint=").append(manifest.checkpoint()).append('\n')
+                .append("nextSequence=").append(manifest.nextSequence()).append('\n');
+
+        for (SegmentFile segment : manifest.segments()) {
+            content.append("segment=").append(segment.sequence()).append(':').append(segment.path().getFileName()).append('\n');
+        }
+
+        manifest.tombstones().forEach((id, sequence) -> content.append("tombstone=").append(id).append(':').append(sequence).append('\n'));
+
+        final Path temporary = directory.resolve(MANIFEST + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            final ByteBuffer bytes = StandardCharsets.UTF_8.encode(content.toString());
+
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    /**
+     * Forces the entries of the directory to the disk, so that the moved manifest and segments survive a crash.
+     * Platforms which cannot open a directory, such as Windows, do not need it and are ignored.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on this platform, which offers no way to force them.
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param name   The name of the snapshot
+     * @param reader The reader consuming the content of the snapshot
+     * @return true if the snapshot was read, false if it was never written
+     * @throws IOException if the snapshot cannot be read
+     */
+    public boolean readSnapshot(String name, SnapshotReader reader) throws IOException {
+        final Path path = directory.resolve(name + SNAPSHOT_EXTENSION);
+
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            reader.read(input);
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes a snapshot, replacing the previous one atomically once it is forced to the disk.
+     *
+     * @param name   The name of the snapshot
+     * @param writer The writer producing the content of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writeSnapshot(String name, SnapshotWriter writer) throws IOException {
+        Files.createDirectories(directory);
+
+        final Path temporary = directory.resolve(name + SNAPSHOT_EXTENSION + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            writer.write(output);
+            output.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(name + SNAPSHOT_EXTENSION), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    /**
+     * Deletes a snapshot, for instance when it cannot be read anymore.
+     *
+     * @param name The name of the snapshot
+     * @throws IOException if the snapshot cannot be deleted
+     */
+    public void deleteSnapshot(String name) throws IOException {
+        Files.deleteIfExists(directory.resolve(name + SNAPSHOT_EXTENSION));
+    }
+
+    /**
+     * Deletes a segment file that is no longer referenced by the manifest.
+     *
+     * @param path The segment file
+     * @throws IOException if the file cannot be deleted
+     */
+    public void delete(Path path) throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Deletes the manifest and every segment file, for instance when they cannot be read anymore.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    public void clear() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().equals(MANIFEST) || file.getFileName().toString().endsWith(SEGMENT_EXTENSION))
+                    .forEach(file -> {
+                        try {
+                            Files.delete(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * <p>
+     * Consumer of the content of a snapshot.
+     * </p>
+     */
+    @FunctionalInterface
+    public interface SnapshotReader {
+
+        /**
+         * Reads the content of a snapshot.
+         *
+         * @param input The content of the snapshot
+         * @throws IOException if the content cannot be read or is malformed
+         */
+        void read(DataInputStream input) throws IOException;
+
+    }
+
+    /**
+     * <p>
+     * Producer of the content of a snapshot.
+     * </p>
+     */
+    @FunctionalInterface
+    public interface SnapshotWriter {
+
+        /**
+         * Writes the content of a snapshot.
+         *
+         * @param output The content of the snapshot
+         * @throws IOException if the content cannot be written
+         */
+        void write(DataOutputStream output) throws IOException;
+
+    }
+
+    /**
+     * <p>
+     * Reference to a segment file listed in the manifest.
+     * </p>
+     *
+     * @param sequence The sequence number of the segment
+     * @param path     The file of the segment
+     */
+    public record SegmentFile(long sequence, Path path) {
+    }
+
+    /**
+     * <p>
+     * Content of the manifest of the index.
+     * </p>
+     *
+     * @param checkpoint   The date of the last write from which posts must be replayed from the database after a restart
+     * @param nextSequence The sequence number of the next flushed segment
+     * @param segments     The live segments
+     * @param tombstones   The sequence number from which each removed or re-indexed post is live, keyed by post ID
+     */
+    public record Manifest(LocalDateTime checkpoint, long nextSequence, List<SegmentFile> segments, Map<UUID, Long> tombstones) {
+    }
+
+}
@@ -0,0 +1,896 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.dto.Suggestion;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * In-memory radix trie of the category names and post titles, completing the prefixes typed by the clients.
+ * </p>
+ *
+ * <p>
+ * Names and titles are folded by {@link TextNormalizer}, ignoring case and accents, and inserted in the trie. Chains
+ * of nodes with a single child and no entry are collapsed into one edge, so the trie holds at most two nodes per key
+ * instead of one per character. Edges are not copied: a node keeps a key passing through it and the length of its
+ * prefix, its edge being the characters of that key between the prefixes of its parent and its own. Each node keeps
+ * its children in sorted arrays, and the {@code maxResults} best entries of its subtree, so that a completion only
+ * walks the characters of the prefix and never visits the subtree. The best entries are the categories first, the
+ * most popular ones, holding the most posts, first; then the posts, the most recent first.
+ * </p>
+ *
+ * <p>
+ * A node takes 40 bytes, a leaf sharing one array for its entry and its best entries, and a branching node about 150
+ * bytes with 10 best entries. The trie thus takes at most about 200 bytes per key, and the whole index about 500
+ * bytes per title of 50 characters once the entries, their texts and the maps are counted, around 500 MB for a
+ * million posts. The trie with a node per character took about 6 KB per such title.
+ * </p>
+ *
+ * <p>
+ * The trie is updated incrementally when posts and categories are written. At startup, the categories are loaded
+ * from the database, and the posts from the snapshot written by the {@link PostIndexSnapshots}, then from the posts
+ * written since, or from the whole database when there is no snapshot. Writes keep being applied while the index loads, so the index remembers the posts and categories written until it
+ * is ready, and the load skips them: the write carried a newer state than the row the load read.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class SuggestionIndex {
+
+    /**
+     * Order of the entries, the best first.
+     */
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::type)
+            .thenComparing(Comparator.comparingLong(Entry::score).reversed())
+            .thenComparing(Entry::text)
+            .thenComparing(Entry::id);
+
+    /**
+     * Empty array of entries, shared by the nodes holding none.
+     */
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    /**
+     * Maximum number of completions of a prefix, kept by each node.
+     */
+    private final int maxResults;
+
+    /**
+     * The root of the trie, matching the empty prefix.
+     */
+    private final Node root = new Node("", 0);
+
+    /**
+     * Entries of the indexed posts, keyed by ID.
+     */
+    private final Map<UUID, Entry> posts = new HashMap<>();
+
+    /**
+     * Entries of the indexed categories, keyed by ID.
+     */
+    private final Map<UUID, Entry> categories = new HashMap<>();
+
+    /**
+     * ID of the category of each indexed post.
+     */
+    private final Map<UUID, UUID> postCategories = new HashMap<>();
+
+    /**
+     * Number of indexed posts of each category.
+     */
+    private final Map<UUID, Long> postCounts = new HashMap<>();
+
+    /**
+     * IDs of the posts indexed or removed by writes before the index was ready, skipped by the load.
+     */
+    private final Set<UUID> writtenPosts = new HashSet<>();
+
+    /**
+     * IDs of the categories indexed or removed by writes before the index was ready, skipped by the load.
+     */
+    private final Set<UUID> writtenCategories = new HashSet<>();
+
+    /**
+     * Lock guarding the trie, the maps and the written posts and categories.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Whether the index holds every post and category of the database.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Constructs a new SuggestionIndex.
+     *
+     * @param maxResults Maximum number of completions of a prefix
+     */
+    public SuggestionIndex(@Value("${blogger.search.suggestions.max-results:10}") int maxResults) {
+        this.maxResults = Math.max(1, maxResults);
+    }
+
+    /**
+     * Retrieves the maximum number of completions of a prefix.
+     *
+     * @return The maximum number of completions
+     */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Adds a post to the index, replacing its previous title and category if it is already indexed.
+     *
+     * @param post The post to index
+     */
+    public void indexPost(Post post) {
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                writtenPosts.add(post.getId());
+            }
+
+            putPost(post);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a post read by the load to the index, unless a write already indexed or removed it.
+     *
+     * @param post The post to index
+     */
+    public void loadPost(Post post) {
+        lock.writeLock().lock();
+
+        try {
+            if (!writtenPosts.contains(post.getId())) {
+                putPost(post);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a post in the trie and in the count of its category, replacing its previous entry. Must be called with
+     * the write lock held.
+     *
+     * @param post The post to insert
+     */
+    private void putPost(Post post) {
+        final long score = post.getCreatedDate() != null
+                ? post.getCreatedDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : Long.MIN_VALUE;
+
+        putPost(post.getId(), post.getTitle(), score, post.getCategory() != null ? post.getCategory().getId() : null);
+    }
+
+    /**
+     * Inserts a post in the trie and in the count of its category, replacing its previous entry. Must be called with
+     * the write lock held.
+     *
+     * @param id         The ID of the post
+     * @param title      The title of the post, or null if it has none
+     * @param score      The creation time of the post in milliseconds
+     * @param categoryId The ID of the category of the post, or null if it has none
+     */
+    private void putPost(UUID id, String title, long score, UUID categoryId) {
+        removePostLocked(id);
+        put(posts, entry(id, Suggestion.Type.POST, title, score));
+
+        if (categoryId != null) {
+            postCategories.put(id, categoryId);
+            count(categoryId, 1);
+        }
+    }
+
+    /**
+     * Removes the posts loaded from a snapshot which are no longer in the database, unless a write indexed them
+     * since.
+     *
+     * @param storedIds The IDs of the posts of the database
+     */
+    public void unloadMissing(Set<UUID> storedIds) {
+        lock.writeLock().lock();
+
+        try {
+            final Set<UUID> indexed = new HashSet<>(posts.keySet());
+            indexed.addAll(postCategories.keySet());
+
+            for (UUID id : indexed) {
+                if (!storedIds.contains(id) && !writtenPosts.contains(id)) {
+                    removePostLocked(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the indexed posts to a snapshot: the ID, title, creation time and category of each post. The posts are
+     * copied under the read lock, then written without it. Categories are not written, since they are loaded from the
+     * database at every start.
+     *
+     * @param output The content of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writePostsTo(DataOutput output) throws IOException {
+        final Map<UUID, Entry> indexed;
+        final Map<UUID, UUID> categoryIds;
+
+        lock.readLock().lock();
+
+        try {
+            indexed = new HashMap<>(posts);
+            categoryIds = new HashMap<>(postCategories);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        final Set<UUID> ids = new HashSet<>(indexed.keySet());
+        ids.addAll(categoryIds.keySet());
+
+        output.writeInt(ids.size());
+
+        for (UUID id : ids) {
+            final Entry entry = indexed.get(id);
+
+            PostIndexSnapshots.writeId(output, id);
+            output.writeBoolean(entry != null);
+
+            if (entry != null) {
+                PostIndexSnapshots.writeString(output, entry.text());
+                output.writeLong(entry.score());
+            }
+
+            PostIndexSnapshots.writeId(output, categoryIds.get(id));
+        }
+    }
+
+    /**
+     * Loads the posts of a snapshot written by {@link #writePostsTo(DataOutput)}, unless a write already indexed or
+     * removed them. The snapshot is read entirely before any post is indexed, so that a malformed snapshot loads
+     * nothing.
+     *
+     * @param input The content of the snapshot
+     * @throws IOException if the snapshot cannot be read or is malformed
+     */
+    public void readPostsFrom(DataInput input) throws IOException {
+        final int count = input.readInt();
+        final List<StoredPost> read = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            final UUID id = Objects.requireNonNull(PostIndexSnapshots.readId(input));
+            final boolean titled = input.readBoolean();
+            final String title = titled ? PostIndexSnapshots.readString(input) : null;
+            final long score = titled ? input.readLong() : Long.MIN_VALUE;
+
+            read.add(new StoredPost(id, title, score, PostIndexSnapshots.readId(input)));
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            for (StoredPost post : read) {
+                if (!writtenPosts.contains(post.id())) {
+                    putPost(post.id(), post.title(), post.score(), post.categoryId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from the index.
+     *
+     * @param id The ID of the post to remove
+     */
+    public void removePost(UUID id) {
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                writtenPosts.add(id);
+            }
+
+            removePostLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from the trie and from the count of its category. Must be called with the write lock held.
+     *
+     * @param id The ID of the post to remove
+     */
+    private void removePostLocked(UUID id) {
+        final Entry entry = posts.remove(id);
+
+        if (entry != null) {
+            remove(entry);
+        }
+
+        final UUID categoryId = postCategories.remove(id);
+
+        if (categoryId != null) {
+            count(categoryId, -1);
+        }
+    }
+
+    /**
+     * Adds a category to the index, replacing its previous name if it is already indexed.
+     *
+     * @param category The category to index
+     */
+    public void indexCategory(Category category) {
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                writtenCategories.add(category.getId());
+            }
+
+            putCategory(category);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a category read by the load to the index, unless a write already indexed or removed it.
+     *
+     * @param category The category to index
+     */
+    public void loadCategory(Category category) {
+        lock.writeLock().lock();
+
+        try {
+            if (!writtenCategories.contains(category.getId())) {
+                putCategory(category);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a category in the trie, replacing its previous entry. Must be called with the write lock held.
+     *
+     * @param category The category to insert
+     */
+    private void putCategory(Category category) {
+        final Entry previous = categories.remove(category.getId());
+
+        if (previous != null) {
+            remove(previous);
+        }
+
+        put(categories, entry(category.getId(), Suggestion.Type.CATEGORY, category.getName(), postCounts.getOrDefault(category.getId(), 0L)));
+    }
+
+    /**
+     * Removes a category from the index.
+     *
+     * @param id The ID of the category to remove
+     */
+    public void removeCategory(UUID id) {
+        lock.writeLock().lock();
+
+        try {
+            if (!ready) {
+                writtenCategories.add(id);
+            }
+
+            final Entry entry = categories.remove(id);
+
+            if (entry != null) {
+                remove(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the number of posts of a category, and its rank among the completions. Must be called with the write
+     * lock held.
+     *
+     * @param categoryId The ID of the category
+     * @param delta      The number of posts added to the category, negative if posts were removed
+     */
+    private void count(UUID categoryId, long delta) {
+        final long count = postCounts.merge(categoryId, delta, Long::sum);
+
+        if (count <= 0) {
+            postCounts.remove(categoryId);
+        }
+
+        final Entry entry = categories.remove(categoryId);
+
+        if (entry != null) {
+            remove(entry);
+            put(categories, new Entry(entry.id(), entry.type(), entry.text(), entry.key(), Math.max(0, count)));
+        }
+    }
+
+    /**
+     * Marks the index as holding every post and category of the database, so that completions can be served, and
+     * forgets the posts and categories written during the load.
+     */
+    public void markReady() {
+        lock.writeLock().lock();
+
+        try {
+            ready = true;
+            writtenPosts.clear();
+            writtenCategories.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the index holds every post and category of the database.
+     *
+     * @return true if completions can be served, false otherwise
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Completes a prefix, ignoring case and accents.
+     *
+     * @param prefix The prefix to complete
+     * @param limit  The maximum number of completions, capped to {@code maxResults}
+     * @return The best completions of the prefix, or an empty optional if the index is not ready yet
+     */
+    public Optional<List<Suggestion>> suggest(String prefix, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+
+        final String key = TextNormalizer.normalize(prefix);
+
+        lock.readLock().lock();
+
+        try {
+            Node node = root;
+
+            while (node.depth < key.length()) {
+                final Node child = node.child(key.charAt(node.depth));
+
+                if (child == null || common(key, child, node.depth) < Math.min(key.length(), child.depth)) {
+                    return Optional.of(List.of());
+                }
+
+                node = child;
+            }
+
+            return Optional.of(Arrays.stream(node.best)
+                    .limit(Math.min(limit, maxResults))
+                    .map(entry -> new Suggestion(entry.text(), entry.type(), entry.id()))
+                    .toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the entry of a text.
+     *
+     * @param id    The ID of the category or post
+     * @param type  The source of the text
+     * @param text  The name of the category or the title of the post
+     * @param score The popularity of the category or the recency of the post
+     * @return The entry, or null if there is no text
+     */
+    private static Entry entry(UUID id, Suggestion.Type type, String text, long score) {
+        if (text == null) {
+            return null;
+        }
+
+        final String key = TextNormalizer.normalize(text);
+
+        return new Entry(id, type, text, key.equals(text) ? text : key, score);
+    }
+
+    /**
+     * Records an entry and inserts it in the trie, splitting the edge where its key leaves the trie. Must be called
+     * with the write lock held.
+     *
+     * @param entries The entries of the same type, keyed by ID
+     * @param entry   The entry to insert, ignored if null
+     */
+    private void put(Map<UUID, Entry> entries, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+
+        entries.put(entry.id(), entry);
+
+        final String key = entry.key();
+        Node node = root;
+        offer(node, entry);
+
+        while (node.depth < key.length()) {
+            final char label = key.charAt(node.depth);
+            Node child = node.child(label);
+
+            if (child == null) {
+                node.addChild(label, Node.leaf(entry));
+                return;
+            }
+
+            final int common = common(key, child, node.depth);
+
+            if (common < child.depth) {
+                final Node middle = new Node(child.source, common);
+
+                middle.addChild(child.source.charAt(common), child);
+                middle.best = child.best;
+                node.replaceChild(label, middle);
+                child = middle;
+            }
+
+            offer(child, entry);
+            node = child;
+        }
+
+        node.terminals = insert(node.terminals, node.terminals.length, entry);
+    }
+
+    /**
+     * Measures how far a key follows the edge leading to a node.
+     *
+     * @param key   The key
+     * @param child The node
+     * @param from  The length of the prefix of the parent of the node, where its edge starts
+     * @return The length of the prefix shared by the key and the node, at most the length of the prefix of the node
+     */
+    private static int common(String key, Node child, int from) {
+        final int limit = Math.min(key.length(), child.depth);
+        int position = from;
+
+        while (position < limit && key.charAt(position) == child.source.charAt(position)) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * Adds an entry to the best entries of a node, if it ranks among them.
+     *
+     * @param node  The node
+     * @param entry The entry
+     */
+    private void offer(Node node, Entry entry) {
+        final int found = Arrays.binarySearch(node.best, entry, ORDER);
+        final int position = -found - 1;
+
+        if (found < 0 && position < maxResults) {
+            final Entry[] best = insert(node.best, position, entry);
+
+            node.best = best.length > maxResults ? Arrays.copyOf(best, maxResults) : best;
+        }
+    }
+
+    /**
+     * Removes an entry from the trie, recomputing the best entries of the nodes it ranked in, pruning the nodes left
+     * empty and merging the nodes left with a single child into it. Must be called with the write lock held.
+     *
+     * @param entry The entry to remove
+     */
+    private void remove(Entry entry) {
+        final String key = entry.key();
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+
+        path.add(node);
+
+        while (node.depth < key.length()) {
+            node = node.child(key.charAt(node.depth));
+            path.add(node);
+        }
+
+        node.terminals = without(node.terminals, entry);
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            final Node current = path.get(i);
+            final Node parent = i > 0 ? path.get(i - 1) : null;
+
+            if (parent != null && current.terminals.length == 0 && current.children.length == 0) {
+                parent.removeChild(current.source.charAt(parent.depth));
+            } else if (parent != null && current.terminals.length == 0 && current.children.length == 1) {
+                parent.replaceChild(current.source.charAt(parent.depth), current.children[0]);
+            } else if (Arrays.binarySearch(current.best, entry, ORDER) >= 0) {
+                recompute(current);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the best entries of a node from its own entries and the best entries of its children.
+     *
+     * @param node The node
+     */
+    private void recompute(Node node) {
+        final List<Entry> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.best));
+        }
+
+        candidates.sort(ORDER);
+
+        node.best = candidates.subList(0, Math.min(maxResults, candidates.size())).toArray(NO_ENTRIES);
+    }
+
+    /**
+     * Inserts an entry in an array.
+     *
+     * @param array    The array
+     * @param position The position of the entry
+     * @param value    The entry
+     * @return A new array holding the entry at the position
+     */
+    private static Entry[] insert(Entry[] array, int position, Entry value) {
+        final Entry[] inserted = new Entry[array.length + 1];
+
+        System.arraycopy(array, 0, inserted, 0, position);
+        inserted[position] = value;
+        System.arraycopy(array, position, inserted, position + 1, array.length - position);
+
+        return inserted;
+    }
+
+    /**
+     * Removes an entry from an array.
+     *
+     * @param array The array
+     * @param value The entry
+     * @return A new array without the entry, or the array itself if it does not hold it
+     */
+    private static Entry[] without(Entry[] array, Entry value) {
+        final int position = Arrays.asList(array).indexOf(value);
+
+        if (position < 0) {
+            return array;
+        }
+
+        if (array.length == 1) {
+            return NO_ENTRIES;
+        }
+
+        final Entry[] removed = new Entry[array.length - 1];
+
+        System.arraycopy(array, 0, removed, 0, position);
+        System.arraycopy(array, position + 1, removed, position, array.length - position - 1);
+
+        return removed;
+    }
+
+    /**
+     * <p>
+     * Text held by the index.
+     * </p>
+     *
+     * @param id    The ID of the category or post
+     * @param type  The source of the text
+     * @param text  The name of the category or the title of the post
+     * @param key   The text folded by {@link TextNormalizer}, inserted in the trie
+     * @param score The number of posts of the category, or the creation time of the post in milliseconds
+     */
+    private record Entry(UUID id, Suggestion.Type type, String text, String key, long score) {
+    }
+
+    /**
+     * <p>
+     * Post read from a snapshot.
+     * </p>
+     *
+     * @param id         The ID of the post
+     * @param title      The title of the post, or null if it has none
+     * @param score      The creation time of the post in milliseconds
+     * @param categoryId The ID of the category of the post, or null if it has none
+     */
+    private record StoredPost(UUID id, String title, long score, UUID categoryId) {
+    }
+
+    /**
+     * <p>
+     * Node of the trie, matching the prefix spelled by the path from the root.
+     * </p>
+     *
+     * <p>
+     * The arrays of a node are never modified in place but replaced, so that a leaf can share one array for its
+     * entries and its best entries.
+     * </p>
+     */
+    private static final class Node {
+
+        /**
+         * Empty array of characters, shared by the nodes without children.
+         */
+        private static final char[] NO_LABELS = new char[0];
+
+        /**
+         * Empty array of nodes, shared by the nodes without children.
+         */
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        /**
+         * A key starting with the prefix of the node, holding the characters of its edge.
+         */
+        private final String source;
+
+        /**
+         * The length of the prefix of the node.
+         */
+        private final int depth;
+
+        /**
+         * First characters of the edges leading to the children, sorted.
+         */
+        private char[] labels = NO_LABELS;
+
+        /**
+         * Children, in the order of the first characters of their edges.
+         */
+        private Node[] children = NO_CHILDREN;
+
+        /**
+         * Entries whose key ends at this node.
+         */
+        private Entry[] terminals = NO_ENTRIES;
+
+        /**
+         * Best entries of the subtree, in order.
+         */
+        private Entry[] best = NO_ENTRIES;
+
+        /**
+         * Constructs a new Node without children nor entries.
+         *
+         * @param source A key starting with the prefix of the node
+         * @param depth  The length of the prefix of the node
+         */
+        Node(String source, int depth) {
+            this.source = source;
+            this.depth = depth;
+        }
+
+        /**
+         * Builds the leaf ending the key of an entry.
+         *
+         * @param entry The entry
+         * @return The leaf, holding the entry
+         */
+        static Node leaf(Entry entry) {
+            final Node leaf = new Node(entry.key(), entry.key().length());
+
+            leaf.terminals = new Entry[]{entry};
+            leaf.best = leaf.terminals;
+
+            return leaf;
+        }
+
+        /**
+         * Retrieves the child whose edge starts with a character.
+         *
+         * @param label The character
+         * @return The child, or null if there is none
+         */
+        Node child(char label) {
+            final int position = Arrays.binarySearch(labels, label);
+
+            return position >= 0 ? children[position] : null;
+        }
+
+        /**
+         * Adds a child whose edge starts with a character.
+         *
+         * @param label The character, not leading to any child yet
+         * @param child The child
+         */
+        void addChild(char label, Node child) {
+            final int insertion = -Arrays.binarySearch(labels, label) - 1;
+
+            labels = insert(labels, insertion, label);
+            children = insert(children, insertion, child);
+        }
+
+        /**
+         * Replaces the child whose edge starts with a character.
+         *
+         * @param label The character
+         * @param child The new child, whose edge starts with the same character
+         */
+        void replaceChild(char label, Node child) {
+            final Node[] replaced = children.clone();
+
+            replaced[Arrays.binarySearch(labels, label)] = child;
+            children = replaced;
+        }
+
+        /**
+         * Removes the child whose edge starts with a character.
+         *
+         * @param label The character
+         */
+        void removeChild(char label) {
+            final int position = Arrays.binarySearch(labels, label);
+
+            if (position < 0) {
+                return;
+            }
+
+            final char[] newLabels = new char[labels.length - 1];
+            final Node[] newChildren = new Node[children.length - 1];
+
+            System.arraycopy(labels, 0, newLabels, 0, position);
+            System.arraycopy(labels, position + 1, newLabels, position, labels.length - position - 1);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        /**
+         * Inserts a character in an array.
+         *
+         * @param array    The array
+         * @param position The position of the character
+         * @param value    The character
+         * @return A new array holding the character at the position
+         */
+        private static char[] insert(char[] array, int position, char value) {
+            final char[] inserted = new char[array.length + 1];
+
+            System.arraycopy(array, 0, inserted, 0, position);
+            inserted[position] = value;
+            System.arraycopy(array, position, inserted, position + 1, array.length - position);
+
+            return inserted;
+        }
+
+        /**
+         * Inserts a node in an array.
+         *
+         * @param array    The array
+         * @param position The position of the node
+         * @param value    The node
+         * @return A new array holding the node at the position
+         */
+        private static Node[] insert(Node[] array, int position, Node value) {
+            final Node[] inserted = new Node[array.length + 1];
+
+            System.arraycopy(array, 0, inserted, 0, position);
+            inserted[position] = value;
+            System.arraycopy(array, position, inserted, position + 1, array.length - position);
+
+            return inserted;
+        }
+
+    }
+
+}
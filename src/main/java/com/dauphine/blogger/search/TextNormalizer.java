@@ -0,0 +1,55 @@
+package com.dauphine.blogger.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Folds texts to the form they are searched in, ignoring case and accents.
+ * </p>
+ *
+ * <p>
+ * A text is decomposed with the Unicode NFKD normalization, which also replaces compatibility characters such as
+ * ligatures by their plain equivalent, stripped of the combining marks left by the decomposition and upper-cased, so
+ * that {@code "Été"} and {@code "ete"} both fold to {@code "ETE"}. Folding a folded text returns it
+ * unchanged.
+ * </p>
+ *
+ * <p>
+ * The searched columns keep a folded copy written along with the original value, and keywords are folded once
+ * before being compared to it, so that no text is folded per row at query time.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public final class TextNormalizer {
+
+    /**
+     * Pattern matching the combining marks, such as accents, left by the decomposition.
+     */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Private constructor, the class only holds static methods.
+     */
+    private TextNormalizer() {
+    }
+
+    /**
+     * Folds a text, ignoring case and accents.
+     *
+     * @param text The text to fold
+     * @return The folded text, or null if the text is null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+
+}
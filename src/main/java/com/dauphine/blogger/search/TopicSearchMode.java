@@ -0,0 +1,38 @@
+package com.dauphine.blogger.search;
+
+/**
+ * <p>
+ * Modes of resolution of the topic searches, selected by the {@code blogger.search.mode} property.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public enum TopicSearchMode {
+
+    /**
+     * Posts containing the topic, resolved by the search index or compared with {@code LIKE} to the normalized
+     * columns, ordered by creation date. The default.
+     */
+    LIKE,
+
+    /**
+     * Posts matching every word of the topic, resolved by the PostgreSQL full-text search and ordered by relevance.
+     */
+    FULL_TEXT;
+
+    /**
+     * Retrieves the mode with the specified name.
+     *
+     * @param mode The name of the mode, {@code like} or {@code full-text}
+     * @return The mode
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static TopicSearchMode of(String mode) {
+        return switch (mode) {
+            case "like" -> LIKE;
+            case "full-text" -> FULL_TEXT;
+            default -> throw new IllegalArgumentException("Unknown topic search mode " + mode);
+        };
+    }
+
+}
@@ -2,9 +2,12 @@ package com.dauphine.blogger.services;
 
 import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Category;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -51,6 +54,14 @@ public interface CategoryService {
      */
     Category getCategory(UUID id) throws CategoryNotFoundByIdException;
 
+    /**
+     * Retrieves the existing categories among the specified IDs, reading them from the database with a single query.
+     *
+     * @param ids The IDs of the categories to retrieve
+     * @return The existing categories, keyed by ID
+     */
+    Map<UUID, Category> getCategoriesById(Collection<UUID> ids);
+
     /**
      * Creates a new category with the specified name.
      *
@@ -65,12 +76,25 @@ public interface CategoryService {
      *
      * @param id   The ID of the category to update
      * @param name The new name for the category
-     * @return The updated category
+     * @return The updated category, holding its new version
      * @throws CategoryNotFoundByIdException  if the category with the specified ID does not exist
      * @throws CategoryAlreadyExistsException if a category with the same name already exists
      */
     Category updateCategoryName(UUID id, String name) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException;
 
+    /**
+     * Updates the name of a category with the specified ID, only if it is still at the specified version.
+     *
+     * @param id      The ID of the category to update
+     * @param name    The new name for the category
+     * @param version The version the category must be at, or null to update any version
+     * @return The updated category, holding its new version
+     * @throws CategoryNotFoundByIdException  if the category with the specified ID does not exist
+     * @throws CategoryAlreadyExistsException if a category with the same name already exists
+     * @throws StaleVersionException          if the category is no longer at the specified version
+     */
+    Category updateCategoryName(UUID id, String name, Long version) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException;
+
     /**
      * Deletes the category with the specified ID.
      *
@@ -1,11 +1,19 @@
 package com.dauphine.blogger.services;
 
+import com.dauphine.blogger.dto.FacetedPosts;
+import com.dauphine.blogger.dto.PostBatchResult;
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostRequest;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
 import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Post;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -43,6 +51,15 @@ public interface PostService {
      */
     List<Post> getPosts();
 
+    /**
+     * Retrieves a page of posts ordered from the newest to the oldest.
+     *
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts following the cursor
+     */
+    List<Post> getPosts(PostCursor after, int limit);
+
     /**
      * Retrieves posts by topic.
      *
@@ -51,6 +68,27 @@ public interface PostService {
      */
     List<Post> getPostsByTopic(String topic);
 
+    /**
+     * Retrieves a page of posts by topic ordered from the newest to the oldest.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts with the specified topic following the cursor
+     */
+    List<Post> getPostsByTopic(String topic, PostCursor after, int limit);
+
+    /**
+     * Retrieves posts by topic, optionally restricted to a category, along with the number of posts matching the topic
+     * in every category.
+     *
+     * @param topic      The topic of the posts to retrieve
+     * @param categoryId The ID of the category of the posts to retrieve, or null for every category
+     * @return The posts with the specified topic ordered by creation date, and the number of posts with the topic of
+     * each category holding any
+     */
+    FacetedPosts getFacetedPostsByTopic(String topic, UUID categoryId);
+
     /**
      * Retrieves posts belonging to a specific category.
      *
@@ -60,6 +98,109 @@ public interface PostService {
      */
     List<Post> getPostsByCategoryId(UUID categoryId) throws CategoryNotFoundByIdException;
 
+    /**
+     * Retrieves a page of posts belonging to a specific category ordered from the newest to the oldest.
+     *
+     * @param categoryId The ID of the category
+     * @param after      The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit      The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts belonging to the specified category following the cursor
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     */
+    List<Post> getPostsByCategoryId(UUID categoryId, PostCursor after, int limit) throws CategoryNotFoundByIdException;
+
+    /**
+     * Retrieves the summaries of all posts, ordered by creation date.
+     *
+     * @return A list of the summaries of all posts
+     */
+    List<PostSummary> getPostSummaries();
+
+    /**
+     * Retrieves a page of post summaries ordered from the newest to the oldest.
+     *
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries following the cursor
+     */
+    List<PostSummary> getPostSummaries(PostCursor after, int limit);
+
+    /**
+     * Retrieves the summaries of the posts with the specified topic.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @return A list of the summaries of the posts with the specified topic
+     */
+    List<PostSummary> getPostSummariesByTopic(String topic);
+
+    /**
+     * Retrieves a page of the summaries of the posts with the specified topic ordered from the newest to the oldest.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries of the posts with the specified topic following the cursor
+     */
+    List<PostSummary> getPostSummariesByTopic(String topic, PostCursor after, int limit);
+
+    /**
+     * Retrieves the summaries of the posts belonging to a specific category.
+     *
+     * @param categoryId The ID of the category
+     * @return A list of the summaries of the posts belonging to the specified category
+     */
+    List<PostSummary> getPostSummariesByCategoryId(UUID categoryId);
+
+    /**
+     * Retrieves a page of the summaries of the posts belonging to a specific category ordered from the newest to the
+     * oldest.
+     *
+     * @param categoryId The ID of the category
+     * @param after      The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit      The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries of the posts belonging to the specified category following the cursor
+     */
+    List<PostSummary> getPostSummariesByCategoryId(UUID categoryId, PostCursor after, int limit);
+
+    /**
+     * Performs an action for each post, in creation date order, without loading all posts in memory.
+     *
+     * @param action The action to perform on each post
+     */
+    void forEachPost(Consumer<Post> action);
+
+    /**
+     * Performs an action for each post created or updated at or after a date, in order of their last write, without
+     * loading all posts in memory.
+     *
+     * @param updatedDate The date of the last write from which posts are processed
+     * @param action      The action to perform on each post
+     */
+    void forEachPostUpdatedSince(LocalDateTime updatedDate, Consumer<Post> action);
+
+    /**
+     * Performs an action for the ID of each post, without loading the posts.
+     *
+     * @param action The action to perform on each ID
+     */
+    void forEachPostId(Consumer<UUID> action);
+
+    /**
+     * Performs an action for each post with the specified topic, without loading all matching posts in memory.
+     *
+     * @param topic  The topic of the posts
+     * @param action The action to perform on each post
+     */
+    void forEachPostByTopic(String topic, Consumer<Post> action);
+
+    /**
+     * Performs an action for each post belonging to a specific category, without loading all matching posts in memory.
+     *
+     * @param categoryId The ID of the category
+     * @param action     The action to perform on each post
+     */
+    void forEachPostByCategoryId(UUID categoryId, Consumer<Post> action);
+
     /**
      * Creates a new post with the specified title, content, and category ID.
      *
@@ -71,6 +212,15 @@ public interface PostService {
      */
     Post createPost(String title, String content, UUID categoryId) throws CategoryNotFoundByIdException;
 
+    /**
+     * Creates several posts in a single transaction.
+     * Items referencing a missing category are rejected, the others are created.
+     *
+     * @param requests The posts to create
+     * @return The outcome of each item, in request order
+     */
+    List<PostBatchResult> createPosts(List<PostRequest> requests);
+
     /**
      * Updates an existing post with the specified ID, title, content, and category ID.
      *
@@ -84,6 +234,22 @@ public interface PostService {
      */
     Post update(UUID id, String title, String content, UUID categoryId) throws CategoryNotFoundByIdException, PostNotFoundByIdException;
 
+    /**
+     * Updates an existing post with the specified ID, title, content, and category ID, only if it is still at the
+     * specified version.
+     *
+     * @param id         The ID of the post to update
+     * @param title      The new title for the post
+     * @param content    The new content for the post
+     * @param categoryId The ID of the category
+     * @param version    The version the post must be at, or null to update any version
+     * @return The updated post
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     * @throws StaleVersionException         if the post is no longer at the specified version
+     */
+    Post update(UUID id, String title, String content, UUID categoryId, Long version) throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException;
+
     /**
      * Deletes a post with the specified ID.
      *
@@ -0,0 +1,26 @@
+package com.dauphine.blogger.services;
+
+import com.dauphine.blogger.dto.Suggestion;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Interface defining the completion of the prefixes typed by the clients.
+ * This interface defines a method suggesting the category names and post titles starting with a prefix.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public interface SuggestionService {
+
+    /**
+     * Retrieves the category names and post titles starting with a prefix, ignoring case and accents.
+     *
+     * @param prefix The prefix to complete
+     * @param limit  The maximum number of suggestions, or null for the configured maximum
+     * @return The suggestions, the most popular categories first, then the most recent posts
+     */
+    List<Suggestion> getSuggestions(String prefix, Integer limit);
+
+}
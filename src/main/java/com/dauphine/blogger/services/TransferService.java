@@ -0,0 +1,42 @@
+package com.dauphine.blogger.services;
+
+import com.dauphine.blogger.dto.TransferRecord;
+import com.dauphine.blogger.dto.TransferResult;
+import com.dauphine.blogger.exceptions.InvalidTransferException;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Interface defining bulk operations to copy the whole blog corpus between environments.
+ * This interface defines methods for exporting and importing all categories and posts as {@link TransferRecord transfer records}.
+ * </p>
+ *
+ * <p>
+ * Both operations process records one at a time, so that the memory they use does not depend on the size of the corpus.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public interface TransferService {
+
+    /**
+     * Performs an action for each category, then for each post of the corpus.
+     * Categories come first so that an import of the records never references a category it has not written yet.
+     *
+     * @param action The action to perform on each record
+     */
+    void exportAll(Consumer<TransferRecord> action);
+
+    /**
+     * Imports the categories and posts described by the records, creating missing ones and updating existing ones.
+     * Records are written in batches, each batch in its own transaction.
+     *
+     * @param records The records to import
+     * @return The number of imported categories and posts
+     * @throws InvalidTransferException if a record cannot be read or does not describe a category or a post
+     */
+    TransferResult importAll(Iterator<TransferRecord> records) throws InvalidTransferException;
+
+}
@@ -1,13 +1,27 @@
 package com.dauphine.blogger.services.implementations;
 
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
 import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Category;
 import com.dauphine.blogger.repositories.CategoryRepository;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.search.TextNormalizer;
 import com.dauphine.blogger.services.CategoryService;
+import com.dauphine.blogger.transactions.AfterCommit;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -27,6 +41,29 @@ import java.util.UUID;
  * </p>
  *
  * <p>
+ * Lookups are served by the {@link CategoryCache}, which is invalidated by every write. Writes go straight to the
+ * repository, so that they never act on a cached copy.
+ * </p>
+ *
+ * <p>
+ * Name searches are served by the {@link CategoryNameIndex}, which every write updates once it commits, and which
+ * tolerates typos. Until the index is loaded, they are served by the cache. The {@link SuggestionIndex} completing
+ * the names is likewise updated once every write commits.
+ * </p>
+ *
+ * <p>
+ * Renames and deletions also invalidate the {@link TopicSearchCache}, whose cached posts embed their category, and
+ * renames are applied to the posts of the {@link LatestPostsFeed}. Every write touches the {@link ChangeStamps} of
+ * both the category and the post collections, since the posts of a category are listed under it.
+ * </p>
+ *
+ * <p>
+ * Cached lookups run outside any transaction, so that a cache hit never acquires a connection; the cache loads the
+ * categories in the read-only transaction of the repository. Lookups bypassing the cache run in a read-only
+ * transaction, and writes in a read-write one.
+ * </p>
+ *
+ * <p>
  * Author: Nelson PROIA <nelson.proia@dauphine.eu>
  * </p>
  */
@@ -39,12 +76,55 @@ public class CategoryServiceImplementation implements CategoryService {
     private final CategoryRepository categoryRepository;
 
     /**
-     * Constructs a new CategoryServiceImplementation object with the specified CategoryRepository.
+     * Read-through cache of all categories.
+     */
+    private final CategoryCache categoryCache;
+
+    /**
+     * In-memory trigram index of the category names.
+     */
+    private final CategoryNameIndex categoryNameIndex;
+
+    /**
+     * In-memory prefix trie completing the category names.
+     */
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Cache of the topic searches, whose posts embed their category.
+     */
+    private final TopicSearchCache topicSearchCache;
+
+    /**
+     * In-memory feed of the newest posts, whose posts embed their category.
+     */
+    private final LatestPostsFeed latestPostsFeed;
+
+    /**
+     * Change stamps of the collections, touched by every write.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * Constructs a new CategoryServiceImplementation object with the specified CategoryRepository, CategoryCache,
+     * CategoryNameIndex, SuggestionIndex, TopicSearchCache, LatestPostsFeed and ChangeStamps.
      *
      * @param categoryRepository The repository for managing categories
+     * @param categoryCache      The read-through cache of all categories
+     * @param categoryNameIndex  The in-memory trigram index of the category names
+     * @param suggestionIndex    The in-memory prefix trie completing the category names
+     * @param topicSearchCache   The cache of the topic searches, whose posts embed their category
+     * @param latestPostsFeed    The in-memory feed of the newest posts, whose posts embed their category
+     * @param changeStamps       The change stamps of the collections, touched by every write
      */
-    public CategoryServiceImplementation(CategoryRepository categoryRepository) {
+    public CategoryServiceImplementation(CategoryRepository categoryRepository, CategoryCache categoryCache, CategoryNameIndex categoryNameIndex, SuggestionIndex suggestionIndex, TopicSearchCache topicSearchCache, LatestPostsFeed latestPostsFeed, ChangeStamps changeStamps) {
         this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.categoryNameIndex = categoryNameIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.topicSearchCache = topicSearchCache;
+        this.latestPostsFeed = latestPostsFeed;
+        this.changeStamps = changeStamps;
     }
 
     /**
@@ -54,18 +134,21 @@ public class CategoryServiceImplementation implements CategoryService {
      */
     @Override
     public List<Category> getCategories() {
-        return categoryRepository.findAll();
+        return categoryCache.getAll();
     }
 
     /**
      * Retrieves categories by name.
+     * Once the name index is loaded, the categories containing the name come first, followed by those whose name
+     * is similar to it; until then, only the categories containing the name are returned.
      *
      * @param name The name of the categories to retrieve
      * @return A list of categories with the specified name
      */
     @Override
     public List<Category> getCategoriesByName(String name) {
-        return categoryRepository.findAllByName(name);
+        return categoryNameIndex.search(name)
+                .orElseGet(() -> categoryCache.getByName(name));
     }
 
     /**
@@ -77,70 +160,179 @@ public class CategoryServiceImplementation implements CategoryService {
      */
     @Override
     public Category getCategory(UUID id) throws CategoryNotFoundByIdException {
-        return categoryRepository.findById(id)
+        return categoryCache.get(id)
                 .orElseThrow(() -> new CategoryNotFoundByIdException(id));
     }
 
+    /**
+     * Retrieves the existing categories among the specified IDs, reading them from the database with a single query.
+     * The cache is bypassed so that writers referencing the categories never rely on a stale copy.
+     *
+     * @param ids The IDs of the categories to retrieve
+     * @return The existing categories, keyed by ID
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, Category> getCategoriesById(Collection<UUID> ids) {
+        final Map<UUID, Category> categories = new HashMap<>();
+
+        if (!ids.isEmpty()) {
+            categoryRepository.findAllById(ids).forEach(category -> categories.put(category.getId(), category));
+        }
+
+        return categories;
+    }
+
     /**
      * Creates a new category with the specified name.
+     * The category is inserted with a single statement, and a name already taken is detected by the unique index on
+     * the folded names, which also settles concurrent creations.
      *
      * @param name The name of the new category
      * @return The newly created category
      * @throws CategoryAlreadyExistsException if a category with the same name already exists
      */
     @Override
+    @Transactional(rollbackFor = CategoryAlreadyExistsException.class)
     public Category createCategory(String name) throws CategoryAlreadyExistsException {
-        final boolean alreadyExistsByName = categoryRepository.existsByName(name);
+        Category category = new Category(name);
+
+        final Category created;
 
-        if (alreadyExistsByName) {
+        try {
+            created = categoryRepository.saveAndFlush(category);
+        } catch (DataIntegrityViolationException e) {
             throw new CategoryAlreadyExistsException(name);
         }
 
-        Category category = new Category(name);
+        categoryCache.invalidate();
+        AfterCommit.run(() -> {
+            categoryNameIndex.index(created);
+            suggestionIndex.indexCategory(created);
+        });
+        changeStamps.touch(ChangeStamps.Scope.CATEGORIES, ChangeStamps.Scope.POSTS);
 
-        return categoryRepository.save(category);
+        return created;
     }
 
     /**
      * Updates the name of a category with the specified ID.
+     * The category is renamed with a single statement, whose row count tells whether it exists, and a name already
+     * taken is detected by the unique index on the folded names. The version incremented by the rename is then read
+     * back, so that the client can update the category again conditionally without reading it first.
      *
      * @param id   The ID of the category to update
      * @param name The new name for the category
-     * @return The updated category
+     * @return The updated category, holding its new version
      * @throws CategoryNotFoundByIdException  if the category with the specified ID does not exist
      * @throws CategoryAlreadyExistsException if a category with the same name already exists
      */
     @Override
+    @Transactional(rollbackFor = CategoryAlreadyExistsException.class)
     public Category updateCategoryName(UUID id, String name) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
-        final Category category = getCategory(id);
+        final int updated;
 
-        final boolean alreadyExistsByName = categoryRepository.existsByName(name);
+        try {
+            updated = categoryRepository.updateName(id, name, TextNormalizer.normalize(name));
+        } catch (DataIntegrityViolationException e) {
+            throw new CategoryAlreadyExistsException(name);
+        }
+
+        if (updated == 0) {
+            throw new CategoryNotFoundByIdException(id);
+        }
 
-        if (alreadyExistsByName) {
+        return renamed(id, name, categoryRepository.findVersionById(id).orElse(null));
+    }
+
+    /**
+     * Updates the name of a category with the specified ID, only if it is still at the specified version.
+     * The category is renamed with a single statement matching both its ID and its version, so that no concurrent
+     * update can be overwritten. When no row matches, the existence of the category tells whether it is missing or
+     * at another version.
+     *
+     * @param id      The ID of the category to update
+     * @param name    The new name for the category
+     * @param version The version the category must be at, or null to update any version
+     * @return The updated category, holding its new version
+     * @throws CategoryNotFoundByIdException  if the category with the specified ID does not exist
+     * @throws CategoryAlreadyExistsException if a category with the same name already exists
+     * @throws StaleVersionException          if the category is no longer at the specified version
+     */
+    @Override
+    @Transactional(rollbackFor = {CategoryAlreadyExistsException.class, StaleVersionException.class})
+    public Category updateCategoryName(UUID id, String name, Long version) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException {
+        if (version == null) {
+            return updateCategoryName(id, name);
+        }
+
+        final int updated;
+
+        try {
+            updated = categoryRepository.updateNameIfVersion(id, name, TextNormalizer.normalize(name), version);
+        } catch (DataIntegrityViolationException e) {
             throw new CategoryAlreadyExistsException(name);
         }
 
-        category.setName(name);
+        if (updated == 0) {
+            if (!categoryRepository.existsById(id)) {
+                throw new CategoryNotFoundByIdException(id);
+            }
+
+            throw new StaleVersionException("Category", id, version);
+        }
+
+        return renamed(id, name, version + 1);
+    }
+
+    /**
+     * Updates the caches, indexes and feeds holding a renamed category.
+     *
+     * @param id      The ID of the renamed category
+     * @param name    The new name of the category
+     * @param version The new version of the category, or null if it is unknown
+     * @return The renamed category
+     */
+    private Category renamed(UUID id, String name, Long version) {
+        final Category renamed = new Category(id, name);
+        renamed.setVersion(version);
+
+        categoryCache.invalidate();
+        AfterCommit.run(() -> {
+            categoryNameIndex.index(renamed);
+            suggestionIndex.indexCategory(renamed);
+        });
+        topicSearchCache.invalidate();
+        latestPostsFeed.renameCategory(renamed);
+        changeStamps.touch(ChangeStamps.Scope.CATEGORIES, ChangeStamps.Scope.POSTS);
 
-        return categoryRepository.save(category);
+        return renamed;
     }
 
     /**
      * Deletes the category with the specified ID.
+     * The category is deleted with a single statement, whose row count tells whether it existed.
      *
      * @param id The ID of the category to delete
      * @return true if the category was deleted successfully, false otherwise
      * @throws CategoryNotFoundByIdException if the category with the specified ID does not exist
      */
     @Override
+    @Transactional
     public boolean deleteCategory(UUID id) throws CategoryNotFoundByIdException {
-        final boolean exists = categoryRepository.existsById(id);
+        final int deleted = categoryRepository.deleteCategoryById(id);
 
-        if (!exists) {
+        if (deleted == 0) {
             throw new CategoryNotFoundByIdException(id);
         }
 
-        categoryRepository.deleteById(id);
+        categoryCache.invalidate();
+        AfterCommit.run(() -> {
+            categoryNameIndex.remove(id);
+            suggestionIndex.removeCategory(id);
+        });
+        topicSearchCache.invalidate();
+        changeStamps.touch(ChangeStamps.Scope.CATEGORIES, ChangeStamps.Scope.POSTS);
 
         return true;
     }
@@ -0,0 +1,180 @@
+package com.dauphine.blogger.services.implementations;
+
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.concurrency.SingleFlight;
+import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
+import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.services.CategoryService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <p>
+ * CategoryService placed in front of the {@link CategoryServiceImplementation}, coalescing identical concurrent reads
+ * with the {@link SingleFlight}.
+ * </p>
+ *
+ * <p>
+ * Callers reading the same categories while an identical read is in flight share its result, so that a burst of
+ * lookups missing the cache reloads the categories once. Writes are delegated as is.
+ * </p>
+ *
+ * <p>
+ * The key of a read holds the version of the category collection in the {@link ChangeStamps}, which every committed
+ * write bumps, so that a caller arriving after a write runs a read of its own instead of joining one started before
+ * it.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Service
+@Primary
+public class CoalescingCategoryService implements CategoryService {
+
+    /**
+     * The service running the reads and the writes.
+     */
+    private final CategoryServiceImplementation categoryService;
+
+    /**
+     * Coalescer of the identical concurrent reads.
+     */
+    private final SingleFlight singleFlight;
+
+    /**
+     * Change stamps of the collections, whose versions tell the reads before and after a write apart.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * Constructs a new CoalescingCategoryService in front of the specified service.
+     *
+     * @param categoryService The service running the reads and the writes
+     * @param singleFlight    Coalescer of the identical concurrent reads
+     * @param changeStamps    Change stamps of the collections, whose versions tell the reads before and after a write apart
+     */
+    public CoalescingCategoryService(CategoryServiceImplementation categoryService, SingleFlight singleFlight, ChangeStamps changeStamps) {
+        this.categoryService = categoryService;
+        this.singleFlight = singleFlight;
+        this.changeStamps = changeStamps;
+    }
+
+    /**
+     * Retrieves all categories, sharing the lookup of the identical reads in flight.
+     *
+     * @return A list of all categories
+     */
+    @Override
+    public List<Category> getCategories() {
+        return singleFlight.execute(key("getCategories"), categoryService::getCategories);
+    }
+
+    /**
+     * Retrieves categories by name, sharing the search of the identical reads in flight.
+     *
+     * @param name The name of the categories to retrieve
+     * @return A list of categories with the specified name
+     */
+    @Override
+    public List<Category> getCategoriesByName(String name) {
+        return singleFlight.execute(key("getCategoriesByName", name), () -> categoryService.getCategoriesByName(name));
+    }
+
+    /**
+     * Retrieves a category by its ID, sharing the lookup of the identical reads in flight.
+     *
+     * @param id The ID of the category to retrieve
+     * @return The category with the specified ID
+     * @throws CategoryNotFoundByIdException if the category with the specified ID does not exist
+     */
+    @Override
+    public Category getCategory(UUID id) throws CategoryNotFoundByIdException {
+        return singleFlight.execute(key("getCategory", id), () -> categoryService.getCategory(id));
+    }
+
+    /**
+     * Retrieves the existing categories among the specified IDs, sharing the query of the identical reads in flight.
+     *
+     * @param ids The IDs of the categories to retrieve
+     * @return The existing categories, keyed by ID
+     */
+    @Override
+    public Map<UUID, Category> getCategoriesById(Collection<UUID> ids) {
+        return singleFlight.execute(key("getCategoriesById", Set.copyOf(ids)), () -> categoryService.getCategoriesById(ids));
+    }
+
+    /**
+     * Creates a new category with the specified name.
+     *
+     * @param name The name of the new category
+     * @return The newly created category
+     * @throws CategoryAlreadyExistsException if a category with the same name already exists
+     */
+    @Override
+    public Category createCategory(String name) throws CategoryAlreadyExistsException {
+        return categoryService.createCategory(name);
+    }
+
+    /**
+     * Updates the name of the category with the specified ID.
+     *
+     * @param id   The ID of the category to update
+     * @param name The new name for the category
+     * @return The updated category
+     * @throws CategoryNotFoundByIdException  if the category with the specified ID does not exist
+     * @throws CategoryAlreadyExistsException if a category with the same name already exists
+     */
+    @Override
+    public Category updateCategoryName(UUID id, String name) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
+        return categoryService.updateCategoryName(id, name);
+    }
+
+    /**
+     * Updates the name of a category with the specified ID, only if it is still at the specified version.
+     *
+     * @param id      The ID of the category to update
+     * @param name    The new name for the category
+     * @param version The version the category must be at, or null to update any version
+     * @return The updated category
+     * @throws CategoryNotFoundByIdException  if the category with the specified ID does not exist
+     * @throws CategoryAlreadyExistsException if a category with the same name already exists
+     * @throws StaleVersionException          if the category is no longer at the specified version
+     */
+    @Override
+    public Category updateCategoryName(UUID id, String name, Long version) throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException {
+        return categoryService.updateCategoryName(id, name, version);
+    }
+
+    /**
+     * Deletes the category with the specified ID.
+     *
+     * @param id The ID of the category to delete
+     * @return true if the category was deleted successfully, false otherwise
+     * @throws CategoryNotFoundByIdException if the category with the specified ID does not exist
+     */
+    @Override
+    public boolean deleteCategory(UUID id) throws CategoryNotFoundByIdException {
+        return categoryService.deleteCategory(id);
+    }
+
+    /**
+     * Builds the key of a read from the name of its method, its arguments, and the version of the category collection,
+     * so that a read starting after a write never shares the result of a read started before it.
+     *
+     * @param method    The name of the method
+     * @param arguments The arguments of the read
+     * @return The key of the read
+     */
+    private Object key(String method, Object... arguments) {
+        return SingleFlight.key(CategoryService.class, method, changeStamps.get(ChangeStamps.Scope.CATEGORIES).version(), SingleFlight.key(arguments));
+    }
+
+}
@@ -0,0 +1,382 @@
+package com.dauphine.blogger.services.implementations;
+
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.concurrency.SingleFlight;
+import com.dauphine.blogger.dto.FacetedPosts;
+import com.dauphine.blogger.dto.PostBatchResult;
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostRequest;
+import com.dauphine.blogger.dto.PostSummary;
+import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.services.PostService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * PostService placed in front of the {@link PostServiceImplementation}, coalescing identical concurrent reads with
+ * the {@link SingleFlight}.
+ * </p>
+ *
+ * <p>
+ * Callers reading the same posts while an identical read is in flight share its query and its result, so that a
+ * burst of identical requests costs a single query. The reads run outside of any transaction until they reach the
+ * implementation, so that the waiting callers never hold a connection. Streams and writes are delegated as is.
+ * </p>
+ *
+ * <p>
+ * The key of a read holds the version of the post collection in the {@link ChangeStamps}, which every committed write
+ * bumps, so that a caller arriving after a write runs a read of its own instead of joining one started before it.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Service
+@Primary
+public class CoalescingPostService implements PostService {
+
+    /**
+     * The service running the reads and the writes.
+     */
+    private final PostServiceImplementation postService;
+
+    /**
+     * Coalescer of the identical concurrent reads.
+     */
+    private final SingleFlight singleFlight;
+
+    /**
+     * Change stamps of the collections, whose versions tell the reads before and after a write apart.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * Constructs a new CoalescingPostService in front of the specified service.
+     *
+     * @param postService  The service running the reads and the writes
+     * @param singleFlight Coalescer of the identical concurrent reads
+     * @param changeStamps Change stamps of the collections, whose versions tell the reads before and after a write apart
+     */
+    public CoalescingPostService(PostServiceImplementation postService, SingleFlight singleFlight, ChangeStamps changeStamps) {
+        this.postService = postService;
+        this.singleFlight = singleFlight;
+        this.changeStamps = changeStamps;
+    }
+
+    /**
+     * Retrieves a post by its ID, sharing the query of the identical reads in flight.
+     *
+     * @param id The ID of the post
+     * @return The post with the specified ID
+     * @throws PostNotFoundByIdException if the post with the specified ID does not exist
+     */
+    @Override
+    public Post getPost(UUID id) throws PostNotFoundByIdException {
+        return singleFlight.execute(key("getPost", id), () -> postService.getPost(id));
+    }
+
+    /**
+     * Retrieves all posts, sharing the query of the identical reads in flight.
+     *
+     * @return A list of all posts
+     */
+    @Override
+    public List<Post> getPosts() {
+        return singleFlight.execute(key("getPosts"), postService::getPosts);
+    }
+
+    /**
+     * Retrieves a page of posts, sharing the query of the identical reads in flight.
+     *
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts following the cursor
+     */
+    @Override
+    public List<Post> getPosts(PostCursor after, int limit) {
+        return singleFlight.execute(key("getPosts", after.encode(), limit), () -> postService.getPosts(after, limit));
+    }
+
+    /**
+     * Retrieves posts by topic, sharing the search of the identical reads in flight.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @return A list of posts with the specified topic
+     */
+    @Override
+    public List<Post> getPostsByTopic(String topic) {
+        return singleFlight.execute(key("getPostsByTopic", topic), () -> postService.getPostsByTopic(topic));
+    }
+
+    /**
+     * Retrieves a page of posts by topic, sharing the query of the identical reads in flight.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts with the specified topic following the cursor
+     */
+    @Override
+    public List<Post> getPostsByTopic(String topic, PostCursor after, int limit) {
+        return singleFlight.execute(key("getPostsByTopic", topic, after.encode(), limit), () -> postService.getPostsByTopic(topic, after, limit));
+    }
+
+    /**
+     * Retrieves posts by topic with their count by category, sharing the search of the identical reads in flight.
+     *
+     * @param topic      The topic of the posts to retrieve
+     * @param categoryId The ID of the category of the posts to retrieve, or null for every category
+     * @return The posts with the specified topic and their count by category
+     */
+    @Override
+    public FacetedPosts getFacetedPostsByTopic(String topic, UUID categoryId) {
+        return singleFlight.execute(key("getFacetedPostsByTopic", topic, categoryId), () -> postService.getFacetedPostsByTopic(topic, categoryId));
+    }
+
+    /**
+     * Retrieves posts belonging to a specific category, sharing the query of the identical reads in flight.
+     *
+     * @param categoryId The ID of the category
+     * @return A list of posts belonging to the specified category
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     */
+    @Override
+    public List<Post> getPostsByCategoryId(UUID categoryId) throws CategoryNotFoundByIdException {
+        return singleFlight.execute(key("getPostsByCategoryId", categoryId), () -> postService.getPostsByCategoryId(categoryId));
+    }
+
+    /**
+     * Retrieves a page of posts belonging to a specific category, sharing the query of the identical reads in flight.
+     *
+     * @param categoryId The ID of the category
+     * @param after      The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit      The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts belonging to the specified category following the cursor
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     */
+    @Override
+    public List<Post> getPostsByCategoryId(UUID categoryId, PostCursor after, int limit) throws CategoryNotFoundByIdException {
+        return singleFlight.execute(key("getPostsByCategoryId", categoryId, after.encode(), limit), () -> postService.getPostsByCategoryId(categoryId, after, limit));
+    }
+
+    /**
+     * Retrieves the summaries of all posts, sharing the query of the identical reads in flight.
+     *
+     * @return A list of the summaries of all posts
+     */
+    @Override
+    public List<PostSummary> getPostSummaries() {
+        return singleFlight.execute(key("getPostSummaries"), postService::getPostSummaries);
+    }
+
+    /**
+     * Retrieves a page of post summaries, sharing the query of the identical reads in flight.
+     *
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries following the cursor
+     */
+    @Override
+    public List<PostSummary> getPostSummaries(PostCursor after, int limit) {
+        return singleFlight.execute(key("getPostSummaries", after.encode(), limit), () -> postService.getPostSummaries(after, limit));
+    }
+
+    /**
+     * Retrieves the summaries of the posts with the specified topic, sharing the search of the identical reads in
+     * flight.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @return A list of the summaries of the posts with the specified topic
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByTopic(String topic) {
+        return singleFlight.execute(key("getPostSummariesByTopic", topic), () -> postService.getPostSummariesByTopic(topic));
+    }
+
+    /**
+     * Retrieves a page of the summaries of the posts with the specified topic, sharing the query of the identical
+     * reads in flight.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries of the posts with the specified topic following the cursor
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByTopic(String topic, PostCursor after, int limit) {
+        return singleFlight.execute(key("getPostSummariesByTopic", topic, after.encode(), limit), () -> postService.getPostSummariesByTopic(topic, after, limit));
+    }
+
+    /**
+     * Retrieves the summaries of the posts belonging to a specific category, sharing the query of the identical reads
+     * in flight.
+     *
+     * @param categoryId The ID of the category
+     * @return A list of the summaries of the posts belonging to the specified category
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByCategoryId(UUID categoryId) {
+        return singleFlight.execute(key("getPostSummariesByCategoryId", categoryId), () -> postService.getPostSummariesByCategoryId(categoryId));
+    }
+
+    /**
+     * Retrieves a page of the summaries of the posts belonging to a specific category, sharing the query of the
+     * identical reads in flight.
+     *
+     * @param categoryId The ID of the category
+     * @param after      The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit      The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries of the posts belonging to the specified category following the cursor
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByCategoryId(UUID categoryId, PostCursor after, int limit) {
+        return singleFlight.execute(key("getPostSummariesByCategoryId", categoryId, after.encode(), limit), () -> postService.getPostSummariesByCategoryId(categoryId, after, limit));
+    }
+
+    /**
+     * Performs an action for each post, in creation date order, without loading all posts in memory.
+     *
+     * @param action The action to perform on each post
+     */
+    @Override
+    public void forEachPost(Consumer<Post> action) {
+        postService.forEachPost(action);
+    }
+
+    /**
+     * Performs an action for each post created or updated at or after a date, in order of their last write, without
+     * loading all posts in memory.
+     *
+     * @param updatedDate The date of the last write from which posts are processed
+     * @param action      The action to perform on each post
+     */
+    @Override
+    public void forEachPostUpdatedSince(LocalDateTime updatedDate, Consumer<Post> action) {
+        postService.forEachPostUpdatedSince(updatedDate, action);
+    }
+
+    /**
+     * Performs an action for the ID of each post, without loading the posts.
+     *
+     * @param action The action to perform on each ID
+     */
+    @Override
+    public void forEachPostId(Consumer<UUID> action) {
+        postService.forEachPostId(action);
+    }
+
+    /**
+     * Performs an action for each post with the specified topic, without loading all matching posts in memory.
+     *
+     * @param topic  The topic of the posts
+     * @param action The action to perform on each post
+     */
+    @Override
+    public void forEachPostByTopic(String topic, Consumer<Post> action) {
+        postService.forEachPostByTopic(topic, action);
+    }
+
+    /**
+     * Performs an action for each post belonging to a specific category, without loading all matching posts in memory.
+     *
+     * @param categoryId The ID of the category
+     * @param action     The action to perform on each post
+     */
+    @Override
+    public void forEachPostByCategoryId(UUID categoryId, Consumer<Post> action) {
+        postService.forEachPostByCategoryId(categoryId, action);
+    }
+
+    /**
+     * Creates a new post with the specified title, content, and category ID.
+     *
+     * @param title      The title of the post
+     * @param content    The content of the post
+     * @param categoryId The ID of the category
+     * @return The newly created post
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     */
+    @Override
+    public Post createPost(String title, String content, UUID categoryId) throws CategoryNotFoundByIdException {
+        return postService.createPost(title, content, categoryId);
+    }
+
+    /**
+     * Creates several posts in a single transaction.
+     *
+     * @param requests The posts to create
+     * @return The outcome of each item, in request order
+     */
+    @Override
+    public List<PostBatchResult> createPosts(List<PostRequest> requests) {
+        return postService.createPosts(requests);
+    }
+
+    /**
+     * Updates an existing post with the specified ID, title, content, and category ID.
+     *
+     * @param id         The ID of the post to update
+     * @param title      The new title for the post
+     * @param content    The new content for the post
+     * @param categoryId The ID of the category
+     * @return The updated post
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     */
+    @Override
+    public Post update(UUID id, String title, String content, UUID categoryId) throws CategoryNotFoundByIdException, PostNotFoundByIdException {
+        return postService.update(id, title, content, categoryId);
+    }
+
+    /**
+     * Updates an existing post with the specified ID, title, content, and category ID, only if it is still at the
+     * specified version.
+     *
+     * @param id         The ID of the post to update
+     * @param title      The new title for the post
+     * @param content    The new content for the post
+     * @param categoryId The ID of the category
+     * @param version    The version the post must be at, or null to update any version
+     * @return The updated post
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     * @throws StaleVersionException         if the post is no longer at the specified version
+     */
+    @Override
+    public Post update(UUID id, String title, String content, UUID categoryId, Long version) throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
+        return postService.update(id, title, content, categoryId, version);
+    }
+
+    /**
+     * Deletes a post with the specified ID.
+     *
+     * @param id The ID of the post to delete
+     * @return true if the post was deleted successfully, false otherwise
+     * @throws PostNotFoundByIdException if the specified post ID does not exist
+     */
+    @Override
+    public boolean deletePost(UUID id) throws PostNotFoundByIdException {
+        return postService.deletePost(id);
+    }
+
+    /**
+     * Builds the key of a read from the name of its method, its arguments, and the version of the post collection,
+     * so that a read starting after a write never shares the result of a read started before it.
+     *
+     * @param method    The name of the method
+     * @param arguments The arguments of the read
+     * @return The key of the read
+     */
+    private Object key(String method, Object... arguments) {
+        return SingleFlight.key(PostService.class, method, changeStamps.get(ChangeStamps.Scope.POSTS).version(), SingleFlight.key(arguments));
+    }
+
+}
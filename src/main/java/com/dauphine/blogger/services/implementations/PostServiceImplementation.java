@@ -1,16 +1,46 @@
 package com.dauphine.blogger.services.implementations;
 
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.dto.FacetedPosts;
+import com.dauphine.blogger.dto.PostBatchResult;
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostRequest;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
 import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Category;
 import com.dauphine.blogger.models.Post;
-import com.dauphine.blogger.repositories.CategoryRepository;
 import com.dauphine.blogger.repositories.PostRepository;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.search.TextNormalizer;
+import com.dauphine.blogger.search.TopicSearchMode;
+import com.dauphine.blogger.services.CategoryService;
 import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.transactions.AfterCommit;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -25,33 +55,139 @@ import java.util.UUID;
  *
  * <p>
  * This class is responsible for implementing the business logic associated with post management.
- * It interacts with the underlying data source through PostRepository and CategoryRepository.
+ * It interacts with the underlying data source through PostRepository, and resolves categories through the
+ * cached CategoryService so that post writes do not query the category table.
+ * </p>
+ *
+ * <p>
+ * Every method runs in a read-only transaction unless it is annotated as a write. Hibernate then neither flushes the
+ * session nor keeps the snapshots it would need to dirty-check the loaded posts, which saves both time and memory on
+ * the list endpoints. Writes run in a read-write transaction of their own.
+ * </p>
+ *
+ * <p>
+ * The first pages of the posts, overall and of each category, are served by the {@link LatestPostsFeed}, which every
+ * write updates. These reads only join an existing transaction, so that a page served from memory never acquires a
+ * connection.
+ * </p>
+ *
+ * <p>
+ * Every write touches the {@link ChangeStamps} of the post collection, validating the conditional requests of the
+ * listings.
+ * </p>
+ *
+ * <p>
+ * The {@link PostSearchIndex}, the {@link SuggestionIndex} and the {@link PostFacetIndex} are updated once the write
+ * commits, so that a rolled-back write never leaves a post behind in them.
+ * </p>
+ *
+ * <p>
+ * The unpaginated topic searches are resolved as selected by the {@code blogger.search.mode} property: by the search
+ * index and the normalized columns, ordered by creation date, or by the PostgreSQL full-text search, ordered by
+ * relevance and limited to {@code blogger.search.full-text.max-results} posts. Paginated topic searches follow the
+ * creation date cursor, so they always use the normalized columns.
  * </p>
  *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
  */
 @Service
+@Transactional(readOnly = true)
 public class PostServiceImplementation implements PostService {
 
+    /**
+     * Maximum number of IDs bound to a single {@code IN} query when fetching search candidates.
+     */
+    private static final int FETCH_CHUNK_SIZE = 1000;
+
+    /**
+     * Number of posts flushed at once by batch creations, matching the configured JDBC batch size.
+     */
+    private static final int INSERT_CHUNK_SIZE = 100;
+
     /**
      * Repository for managing post entities.
      */
     private final PostRepository postRepository;
 
     /**
-     * Repository for managing category entities.
+     * Service resolving the categories of the posts.
+     */
+    private final CategoryService categoryService;
+
+    /**
+     * Entity manager used to persist batches of posts and to detach streamed posts from the persistence context.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * In-memory index resolving topic searches.
+     */
+    private final PostSearchIndex postSearchIndex;
+
+    /**
+     * In-memory prefix trie completing the post titles.
+     */
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * In-memory bitmap index resolving faceted topic searches.
+     */
+    private final PostFacetIndex postFacetIndex;
+
+    /**
+     * Cache of the results of the unpaginated topic searches.
+     */
+    private final TopicSearchCache topicSearchCache;
+
+    /**
+     * In-memory feed of the newest posts, serving the first pages.
+     */
+    private final LatestPostsFeed latestPostsFeed;
+
+    /**
+     * Change stamps of the collections, touched by every write.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * Mode of resolution of the unpaginated topic searches.
+     */
+    private final TopicSearchMode topicSearchMode;
+
+    /**
+     * Maximum number of posts returned by a full-text topic search.
      */
-    private final CategoryRepository categoryRepository;
+    private final int fullTextMaxResults;
 
     /**
-     * Constructs a new PostServiceImplementation object with the specified repositories.
+     * Constructs a new PostServiceImplementation object with the specified repository and services.
      *
      * @param postRepository     Repository for managing post entities
-     * @param categoryRepository Repository for managing category entities
+     * @param categoryService    Service resolving the categories of the posts
+     * @param entityManager      Entity manager used to detach streamed posts
+     * @param postSearchIndex    In-memory index resolving topic searches
+     * @param suggestionIndex    In-memory prefix trie completing the post titles
+     * @param postFacetIndex     In-memory bitmap index resolving faceted topic searches
+     * @param topicSearchCache   Cache of the results of the unpaginated topic searches
+     * @param latestPostsFeed    In-memory feed of the newest posts, serving the first pages
+     * @param changeStamps       Change stamps of the collections, touched by every write
+     * @param topicSearchMode    The name of the mode of resolution of the unpaginated topic searches
+     * @param fullTextMaxResults Maximum number of posts returned by a full-text topic search
      */
-    public PostServiceImplementation(PostRepository postRepository, CategoryRepository categoryRepository) {
+    public PostServiceImplementation(PostRepository postRepository, CategoryService categoryService, EntityManager entityManager, PostSearchIndex postSearchIndex, SuggestionIndex suggestionIndex, PostFacetIndex postFacetIndex, TopicSearchCache topicSearchCache, LatestPostsFeed latestPostsFeed, ChangeStamps changeStamps,
+                                     @Value("${blogger.search.mode:like}") String topicSearchMode,
+                                     @Value("${blogger.search.full-text.max-results:100}") int fullTextMaxResults) {
         this.postRepository = postRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryService = categoryService;
+        this.entityManager = entityManager;
+        this.postSearchIndex = postSearchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.postFacetIndex = postFacetIndex;
+        this.topicSearchCache = topicSearchCache;
+        this.latestPostsFeed = latestPostsFeed;
+        this.changeStamps = changeStamps;
+        this.topicSearchMode = TopicSearchMode.of(topicSearchMode);
+        this.fullTextMaxResults = fullTextMaxResults;
     }
 
     /**
@@ -77,14 +213,150 @@ public class PostServiceImplementation implements PostService {
     }
 
     /**
-     * Retrieves posts by topic.
+     * Retrieves a page of posts ordered from the newest to the oldest.
+     * The first page is served by the {@link LatestPostsFeed}.
+     *
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts following the cursor
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Post> getPosts(PostCursor after, int limit) {
+        if (after == PostCursor.START) {
+            return latestPostsFeed.getLatest(null, limit, count -> postRepository.findPage(after.getCreatedDate(), after.getId(), Limit.of(count)));
+        }
+
+        return postRepository.findPage(after.getCreatedDate(), after.getId(), Limit.of(limit));
+    }
+
+    /**
+     * Retrieves posts by topic, ordered by creation date.
+     * Results are served from the {@link TopicSearchCache} until the next write, and searched on a miss.
      *
      * @param topic The topic of the posts to retrieve
      * @return A list of posts with the specified topic
      */
     @Override
     public List<Post> getPostsByTopic(String topic) {
-        return postRepository.findByTitleOrContentContainingKeyword(topic);
+        return topicSearchCache.get(topic, this::searchPostsByTopic);
+    }
+
+    /**
+     * Searches posts by topic, ordered by creation date.
+     * The topic is resolved through the search index, and only the candidate posts are fetched from the database.
+     * The database search is used while the index is not ready or cannot resolve the topic.
+     * In full-text mode, the posts are instead ordered by relevance, see {@link #getPostsByFullTextTopic(String)}.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @return A list of posts with the specified topic
+     */
+    private List<Post> searchPostsByTopic(String topic) {
+        if (topicSearchMode == TopicSearchMode.FULL_TEXT) {
+            return getPostsByFullTextTopic(topic);
+        }
+
+        final Optional<Set<UUID>> candidates = postSearchIndex.search(topic);
+
+        if (candidates.isEmpty()) {
+            return postRepository.findByTitleOrContentContainingKeyword(TextNormalizer.normalize(topic));
+        }
+
+        final List<UUID> ids = new ArrayList<>(candidates.get());
+        final List<Post> posts = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            posts.addAll(postRepository.findAllById(ids.subList(from, Math.min(from + FETCH_CHUNK_SIZE, ids.size()))));
+        }
+
+        return posts.stream()
+                .filter(post -> PostSearchIndex.matches(post, topic))
+                .sorted(Comparator.comparing(Post::getCreatedDate, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Retrieves the posts matching every word of a topic with the full-text search, from the most to the least
+     * relevant. The database ranks the matches and returns the IDs of the {@code fullTextMaxResults} most relevant,
+     * which are then loaded with their categories in a single query.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @return A list of at most {@code fullTextMaxResults} posts matching the topic, ordered by relevance
+     */
+    private List<Post> getPostsByFullTextTopic(String topic) {
+        final List<UUID> ids = postRepository.findIdsByFullTextQuery(TextNormalizer.normalize(topic), fullTextMaxResults);
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<UUID, Integer> ranks = new HashMap<>();
+
+        for (int rank = 0; rank < ids.size(); rank++) {
+            ranks.put(ids.get(rank), rank);
+        }
+
+        return postRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(post -> ranks.get(post.getId())))
+                .toList();
+    }
+
+    /**
+     * Retrieves a page of posts by topic ordered from the newest to the oldest.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts with the specified topic following the cursor
+     */
+    @Override
+    public List<Post> getPostsByTopic(String topic, PostCursor after, int limit) {
+        return postRepository.findPageByTitleOrContentContainingKeyword(TextNormalizer.normalize(topic), after.getCreatedDate(), after.getId(), Limit.of(limit));
+    }
+
+    /**
+     * Retrieves posts by topic, optionally restricted to a category, along with the number of posts matching the topic
+     * in every category.
+     * The hits and the counts are resolved in a single evaluation of the bitmaps of the {@link PostFacetIndex}, then
+     * only the posts of the requested category are loaded. Until the index is ready, or when the topic has no letter
+     * nor digit, the posts containing the whole topic are loaded from the database and counted in memory.
+     *
+     * @param topic      The topic of the posts to retrieve
+     * @param categoryId The ID of the category of the posts to retrieve, or null for every category
+     * @return The posts with the specified topic ordered by creation date, and the number of posts with the topic of
+     * each category holding any
+     */
+    @Override
+    public FacetedPosts getFacetedPostsByTopic(String topic, UUID categoryId) {
+        final Optional<PostFacetIndex.Result> result = postFacetIndex.search(topic, categoryId);
+
+        if (result.isEmpty()) {
+            final List<Post> matches = postRepository.findByTitleOrContentContainingKeyword(TextNormalizer.normalize(topic));
+            final Map<UUID, Integer> categoryCounts = new HashMap<>();
+
+            for (Post post : matches) {
+                if (post.getCategory() != null) {
+                    categoryCounts.merge(post.getCategory().getId(), 1, Integer::sum);
+                }
+            }
+
+            final List<Post> posts = categoryId == null
+                    ? matches
+                    : matches.stream().filter(post -> post.getCategory() != null && categoryId.equals(post.getCategory().getId())).toList();
+
+            return new FacetedPosts(posts, categoryCounts);
+        }
+
+        final List<UUID> ids = new ArrayList<>(result.get().ids());
+        final List<Post> posts = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            posts.addAll(postRepository.findAllById(ids.subList(from, Math.min(from + FETCH_CHUNK_SIZE, ids.size()))));
+        }
+
+        posts.sort(Comparator.comparing(Post::getCreatedDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        return new FacetedPosts(posts, result.get().categoryCounts());
     }
 
     /**
@@ -98,6 +370,187 @@ public class PostServiceImplementation implements PostService {
         return postRepository.findAllByCategoryId(categoryId);
     }
 
+    /**
+     * Retrieves a page of posts belonging to a specific category ordered from the newest to the oldest.
+     * The first page is served by the {@link LatestPostsFeed}.
+     *
+     * @param categoryId The ID of the category
+     * @param after      The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit      The maximum number of posts to retrieve
+     * @return A list of at most {@code limit} posts belonging to the specified category following the cursor
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Post> getPostsByCategoryId(UUID categoryId, PostCursor after, int limit) {
+        if (after == PostCursor.START) {
+            return latestPostsFeed.getLatest(categoryId, limit, count -> postRepository.findPageByCategoryId(categoryId, after.getCreatedDate(), after.getId(), Limit.of(count)));
+        }
+
+        return postRepository.findPageByCategoryId(categoryId, after.getCreatedDate(), after.getId(), Limit.of(limit));
+    }
+
+    /**
+     * Retrieves the summaries of all posts, ordered by creation date.
+     *
+     * @return A list of the summaries of all posts
+     */
+    @Override
+    public List<PostSummary> getPostSummaries() {
+        return postRepository.findAllSummaries();
+    }
+
+    /**
+     * Retrieves a page of post summaries ordered from the newest to the oldest.
+     *
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries following the cursor
+     */
+    @Override
+    public List<PostSummary> getPostSummaries(PostCursor after, int limit) {
+        return postRepository.findSummaryPage(after.getCreatedDate(), after.getId(), Limit.of(limit));
+    }
+
+    /**
+     * Retrieves the summaries of the posts with the specified topic, ordered by creation date.
+     * The topic is resolved through the search index, and the database only checks the candidate posts, so that
+     * their content is never loaded. The database search is used while the index is not ready or cannot resolve
+     * the topic.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @return A list of the summaries of the posts with the specified topic
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByTopic(String topic) {
+        final String keyword = TextNormalizer.normalize(topic);
+        final Optional<Set<UUID>> candidates = postSearchIndex.search(topic);
+
+        if (candidates.isEmpty()) {
+            return postRepository.findSummariesByKeyword(keyword);
+        }
+
+        final List<UUID> ids = new ArrayList<>(candidates.get());
+        final List<PostSummary> summaries = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK_SIZE) {
+            summaries.addAll(postRepository.findSummariesByIdInAndKeyword(ids.subList(from, Math.min(from + FETCH_CHUNK_SIZE, ids.size())), keyword));
+        }
+
+        summaries.sort(Comparator.comparing(PostSummary::getCreatedDate, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        return summaries;
+    }
+
+    /**
+     * Retrieves a page of the summaries of the posts with the specified topic ordered from the newest to the oldest.
+     *
+     * @param topic The topic of the posts to retrieve
+     * @param after The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries of the posts with the specified topic following the cursor
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByTopic(String topic, PostCursor after, int limit) {
+        return postRepository.findSummaryPageByKeyword(TextNormalizer.normalize(topic), after.getCreatedDate(), after.getId(), Limit.of(limit));
+    }
+
+    /**
+     * Retrieves the summaries of the posts belonging to a specific category.
+     *
+     * @param categoryId The ID of the category
+     * @return A list of the summaries of the posts belonging to the specified category
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByCategoryId(UUID categoryId) {
+        return postRepository.findSummariesByCategoryId(categoryId);
+    }
+
+    /**
+     * Retrieves a page of the summaries of the posts belonging to a specific category ordered from the newest to the
+     * oldest.
+     *
+     * @param categoryId The ID of the category
+     * @param after      The cursor of the page to retrieve, {@link PostCursor#START} for the first page
+     * @param limit      The maximum number of summaries to retrieve
+     * @return A list of at most {@code limit} summaries of the posts belonging to the specified category following the cursor
+     */
+    @Override
+    public List<PostSummary> getPostSummariesByCategoryId(UUID categoryId, PostCursor after, int limit) {
+        return postRepository.findSummaryPageByCategoryId(categoryId, after.getCreatedDate(), after.getId(), Limit.of(limit));
+    }
+
+    /**
+     * Performs an action for each post, in creation date order, without loading all posts in memory.
+     *
+     * @param action The action to perform on each post
+     */
+    @Override
+    public void forEachPost(Consumer<Post> action) {
+        forEach(postRepository.streamAllByOrderByCreatedDate(), action);
+    }
+
+    /**
+     * Performs an action for each post created or updated at or after a date, in order of their last write, without
+     * loading all posts in memory.
+     *
+     * @param updatedDate The date of the last write from which posts are processed
+     * @param action      The action to perform on each post
+     */
+    @Override
+    public void forEachPostUpdatedSince(LocalDateTime updatedDate, Consumer<Post> action) {
+        forEach(postRepository.streamAllByUpdatedDateGreaterThanEqualOrderByUpdatedDate(updatedDate), action);
+    }
+
+    /**
+     * Performs an action for the ID of each post, without loading the posts.
+     *
+     * @param action The action to perform on each ID
+     */
+    @Override
+    public void forEachPostId(Consumer<UUID> action) {
+        try (Stream<UUID> ids = postRepository.streamAllIds()) {
+            ids.forEach(action);
+        }
+    }
+
+    /**
+     * Performs an action for each post with the specified topic, without loading all matching posts in memory.
+     *
+     * @param topic  The topic of the posts
+     * @param action The action to perform on each post
+     */
+    @Override
+    public void forEachPostByTopic(String topic, Consumer<Post> action) {
+        forEach(postRepository.streamByTitleOrContentContainingKeyword(TextNormalizer.normalize(topic)), action);
+    }
+
+    /**
+     * Performs an action for each post belonging to a specific category, without loading all matching posts in memory.
+     *
+     * @param categoryId The ID of the category
+     * @param action     The action to perform on each post
+     */
+    @Override
+    public void forEachPostByCategoryId(UUID categoryId, Consumer<Post> action) {
+        forEach(postRepository.streamAllByCategoryId(categoryId), action);
+    }
+
+    /**
+     * Consumes a stream of posts, detaching each post from the persistence context once the action is performed
+     * so that the memory used by the persistence context does not grow with the number of posts.
+     *
+     * @param posts  The stream of posts to consume, closed once consumed
+     * @param action The action to perform on each post
+     */
+    private void forEach(Stream<Post> posts, Consumer<Post> action) {
+        try (posts) {
+            posts.forEach(post -> {
+                action.accept(post);
+                entityManager.detach(post);
+            });
+        }
+    }
+
     /**
      * Creates a new post with the specified title, content, and category ID.
      *
@@ -108,17 +561,106 @@ public class PostServiceImplementation implements PostService {
      * @throws CategoryNotFoundByIdException if the specified category ID does not exist
      */
     @Override
+    @Transactional
     public Post createPost(String title, String content, UUID categoryId) throws CategoryNotFoundByIdException {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new CategoryNotFoundByIdException(categoryId));
+        Category category = categoryService.getCategory(categoryId);
 
         Post post = new Post(title, content, category);
 
-        return postRepository.save(post);
+        final Post created = postRepository.save(post);
+
+        AfterCommit.run(() -> {
+            postSearchIndex.index(created);
+            suggestionIndex.indexPost(created);
+            postFacetIndex.index(created);
+        });
+        topicSearchCache.invalidate();
+        latestPostsFeed.add(created);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        return created;
+    }
+
+    /**
+     * Creates several posts in a single transaction.
+     * The referenced categories are resolved with a single query, and the posts are persisted without being read
+     * first, then flushed every {@value #INSERT_CHUNK_SIZE} posts so that Hibernate sends them as JDBC batches and
+     * the persistence context stays small.
+     *
+     * @param requests The posts to create
+     * @return The outcome of each item, in request order
+     */
+    @Override
+    @Transactional
+    public List<PostBatchResult> createPosts(List<PostRequest> requests) {
+        final Set<UUID> categoryIds = new HashSet<>();
+
+        requests.forEach(request -> {
+            if (request.getCategoryId() != null) {
+                categoryIds.add(request.getCategoryId());
+            }
+        });
+
+        final Map<UUID, Category> categories = categoryService.getCategoriesById(categoryIds);
+        final List<PostBatchResult> results = new ArrayList<>(requests.size());
+        final List<Post> pending = new ArrayList<>(INSERT_CHUNK_SIZE);
+
+        for (int index = 0; index < requests.size(); index++) {
+            final PostRequest request = requests.get(index);
+            final Category category = categories.get(request.getCategoryId());
+
+            if (category == null) {
+                results.add(PostBatchResult.rejected(index, PostBatchResult.Status.CATEGORY_NOT_FOUND, new CategoryNotFoundByIdException(request.getCategoryId()).getMessage()));
+                continue;
+            }
+
+            final Post post = new Post(request.getTitle(), request.getContent(), category);
+
+            entityManager.persist(post);
+            pending.add(post);
+            results.add(PostBatchResult.created(index, post.getId()));
+
+            if (pending.size() == INSERT_CHUNK_SIZE) {
+                flush(pending);
+            }
+        }
+
+        flush(pending);
+
+        return results;
+    }
+
+    /**
+     * Flushes the pending posts, indexes them, then detaches them from the persistence context, invalidates the
+     * cached topic searches and touches the post collection.
+     *
+     * @param pending The posts persisted since the last flush
+     */
+    private void flush(List<Post> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        entityManager.flush();
+
+        final List<Post> flushed = List.copyOf(pending);
+
+        AfterCommit.run(() -> {
+            flushed.forEach(postSearchIndex::index);
+            flushed.forEach(suggestionIndex::indexPost);
+            flushed.forEach(postFacetIndex::index);
+        });
+        pending.forEach(latestPostsFeed::add);
+        pending.forEach(entityManager::detach);
+        pending.clear();
+        topicSearchCache.invalidate();
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
     }
 
     /**
      * Updates an existing post with the specified ID, title, content, and category ID.
+     * The post is loaded and modified in a single transaction, so that its changes are flushed as one UPDATE instead
+     * of being merged.
      *
      * @param id         The ID of the post to update
      * @param title      The new title for the post
@@ -129,35 +671,100 @@ public class PostServiceImplementation implements PostService {
      * @throws PostNotFoundByIdException     if the specified post ID does not exist
      */
     @Override
+    @Transactional
     public Post update(UUID id, String title, String content, UUID categoryId) throws CategoryNotFoundByIdException, PostNotFoundByIdException {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new CategoryNotFoundByIdException(categoryId));
+        Category category = categoryService.getCategory(categoryId);
 
         Post post = getPost(id);
 
+        return apply(post, title, content, category);
+    }
+
+    /**
+     * Updates an existing post with the specified ID, title, content, and category ID, only if it is still at the
+     * specified version.
+     * The loaded post is compared to the expected version, then its UPDATE only applies if the row is still at the
+     * loaded version, so that a concurrent update committed meanwhile fails with an
+     * {@link org.springframework.dao.OptimisticLockingFailureException} instead of being overwritten.
+     *
+     * @param id         The ID of the post to update
+     * @param title      The new title for the post
+     * @param content    The new content for the post
+     * @param categoryId The ID of the category
+     * @param version    The version the post must be at, or null to update any version
+     * @return The updated post
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     * @throws StaleVersionException         if the post is no longer at the specified version
+     */
+    @Override
+    @Transactional(rollbackFor = StaleVersionException.class)
+    public Post update(UUID id, String title, String content, UUID categoryId, Long version) throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
+        Category category = categoryService.getCategory(categoryId);
+
+        Post post = getPost(id);
+
+        if (version != null && !version.equals(post.getVersion())) {
+            throw new StaleVersionException("Post", id, version);
+        }
+
+        return apply(post, title, content, category);
+    }
+
+    /**
+     * Applies new values to a loaded post, then updates the indexes, caches and feeds holding it.
+     * The UPDATE is flushed first, so that a concurrent update is detected before any index holds the new values.
+     *
+     * @param post     The loaded post
+     * @param title    The new title for the post
+     * @param content  The new content for the post
+     * @param category The new category for the post
+     * @return The updated post
+     */
+    private Post apply(Post post, String title, String content, Category category) {
         post.setTitle(title);
         post.setContent(content);
         post.setCategory(category);
 
-        return postRepository.save(post);
+        postRepository.flush();
+
+        AfterCommit.run(() -> {
+            postSearchIndex.index(post);
+            suggestionIndex.indexPost(post);
+            postFacetIndex.index(post);
+        });
+        topicSearchCache.invalidate();
+        latestPostsFeed.add(post);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        return post;
     }
 
     /**
      * Deletes a post with the specified ID.
+     * The post is deleted with a single statement, whose row count tells whether it existed.
      *
      * @param id The ID of the post to delete
      * @return true if the post was deleted successfully, false otherwise
      * @throws PostNotFoundByIdException if the specified post ID does not exist
      */
     @Override
+    @Transactional
     public boolean deletePost(UUID id) throws PostNotFoundByIdException {
-        boolean exists = postRepository.existsById(id);
+        final int deleted = postRepository.deletePostById(id);
 
-        if (!exists) {
+        if (deleted == 0) {
             throw new PostNotFoundByIdException(id);
         }
 
-        postRepository.deleteById(id);
+        AfterCommit.run(() -> {
+            postSearchIndex.remove(id);
+            suggestionIndex.removePost(id);
+            postFacetIndex.remove(id);
+        });
+        topicSearchCache.invalidate();
+        latestPostsFeed.remove(id);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
 
         return true;
     }
@@ -0,0 +1,55 @@
+package com.dauphine.blogger.services.implementations;
+
+import com.dauphine.blogger.dto.Suggestion;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.services.SuggestionService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Implementation of the SuggestionService interface.
+ * </p>
+ *
+ * <p>
+ * Suggestions are served from memory by the {@link SuggestionIndex}, without touching the database. No suggestion
+ * is returned until the index is loaded.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Service
+public class SuggestionServiceImplementation implements SuggestionService {
+
+    /**
+     * In-memory prefix trie of the category names and post titles.
+     */
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Constructs a new SuggestionServiceImplementation object with the specified index.
+     *
+     * @param suggestionIndex The in-memory prefix trie of the category names and post titles
+     */
+    public SuggestionServiceImplementation(SuggestionIndex suggestionIndex) {
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    /**
+     * Retrieves the category names and post titles starting with a prefix, ignoring case and accents.
+     * The limit is capped to the configured maximum, and at least one suggestion is returned when any exists.
+     *
+     * @param prefix The prefix to complete
+     * @param limit  The maximum number of suggestions, or null for the configured maximum
+     * @return The suggestions, the most popular categories first, then the most recent posts
+     */
+    @Override
+    public List<Suggestion> getSuggestions(String prefix, Integer limit) {
+        final int resolved = limit == null ? suggestionIndex.getMaxResults() : Math.max(1, limit);
+
+        return suggestionIndex.suggest(prefix, resolved)
+                .orElse(List.of());
+    }
+
+}
@@ -0,0 +1,382 @@
+package com.dauphine.blogger.services.implementations;
+
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.dto.TransferRecord;
+import com.dauphine.blogger.dto.TransferResult;
+import com.dauphine.blogger.exceptions.InvalidTransferException;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.repositories.CategoryRepository;
+import com.dauphine.blogger.repositories.PostRepository;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.services.TransferService;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * Implementation of the TransferService interface.
+ * Provides methods to export and import the whole blog corpus with bounded memory.
+ * </p>
+ *
+ * <p>
+ * The export streams categories and posts as projections, without loading entities in the persistence context.
+ * The import buffers at most {@value #BATCH_SIZE} records, loads the existing rows of a batch with a single query,
+ * then persists or updates the whole batch in one transaction so that Hibernate can send the statements as JDBC batches.
+ * </p>
+ *
+ * <p>
+ * Once a batch is committed, its categories and posts are written to the in-memory indexes, like those of the other
+ * writes, so that they can be searched right away without a rebuild.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Service
+public class TransferServiceImplementation implements TransferService {
+
+    /**
+     * Maximum number of records written in a single transaction.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    /**
+     * Repository for managing post entities.
+     */
+    private final PostRepository postRepository;
+
+    /**
+     * Repository for managing category entities.
+     */
+    private final CategoryRepository categoryRepository;
+
+    /**
+     * Cache of all categories, invalidated once imported categories are committed.
+     */
+    private final CategoryCache categoryCache;
+
+    /**
+     * Cache of the topic searches, invalidated once imported categories or posts are committed.
+     */
+    private final TopicSearchCache topicSearchCache;
+
+    /**
+     * Feed of the newest posts, discarded once imported categories or posts are committed.
+     */
+    private final LatestPostsFeed latestPostsFeed;
+
+    /**
+     * Change stamps of the collections, touched once imported categories or posts are committed.
+     */
+    private final ChangeStamps changeStamps;
+
+    /**
+     * In-memory index resolving topic searches, updated once imported posts are committed.
+     */
+    private final PostSearchIndex postSearchIndex;
+
+    /**
+     * In-memory bitmap index resolving faceted topic searches, updated once imported posts are committed.
+     */
+    private final PostFacetIndex postFacetIndex;
+
+    /**
+     * In-memory trigram index of the category names, updated once imported categories are committed.
+     */
+    private final CategoryNameIndex categoryNameIndex;
+
+    /**
+     * In-memory prefix trie completing the category names and post titles, updated once imported categories or posts
+     * are committed.
+     */
+    private final SuggestionIndex suggestionIndex;
+
+    /**
+     * Entity manager used to persist new rows and release each written batch.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Transaction operations used to write each batch in its own transaction.
+     */
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Constructs a new TransferServiceImplementation object with the specified repositories.
+     *
+     * @param postRepository        Repository for managing post entities
+     * @param categoryRepository    Repository for managing category entities
+     * @param categoryCache         Cache of all categories
+     * @param topicSearchCache      Cache of the topic searches
+     * @param latestPostsFeed       Feed of the newest posts
+     * @param changeStamps          Change stamps of the collections
+     * @param postSearchIndex       In-memory index resolving topic searches
+     * @param postFacetIndex        In-memory bitmap index resolving faceted topic searches
+     * @param categoryNameIndex     In-memory trigram index of the category names
+     * @param suggestionIndex       In-memory prefix trie completing the category names and post titles
+     * @param entityManager         Entity manager used to persist new rows
+     * @param transactionOperations Transaction operations used to write each batch
+     */
+    public TransferServiceImplementation(PostRepository postRepository, CategoryRepository categoryRepository, CategoryCache categoryCache, TopicSearchCache topicSearchCache, LatestPostsFeed latestPostsFeed, ChangeStamps changeStamps, PostSearchIndex postSearchIndex, PostFacetIndex postFacetIndex, CategoryNameIndex categoryNameIndex, SuggestionIndex suggestionIndex, EntityManager entityManager, TransactionOperations transactionOperations) {
+        this.postRepository = postRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
+        this.topicSearchCache = topicSearchCache;
+        this.latestPostsFeed = latestPostsFeed;
+        this.changeStamps = changeStamps;
+        this.postSearchIndex = postSearchIndex;
+        this.postFacetIndex = postFacetIndex;
+        this.categoryNameIndex = categoryNameIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.entityManager = entityManager;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * Performs an action for each category, then for each post of the corpus.
+     *
+     * @param action The action to perform on each record
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<TransferRecord> action) {
+        try (Stream<TransferRecord> categories = categoryRepository.streamTransferRecords()) {
+            categories.forEach(action);
+        }
+
+        try (Stream<TransferRecord> posts = postRepository.streamTransferRecords()) {
+            posts.forEach(action);
+        }
+    }
+
+    /**
+     * Imports the categories and posts described by the records, creating missing ones and updating existing ones.
+     * Pending categories are always written before a post is buffered, so that posts never reference a category
+     * that is not written yet.
+     *
+     * @param records The records to import
+     * @return The number of imported categories and posts
+     * @throws InvalidTransferException if a record cannot be read or does not describe a category or a post
+     */
+    @Override
+    public TransferResult importAll(Iterator<TransferRecord> records) throws InvalidTransferException {
+        final List<TransferRecord> categories = new ArrayList<>(BATCH_SIZE);
+        final List<TransferRecord> posts = new ArrayList<>(BATCH_SIZE);
+
+        long importedCategories = 0;
+        long importedPosts = 0;
+        long line = 0;
+
+        TransferRecord record;
+
+        while ((record = next(records, ++line)) != null) {
+            if (TransferRecord.CATEGORY.equals(record.getType())) {
+                categories.add(record);
+
+                if (categories.size() == BATCH_SIZE) {
+                    importedCategories += writeCategories(categories);
+                }
+            } else {
+                if (!categories.isEmpty()) {
+                    importedCategories += writeCategories(categories);
+                }
+
+                posts.add(record);
+
+                if (posts.size() == BATCH_SIZE) {
+                    importedPosts += writePosts(posts);
+                }
+            }
+        }
+
+        importedCategories += writeCategories(categories);
+        importedPosts += writePosts(posts);
+
+        return new TransferResult(importedCategories, importedPosts);
+    }
+
+    /**
+     * Reads and validates the next record.
+     *
+     * @param records The records to import
+     * @param line    The line number of the next record
+     * @return The next record, or null when all records are read
+     * @throws InvalidTransferException if the record cannot be read or does not describe a category or a post
+     */
+    private TransferRecord next(Iterator<TransferRecord> records, long line) throws InvalidTransferException {
+        final TransferRecord record;
+
+        try {
+            if (!records.hasNext()) {
+                return null;
+            }
+
+            record = records.next();
+        } catch (RuntimeException e) {
+            throw new InvalidTransferException("record " + line + " cannot be parsed");
+        }
+
+        if (!TransferRecord.CATEGORY.equals(record.getType()) && !TransferRecord.POST.equals(record.getType())) {
+            throw new InvalidTransferException("record " + line + " has an unknown type " + record.getType());
+        }
+
+        if (record.getId() == null) {
+            throw new InvalidTransferException("record " + line + " has no id");
+        }
+
+        return record;
+    }
+
+    /**
+     * Writes a batch of categories in a single transaction, indexes them once committed, then clears the batch.
+     * Missing categories are built as new entities, then given their imported ID, so that they are persisted.
+     *
+     * @param batch The records describing the categories
+     * @return The number of written categories
+     */
+    private int writeCategories(List<TransferRecord> batch) {
+        final int size = batch.size();
+
+        if (size == 0) {
+            return 0;
+        }
+
+        final List<Category> written = new ArrayList<>(size);
+
+        transactionOperations.executeWithoutResult(status -> {
+            final Map<UUID, Category> categories = index(categoryRepository.findAllById(ids(batch)), Category::getId);
+
+            for (TransferRecord record : batch) {
+                final Category category = categories.get(record.getId());
+
+                if (category != null) {
+                    category.setName(record.getName());
+                    written.add(category);
+                } else {
+                    final Category created = new Category(record.getName());
+                    created.setId(record.getId());
+
+                    entityManager.persist(created);
+                    categories.put(created.getId(), created);
+                    written.add(created);
+                }
+            }
+
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        written.forEach(categoryNameIndex::index);
+        written.forEach(suggestionIndex::indexCategory);
+        categoryCache.invalidate();
+        topicSearchCache.invalidate();
+        latestPostsFeed.invalidate();
+        changeStamps.touch(ChangeStamps.Scope.CATEGORIES, ChangeStamps.Scope.POSTS);
+        batch.clear();
+
+        return size;
+    }
+
+    /**
+     * Writes a batch of posts in a single transaction, indexes them once committed, then clears the batch.
+     * Categories are referenced by ID, without being loaded, and missing posts are built as new entities; the indexes
+     * only read the ID of the category of a post, so that the references are never loaded.
+     *
+     * @param batch The records describing the posts
+     * @return The number of written posts
+     */
+    private int writePosts(List<TransferRecord> batch) {
+        final int size = batch.size();
+
+        if (size == 0) {
+            return 0;
+        }
+
+        final List<Post> written = new ArrayList<>(size);
+
+        transactionOperations.executeWithoutResult(status -> {
+            final Map<UUID, Post> posts = index(postRepository.findAllById(ids(batch)), Post::getId);
+
+            for (TransferRecord record : batch) {
+                final Category category = record.getCategoryId() != null
+                        ? entityManager.getReference(Category.class, record.getCategoryId())
+                        : null;
+
+                final Post post = posts.get(record.getId());
+
+                if (post != null) {
+                    post.setTitle(record.getTitle());
+                    post.setContent(record.getContent());
+                    post.setCreatedDate(record.getCreatedDate());
+                    post.setCategory(category);
+                    written.add(post);
+                } else {
+                    final Post created = new Post(record.getTitle(), record.getContent(), category);
+                    created.setId(record.getId());
+                    created.setCreatedDate(record.getCreatedDate());
+
+                    entityManager.persist(created);
+                    posts.put(created.getId(), created);
+                    written.add(created);
+                }
+            }
+
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        written.forEach(postSearchIndex::index);
+        written.forEach(postFacetIndex::index);
+        written.forEach(suggestionIndex::indexPost);
+        topicSearchCache.invalidate();
+        latestPostsFeed.invalidate();
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+        batch.clear();
+
+        return size;
+    }
+
+    /**
+     * Collects the IDs of a batch of records.
+     *
+     * @param batch The records
+     * @return The IDs of the records
+     */
+    private static List<UUID> ids(List<TransferRecord> batch) {
+        return batch.stream()
+                .map(TransferRecord::getId)
+                .toList();
+    }
+
+    /**
+     * Indexes entities by their ID in a mutable map.
+     *
+     * @param entities The entities to index
+     * @param id       The function extracting the ID of an entity
+     * @param <T>      The type of the entities
+     * @return The entities indexed by ID
+     */
+    private static <T> Map<UUID, T> index(List<T> entities, Function<T, UUID> id) {
+        return entities.stream()
+                .collect(Collectors.toMap(id, Function.identity()));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.dauphine.blogger.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Component writing sequences of elements to HTTP responses as JSON arrays, one element at a time.
+ * </p>
+ *
+ * <p>
+ * Elements are serialized through a {@link JsonGenerator} as soon as they are produced by their source, so the
+ * memory used by a response does not depend on the number of elements, and the first bytes are sent to the client
+ * before the last element is read.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class JsonArrayStreamWriter {
+
+    /**
+     * Object mapper used to serialize each element.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new JsonArrayStreamWriter with the specified object mapper.
+     *
+     * @param objectMapper Object mapper used to serialize each element
+     */
+    public JsonArrayStreamWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a response body writing each element of the source as an item of a JSON array.
+     * The source is only consumed when the response body is written.
+     *
+     * @param source The source of the elements to write
+     * @param <T>    The type of the elements
+     * @return The streaming response body
+     */
+    public <T> StreamingResponseBody writeArray(Source<T> source) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+
+                source.forEach(element -> {
+                    try {
+                        generator.writeObject(element);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * <p>
+     * Source of the elements of a streamed JSON array.
+     * </p>
+     *
+     * @param <T> The type of the elements
+     */
+    @FunctionalInterface
+    public interface Source<T> {
+
+        /**
+         * Produces each element of the source.
+         *
+         * @param action The action to perform on each element
+         */
+        void forEach(Consumer<T> action);
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.dauphine.blogger.streaming;
+
+import com.dauphine.blogger.dto.TransferRecord;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>
+ * Component reading and writing {@link TransferRecord transfer records} in the supported {@link TransferFormat formats}.
+ * </p>
+ *
+ * <p>
+ * Records are written and parsed one at a time through Jackson sequence writers and mapping iterators, so neither
+ * the export nor the import needs to hold the whole corpus in memory.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Component
+public class TransferCodec {
+
+    /**
+     * Separator written between two NDJSON records.
+     */
+    private static final String LINE_SEPARATOR = "\n";
+
+    /**
+     * Object mapper used for the NDJSON format.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * CSV mapper used for the CSV format.
+     * Empty columns are read as missing values, since CSV cannot tell them apart.
+     */
+    private final CsvMapper csvMapper;
+
+    /**
+     * Schema of the CSV format, derived from the record properties and starting with a header line.
+     */
+    private final CsvSchema csvSchema;
+
+    /**
+     * Constructs a new TransferCodec with the specified object mapper.
+     *
+     * @param objectMapper Object mapper used for the NDJSON format
+     */
+    public TransferCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .findAndAddModules()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .build();
+        this.csvSchema = csvMapper.schemaFor(TransferRecord.class).withHeader();
+    }
+
+    /**
+     * Opens a writer of records in the specified format.
+     * Closing the writer closes the output stream.
+     *
+     * @param outputStream The output stream to write the records to
+     * @param format       The format of the records
+     * @return The writer of records
+     * @throws IOException if the writer cannot be opened
+     */
+    public SequenceWriter openWriter(OutputStream outputStream, TransferFormat format) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.writerFor(TransferRecord.class)
+                    .withRootValueSeparator(LINE_SEPARATOR)
+                    .writeValues(outputStream);
+            case CSV -> csvMapper.writerFor(TransferRecord.class)
+                    .with(csvSchema)
+                    .writeValues(outputStream);
+        };
+    }
+
+    /**
+     * Opens a reader of records in the specified format.
+     * Records are parsed lazily, as the iterator is consumed.
+     *
+     * @param inputStream The input stream to read the records from
+     * @param format      The format of the records
+     * @return The iterator over the records
+     * @throws IOException if the reader cannot be opened
+     */
+    public MappingIterator<TransferRecord> openReader(InputStream inputStream, TransferFormat format) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.readerFor(TransferRecord.class)
+                    .readValues(inputStream);
+            case CSV -> csvMapper.readerFor(TransferRecord.class)
+                    .with(csvSchema)
+                    .readValues(inputStream);
+        };
+    }
+
+}
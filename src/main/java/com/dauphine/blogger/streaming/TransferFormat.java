@@ -0,0 +1,59 @@
+package com.dauphine.blogger.streaming;
+
+import java.util.Locale;
+
+/**
+ * <p>
+ * Formats supported by the bulk export and import of the blog corpus.
+ * Both formats hold one record per line and are gzip-compressed on the wire.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public enum TransferFormat {
+
+    /**
+     * Newline-delimited JSON, one JSON object per line.
+     */
+    NDJSON("ndjson"),
+
+    /**
+     * Comma-separated values with a header line.
+     */
+    CSV("csv");
+
+    /**
+     * The file extension of the format.
+     */
+    private final String extension;
+
+    /**
+     * Constructs a new TransferFormat with the specified file extension.
+     *
+     * @param extension The file extension of the format
+     */
+    TransferFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Retrieves a format by its name, ignoring case.
+     *
+     * @param name The name of the format
+     * @return The format with the specified name
+     * @throws IllegalArgumentException if no format has the specified name
+     */
+    public static TransferFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Retrieves the file extension of the format.
+     *
+     * @return The file extension of the format
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.dauphine.blogger.transactions;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * Defers actions on in-memory state to the end of the current transaction.
+ * </p>
+ *
+ * <p>
+ * The indexes, feeds and change stamps mirror the database, so a write must only reach them once it is committed:
+ * otherwise they would hold a write which is rolled back, or tell a client about a change it cannot read yet. The
+ * caches discarded by a write are discarded again once the transaction completes, since a lookup made before the
+ * commit may have reloaded the previous state.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public final class AfterCommit {
+
+    /**
+     * Private constructor, this class only has static members.
+     */
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or right away outside of any transaction.
+     * The action is dropped if the transaction rolls back.
+     *
+     * @param action The action to run
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction completes, whether it commits or rolls back. Outside of any
+     * transaction, nothing is run, since the caller already acted on a state no later lookup can predate.
+     *
+     * @param action The action to run
+     */
+    public static void onCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+}
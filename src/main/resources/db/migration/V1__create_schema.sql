@@ -0,0 +1,17 @@
+-- Schema of the categories and posts, as mapped by the Category and Post entities.
+-- Databases created before the migrations were introduced are baselined at this version.
+
+CREATE TABLE category
+(
+    id   UUID PRIMARY KEY,
+    name VARCHAR(255)
+);
+
+CREATE TABLE post
+(
+    id           UUID PRIMARY KEY,
+    title        VARCHAR(255),
+    content      TEXT,
+    created_date TIMESTAMP(6),
+    category_id  UUID REFERENCES category (id)
+);
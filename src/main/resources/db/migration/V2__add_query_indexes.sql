@@ -0,0 +1,18 @@
+-- Indexes supporting the queries of PostRepository and CategoryRepository.
+
+-- Trigram operator classes, so that the UPPER(...) LIKE '%...%' searches can use an index.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Listings ordered by creation date and keyset pagination on (created_date, id).
+CREATE INDEX post_created_date_id_idx ON post (created_date DESC, id DESC);
+
+-- Posts of a category, paginated on (created_date, id). Also backs the foreign key on category deletion.
+CREATE INDEX post_category_id_created_date_id_idx ON post (category_id, created_date DESC, id DESC);
+
+-- Case-insensitive searches in titles and contents.
+CREATE INDEX post_title_upper_trgm_idx ON post USING GIN (UPPER(title) gin_trgm_ops);
+CREATE INDEX post_content_upper_trgm_idx ON post USING GIN (UPPER(content) gin_trgm_ops);
+
+-- Case-insensitive uniqueness and search of category names.
+CREATE UNIQUE INDEX category_name_upper_key ON category (UPPER(name));
+CREATE INDEX category_name_upper_trgm_idx ON category USING GIN (UPPER(name) gin_trgm_ops);
@@ -0,0 +1,9 @@
+-- Copies of the searched columns folded by TextNormalizer, ignoring case and accents, written by the application
+-- along with the columns they fold. Filled for the existing rows by the V4 migration.
+
+ALTER TABLE post
+    ADD COLUMN normalized_title   TEXT,
+    ADD COLUMN normalized_content TEXT;
+
+ALTER TABLE category
+    ADD COLUMN normalized_name TEXT;
@@ -0,0 +1,14 @@
+-- The searches compare the normalized columns instead of folding the original ones with UPPER(...).
+
+-- Case- and accent-insensitive searches in titles and contents.
+CREATE INDEX post_normalized_title_trgm_idx ON post USING GIN (normalized_title gin_trgm_ops);
+CREATE INDEX post_normalized_content_trgm_idx ON post USING GIN (normalized_content gin_trgm_ops);
+
+-- Case- and accent-insensitive search of category names.
+CREATE INDEX category_normalized_name_trgm_idx ON category USING GIN (normalized_name gin_trgm_ops);
+
+-- No query folds the original columns anymore. The unique index on UPPER(name) is kept, it enforces the uniqueness
+-- of the category names.
+DROP INDEX post_title_upper_trgm_idx;
+DROP INDEX post_content_upper_trgm_idx;
+DROP INDEX category_name_upper_trgm_idx;
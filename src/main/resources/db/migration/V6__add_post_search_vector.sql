@@ -0,0 +1,12 @@
+-- Full-text search of the posts, used when blogger.search.mode is full-text.
+
+-- Lexemes of the normalized title, weighted above those of the normalized content so that title matches rank first.
+-- The simple configuration only splits and lower-cases the words: the normalized columns are already folded, which
+-- the stemmers of the language configurations do not expect.
+ALTER TABLE post
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(normalized_title, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(normalized_content, '')), 'B')
+    ) STORED;
+
+CREATE INDEX post_search_vector_idx ON post USING GIN (search_vector);
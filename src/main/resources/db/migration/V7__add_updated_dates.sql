@@ -0,0 +1,9 @@
+-- Timestamps of the last write of each post, written by the application along with the other columns, so that the
+-- search index can replay the posts written since its checkpoint.
+-- Existing rows are considered last written when they were created, or when the migration runs if unknown.
+
+ALTER TABLE post
+    ADD COLUMN updated_date TIMESTAMP(6);
+
+UPDATE post
+SET updated_date = COALESCE(created_date, LOCALTIMESTAMP);
@@ -0,0 +1,8 @@
+-- Versions of the rows, incremented by every update so that concurrent editors are detected instead of overwriting
+-- each other. Existing rows start at the first version.
+
+ALTER TABLE post
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE category
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
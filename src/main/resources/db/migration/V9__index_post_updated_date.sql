@@ -0,0 +1,2 @@
+-- Replay of the posts written since the last checkpoint of the search index, ordered by the date of their last write.
+CREATE INDEX post_updated_date_idx ON post (updated_date);
@@ -0,0 +1,148 @@
+package com.dauphine.blogger.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the ChangeStamps class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class ChangeStampsTest {
+
+    /**
+     * Time of the startup of the stamps, in milliseconds since the epoch.
+     */
+    private static final long NOW = 1_700_000_000_250L;
+
+    /**
+     * Current time of the clock, in milliseconds since the epoch.
+     */
+    private AtomicLong millis;
+
+    /**
+     * The stamps being tested.
+     */
+    private ChangeStamps changeStamps;
+
+    /**
+     * Setup method to create the stamps, reading a clock set by the tests.
+     */
+    @BeforeEach
+    public void setup() {
+        millis = new AtomicLong(NOW);
+        changeStamps = new ChangeStamps(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        });
+    }
+
+    /**
+     * Test to verify that touching a collection gives it a new tag, even within the same second, without moving its
+     * last change time past the current second, while the other collections keep their stamp.
+     */
+    @Test
+    public void touch_BumpsOnlyTouchedCollections_WithinCurrentSecond() {
+        ChangeStamps.Stamp posts = changeStamps.get(ChangeStamps.Scope.POSTS);
+        ChangeStamps.Stamp categories = changeStamps.get(ChangeStamps.Scope.CATEGORIES);
+
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        ChangeStamps.Stamp touched = changeStamps.get(ChangeStamps.Scope.POSTS);
+
+        assertEquals(2, touched.version());
+        assertNotEquals(posts.eTag(), touched.eTag());
+        assertTrue(touched.eTag().startsWith("W/\""));
+        assertEquals(Instant.ofEpochSecond(NOW / 1000), touched.lastModified());
+        assertEquals(categories, changeStamps.get(ChangeStamps.Scope.CATEGORIES));
+    }
+
+    /**
+     * Test to verify that the last change time follows the clock to the second, but never goes backwards.
+     */
+    @Test
+    public void touch_MovesLastModifiedToCurrentSecond_ButNeverBackwards() {
+        millis.set(NOW + 3_500);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        assertEquals(Instant.ofEpochSecond(NOW / 1000 + 3), changeStamps.get(ChangeStamps.Scope.POSTS).lastModified());
+
+        millis.set(NOW - 10_000);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        assertEquals(Instant.ofEpochSecond(NOW / 1000 + 3), changeStamps.get(ChangeStamps.Scope.POSTS).lastModified());
+        assertEquals(2, changeStamps.get(ChangeStamps.Scope.POSTS).version());
+    }
+
+    /**
+     * Test to verify that a last change time only settles once its second has elapsed.
+     */
+    @Test
+    public void isSettled_ReturnsTrue_OnceSecondOfChangeElapsed() {
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        assertFalse(changeStamps.isSettled(changeStamps.get(ChangeStamps.Scope.POSTS)));
+
+        millis.set(NOW + 1_000);
+
+        assertTrue(changeStamps.isSettled(changeStamps.get(ChangeStamps.Scope.POSTS)));
+    }
+
+    /**
+     * Test to verify that tags issued by another run of the application are never matched.
+     *
+     * @throws InterruptedException if interrupted while waiting for the next run
+     */
+    @Test
+    public void get_TagsDifferFromPreviousRun() throws InterruptedException {
+        Thread.sleep(2);
+
+        assertNotEquals(changeStamps.get(ChangeStamps.Scope.POSTS).eTag(), new ChangeStamps().get(ChangeStamps.Scope.POSTS).eTag());
+    }
+
+    /**
+     * Test to verify that within a transaction, the stamps are only bumped once the transaction commits.
+     */
+    @Test
+    public void touch_BumpsAfterCommit_WithinTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            changeStamps.touch(ChangeStamps.Scope.CATEGORIES);
+
+            assertEquals(0, changeStamps.get(ChangeStamps.Scope.CATEGORIES).version());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, changeStamps.get(ChangeStamps.Scope.CATEGORIES).version());
+    }
+
+}
@@ -0,0 +1,224 @@
+package com.dauphine.blogger.cache;
+
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the LatestPostsFeed class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class LatestPostsFeedTest {
+
+    /**
+     * Creation date of the oldest post of the tests.
+     */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    /**
+     * Category of the posts of the tests.
+     */
+    private final Category java = new Category("Java");
+
+    /**
+     * The feed being tested, holding at most 3 posts.
+     */
+    private LatestPostsFeed feed;
+
+    /**
+     * Number of loads of the feed from the simulated database.
+     */
+    private int loads;
+
+    /**
+     * Setup method to create the feed.
+     */
+    @BeforeEach
+    public void setup() {
+        feed = new LatestPostsFeed(3);
+        loads = 0;
+    }
+
+    /**
+     * Test to verify that the first page loads the feed once, then is served from memory as copies, and that pages
+     * longer than the feed are always loaded.
+     */
+    @Test
+    public void getLatest_LoadsOnce_ThenServesCopiesFromMemory() {
+        List<Post> database = posts(5);
+
+        assertEquals(ids(database.subList(0, 2)), ids(feed.getLatest(null, 2, loader(database))));
+        assertEquals(ids(database.subList(0, 3)), ids(feed.getLatest(null, 3, loader(database))));
+        assertNotSame(database.get(0), feed.getLatest(null, 1, loader(database)).get(0));
+        assertEquals(1, loads);
+
+        feed.getLatest(null, 4, loader(database));
+        feed.getLatest(null, 4, loader(database));
+
+        assertEquals(3, loads);
+    }
+
+    /**
+     * Test to verify that a created post newer than the held ones is added and the oldest is dropped, while an older
+     * post is ignored since posts may be missing between.
+     */
+    @Test
+    public void add_KeepsNewestPosts() {
+        List<Post> database = posts(5);
+
+        feed.getLatest(null, 3, loader(database));
+
+        Post newest = post("Newest", EPOCH.plusDays(10), java);
+        Post older = post("Older", EPOCH.minusDays(1), java);
+
+        feed.add(newest);
+        feed.add(older);
+
+        assertEquals(List.of(newest.getId(), database.get(0).getId(), database.get(1).getId()), ids(feed.getLatest(null, 3, loader(database))));
+        assertEquals(1, loads);
+    }
+
+    /**
+     * Test to verify that an exhaustive feed accepts older posts and serves pages longer than its posts, and that
+     * deleted posts are removed.
+     */
+    @Test
+    public void add_AcceptsOlderPosts_WhenFeedIsExhaustive() {
+        List<Post> database = posts(1);
+
+        feed.getLatest(null, 3, loader(database));
+
+        Post older = post("Older", EPOCH.minusDays(1), java);
+
+        feed.add(older);
+
+        assertEquals(List.of(database.get(0).getId(), older.getId()), ids(feed.getLatest(null, 3, loader(database))));
+
+        feed.remove(database.get(0).getId());
+
+        assertEquals(List.of(older.getId()), ids(feed.getLatest(null, 3, loader(database))));
+        assertEquals(1, loads);
+    }
+
+    /**
+     * Test to verify that a post moved to another category leaves the feed of its previous category, and that
+     * renamed categories are applied to the held posts.
+     */
+    @Test
+    public void add_MovesPostBetweenCategories_AndRenameCategoryAppliesToPosts() {
+        Category kotlin = new Category("Kotlin");
+        Post post = post("Post", EPOCH, java);
+
+        feed.getLatest(null, 3, loader(List.of(post)));
+        feed.getLatest(java.getId(), 3, loader(List.of(post)));
+        feed.getLatest(kotlin.getId(), 3, loader(List.of()));
+
+        post.setCategory(kotlin);
+        feed.add(post);
+
+        assertEquals(List.of(), feed.getLatest(java.getId(), 3, loader(List.of())));
+        assertEquals(List.of(post.getId()), ids(feed.getLatest(kotlin.getId(), 3, loader(List.of()))));
+
+        feed.renameCategory(new Category(kotlin.getId(), "Kotlin 2"));
+
+        assertEquals("Kotlin 2", feed.getLatest(kotlin.getId(), 1, loader(List.of())).get(0).getCategory().getName());
+        assertEquals("Kotlin 2", feed.getLatest(null, 1, loader(List.of())).get(0).getCategory().getName());
+        assertEquals(3, loads);
+    }
+
+    /**
+     * Test to verify that a load racing with a write is not published, so that the next page loads the feed again.
+     */
+    @Test
+    public void getLatest_DiscardsLoad_WhenWriteHappensMeanwhile() {
+        List<Post> database = posts(5);
+        Post created = post("Created", EPOCH.plusDays(10), java);
+
+        feed.getLatest(null, 3, count -> {
+            loads++;
+            feed.add(created);
+
+            return database.subList(0, count);
+        });
+
+        assertEquals(ids(database.subList(0, 3)), ids(feed.getLatest(null, 3, loader(database))));
+        assertEquals(2, loads);
+    }
+
+    /**
+     * Test to verify that posts created at the same time are ordered by descending ID, compared as unsigned like the
+     * database does.
+     */
+    @Test
+    public void newestFirst_ComparesIdsAsUnsigned() {
+        Post low = new Post(new UUID(1L, 0L), "Low", "Content", EPOCH, java);
+        Post high = new Post(new UUID(-1L, 0L), "High", "Content", EPOCH, java);
+
+        assertTrue(LatestPostsFeed.NEWEST_FIRST.compare(high, low) < 0);
+    }
+
+    /**
+     * Builds posts of the Java category created one day apart, from the newest to the oldest.
+     *
+     * @param count The number of posts
+     * @return The posts, from the newest to the oldest
+     */
+    private List<Post> posts(int count) {
+        final List<Post> posts = new ArrayList<>();
+
+        for (int i = count - 1; i >= 0; i--) {
+            posts.add(post("Post " + i, EPOCH.plusDays(i), java));
+        }
+
+        return posts;
+    }
+
+    /**
+     * Builds a post.
+     *
+     * @param title       The title of the post
+     * @param createdDate The creation date of the post
+     * @param category    The category of the post
+     * @return The post
+     */
+    private static Post post(String title, LocalDateTime createdDate, Category category) {
+        return new Post(UUID.randomUUID(), title, "Content", createdDate, category);
+    }
+
+    /**
+     * Builds a loader returning the first posts of a simulated database, counting the loads.
+     *
+     * @param database The posts of the database, from the newest to the oldest
+     * @return The loader
+     */
+    private IntFunction<List<Post>> loader(List<Post> database) {
+        return count -> {
+            loads++;
+
+            return database.subList(0, Math.min(count, database.size()));
+        };
+    }
+
+    /**
+     * Collects the IDs of posts.
+     *
+     * @param posts The posts
+     * @return The IDs of the posts, in order
+     */
+    private static List<UUID> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).toList();
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.dauphine.blogger.concurrency;
+
+import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the SingleFlight class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class SingleFlightTest {
+
+    /**
+     * Number of concurrent callers.
+     */
+    private static final int CALLERS = 8;
+
+    /**
+     * Registry of the call metrics.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * The coalescer being tested.
+     */
+    private SingleFlight singleFlight;
+
+    /**
+     * Executor running the concurrent callers.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Setup method to create the coalescer and the executor.
+     */
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    /**
+     * Stops the executor after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test to verify that identical concurrent calls share a single execution and its result.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void execute_SharesInFlightCall_WhenKeysAreEqual() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        List<Object> result = List.of("post");
+        List<Future<Object>> futures = new ArrayList<>();
+
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> singleFlight.execute(SingleFlight.key("getPosts", null), () -> {
+                executions.incrementAndGet();
+                release.await();
+
+                return result;
+            })));
+        }
+
+        awaitSharedCalls(CALLERS - 1);
+        release.countDown();
+
+        for (Future<Object> future : futures) {
+            assertSame(result, future.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(1, meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "executed").counter().count());
+    }
+
+    /**
+     * Test to verify that the callers sharing a failed call receive its exception, and that the key is forgotten
+     * once the call completes.
+     *
+     * @throws Exception if the executor fails
+     */
+    @Test
+    public void execute_SharesException_AndForgetsCompletedCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        UUID id = UUID.randomUUID();
+        List<Future<Object>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            futures.add(executor.submit(() -> singleFlight.execute(SingleFlight.key("getPost", id), () -> {
+                release.await();
+
+                throw new PostNotFoundByIdException(id);
+            })));
+        }
+
+        awaitSharedCalls(1);
+        release.countDown();
+
+        for (Future<Object> future : futures) {
+            Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(PostNotFoundByIdException.class, e.getCause());
+        }
+
+        assertEquals("post", singleFlight.execute(SingleFlight.key("getPost", id), () -> "post"));
+    }
+
+    /**
+     * Test to verify that calls with different keys, or made within a transaction, run their own execution.
+     *
+     * @throws Exception if a call fails
+     */
+    @Test
+    public void execute_RunsOwnCall_WhenKeysDifferOrTransactionIsActive() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> first = executor.submit(() -> singleFlight.execute(SingleFlight.key("getPosts", 1), () -> {
+            release.await();
+
+            return "first";
+        }));
+
+        assertEquals("second", singleFlight.execute(SingleFlight.key("getPosts", 2), () -> "second"));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        try {
+            assertEquals("transactional", singleFlight.execute(SingleFlight.key("getPosts", 1), () -> "transactional"));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "shared").counter().count());
+    }
+
+    /**
+     * Waits until the specified number of calls joined a call in flight.
+     *
+     * @param count The number of shared calls to wait for
+     * @throws InterruptedException if the wait is interrupted
+     */
+    private void awaitSharedCalls(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "shared").counter().count() < count) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the call in flight");
+            Thread.sleep(5);
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.dauphine.blogger.config;
+
+import com.dauphine.blogger.cache.ChangeStamps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the ConditionalGetInterceptor class.
+ * These tests validate that conditional reads are answered from the change stamps without calling the handler.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class ConditionalGetInterceptorTest {
+
+    /**
+     * Time of the startup of the stamps, in milliseconds since the epoch.
+     */
+    private static final long NOW = 1_700_000_000_250L;
+
+    /**
+     * Current time of the clock of the stamps, in milliseconds since the epoch.
+     */
+    private AtomicLong millis;
+
+    /**
+     * Real ChangeStamps, touched by the tests to simulate writes.
+     */
+    private ChangeStamps changeStamps;
+
+    /**
+     * The interceptor being tested, guarding the post collection.
+     */
+    private ConditionalGetInterceptor interceptor;
+
+    /**
+     * Setup method to create the stamps, reading a clock set by the tests, and the interceptor.
+     */
+    @BeforeEach
+    public void setup() {
+        millis = new AtomicLong(NOW);
+        changeStamps = new ChangeStamps(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        });
+        interceptor = new ConditionalGetInterceptor(changeStamps, ChangeStamps.Scope.POSTS);
+    }
+
+    /**
+     * Test to verify that an unconditional read runs the handler and is tagged with the stamp of the collection.
+     */
+    @Test
+    public void preHandle_TagsResponse_WhenRequestIsUnconditional() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        millis.set(NOW + 1_000);
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/posts"), response, new Object()));
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(changeStamps.get(ChangeStamps.Scope.POSTS).eTag(), response.getHeader(HttpHeaders.ETAG));
+        assertEquals(changeStamps.get(ChangeStamps.Scope.POSTS).lastModified().toEpochMilli(), response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    /**
+     * Test to verify that the last change time is not sent while its second is the current one, since a later change
+     * within the same second would share it.
+     */
+    @Test
+    public void preHandle_OmitsLastModified_WhileSecondOfChangeIsCurrent() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/posts"), response, new Object()));
+        assertEquals(changeStamps.get(ChangeStamps.Scope.POSTS).eTag(), response.getHeader(HttpHeaders.ETAG));
+        assertNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    /**
+     * Test to verify that a read sending the current tag is answered with 304 Not Modified without running the
+     * handler, until the collection is touched.
+     */
+    @Test
+    public void preHandle_AnswersNotModified_UntilCollectionIsTouched() {
+        String eTag = changeStamps.get(ChangeStamps.Scope.POSTS).eTag();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/posts");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, notModified, new Object()));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), notModified.getStatus());
+        assertEquals(0, notModified.getContentLength());
+
+        changeStamps.touch(ChangeStamps.Scope.CATEGORIES);
+
+        assertFalse(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        MockHttpServletResponse modified = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, modified, new Object()));
+        assertEquals(HttpStatus.OK.value(), modified.getStatus());
+        assertNotEquals(eTag, modified.getHeader(HttpHeaders.ETAG));
+    }
+
+    /**
+     * Test to verify that a read sending the last change time is answered with 304 Not Modified, until the collection
+     * is touched, even within the same second.
+     */
+    @Test
+    public void preHandle_AnswersNotModified_WhenNotModifiedSince() {
+        millis.set(NOW + 1_000);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/posts");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, changeStamps.get(ChangeStamps.Scope.POSTS).lastModified().toEpochMilli());
+
+        assertFalse(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+    }
+
+    /**
+     * Test to verify that writes are left to their handler, whatever their headers.
+     */
+    @Test
+    public void preHandle_IgnoresWrites() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/v1/posts/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, changeStamps.get(ChangeStamps.Scope.POSTS).eTag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+}
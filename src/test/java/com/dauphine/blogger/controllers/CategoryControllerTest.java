@@ -1,27 +1,54 @@
 package com.dauphine.blogger.controllers;
 
+import com.dauphine.blogger.controllers.handlers.GlobalDefaultExceptionHandler;
 import com.dauphine.blogger.dto.CategoryRequest;
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
 import com.dauphine.blogger.models.Category;
 import com.dauphine.blogger.models.Post;
 import com.dauphine.blogger.services.CategoryService;
 import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.streaming.JsonArrayStreamWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * <p>
@@ -45,6 +72,17 @@ public class CategoryControllerTest {
     @Mock
     private PostService postService;
 
+    /**
+     * Object mapper used to serialize and read streamed responses.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    /**
+     * Real JsonArrayStreamWriter used to write streamed responses.
+     */
+    @Spy
+    private JsonArrayStreamWriter jsonArrayStreamWriter = new JsonArrayStreamWriter(objectMapper);
+
     /**
      * The controller being tested, with mocked dependencies injected.
      */
@@ -157,22 +195,60 @@ public class CategoryControllerTest {
         assertThrows(CategoryAlreadyExistsException.class, () -> categoryController.postCategory(categoryRequest));
     }
 
+    /**
+     * Tests that a category name already taken is answered with a 409 status code.
+     *
+     * @throws Exception if the request cannot be performed
+     */
+    @Test
+    public void postCategory_RespondsConflict_WhenCategoryAlreadyExists() throws Exception {
+        String categoryName = "Existing Category";
+
+        when(categoryService.createCategory(categoryName)).thenThrow(new CategoryAlreadyExistsException(categoryName));
+
+        mockMvc().perform(post("/v1/categories")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CategoryRequest(categoryName))))
+                .andExpect(status().isConflict());
+    }
+
+    /**
+     * Tests that a rename breaking the unique index of the names after the service checks is answered with a 409
+     * status code.
+     *
+     * @throws Exception if the request cannot be performed
+     */
+    @Test
+    public void putCategoryName_RespondsConflict_WhenUniqueIndexIsViolated() throws Exception {
+        UUID categoryId = UUID.randomUUID();
+        String categoryName = "Existing Category";
+
+        when(categoryService.updateCategoryName(categoryId, categoryName, null)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key value violates unique constraint", new SQLException("duplicate category name", "23505"), "category_name_upper_key")));
+
+        mockMvc().perform(put("/v1/categories/" + categoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CategoryRequest(categoryName))))
+                .andExpect(status().isConflict());
+    }
+
     /**
      * Tests that patchCategoryName updates the category name when the category exists.
      *
      * @throws CategoryNotFoundByIdException  if the category is not found
      * @throws CategoryAlreadyExistsException if the category name already exists
+     * @throws StaleVersionException          if the category was modified since the version of the tag
      */
     @Test
-    public void patchCategoryName_UpdatesCategory_WhenCategoryExists() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
+    public void patchCategoryName_UpdatesCategory_WhenCategoryExists() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException {
         UUID categoryId = UUID.randomUUID();
         String newCategoryName = "Updated Category";
         CategoryRequest categoryRequest = new CategoryRequest(newCategoryName);
         Category updatedCategory = new Category(newCategoryName);
 
-        when(categoryService.updateCategoryName(categoryId, newCategoryName)).thenReturn(updatedCategory);
+        when(categoryService.updateCategoryName(categoryId, newCategoryName, null)).thenReturn(updatedCategory);
 
-        ResponseEntity<Category> response = categoryController.putCategoryName(categoryId, categoryRequest);
+        ResponseEntity<Category> response = categoryController.putCategoryName(categoryId, categoryRequest, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedCategory, response.getBody());
@@ -183,16 +259,17 @@ public class CategoryControllerTest {
      *
      * @throws CategoryNotFoundByIdException  if the category is not found
      * @throws CategoryAlreadyExistsException if the category name already exists
+     * @throws StaleVersionException          if the category was modified since the version of the tag
      */
     @Test
-    public void patchCategoryName_ThrowsException_WhenCategoryDoesNotExist() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
+    public void patchCategoryName_ThrowsException_WhenCategoryDoesNotExist() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException {
         UUID categoryId = UUID.randomUUID();
         String newCategoryName = "Updated Category";
         CategoryRequest categoryRequest = new CategoryRequest(newCategoryName);
 
-        when(categoryService.updateCategoryName(categoryId, newCategoryName)).thenThrow(new CategoryNotFoundByIdException(categoryId));
+        when(categoryService.updateCategoryName(categoryId, newCategoryName, null)).thenThrow(new CategoryNotFoundByIdException(categoryId));
 
-        assertThrows(CategoryNotFoundByIdException.class, () -> categoryController.putCategoryName(categoryId, categoryRequest));
+        assertThrows(CategoryNotFoundByIdException.class, () -> categoryController.putCategoryName(categoryId, categoryRequest, null));
     }
 
     /**
@@ -230,21 +307,41 @@ public class CategoryControllerTest {
      * Tests that getPostsForCategory returns posts for a category when it exists.
      *
      * @throws CategoryNotFoundByIdException if the category is not found
+     * @throws InvalidPageRequestException   if the page request is invalid
      */
     @Test
-    public void getPostsForCategory_ReturnsPosts_WhenCategoryExists() throws CategoryNotFoundByIdException {
+    public void getPostsForCategory_ReturnsPosts_WhenCategoryExists() throws CategoryNotFoundByIdException, InvalidPageRequestException {
         UUID categoryId = UUID.randomUUID();
         List<Post> posts = List.of(new Post("Title1", "Content1", new Category("Category")),
                 new Post("Title2", "Content2", new Category("Category")));
 
         when(postService.getPostsByCategoryId(categoryId)).thenReturn(posts);
 
-        ResponseEntity<List<Post>> response = categoryController.getPostsForCategory(categoryId);
+        ResponseEntity<List<Post>> response = categoryController.getPostsForCategory(categoryId, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(posts, response.getBody());
     }
 
+    /**
+     * Tests that getPostSummariesForCategory returns the summaries of the posts of the category.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
+     */
+    @Test
+    public void getPostSummariesForCategory_ReturnsSummaries() throws InvalidPageRequestException {
+        UUID categoryId = UUID.randomUUID();
+        List<PostSummary> summaries = List.of(new PostSummary(UUID.randomUUID(), "Title", LocalDateTime.now(), categoryId, "Category", "Excerpt"));
+
+        when(postService.getPostSummariesByCategoryId(categoryId)).thenReturn(summaries);
+
+        ResponseEntity<List<PostSummary>> response = categoryController.getPostSummariesForCategory(categoryId, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summaries, response.getBody());
+        assertEquals(categoryId, response.getBody().get(0).getCategory().getId());
+    }
+
     /**
      * Tests that getPostsForCategory throws an exception when the category does not exist.
      *
@@ -256,7 +353,87 @@ public class CategoryControllerTest {
 
         when(postService.getPostsByCategoryId(categoryId)).thenThrow(new CategoryNotFoundByIdException(categoryId));
 
-        assertThrows(CategoryNotFoundByIdException.class, () -> categoryController.getPostsForCategory(categoryId));
+        assertThrows(CategoryNotFoundByIdException.class, () -> categoryController.getPostsForCategory(categoryId, null, null));
+    }
+
+    /**
+     * Tests that getPostsForCategory returns a page of posts with the cursor of the following page.
+     *
+     * @throws CategoryNotFoundByIdException if the category is not found
+     * @throws InvalidPageRequestException   if the page request is invalid
+     */
+    @Test
+    public void getPostsForCategory_ReturnsPageWithNextCursor_WhenLimitIsGiven() throws CategoryNotFoundByIdException, InvalidPageRequestException {
+        UUID categoryId = UUID.randomUUID();
+        List<Post> posts = List.of(new Post("Title1", "Content1", new Category("Category")));
+
+        when(postService.getPostsByCategoryId(categoryId, PostCursor.START, 1)).thenReturn(posts);
+
+        ResponseEntity<List<Post>> response = categoryController.getPostsForCategory(categoryId, 1, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(posts, response.getBody());
+        assertEquals(PostCursor.after(posts.get(0)).encode(), response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+    }
+
+    /**
+     * Tests that streamPostsForCategory writes every post of the category as a JSON array.
+     *
+     * @throws IOException if the response body cannot be written
+     */
+    @Test
+    public void streamPostsForCategory_WritesPostsAsJsonArray() throws IOException {
+        UUID categoryId = UUID.randomUUID();
+        Category category = new Category(categoryId, "Category");
+        List<Post> posts = List.of(new Post("Title1", "Content1", category));
+
+        doAnswer(invocation -> {
+            Consumer<Post> action = invocation.getArgument(1);
+            posts.forEach(action);
+            return null;
+        }).when(postService).forEachPostByCategoryId(eq(categoryId), any());
+
+        ResponseEntity<StreamingResponseBody> response = categoryController.streamPostsForCategory(categoryId);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        JsonNode body = objectMapper.readTree(outputStream.toByteArray());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, body.size());
+        assertEquals(categoryId.toString(), body.get(0).get("category").get("id").asText());
+    }
+
+    /**
+     * Tests that categories and posts both serialize their version, while the categories embedded in posts omit it.
+     *
+     * @throws IOException if the entities cannot be serialized
+     */
+    @Test
+    public void serialization_HoldsVersion_ExceptForEmbeddedCategories() throws IOException {
+        Category category = new Category(UUID.randomUUID(), "Category");
+        category.setVersion(3L);
+
+        Post post = new Post(UUID.randomUUID(), "Title", "Content", LocalDateTime.of(2024, 5, 1, 10, 30), category);
+        post.setVersion(7L);
+
+        JsonNode categoryJson = objectMapper.readTree(objectMapper.writeValueAsString(category));
+        JsonNode postJson = objectMapper.readTree(objectMapper.writeValueAsString(post));
+
+        assertEquals(3L, categoryJson.get("version").asLong());
+        assertEquals(7L, postJson.get("version").asLong());
+        assertFalse(postJson.get("category").has("version"));
+    }
+
+    /**
+     * Builds a MockMvc serving the controller being tested, with the global exception handler.
+     *
+     * @return The MockMvc
+     */
+    private MockMvc mockMvc() {
+        return MockMvcBuilders.standaloneSetup(categoryController)
+                .setControllerAdvice(new GlobalDefaultExceptionHandler())
+                .build();
     }
 
 }
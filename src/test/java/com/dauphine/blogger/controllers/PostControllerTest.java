@@ -1,25 +1,46 @@
 package com.dauphine.blogger.controllers;
 
+import com.dauphine.blogger.dto.FacetedPosts;
+import com.dauphine.blogger.dto.PostBatchResult;
+import com.dauphine.blogger.dto.PostCursor;
 import com.dauphine.blogger.dto.PostRequest;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.InvalidPageRequestException;
 import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Post;
 import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.streaming.JsonArrayStreamWriter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * <p>
@@ -37,6 +58,17 @@ public class PostControllerTest {
     @Mock
     private PostService postService;
 
+    /**
+     * Object mapper used to serialize and read streamed responses.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    /**
+     * Real JsonArrayStreamWriter used to write streamed responses.
+     */
+    @Spy
+    private JsonArrayStreamWriter jsonArrayStreamWriter = new JsonArrayStreamWriter(objectMapper);
+
     /**
      * The controller being tested, with mocked dependencies injected.
      */
@@ -53,14 +85,16 @@ public class PostControllerTest {
 
     /**
      * Tests that getPosts returns all posts.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
      */
     @Test
-    public void getPosts_ReturnsAllPosts() {
+    public void getPosts_ReturnsAllPosts() throws InvalidPageRequestException {
         List<Post> posts = List.of(new Post("Title1", "Content1", null), new Post("Title2", "Content2", null));
 
         when(postService.getPosts()).thenReturn(posts);
 
-        ResponseEntity<List<Post>> response = postController.getPosts(null);
+        ResponseEntity<List<Post>> response = postController.getPosts(null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(posts, response.getBody());
@@ -68,18 +102,200 @@ public class PostControllerTest {
 
     /**
      * Tests that getPosts returns filtered posts.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
      */
     @Test
-    public void getPosts_ReturnsFilteredPosts() {
+    public void getPosts_ReturnsFilteredPosts() throws InvalidPageRequestException {
         String topic = "Technology";
         List<Post> posts = List.of(new Post("Tech Post", "Tech Content", null));
 
         when(postService.getPostsByTopic(topic)).thenReturn(posts);
 
-        ResponseEntity<List<Post>> response = postController.getPosts(topic);
+        ResponseEntity<List<Post>> response = postController.getPosts(topic, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(posts, response.getBody());
+    }
+
+    /**
+     * Tests that getFacetedPosts returns the posts of the category and the counts of every category.
+     */
+    @Test
+    public void getFacetedPosts_ReturnsPostsAndCategoryCounts() {
+        String topic = "Technology";
+        UUID categoryId = UUID.randomUUID();
+        FacetedPosts faceted = new FacetedPosts(List.of(new Post("Tech Post", "Tech Content", null)), Map.of(categoryId, 1, UUID.randomUUID(), 3));
+
+        when(postService.getFacetedPostsByTopic(topic, categoryId)).thenReturn(faceted);
+
+        ResponseEntity<FacetedPosts> response = postController.getFacetedPosts(topic, categoryId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(faceted, response.getBody());
+    }
+
+    /**
+     * Tests that a topic search sent with a category but without {@code facets=true} keeps being paginated, and that
+     * {@code facets=true} selects the faceted search.
+     *
+     * @throws Exception if a request cannot be performed
+     */
+    @Test
+    public void getPosts_KeepsPagination_WhenFacetsAreNotRequested() throws Exception {
+        String topic = "Technology";
+        UUID categoryId = UUID.randomUUID();
+
+        when(postService.getPostsByTopic(topic, PostCursor.START, 2)).thenReturn(List.of());
+        when(postService.getFacetedPostsByTopic(topic, categoryId)).thenReturn(new FacetedPosts(List.of(), Map.of()));
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(postController).build();
+
+        mockMvc.perform(get("/v1/posts").param("topic", topic).param("categoryId", "").param("limit", "2"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/posts").param("topic", topic).param("categoryId", categoryId.toString()).param("facets", "true"))
+                .andExpect(status().isOk());
+
+        verify(postService).getPostsByTopic(topic, PostCursor.START, 2);
+        verify(postService).getFacetedPostsByTopic(topic, categoryId);
+        verify(postService, never()).getFacetedPostsByTopic(topic, null);
+    }
+
+    /**
+     * Tests that getPosts returns the first page with the cursor of the following page when the page is full.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
+     */
+    @Test
+    public void getPosts_ReturnsFirstPageWithNextCursor_WhenPageIsFull() throws InvalidPageRequestException {
+        List<Post> posts = List.of(new Post("Title1", "Content1", null), new Post("Title2", "Content2", null));
+
+        when(postService.getPosts(PostCursor.START, 2)).thenReturn(posts);
+
+        ResponseEntity<List<Post>> response = postController.getPosts(null, 2, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(posts, response.getBody());
+
+        PostCursor next = PostCursor.decode(response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+
+        assertEquals(posts.get(1).getId(), next.getId());
+        assertEquals(posts.get(1).getCreatedDate(), next.getCreatedDate());
+    }
+
+    /**
+     * Tests that getPosts resumes from the given cursor and omits the next cursor on the last page.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
+     */
+    @Test
+    public void getPosts_ReturnsLastPageWithoutNextCursor_WhenCursorIsGiven() throws InvalidPageRequestException {
+        String topic = "Technology";
+        Post previous = new Post("Previous", "Previous content", null);
+        List<Post> posts = List.of(new Post("Tech Post", "Tech Content", null));
+
+        when(postService.getPostsByTopic(eq(topic), any(PostCursor.class), eq(Pagination.DEFAULT_LIMIT))).thenReturn(posts);
+
+        ResponseEntity<List<Post>> response = postController.getPosts(topic, null, PostCursor.after(previous).encode());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(posts, response.getBody());
+        assertNull(response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER));
+    }
+
+    /**
+     * Tests that getPostSummaries returns the summaries of the posts filtered by topic.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
+     */
+    @Test
+    public void getPostSummaries_ReturnsFilteredSummaries() throws InvalidPageRequestException {
+        String topic = "Technology";
+        List<PostSummary> summaries = List.of(summary("Tech Post"));
+
+        when(postService.getPostSummariesByTopic(topic)).thenReturn(summaries);
+
+        ResponseEntity<List<PostSummary>> response = postController.getPostSummaries(topic, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summaries, response.getBody());
+        verify(postService, never()).getPostsByTopic(topic);
+    }
+
+    /**
+     * Tests that getPostSummaries returns a page of summaries with the cursor of the following page when the page is full.
+     *
+     * @throws InvalidPageRequestException if the page request is invalid
+     */
+    @Test
+    public void getPostSummaries_ReturnsPageWithNextCursor_WhenPageIsFull() throws InvalidPageRequestException {
+        List<PostSummary> summaries = List.of(summary("Title1"), summary("Title2"));
+
+        when(postService.getPostSummaries(PostCursor.START, 2)).thenReturn(summaries);
+
+        ResponseEntity<List<PostSummary>> response = postController.getPostSummaries(null, 2, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summaries, response.getBody());
+        assertEquals(summaries.get(1).getId(), PostCursor.decode(response.getHeaders().getFirst(Pagination.NEXT_CURSOR_HEADER)).getId());
+    }
+
+    /**
+     * Tests that getPosts throws an exception when the limit is out of bounds.
+     */
+    @Test
+    public void getPosts_ThrowsException_WhenLimitIsInvalid() {
+        assertThrows(InvalidPageRequestException.class, () -> postController.getPosts(null, 0, null));
+        assertThrows(InvalidPageRequestException.class, () -> postController.getPosts(null, Pagination.MAX_LIMIT + 1, null));
+    }
+
+    /**
+     * Tests that getPosts throws an exception when the cursor is malformed.
+     */
+    @Test
+    public void getPosts_ThrowsException_WhenCursorIsMalformed() {
+        assertThrows(InvalidPageRequestException.class, () -> postController.getPosts(null, 10, "not-a-cursor"));
+    }
+
+    /**
+     * Tests that streamPosts writes every post produced by the service as a JSON array.
+     *
+     * @throws IOException if the response body cannot be written
+     */
+    @Test
+    public void streamPosts_WritesAllPostsAsJsonArray() throws IOException {
+        List<Post> posts = List.of(new Post("Title1", "Content1", null), new Post("Title2", "Content2", null));
+
+        doAnswer(invocation -> {
+            Consumer<Post> action = invocation.getArgument(0);
+            posts.forEach(action);
+            return null;
+        }).when(postService).forEachPost(any());
+
+        ResponseEntity<StreamingResponseBody> response = postController.streamPosts(null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        JsonNode body = objectMapper.readTree(outputStream.toByteArray());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, body.size());
+        assertEquals("Title1", body.get(0).get("title").asText());
+        assertEquals(posts.get(1).getId().toString(), body.get(1).get("id").asText());
+    }
+
+    /**
+     * Tests that streamPosts writes an empty JSON array when no post matches the topic.
+     *
+     * @throws IOException if the response body cannot be written
+     */
+    @Test
+    public void streamPosts_WritesEmptyArray_WhenNoPostMatchesTopic() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = postController.streamPosts("Nothing");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        assertEquals("[]", outputStream.toString());
     }
 
     /**
@@ -122,14 +338,31 @@ public class PostControllerTest {
         assertThrows(CategoryNotFoundByIdException.class, () -> postController.postPost(postRequest));
     }
 
+    /**
+     * Tests that postPosts returns the outcome of each item computed by the service.
+     */
+    @Test
+    public void postPosts_ReturnsOutcomeOfEachItem() {
+        List<PostRequest> requests = List.of(new PostRequest("Title1", "Content1", UUID.randomUUID()), new PostRequest("Title2", "Content2", null));
+        List<PostBatchResult> results = List.of(PostBatchResult.created(0, UUID.randomUUID()), PostBatchResult.rejected(1, PostBatchResult.Status.CATEGORY_NOT_FOUND, "Missing"));
+
+        when(postService.createPosts(requests)).thenReturn(results);
+
+        ResponseEntity<List<PostBatchResult>> response = postController.postPosts(requests);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
     /**
      * Tests that putPost updates the post when it exists along with the category.
      *
      * @throws CategoryNotFoundByIdException if the category is not found
      * @throws PostNotFoundByIdException     if the post is not found
+     * @throws StaleVersionException         if the post was modified since the version of the tag
      */
     @Test
-    public void putPost_UpdatesPost_WhenPostAndCategoryExist() throws CategoryNotFoundByIdException, PostNotFoundByIdException {
+    public void putPost_UpdatesPost_WhenPostAndCategoryExist() throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
         UUID postId = UUID.randomUUID();
         String title = "Updated Post";
         String content = "Updated content";
@@ -138,9 +371,9 @@ public class PostControllerTest {
         Post updatedPost = new Post(title, content, null);
         updatedPost.setId(postId);
 
-        when(postService.update(postId, title, content, categoryId)).thenReturn(updatedPost);
+        when(postService.update(postId, title, content, categoryId, null)).thenReturn(updatedPost);
 
-        ResponseEntity<Post> response = postController.putPost(postId, postRequest);
+        ResponseEntity<Post> response = postController.putPost(postId, postRequest, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedPost, response.getBody());
@@ -151,18 +384,45 @@ public class PostControllerTest {
      *
      * @throws CategoryNotFoundByIdException if the category is not found
      * @throws PostNotFoundByIdException     if the post is not found
+     * @throws StaleVersionException         if the post was modified since the version of the tag
      */
     @Test
-    public void putPost_ThrowsException_WhenPostDoesNotExist() throws CategoryNotFoundByIdException, PostNotFoundByIdException {
+    public void putPost_ThrowsException_WhenPostDoesNotExist() throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
         UUID postId = UUID.randomUUID();
         String title = "Updated Post";
         String content = "Updated content";
         UUID categoryId = UUID.randomUUID();
         PostRequest postRequest = new PostRequest(title, content, categoryId);
 
-        when(postService.update(postId, title, content, categoryId)).thenThrow(new PostNotFoundByIdException(postId));
+        when(postService.update(postId, title, content, categoryId, null)).thenThrow(new PostNotFoundByIdException(postId));
+
+        assertThrows(PostNotFoundByIdException.class, () -> postController.putPost(postId, postRequest, null));
+    }
+
+    /**
+     * Tests that putPost passes the version of the If-Match tag to the service and returns the new tag, and that a
+     * weak tag never matches.
+     *
+     * @throws CategoryNotFoundByIdException if the category is not found
+     * @throws PostNotFoundByIdException     if the post is not found
+     * @throws StaleVersionException         if the post was modified since the version of the tag
+     */
+    @Test
+    public void putPost_UpdatesVersion_WhenIfMatchIsSent() throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
+        UUID postId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        PostRequest postRequest = new PostRequest("Title", "Content", categoryId);
+        Post updatedPost = new Post("Title", "Content", null);
+        updatedPost.setVersion(4L);
 
-        assertThrows(PostNotFoundByIdException.class, () -> postController.putPost(postId, postRequest));
+        when(postService.update(postId, "Title", "Content", categoryId, 3L)).thenReturn(updatedPost);
+        when(postService.update(postId, "Title", "Content", categoryId, EntityTags.NO_MATCH)).thenThrow(new StaleVersionException("Post", postId, EntityTags.NO_MATCH));
+
+        ResponseEntity<Post> response = postController.putPost(postId, postRequest, "\"3\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        assertThrows(StaleVersionException.class, () -> postController.putPost(postId, postRequest, "W/\"3\""));
     }
 
     /**
@@ -196,4 +456,14 @@ public class PostControllerTest {
         assertThrows(PostNotFoundByIdException.class, () -> postController.deletePost(postId));
     }
 
+    /**
+     * Creates a post summary with a random ID and no category.
+     *
+     * @param title The title of the post
+     * @return The created post summary
+     */
+    private static PostSummary summary(String title) {
+        return new PostSummary(UUID.randomUUID(), title, LocalDateTime.now(), null, null, "Excerpt");
+    }
+
 }
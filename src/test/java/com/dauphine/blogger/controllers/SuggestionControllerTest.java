@@ -0,0 +1,65 @@
+package com.dauphine.blogger.controllers;
+
+import com.dauphine.blogger.dto.Suggestion;
+import com.dauphine.blogger.services.SuggestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ * Unit tests for the SuggestionController class.
+ * These tests validate the functionality of SuggestionController's autocomplete endpoint.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class SuggestionControllerTest {
+
+    /**
+     * Mocked SuggestionService used to simulate the completion of prefixes.
+     */
+    @Mock
+    private SuggestionService suggestionService;
+
+    /**
+     * The controller being tested, with mocked dependencies injected.
+     */
+    @InjectMocks
+    private SuggestionController suggestionController;
+
+    /**
+     * Initializes mocks before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that getSuggestions returns the completions of the prefix.
+     */
+    @Test
+    public void getSuggestions_ReturnsCompletions() {
+        List<Suggestion> suggestions = List.of(new Suggestion("Travel", Suggestion.Type.CATEGORY, UUID.randomUUID()),
+                new Suggestion("Travel tips", Suggestion.Type.POST, UUID.randomUUID()));
+
+        when(suggestionService.getSuggestions("tra", 5)).thenReturn(suggestions);
+
+        ResponseEntity<List<Suggestion>> response = suggestionController.getSuggestions("tra", 5);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+    }
+
+}
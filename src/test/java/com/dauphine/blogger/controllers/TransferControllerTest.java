@@ -0,0 +1,226 @@
+package com.dauphine.blogger.controllers;
+
+import com.dauphine.blogger.controllers.handlers.GlobalDefaultExceptionHandler;
+import com.dauphine.blogger.dto.TransferRecord;
+import com.dauphine.blogger.dto.TransferResult;
+import com.dauphine.blogger.exceptions.InvalidTransferException;
+import com.dauphine.blogger.services.TransferService;
+import com.dauphine.blogger.streaming.TransferCodec;
+import com.dauphine.blogger.streaming.TransferFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * <p>
+ * Unit tests for the TransferController class.
+ * These tests validate that exports and imports round-trip through the supported gzip-compressed formats.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TransferControllerTest {
+
+    /**
+     * Mocked TransferService used to simulate the service layer for transfer operations.
+     */
+    @Mock
+    private TransferService transferService;
+
+    /**
+     * Real TransferCodec used to write and read the records.
+     */
+    @Spy
+    private TransferCodec transferCodec = new TransferCodec(new ObjectMapper().findAndRegisterModules());
+
+    /**
+     * The controller being tested, with mocked dependencies injected.
+     */
+    @InjectMocks
+    private TransferController transferController;
+
+    /**
+     * Records produced by the mocked export.
+     */
+    private List<TransferRecord> records;
+
+    /**
+     * Initializes mocks and the exported records before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        UUID categoryId = UUID.randomUUID();
+
+        records = List.of(
+                new TransferRecord(categoryId, "Category, with comma"),
+                new TransferRecord(UUID.randomUUID(), "Title", "Multi-line\n\"quoted\" content", LocalDateTime.of(2024, 5, 1, 10, 30), categoryId)
+        );
+
+        doAnswer(invocation -> {
+            Consumer<TransferRecord> action = invocation.getArgument(0);
+            records.forEach(action);
+            return null;
+        }).when(transferService).exportAll(any());
+    }
+
+    /**
+     * Tests that an NDJSON export can be imported back.
+     *
+     * @throws IOException              if the export cannot be written
+     * @throws InvalidTransferException if the import cannot be read
+     */
+    @Test
+    public void exportAll_RoundTripsThroughImport_WhenFormatIsNdjson() throws IOException, InvalidTransferException {
+        assertRoundTrip(TransferFormat.NDJSON);
+    }
+
+    /**
+     * Tests that a CSV export can be imported back.
+     *
+     * @throws IOException              if the export cannot be written
+     * @throws InvalidTransferException if the import cannot be read
+     */
+    @Test
+    public void exportAll_RoundTripsThroughImport_WhenFormatIsCsv() throws IOException, InvalidTransferException {
+        assertRoundTrip(TransferFormat.CSV);
+    }
+
+    /**
+     * Tests that an NDJSON export holds one record per line.
+     *
+     * @throws IOException if the export cannot be written
+     */
+    @Test
+    public void exportAll_WritesOneRecordPerLine_WhenFormatIsNdjson() throws IOException {
+        String export = new String(new GZIPInputStream(new ByteArrayInputStream(export(TransferFormat.NDJSON))).readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals(2, export.lines().count());
+        assertTrue(export.lines().findFirst().orElseThrow().contains("\"type\":\"category\""));
+    }
+
+    /**
+     * Tests that importAll throws an exception when the request body is not gzip-compressed.
+     */
+    @Test
+    public void importAll_ThrowsException_WhenBodyIsNotGzipped() {
+        ByteArrayInputStream body = new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidTransferException.class, () -> transferController.importAll(TransferFormat.NDJSON, body));
+    }
+
+    /**
+     * Tests that an import breaking a constraint of the database is answered with a 409 status code, whether the
+     * violation is translated by Spring or raised by Hibernate while flushing a batch.
+     *
+     * @throws Exception if the request cannot be performed
+     */
+    @Test
+    public void importAll_RespondsConflict_WhenImportBreaksConstraint() throws Exception {
+        byte[] body = export(TransferFormat.NDJSON);
+        FormattingConversionService conversionService = new DefaultFormattingConversionService();
+
+        conversionService.addConverter(String.class, TransferFormat.class, TransferFormat::fromName);
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(transferController)
+                .setControllerAdvice(new GlobalDefaultExceptionHandler())
+                .setConversionService(conversionService)
+                .build();
+
+        when(transferService.importAll(any()))
+                .thenThrow(new DataIntegrityViolationException("could not execute batch", new ConstraintViolationException("duplicate key value violates unique constraint", new SQLException("duplicate category name", "23505"), "category_name_upper_key")))
+                .thenThrow(new ConstraintViolationException("post_category_id_fkey", new SQLException("unknown category", "23503"), "post_category_id_fkey"));
+
+        mockMvc.perform(post("/v1/import").contentType(TransferController.GZIP).content(body))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/v1/import").contentType(TransferController.GZIP).content(body))
+                .andExpect(status().isConflict());
+    }
+
+    /**
+     * Exports the records in the specified format, imports the export back and checks the imported records.
+     *
+     * @param format The format of the export
+     * @throws IOException              if the export cannot be written
+     * @throws InvalidTransferException if the import cannot be read
+     */
+    private void assertRoundTrip(TransferFormat format) throws IOException, InvalidTransferException {
+        List<TransferRecord> imported = new ArrayList<>();
+
+        when(transferService.importAll(any())).thenAnswer(invocation -> {
+            Iterator<TransferRecord> iterator = invocation.getArgument(0);
+            iterator.forEachRemaining(imported::add);
+            return new TransferResult(1, 1);
+        });
+
+        ResponseEntity<TransferResult> response = transferController.importAll(format, new ByteArrayInputStream(export(format)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(records.size(), imported.size());
+
+        for (int i = 0; i < records.size(); i++) {
+            TransferRecord expected = records.get(i);
+            TransferRecord actual = imported.get(i);
+
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getContent(), actual.getContent());
+            assertEquals(expected.getCreatedDate(), actual.getCreatedDate());
+            assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        }
+    }
+
+    /**
+     * Exports the records in the specified format.
+     *
+     * @param format The format of the export
+     * @return The gzip-compressed export
+     * @throws IOException if the export cannot be written
+     */
+    private byte[] export(TransferFormat format) throws IOException {
+        ResponseEntity<StreamingResponseBody> response = transferController.exportAll(format);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        assertEquals(TransferController.GZIP, response.getHeaders().getContentType());
+
+        return outputStream.toByteArray();
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.dauphine.blogger.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the TimeOrderedIdGenerator class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TimeOrderedIdGeneratorTest {
+
+    /**
+     * A fixed timestamp, in milliseconds.
+     */
+    private static final long NOW = 1_700_000_000_000L;
+
+    /**
+     * Test to verify that the generated IDs are version 7 UUIDs holding their creation timestamp.
+     */
+    @Test
+    public void next_ReturnsVersion7WithTimestamp() {
+        final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC), new Random(0));
+
+        final UUID id = generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(NOW, id.getMostSignificantBits() >>> 16);
+    }
+
+    /**
+     * Test to verify that the IDs generated within the same millisecond are strictly increasing, including when the
+     * counter overflows.
+     */
+    @Test
+    public void next_SameMillisecond_IsStrictlyIncreasing() {
+        final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC), new Random(0));
+
+        UUID previous = generator.next();
+
+        for (int i = 0; i < 10_000; i++) {
+            final UUID id = generator.next();
+
+            assertTrue(id.compareTo(previous) > 0);
+            assertEquals(7, id.version());
+
+            previous = id;
+        }
+    }
+
+    /**
+     * Test to verify that the IDs keep increasing when the clock goes backwards.
+     */
+    @Test
+    public void next_ClockGoesBackwards_IsStrictlyIncreasing() {
+        final AtomicLong millis = new AtomicLong(NOW);
+        final Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+        final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock, new Random(0));
+
+        final UUID first = generator.next();
+        millis.set(NOW - 1_000);
+        final UUID second = generator.next();
+        millis.set(NOW + 1);
+        final UUID third = generator.next();
+
+        assertTrue(second.compareTo(first) > 0);
+        assertTrue(third.compareTo(second) > 0);
+        assertEquals(NOW + 1, third.getMostSignificantBits() >>> 16);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.services.CategoryService;
+import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.services.implementations.CategoryServiceImplementation;
+import com.dauphine.blogger.services.implementations.PostServiceImplementation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * <p>
+ * Tests of the full-text topic search, run against an embedded PostgreSQL whose schema is created by the migrations.
+ * These tests write posts through the service, then check that the full-text mode returns the posts matching every
+ * word of the topic, ignoring case and accents, from the most to the least relevant. Only run by the
+ * {@code postgres} Maven profile.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Tag("postgres")
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES, provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@DataJpaTest
+public class FullTextSearchTest {
+
+    /**
+     * Maximum number of posts returned by a search.
+     */
+    private static final int MAX_RESULTS = 2;
+
+    /**
+     * Repository of the posts.
+     */
+    @Autowired
+    private PostRepository postRepository;
+
+    /**
+     * Repository of the categories.
+     */
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    /**
+     * Entity manager used to flush the writes.
+     */
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * The search index, which the full-text mode must not use.
+     */
+    private PostSearchIndex postSearchIndex;
+
+    /**
+     * The post service writing and searching the posts, in full-text mode.
+     */
+    private PostService postService;
+
+    /**
+     * A category of the test posts.
+     */
+    private Category category;
+
+    /**
+     * Builds the services over the repositories, in full-text mode.
+     */
+    @BeforeEach
+    public void setup() throws Exception {
+        final TopicSearchCache topicSearchCache = new TopicSearchCache(5_000_000, new SimpleMeterRegistry());
+        final LatestPostsFeed latestPostsFeed = new LatestPostsFeed(100);
+        final ChangeStamps changeStamps = new ChangeStamps();
+
+        final CategoryService categoryService = new CategoryServiceImplementation(categoryRepository, new CategoryCache(categoryRepository, new SimpleMeterRegistry()), new CategoryNameIndex(0.3, 20), new SuggestionIndex(10), topicSearchCache, latestPostsFeed, changeStamps);
+
+        postSearchIndex = mock(PostSearchIndex.class);
+        postService = new PostServiceImplementation(postRepository, categoryService, testEntityManager.getEntityManager(), postSearchIndex, new SuggestionIndex(10), new PostFacetIndex(), topicSearchCache, latestPostsFeed, changeStamps, "full-text", MAX_RESULTS);
+        category = categoryService.createCategory("Cuisine");
+    }
+
+    /**
+     * Test to verify that title matches rank above content matches, ignoring case and accents.
+     */
+    @Test
+    public void getPostsByTopic_RanksTitleMatchesFirst() throws Exception {
+        final Post inContent = postService.createPost("Desserts", "Une crème brûlée à la vanille", category.getId());
+        final Post inTitle = postService.createPost("La crème brûlée", "Un dessert", category.getId());
+        postService.createPost("Entrées", "Une soupe à l'oignon", category.getId());
+        flush();
+
+        assertEquals(List.of(inTitle.getId(), inContent.getId()), ids(postService.getPostsByTopic("CREME brulee")));
+        verify(postSearchIndex, never()).search(any());
+    }
+
+    /**
+     * Test to verify that only the posts matching every word of the topic are returned.
+     */
+    @Test
+    public void getPostsByTopic_RequiresEveryWord() throws Exception {
+        final Post both = postService.createPost("Tarte aux pommes", "Une tarte", category.getId());
+        postService.createPost("Compote de pommes", "Une compote", category.getId());
+        flush();
+
+        assertEquals(List.of(both.getId()), ids(postService.getPostsByTopic("tarte pommes")));
+        assertTrue(postService.getPostsByTopic("poire").isEmpty());
+    }
+
+    /**
+     * Test to verify that the search returns at most the configured number of posts, the most relevant ones.
+     */
+    @Test
+    public void getPostsByTopic_LimitsResults() throws Exception {
+        final Post first = postService.createPost("Gâteau", "Gâteau au chocolat, le meilleur gâteau", category.getId());
+        final Post second = postService.createPost("Gâteau", "Un dessert", category.getId());
+        postService.createPost("Desserts", "Un gâteau", category.getId());
+        flush();
+
+        assertEquals(List.of(first.getId(), second.getId()), ids(postService.getPostsByTopic("gateau")));
+    }
+
+    /**
+     * Flushes the writes and clears the persistence context, so that the searches read the generated search vectors.
+     */
+    private void flush() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    /**
+     * Retrieves the IDs of posts.
+     *
+     * @param posts The posts
+     * @return The IDs of the posts, in order
+     */
+    private static List<UUID> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).toList();
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.ids.IdGenerator;
+import com.dauphine.blogger.ids.RandomIdGenerator;
+import com.dauphine.blogger.ids.TimeOrderedIdGenerator;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Locality tests of the post IDs, run against an embedded PostgreSQL whose schema is created by the migrations.
+ * </p>
+ *
+ * <p>
+ * Each test inserts the same number of rows, in batches like the batch creations and the import, into two copies of
+ * the post table keyed like it: one keyed by random version 4 IDs, the other by time-ordered version 7 IDs. It then
+ * compares the insert throughput, the size of their primary key indexes, and the correlation between the order of the
+ * keys and the physical order of the rows. Only run by the {@code postgres} Maven profile.
+ * </p>
+ *
+ * <p>
+ * The number of rows defaults to 100,000, which keeps the profile fast but lets both indexes fit in the buffer cache.
+ * The gap in throughput grows once the random index no longer fits: run with
+ * {@code -Dblogger.test.id-locality.rows=5000000} to compare them on a multi-million-row table.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Tag("postgres")
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES, provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@DataJpaTest
+public class IdLocalityTest {
+
+    /**
+     * The logger object to report the measures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(IdLocalityTest.class);
+
+    /**
+     * Number of rows inserted in each table, enough for the index to span hundreds of pages.
+     */
+    private static final int ROWS = Integer.getInteger("blogger.test.id-locality.rows", 100_000);
+
+    /**
+     * Number of rows inserted per batch.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Data source of the embedded database.
+     */
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Test to verify that time-ordered IDs fill the pages of the primary key index instead of splitting them at
+     * random, so that the index is smaller than with random IDs.
+     *
+     * @throws SQLException if the rows cannot be inserted or the index cannot be measured
+     */
+    @Test
+    public void timeOrderedIds_KeepPrimaryKeyIndexSmaller() throws SQLException {
+        insert("post_random_ids", new RandomIdGenerator());
+        insert("post_time_ordered_ids", new TimeOrderedIdGenerator());
+
+        final long randomSize = indexSize("post_random_ids_pkey");
+        final long timeOrderedSize = indexSize("post_time_ordered_ids_pkey");
+
+        assertEquals(ROWS, count("SELECT COUNT(*) FROM post_random_ids"));
+        assertEquals(ROWS, count("SELECT COUNT(*) FROM post_time_ordered_ids"));
+        assertTrue(timeOrderedSize * 100 < randomSize * 85, "time-ordered index of " + timeOrderedSize + " bytes, random index of " + randomSize + " bytes");
+    }
+
+    /**
+     * Test to verify that rows keyed by time-ordered IDs are inserted at least as fast as rows keyed by random IDs,
+     * since each insert appends to the rightmost page of the index instead of reading and splitting a random one.
+     *
+     * @throws SQLException if the rows cannot be inserted
+     */
+    @Test
+    public void timeOrderedIds_InsertAtLeastAsFast() throws SQLException {
+        final long randomNanos = insert("post_random_ids", new RandomIdGenerator());
+        final long timeOrderedNanos = insert("post_time_ordered_ids", new TimeOrderedIdGenerator());
+
+        final long randomRate = ROWS * 1_000_000_000L / randomNanos;
+        final long timeOrderedRate = ROWS * 1_000_000_000L / timeOrderedNanos;
+
+        logger.info("{} rows: random IDs inserted at {} rows/s, time-ordered IDs at {} rows/s", ROWS, randomRate, timeOrderedRate);
+
+        assertTrue(timeOrderedRate * 10 >= randomRate * 9, "time-ordered rate of " + timeOrderedRate + " rows/s, random rate of " + randomRate + " rows/s");
+    }
+
+    /**
+     * Test to verify that rows keyed by time-ordered IDs are stored in the order of their keys, so that consecutive
+     * keys, such as the most recent posts, share the same pages, while random IDs scatter them.
+     *
+     * @throws SQLException if the rows cannot be inserted or the statistics cannot be read
+     */
+    @Test
+    public void timeOrderedIds_FollowPhysicalOrder() throws SQLException {
+        insert("post_random_ids", new RandomIdGenerator());
+        insert("post_time_ordered_ids", new TimeOrderedIdGenerator());
+
+        final double randomCorrelation = correlation("post_random_ids");
+        final double timeOrderedCorrelation = correlation("post_time_ordered_ids");
+
+        assertTrue(timeOrderedCorrelation > 0.99, "time-ordered correlation of " + timeOrderedCorrelation);
+        assertTrue(Math.abs(randomCorrelation) < 0.1, "random correlation of " + randomCorrelation);
+    }
+
+    /**
+     * Creates a copy of the post table keyed by ID, then inserts rows keyed by the IDs of a generator in batches.
+     *
+     * @param table     The name of the table to create
+     * @param generator The generator of the IDs
+     * @return The duration of the inserts, in nanoseconds
+     * @throws SQLException if the table cannot be created or filled
+     */
+    private long insert(String table, IdGenerator generator) throws SQLException {
+        try (Statement statement = connection().createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE " + table + " (LIKE post INCLUDING DEFAULTS)");
+            statement.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + table + "_pkey PRIMARY KEY (id)");
+        }
+
+        final long start = System.nanoTime();
+
+        try (PreparedStatement statement = connection().prepareStatement("INSERT INTO " + table + " (id, title, created_date) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                statement.setObject(1, generator.next());
+                statement.setString(2, "Title " + i);
+                statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                statement.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+
+            statement.executeBatch();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Measures the size of an index.
+     *
+     * @param index The name of the index
+     * @return The size of the index in bytes
+     * @throws SQLException if the size cannot be read
+     */
+    private long indexSize(String index) throws SQLException {
+        return count("SELECT pg_relation_size('" + index + "')");
+    }
+
+    /**
+     * Analyzes a table, then reads the correlation between the order of its IDs and the physical order of its rows.
+     *
+     * @param table The name of the table
+     * @return The correlation, from -1 to 1
+     * @throws SQLException if the table cannot be analyzed or the statistics cannot be read
+     */
+    private double correlation(String table) throws SQLException {
+        try (Statement statement = connection().createStatement()) {
+            statement.execute("ANALYZE " + table);
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT correlation FROM pg_stats WHERE tablename = '" + table + "' AND attname = 'id'")) {
+                assertTrue(resultSet.next(), "no statistics for " + table);
+
+                return resultSet.getDouble(1);
+            }
+        }
+    }
+
+    /**
+     * Runs a query returning a single number.
+     *
+     * @param sql The query
+     * @return The number returned by the query
+     * @throws SQLException if the query fails
+     */
+    private long count(String sql) throws SQLException {
+        try (Statement statement = connection().createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Retrieves the connection of the transaction of the test.
+     *
+     * @return The connection
+     */
+    private Connection connection() {
+        return DataSourceUtils.getConnection(dataSource);
+    }
+
+}
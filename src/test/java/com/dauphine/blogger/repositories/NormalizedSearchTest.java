@@ -0,0 +1,169 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.dto.PostSummary;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.services.CategoryService;
+import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.services.implementations.CategoryServiceImplementation;
+import com.dauphine.blogger.services.implementations.PostServiceImplementation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ * Tests of the searches ignoring case and accents.
+ * These tests write posts and categories through the services against an in-memory database and check that the
+ * normalized columns are written along with the original ones, so that the searches find them whatever the case and
+ * accents of the keyword.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+public class NormalizedSearchTest {
+
+    /**
+     * Repository of the posts.
+     */
+    @Autowired
+    private PostRepository postRepository;
+
+    /**
+     * Repository of the categories.
+     */
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    /**
+     * Entity manager used to flush the writes.
+     */
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * The category service writing the categories.
+     */
+    private CategoryService categoryService;
+
+    /**
+     * The post service writing and searching the posts.
+     */
+    private PostService postService;
+
+    /**
+     * Builds the services over the repositories, with a search index which is never ready so that the searches
+     * run in the database.
+     */
+    @BeforeEach
+    public void setup() {
+        final PostSearchIndex postSearchIndex = mock(PostSearchIndex.class);
+        when(postSearchIndex.search(any())).thenReturn(Optional.empty());
+
+        final TopicSearchCache topicSearchCache = new TopicSearchCache(5_000_000, new SimpleMeterRegistry());
+
+        final LatestPostsFeed latestPostsFeed = new LatestPostsFeed(100);
+        final ChangeStamps changeStamps = new ChangeStamps();
+
+        categoryService = new CategoryServiceImplementation(categoryRepository, new CategoryCache(categoryRepository, new SimpleMeterRegistry()), new CategoryNameIndex(0.3, 20), new SuggestionIndex(10), topicSearchCache, latestPostsFeed, changeStamps);
+        postService = new PostServiceImplementation(postRepository, categoryService, testEntityManager.getEntityManager(), postSearchIndex, new SuggestionIndex(10), new PostFacetIndex(), topicSearchCache, latestPostsFeed, changeStamps, "like", 100);
+    }
+
+    /**
+     * Test to verify that created and updated posts are found by keywords ignoring case and accents.
+     */
+    @Test
+    public void postSearches_IgnoreCaseAndAccents() throws Exception {
+        final Category category = categoryService.createCategory("Voyages");
+        final Post post = postService.createPost("Un été à Noël", "Le café de l'hôtel", category.getId());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertEquals("UN ETE A NOEL", postRepository.findById(post.getId()).orElseThrow().getNormalizedTitle());
+        assertEquals(List.of(post.getId()), ids(postService.getPostsByTopic("ete A noel")));
+        assertEquals(List.of(post.getId()), ids(postService.getPostsByTopic("CAFÉ")));
+        assertEquals(1, postService.getPostSummariesByTopic("Hotel").size());
+
+        postService.update(post.getId(), "Hiver", "Crème brûlée", category.getId());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertTrue(postService.getPostsByTopic("noel").isEmpty());
+        assertEquals(List.of(post.getId()), ids(postService.getPostsByTopic("creme brulee")));
+    }
+
+    /**
+     * Test to verify that the searches run in the database return the posts and their summaries ordered by creation
+     * date, like the searches resolved through the index, whatever the order of the rows.
+     */
+    @Test
+    public void postSearches_ReturnPostsByCreationDate() throws Exception {
+        final Category category = categoryService.createCategory("Voyages");
+        final Post newer = postService.createPost("Été en Italie", "Content", category.getId());
+        final Post older = postService.createPost("Été en Grèce", "Content", category.getId());
+
+        newer.setCreatedDate(LocalDateTime.now().minusDays(1));
+        older.setCreatedDate(LocalDateTime.now().minusDays(2));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertEquals(List.of(older.getId(), newer.getId()), ids(postService.getPostsByTopic("ete en")));
+        assertEquals(List.of(older.getId(), newer.getId()), postService.getPostSummariesByTopic("ete en").stream().map(PostSummary::getId).toList());
+    }
+
+    /**
+     * Test to verify that created and renamed categories are found by names ignoring case and accents.
+     */
+    @Test
+    public void categorySearches_IgnoreCaseAndAccents() throws Exception {
+        final Category category = categoryService.createCategory("Économie");
+        testEntityManager.flush();
+
+        assertEquals(List.of(category.getId()), categoryRepository.findAllByName("ECONOMIE").stream().map(Category::getId).toList());
+        assertEquals(List.of(category.getId()), categoryService.getCategoriesByName("econ").stream().map(Category::getId).toList());
+
+        categoryService.updateCategoryName(category.getId(), "Société");
+        testEntityManager.clear();
+
+        assertTrue(categoryRepository.findAllByName("ECONOMIE").isEmpty());
+        assertEquals("SOCIETE", categoryRepository.findById(category.getId()).orElseThrow().getNormalizedName());
+        assertEquals(List.of(category.getId()), categoryService.getCategoriesByName("societe").stream().map(Category::getId).toList());
+    }
+
+    /**
+     * Retrieves the IDs of posts.
+     *
+     * @param posts The posts
+     * @return The IDs of the posts, in order
+     */
+    private static List<UUID> ids(List<Post> posts) {
+        return posts.stream().map(Post::getId).toList();
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostSummary;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Query-count regression tests for the PostRepository class.
+ * These tests run every query returning a list of posts against an in-memory database and check that it is
+ * executed as a single SQL statement, its categories included, whatever the number of posts and categories.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class PostRepositoryQueryCountTest {
+
+    /**
+     * Number of categories of the test data.
+     */
+    private static final int CATEGORIES = 5;
+
+    /**
+     * Number of posts per category of the test data.
+     */
+    private static final int POSTS_PER_CATEGORY = 4;
+
+    /**
+     * The repository being tested.
+     */
+    @Autowired
+    private PostRepository postRepository;
+
+    /**
+     * Entity manager used to insert the test data.
+     */
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * Entity manager factory exposing the Hibernate statistics.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The categories of the test data.
+     */
+    private final List<Category> categories = new ArrayList<>();
+
+    /**
+     * The posts of the test data.
+     */
+    private final List<Post> posts = new ArrayList<>();
+
+    /**
+     * Inserts several categories with several posts each, then clears the persistence context.
+     */
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < CATEGORIES; i++) {
+            final Category category = testEntityManager.persist(new Category("Category " + i));
+            categories.add(category);
+
+            for (int j = 0; j < POSTS_PER_CATEGORY; j++) {
+                final Post post = new Post("Title " + i + " " + j, "Content", category);
+                post.setCreatedDate(LocalDateTime.now().minusMinutes(i * POSTS_PER_CATEGORY + j));
+                posts.add(testEntityManager.persist(post));
+            }
+        }
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    /**
+     * Test to verify that the list queries load the posts and their categories with a single statement.
+     */
+    @Test
+    public void listQueries_RunSingleStatement() {
+        final UUID categoryId = categories.get(0).getId();
+        final Post last = posts.get(posts.size() - 1);
+
+        assertSingleStatement(CATEGORIES * POSTS_PER_CATEGORY, () -> postRepository.findAllByOrderByCreatedDate());
+        assertSingleStatement(POSTS_PER_CATEGORY, () -> postRepository.findAllByCategoryId(categoryId));
+        assertSingleStatement(CATEGORIES * POSTS_PER_CATEGORY, () -> postRepository.findByTitleOrContentContainingKeyword("TITLE"));
+        assertSingleStatement(CATEGORIES * POSTS_PER_CATEGORY, () -> postRepository.findAllById(posts.stream().map(Post::getId).toList()));
+        assertSingleStatement(10, () -> postRepository.findPage(LocalDateTime.now(), last.getId(), Limit.of(10)));
+        assertSingleStatement(10, () -> postRepository.findPageByTitleOrContentContainingKeyword("TITLE", LocalDateTime.now(), last.getId(), Limit.of(10)));
+        assertSingleStatement(POSTS_PER_CATEGORY, () -> postRepository.findPageByCategoryId(categoryId, LocalDateTime.now(), last.getId(), Limit.of(10)));
+        assertSingleStatement(1, () -> postRepository.findById(last.getId()).stream().toList());
+    }
+
+    /**
+     * Test to verify that the streaming queries load the posts and their categories with a single statement.
+     */
+    @Test
+    public void streamQueries_RunSingleStatement() {
+        final UUID categoryId = categories.get(0).getId();
+
+        assertSingleStatement(CATEGORIES * POSTS_PER_CATEGORY, () -> toList(postRepository.streamAllByOrderByCreatedDate()));
+        assertSingleStatement(CATEGORIES * POSTS_PER_CATEGORY, () -> toList(postRepository.streamAllByUpdatedDateGreaterThanEqualOrderByUpdatedDate(LocalDateTime.now().minusDays(1))));
+        assertSingleStatement(CATEGORIES * POSTS_PER_CATEGORY, () -> toList(postRepository.streamByTitleOrContentContainingKeyword("TITLE")));
+        assertSingleStatement(POSTS_PER_CATEGORY, () -> toList(postRepository.streamAllByCategoryId(categoryId)));
+    }
+
+    /**
+     * Test to verify that the summary queries run a single statement and only return an excerpt of the content.
+     */
+    @Test
+    public void summaryQueries_RunSingleStatementWithExcerpt() {
+        final Category category = testEntityManager.persist(new Category("Long"));
+        final Post post = testEntityManager.persist(new Post("Long post", "x".repeat(PostSummary.EXCERPT_LENGTH + 50), category));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final List<PostSummary> summaries = postRepository.findSummariesByCategoryId(category.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, summaries.size());
+        assertEquals(post.getId(), summaries.get(0).getId());
+        assertEquals("Long", summaries.get(0).getCategory().getName());
+        assertEquals(PostSummary.EXCERPT_LENGTH, summaries.get(0).getExcerpt().length());
+
+        assertEquals(CATEGORIES * POSTS_PER_CATEGORY + 1, postRepository.findAllSummaries().size());
+        assertEquals(CATEGORIES * POSTS_PER_CATEGORY, postRepository.findSummariesByKeyword("TITLE").size());
+        assertEquals(List.of(post.getId()), postRepository.findSummariesByIdInAndKeyword(List.of(post.getId(), posts.get(0).getId()), "LONG").stream().map(PostSummary::getId).toList());
+        assertEquals(10, postRepository.findSummaryPage(PostCursor.START.getCreatedDate(), PostCursor.START.getId(), Limit.of(10)).size());
+        assertEquals(10, postRepository.findSummaryPageByKeyword("TITLE", PostCursor.START.getCreatedDate(), PostCursor.START.getId(), Limit.of(10)).size());
+        assertEquals(1, postRepository.findSummaryPageByCategoryId(category.getId(), PostCursor.START.getCreatedDate(), PostCursor.START.getId(), Limit.of(10)).size());
+    }
+
+    /**
+     * Runs a query on an empty persistence context, then checks that it returned the expected number of posts with
+     * their categories initialized, using a single statement.
+     *
+     * @param expectedSize The expected number of posts
+     * @param query        The query to run
+     */
+    private void assertSingleStatement(int expectedSize, Supplier<List<Post>> query) {
+        testEntityManager.clear();
+
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final List<Post> result = query.get();
+
+        assertEquals(expectedSize, result.size());
+        result.forEach(post -> {
+            assertTrue(Hibernate.isInitialized(post.getCategory()));
+            assertNotNull(post.getCategory().getName());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Consumes and closes a stream of posts.
+     *
+     * @param stream The stream to consume
+     * @return The posts of the stream
+     */
+    private static List<Post> toList(Stream<Post> stream) {
+        try (stream) {
+            return stream.toList();
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.models.Post;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Cost tests of the read-only transactions of the list endpoints, run against an embedded PostgreSQL whose schema is
+ * created by the migrations.
+ * </p>
+ *
+ * <p>
+ * Each test loads the same pages of posts, with their category, in read-only and in read-write transactions, as the
+ * list endpoints do, alternating between both after a warm-up. It measures the mean latency and the bytes allocated
+ * by the calling thread per transaction, logs them, and checks that read-only transactions neither flush nor keep the
+ * snapshots used for dirty checking. Only run by the {@code postgres} Maven profile.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Tag("postgres")
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES, provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReadOnlyTransactionCostTest {
+
+    /**
+     * The logger object to report the measures.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReadOnlyTransactionCostTest.class);
+
+    /**
+     * Number of categories of the generated data.
+     */
+    private static final int CATEGORIES = 20;
+
+    /**
+     * Number of posts of the generated data.
+     */
+    private static final int POSTS = 20_000;
+
+    /**
+     * Number of posts loaded per transaction, the largest page of the list endpoints.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * Number of transactions of each kind run before measuring.
+     */
+    private static final int WARM_UP = 50;
+
+    /**
+     * Number of transactions of each kind measured.
+     */
+    private static final int ITERATIONS = 200;
+
+    /**
+     * Repository of the posts.
+     */
+    @Autowired
+    private PostRepository postRepository;
+
+    /**
+     * Shared entity manager bound to the transaction of each measure.
+     */
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Transaction manager running the measured transactions.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Data source of the embedded database.
+     */
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Generates and commits categories and posts, since the measured transactions do not run in the one of the test.
+     *
+     * @throws SQLException if the data cannot be generated
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO category (id, name, normalized_name) SELECT gen_random_uuid(), 'Category ' || i, 'CATEGORY ' || i FROM generate_series(1, " + CATEGORIES + ") i");
+            statement.execute("""
+                    INSERT INTO post (id, title, content, normalized_title, normalized_content, created_date, category_id)
+                    SELECT gen_random_uuid(), 'Title ' || i, 'Content ' || i, 'TITLE ' || i, 'CONTENT ' || i, LOCALTIMESTAMP - i * INTERVAL '1 minute', c.id
+                    FROM generate_series(1, %d) i
+                    JOIN (SELECT id, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n FROM category) c ON c.n = i %% %d
+                    """.formatted(POSTS, CATEGORIES));
+            statement.execute("ANALYZE post");
+            statement.execute("ANALYZE category");
+        }
+    }
+
+    /**
+     * Deletes the generated data, which was committed.
+     *
+     * @throws SQLException if the data cannot be deleted
+     */
+    @AfterEach
+    public void cleanup() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM post");
+            statement.execute("DELETE FROM category");
+        }
+    }
+
+    /**
+     * Test to verify that loading a page of posts in a read-only transaction runs without automatic flush nor
+     * snapshots, and allocates less than in a read-write transaction.
+     */
+    @Test
+    public void readOnlyTransactions_SkipSnapshots_AndAllocateLess() {
+        final Measure readOnly = new Measure();
+        final Measure readWrite = new Measure();
+
+        for (int i = 0; i < WARM_UP; i++) {
+            loadPage(true);
+            loadPage(false);
+        }
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            readOnly.add(() -> loadPage(true));
+            readWrite.add(() -> loadPage(false));
+        }
+
+        logger.info("Page of {} posts: read-only {} us and {} KiB, read-write {} us and {} KiB per transaction",
+                PAGE_SIZE, readOnly.meanMicros(), readOnly.meanKibibytes(), readWrite.meanMicros(), readWrite.meanKibibytes());
+
+        assertTrue(readOnly.meanKibibytes() < readWrite.meanKibibytes(),
+                "read-only " + readOnly.meanKibibytes() + " KiB, read-write " + readWrite.meanKibibytes() + " KiB per transaction");
+    }
+
+    /**
+     * Loads the first page of posts in a transaction, and checks the flush mode and the state of the loaded posts.
+     *
+     * @param readOnly Whether the transaction is read-only
+     */
+    private void loadPage(boolean readOnly) {
+        final TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        template.setReadOnly(readOnly);
+        template.executeWithoutResult(status -> {
+            final Session session = entityManager.unwrap(Session.class);
+            final List<Post> posts = postRepository.findPage(PostCursor.START.getCreatedDate(), PostCursor.START.getId(), Limit.of(PAGE_SIZE));
+
+            assertEquals(PAGE_SIZE, posts.size());
+            assertEquals(readOnly ? FlushMode.MANUAL : FlushMode.AUTO, session.getHibernateFlushMode());
+            assertEquals(readOnly, session.isReadOnly(posts.get(0)));
+        });
+    }
+
+    /**
+     * <p>
+     * Accumulated latency and allocation of the transactions of one kind.
+     * </p>
+     */
+    private static final class Measure {
+
+        /**
+         * Allocation counters of the threads of the JVM.
+         */
+        private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        /**
+         * Total duration of the measured transactions, in nanoseconds.
+         */
+        private long nanos;
+
+        /**
+         * Total bytes allocated by the measured transactions.
+         */
+        private long bytes;
+
+        /**
+         * Number of measured transactions.
+         */
+        private int count;
+
+        /**
+         * Runs and measures a transaction.
+         *
+         * @param transaction The transaction to measure
+         */
+        void add(Runnable transaction) {
+            final long startBytes = threads.getCurrentThreadAllocatedBytes();
+            final long start = System.nanoTime();
+
+            transaction.run();
+
+            nanos += System.nanoTime() - start;
+            bytes += threads.getCurrentThreadAllocatedBytes() - startBytes;
+            count++;
+        }
+
+        /**
+         * Retrieves the mean duration of a transaction.
+         *
+         * @return The mean duration, in microseconds
+         */
+        long meanMicros() {
+            return nanos / count / 1000;
+        }
+
+        /**
+         * Retrieves the mean allocation of a transaction.
+         *
+         * @return The mean number of bytes allocated, in kibibytes
+         */
+        long meanKibibytes() {
+            return bytes / count / 1024;
+        }
+
+    }
+
+}
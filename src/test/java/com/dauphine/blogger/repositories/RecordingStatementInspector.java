@@ -0,0 +1,48 @@
+package com.dauphine.blogger.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Hibernate statement inspector recording the last SQL statement prepared by Hibernate, so that tests can explain
+ * the statements generated for the repository queries.
+ * </p>
+ *
+ * <p>
+ * The inspector is registered through the {@code hibernate.session_factory.statement_inspector} property.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    /**
+     * The last prepared statement.
+     */
+    private static final AtomicReference<String> LAST = new AtomicReference<>();
+
+    /**
+     * Records a statement, leaving it unchanged.
+     *
+     * @param sql The statement
+     * @return The statement
+     */
+    @Override
+    public String inspect(String sql) {
+        LAST.set(sql);
+
+        return sql;
+    }
+
+    /**
+     * Retrieves and forgets the last prepared statement.
+     *
+     * @return The last prepared statement, or null if none was prepared since the last call
+     */
+    public static String takeLast() {
+        return LAST.getAndSet(null);
+    }
+
+}
@@ -0,0 +1,259 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Index usage tests for the PostRepository and CategoryRepository queries, run against an embedded PostgreSQL whose
+ * schema is created by the migrations.
+ * </p>
+ *
+ * <p>
+ * Each test runs a repository query, records the SQL statement generated by Hibernate, then explains it with the
+ * same parameters, sequential scans disabled and fresh statistics, and checks that the plan uses the index expected
+ * for the query. Only run by the {@code postgres} Maven profile.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@Tag("postgres")
+@AutoConfigureEmbeddedDatabase(type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES, provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.dauphine.blogger.repositories.RecordingStatementInspector")
+public class RepositoryIndexUsageTest {
+
+    /**
+     * Number of categories of the generated data.
+     */
+    private static final int CATEGORIES = 20;
+
+    /**
+     * Number of posts of the generated data, enough for an index to be cheaper than reading every row.
+     */
+    private static final int POSTS = 20_000;
+
+    /**
+     * The normalized keyword searched in the posts, only found in one of them.
+     */
+    private static final String KEYWORD = "NEEDLE";
+
+    /**
+     * Repository of the posts.
+     */
+    @Autowired
+    private PostRepository postRepository;
+
+    /**
+     * Repository of the categories.
+     */
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    /**
+     * Entity manager used to insert the test data.
+     */
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * Data source of the embedded database.
+     */
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * A category of the test data.
+     */
+    private Category category;
+
+    /**
+     * A post of the test data.
+     */
+    private Post post;
+
+    /**
+     * Generates categories and posts, adds a category with a post containing the keyword, refreshes the statistics,
+     * then disables sequential scans for the transaction of the test.
+     *
+     * @throws SQLException if the data cannot be generated or the settings cannot be changed
+     */
+    @BeforeEach
+    public void setup() throws SQLException {
+        try (Statement statement = connection().createStatement()) {
+            statement.execute("INSERT INTO category (id, name, normalized_name) SELECT gen_random_uuid(), 'Category ' || i, 'CATEGORY ' || i FROM generate_series(1, " + CATEGORIES + ") i");
+            statement.execute("""
+                    INSERT INTO post (id, title, content, normalized_title, normalized_content, created_date, category_id)
+                    SELECT gen_random_uuid(), 'Title ' || i, 'Content ' || i, 'TITLE ' || i, 'CONTENT ' || i, LOCALTIMESTAMP - i * INTERVAL '1 minute', c.id
+                    FROM generate_series(1, %d) i
+                    JOIN (SELECT id, ROW_NUMBER() OVER (ORDER BY id) - 1 AS n FROM category) c ON c.n = i %% %d
+                    """.formatted(POSTS, CATEGORIES));
+        }
+
+        category = testEntityManager.persist(new Category("Travel"));
+        post = testEntityManager.persist(new Post("A needle in a haystack", "Content", category));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        try (Statement statement = connection().createStatement()) {
+            statement.execute("ANALYZE post");
+            statement.execute("ANALYZE category");
+            statement.execute("SET LOCAL enable_seqscan = off");
+        }
+    }
+
+    /**
+     * Test to verify that the post lookups and listings use an index.
+     */
+    @Test
+    public void postQueries_UseIndex() throws SQLException {
+        final UUID categoryId = category.getId();
+        final UUID id = post.getId();
+        final LocalDateTime now = LocalDateTime.now();
+
+        assertUsesIndex("post_pkey", () -> postRepository.findById(id), id);
+        assertUsesIndex("post_pkey", () -> postRepository.findAllById(List.of(id)), id);
+        assertUsesIndex("post_created_date_id_idx", () -> postRepository.findAllByOrderByCreatedDate());
+        assertUsesIndex("post_category_id_created_date_id_idx", () -> postRepository.findAllByCategoryId(categoryId), categoryId);
+        assertUsesIndex("post_created_date_id_idx", () -> postRepository.findPage(now, id, Limit.of(10)), now, now, id, 0, 10);
+        assertUsesIndex("post_category_id_created_date_id_idx", () -> postRepository.findPageByCategoryId(categoryId, now, id, Limit.of(10)), categoryId, now, now, id, 0, 10);
+        assertUsesIndex("post_pkey", () -> postRepository.deletePostById(id), id);
+    }
+
+    /**
+     * Test to verify that the keyword searches in the posts use the trigram indexes of the normalized columns.
+     */
+    @Test
+    public void postSearches_UseIndex() throws SQLException {
+        final UUID id = post.getId();
+        final LocalDateTime now = LocalDateTime.now();
+
+        assertUsesIndex("post_normalized_title_trgm_idx", () -> postRepository.findByTitleOrContentContainingKeyword(KEYWORD), KEYWORD, KEYWORD);
+        assertUsesIndex("post_normalized_title_trgm_idx", () -> postRepository.findPageByTitleOrContentContainingKeyword(KEYWORD, now, id, Limit.of(10)), KEYWORD, KEYWORD, now, now, id, 0, 10);
+        assertUsesIndex("post_normalized_title_trgm_idx", () -> postRepository.findSummariesByKeyword(KEYWORD), KEYWORD, KEYWORD);
+        assertUsesIndex("post_pkey", () -> postRepository.findSummariesByIdInAndKeyword(List.of(id), KEYWORD), id, KEYWORD, KEYWORD);
+        assertUsesIndex("post_normalized_title_trgm_idx", () -> postRepository.findSummaryPageByKeyword(KEYWORD, now, id, Limit.of(10)), KEYWORD, KEYWORD, now, now, id, 0, 10);
+        assertUsesIndex("post_normalized_title_trgm_idx", () -> consume(postRepository.streamByTitleOrContentContainingKeyword(KEYWORD)), KEYWORD, KEYWORD);
+    }
+
+    /**
+     * Test to verify that the full-text search in the posts uses the GIN index of the search vector.
+     */
+    @Test
+    public void postFullTextSearch_UsesIndex() throws SQLException {
+        assertUsesIndex("post_search_vector_idx", () -> postRepository.findIdsByFullTextQuery(KEYWORD, 10), KEYWORD, 10);
+    }
+
+    /**
+     * Test to verify that the summary and streaming queries use an index.
+     */
+    @Test
+    public void postSummariesAndStreams_UseIndex() throws SQLException {
+        final UUID categoryId = category.getId();
+        final UUID id = post.getId();
+        final LocalDateTime now = LocalDateTime.now();
+
+        assertUsesIndex("post_created_date_id_idx", () -> postRepository.findAllSummaries());
+        assertUsesIndex("post_category_id_created_date_id_idx", () -> postRepository.findSummariesByCategoryId(categoryId), categoryId);
+        assertUsesIndex("post_created_date_id_idx", () -> postRepository.findSummaryPage(now, id, Limit.of(10)), now, now, id, 0, 10);
+        assertUsesIndex("post_category_id_created_date_id_idx", () -> postRepository.findSummaryPageByCategoryId(categoryId, now, id, Limit.of(10)), categoryId, now, now, id, 0, 10);
+        assertUsesIndex("post_created_date_id_idx", () -> consume(postRepository.streamAllByOrderByCreatedDate()));
+        assertUsesIndex("post_updated_date_idx", () -> consume(postRepository.streamAllByUpdatedDateGreaterThanEqualOrderByUpdatedDate(now)), now);
+        assertUsesIndex("post_category_id_created_date_id_idx", () -> consume(postRepository.streamAllByCategoryId(categoryId)), categoryId);
+    }
+
+    /**
+     * Test to verify that the category queries use an index.
+     */
+    @Test
+    public void categoryQueries_UseIndex() throws SQLException {
+        final UUID id = category.getId();
+        final UUID unused = testEntityManager.persistAndFlush(new Category("Unused")).getId();
+
+        assertUsesIndex("category_normalized_name_trgm_idx", () -> categoryRepository.findAllByName("TRAV"), "TRAV");
+        assertUsesIndex("category_pkey", () -> categoryRepository.findById(id), id);
+        assertUsesIndex("category_pkey", () -> categoryRepository.updateName(id, "Trips", "TRIPS"), "Trips", "TRIPS", id);
+        assertUsesIndex("category_pkey", () -> categoryRepository.deleteCategoryById(unused), unused);
+    }
+
+    /**
+     * Runs a repository query, then explains the statement it generated with the specified parameters and checks
+     * that the plan uses an index.
+     *
+     * @param index      The name of the index the plan must use
+     * @param query      The repository query
+     * @param parameters The parameters of the generated statement, in order of appearance, the offset and the limit
+     *                   ending the paginated ones
+     * @throws SQLException if the statement cannot be explained
+     */
+    private void assertUsesIndex(String index, Runnable query, Object... parameters) throws SQLException {
+        testEntityManager.clear();
+        RecordingStatementInspector.takeLast();
+
+        query.run();
+
+        final String sql = RecordingStatementInspector.takeLast();
+
+        assertNotNull(sql);
+
+        final StringBuilder plan = new StringBuilder();
+
+        try (PreparedStatement statement = connection().prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+
+        assertTrue(plan.toString().contains(" " + index + " "), () -> sql + "\n" + plan);
+        assertFalse(plan.toString().contains("Seq Scan"), () -> sql + "\n" + plan);
+    }
+
+    /**
+     * Retrieves the connection of the transaction of the test.
+     *
+     * @return The connection bound to the current transaction
+     */
+    private Connection connection() {
+        return DataSourceUtils.getConnection(dataSource);
+    }
+
+    /**
+     * Consumes and closes a stream.
+     *
+     * @param stream The stream to consume
+     */
+    private static void consume(Stream<?> stream) {
+        try (stream) {
+            stream.forEach(element -> {
+            });
+        }
+    }
+
+}
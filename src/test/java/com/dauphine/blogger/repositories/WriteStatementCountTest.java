@@ -0,0 +1,251 @@
+package com.dauphine.blogger.repositories;
+
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
+import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.services.CategoryService;
+import com.dauphine.blogger.services.PostService;
+import com.dauphine.blogger.services.implementations.CategoryServiceImplementation;
+import com.dauphine.blogger.services.implementations.PostServiceImplementation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ * Statement-count regression tests for the writes of posts and categories.
+ * These tests run the write paths of the services against an in-memory database and check that new entities are
+ * inserted directly, without first looking for an existing row with the same ID, and that updates and deletes do not
+ * check the existence of the row or the uniqueness of a name with a separate statement.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class WriteStatementCountTest {
+
+    /**
+     * Repository of the posts.
+     */
+    @Autowired
+    private PostRepository postRepository;
+
+    /**
+     * Repository of the categories.
+     */
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    /**
+     * Entity manager used to flush the inserts.
+     */
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    /**
+     * Entity manager factory exposing the Hibernate statistics.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The category service being tested.
+     */
+    private CategoryService categoryService;
+
+    /**
+     * The post service being tested.
+     */
+    private PostService postService;
+
+    /**
+     * Builds the services over the repositories.
+     */
+    @BeforeEach
+    public void setup() {
+        final TopicSearchCache topicSearchCache = new TopicSearchCache(5_000_000, new SimpleMeterRegistry());
+        final LatestPostsFeed latestPostsFeed = new LatestPostsFeed(100);
+        final ChangeStamps changeStamps = new ChangeStamps();
+
+        categoryService = new CategoryServiceImplementation(categoryRepository, new CategoryCache(categoryRepository, new SimpleMeterRegistry()), new CategoryNameIndex(0.3, 20), new SuggestionIndex(10), topicSearchCache, latestPostsFeed, changeStamps);
+        postService = new PostServiceImplementation(postRepository, categoryService, testEntityManager.getEntityManager(), mock(PostSearchIndex.class), new SuggestionIndex(10), new PostFacetIndex(), topicSearchCache, latestPostsFeed, changeStamps, "like", 100);
+    }
+
+    /**
+     * Test to verify that creating a category runs a single INSERT.
+     */
+    @Test
+    public void createCategory_RunsSingleInsert() throws Exception {
+        final Statistics statistics = statistics();
+
+        final Category created = categoryService.createCategory("Travel");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(created.isNew());
+    }
+
+    /**
+     * Test to verify that creating a category with a name already taken fails on the unique index.
+     */
+    @Test
+    public void createCategory_ExistingName_ThrowsException() throws Exception {
+        testEntityManager.persistAndFlush(new Category("Travel"));
+
+        assertThrows(CategoryAlreadyExistsException.class, () -> categoryService.createCategory("Travel"));
+    }
+
+    /**
+     * Test to verify that creating a post with a cached category runs a single INSERT.
+     */
+    @Test
+    public void createPost_RunsSingleInsert() throws Exception {
+        final Category category = testEntityManager.persistFlushFind(new Category("Travel"));
+        testEntityManager.clear();
+        categoryService.getCategory(category.getId());
+
+        final Statistics statistics = statistics();
+
+        final Post created = postService.createPost("Title", "Content", category.getId());
+        testEntityManager.flush();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertFalse(created.isNew());
+    }
+
+    /**
+     * Test to verify that updating a post loads it and updates it, without merging it.
+     */
+    @Test
+    public void updatePost_RunsSelectAndUpdate() throws Exception {
+        final Category category = testEntityManager.persist(new Category("Travel"));
+        final Post post = testEntityManager.persist(new Post("Title", "Content", category));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        categoryService.getCategory(category.getId());
+
+        final Statistics statistics = statistics();
+
+        final Post updated = postService.update(post.getId(), "New Title", "New Content", category.getId());
+        testEntityManager.flush();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals("New Title", updated.getTitle());
+    }
+
+    /**
+     * Test to verify that renaming a category runs a single UPDATE, followed by the read of its new version.
+     */
+    @Test
+    public void updateCategoryName_RunsSingleUpdate() throws Exception {
+        final Category category = testEntityManager.persistFlushFind(new Category("Travel"));
+        testEntityManager.clear();
+
+        final Statistics statistics = statistics();
+
+        final Category renamed = categoryService.updateCategoryName(category.getId(), "Trips");
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(category.getVersion() + 1, renamed.getVersion());
+        assertEquals("Trips", testEntityManager.find(Category.class, category.getId()).getName());
+        assertThrows(CategoryNotFoundByIdException.class, () -> categoryService.updateCategoryName(UUID.randomUUID(), "Other"));
+    }
+
+    /**
+     * Test to verify that renaming a category to a name already taken fails on the unique index.
+     */
+    @Test
+    public void updateCategoryName_ExistingName_ThrowsException() {
+        testEntityManager.persist(new Category("Travel"));
+        final Category category = testEntityManager.persistAndFlush(new Category("Trips"));
+
+        assertThrows(CategoryAlreadyExistsException.class, () -> categoryService.updateCategoryName(category.getId(), "Travel"));
+    }
+
+    /**
+     * Test to verify that deleting a post or a category runs a single DELETE, and that deleting a missing one fails.
+     */
+    @Test
+    public void delete_RunsSingleDelete() throws Exception {
+        final Category category = testEntityManager.persist(new Category("Travel"));
+        final Post post = testEntityManager.persist(new Post("Title", "Content", category));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        final Statistics statistics = statistics();
+
+        assertTrue(postService.deletePost(post.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+
+        assertTrue(categoryService.deleteCategory(category.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertThrows(PostNotFoundByIdException.class, () -> postService.deletePost(post.getId()));
+        assertThrows(CategoryNotFoundByIdException.class, () -> categoryService.deleteCategory(category.getId()));
+    }
+
+    /**
+     * Test to verify that saving a new entity persists it, and that saving a loaded one merges it.
+     */
+    @Test
+    public void save_PersistsNewEntitiesOnly() {
+        final Category category = new Category("Travel");
+        final Post post = new Post("Title", "Content", category);
+
+        assertTrue(category.isNew());
+        assertTrue(post.isNew());
+        assertSame(category, categoryRepository.save(category));
+        assertSame(post, postRepository.save(post));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        final Post loaded = postRepository.findById(post.getId()).orElseThrow();
+
+        assertFalse(loaded.isNew());
+        assertFalse(loaded.getCategory().isNew());
+    }
+
+    /**
+     * Clears and retrieves the Hibernate statistics.
+     *
+     * @return The cleared statistics
+     */
+    private Statistics statistics() {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the CategoryNameIndex class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class CategoryNameIndexTest {
+
+    /**
+     * The index being tested.
+     */
+    private CategoryNameIndex index;
+
+    /**
+     * Setup method to create an index with a similarity threshold of 0.3 returning at most 3 categories.
+     */
+    @BeforeEach
+    public void setup() {
+        index = new CategoryNameIndex(0.3, 3);
+    }
+
+    /**
+     * Test to verify that trigrams pad the folded words like pg_trgm.
+     */
+    @Test
+    public void trigrams_PadWords() {
+        assertEquals(Set.of("  C", " CA", "CAT", "AT "), CategoryNameIndex.trigrams("CAT"));
+        assertEquals(Set.of("  A", " A ", "  B", " B "), CategoryNameIndex.trigrams("A-B"));
+    }
+
+    /**
+     * Test to verify that search cannot resolve queries until the index is ready.
+     */
+    @Test
+    public void search_ReturnsEmpty_WhenIndexIsNotReady() {
+        index.index(new Category("Java"));
+
+        assertEquals(Optional.empty(), index.search("Java"));
+    }
+
+    /**
+     * Test to verify that search finds the names containing the query, ignoring case and accents, even for short
+     * queries.
+     */
+    @Test
+    public void search_FindsNamesContainingQuery() {
+        final Category economy = new Category("Économie");
+        final Category ecology = new Category("Écologie");
+        index.index(economy);
+        index.index(ecology);
+        index.index(new Category("Sport"));
+        index.markReady();
+
+        assertEquals(List.of(economy.getId()), ids(index.search("conom")));
+        assertEquals(Set.of(economy.getId(), ecology.getId()), Set.copyOf(ids(index.search("éco"))));
+        assertEquals(Set.of(economy.getId(), ecology.getId()), Set.copyOf(ids(index.search("e"))));
+    }
+
+    /**
+     * Test to verify that search tolerates typos, ranking the names containing the query first, then the most similar.
+     */
+    @Test
+    public void search_RanksSimilarNamesAfterContainingOnes() {
+        final Category travel = new Category("Travel");
+        final Category travels = new Category("Travels tips");
+        final Category gravel = new Category("Gravel");
+        index.index(gravel);
+        index.index(travels);
+        index.index(travel);
+        index.index(new Category("Cooking"));
+        index.markReady();
+
+        assertEquals(List.of(travel.getId(), travels.getId(), gravel.getId()), ids(index.search("travel")));
+        assertEquals(List.of(travel.getId()), ids(index.search("Travle")));
+        assertEquals(1, ids(index.search("Cokking")).size());
+        assertTrue(ids(index.search("xyz")).isEmpty());
+    }
+
+    /**
+     * Test to verify that search returns at most the configured number of categories.
+     */
+    @Test
+    public void search_LimitsResults() {
+        for (int i = 0; i < 5; i++) {
+            index.index(new Category("Category " + i));
+        }
+
+        index.markReady();
+
+        assertEquals(3, ids(index.search("category")).size());
+    }
+
+    /**
+     * Test to verify that renamed and removed categories are no longer found by their previous name.
+     */
+    @Test
+    public void index_ReplacesAndRemovesNames() {
+        final Category category = new Category("Java");
+        index.index(category);
+        index.markReady();
+
+        index.index(new Category(category.getId(), "Kotlin"));
+
+        assertTrue(ids(index.search("java")).isEmpty());
+        assertEquals(List.of(category.getId()), ids(index.search("kotlin")));
+
+        index.remove(category.getId());
+
+        assertTrue(ids(index.search("kotlin")).isEmpty());
+    }
+
+    /**
+     * Retrieves the IDs of the categories returned by a search.
+     *
+     * @param categories The result of the search
+     * @return The IDs of the categories, in order
+     */
+    private static List<UUID> ids(Optional<List<Category>> categories) {
+        return categories.orElseThrow().stream().map(Category::getId).toList();
+    }
+
+}
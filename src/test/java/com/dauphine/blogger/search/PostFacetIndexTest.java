@@ -0,0 +1,166 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the PostFacetIndex class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class PostFacetIndexTest {
+
+    /**
+     * First category of the indexed posts.
+     */
+    private final Category java = new Category("Java");
+
+    /**
+     * Second category of the indexed posts.
+     */
+    private final Category kotlin = new Category("Kotlin");
+
+    /**
+     * The index being tested.
+     */
+    private PostFacetIndex index;
+
+    /**
+     * Setup method to create an empty index.
+     */
+    @BeforeEach
+    public void setup() {
+        index = new PostFacetIndex();
+    }
+
+    /**
+     * Test to verify that search cannot resolve topics until the index is ready, nor topics without any word.
+     */
+    @Test
+    public void search_ReturnsEmpty_WhenIndexIsNotReadyOrTopicHasNoWord() {
+        index.index(new Post("Spring Boot", "Content", java));
+
+        assertEquals(Optional.empty(), index.search("spring", null));
+
+        index.markReady();
+
+        assertEquals(Optional.empty(), index.search(" - ", null));
+    }
+
+    /**
+     * Test to verify that search returns the posts containing every word of the topic, within longer terms and
+     * ignoring case and accents, and counts them by category.
+     */
+    @Test
+    public void search_CountsHitsByCategory() {
+        Post first = new Post("Spring Boot", "Démarrage rapide", java);
+        Post second = new Post("Spring Data", "Repositories", java);
+        Post third = new Post("Ktor", "Springs and boots", kotlin);
+        Post fourth = new Post("Coroutines", "Boot", kotlin);
+
+        index.index(first);
+        index.index(second);
+        index.index(third);
+        index.index(fourth);
+        index.markReady();
+
+        PostFacetIndex.Result result = index.search("boot SPRING", null).orElseThrow();
+
+        assertEquals(Set.of(first.getId(), third.getId()), result.ids());
+        assertEquals(Map.of(java.getId(), 1, kotlin.getId(), 1), result.categoryCounts());
+        assertEquals(Set.of(first.getId()), index.search("demarrage", null).orElseThrow().ids());
+    }
+
+    /**
+     * Test to verify that search restricts the returned posts to the requested category while counting every category.
+     */
+    @Test
+    public void search_FiltersByCategory_AndKeepsEveryCount() {
+        Post first = new Post("Spring Boot", "Content", java);
+        Post second = new Post("Spring Data", "Content", java);
+        Post third = new Post("Spring for Kotlin", "Content", kotlin);
+
+        index.index(first);
+        index.index(second);
+        index.index(third);
+        index.markReady();
+
+        PostFacetIndex.Result result = index.search("spring", kotlin.getId()).orElseThrow();
+
+        assertEquals(Set.of(third.getId()), result.ids());
+        assertEquals(Map.of(java.getId(), 2, kotlin.getId(), 1), result.categoryCounts());
+        assertEquals(Set.of(), index.search("spring", new Category("Scala").getId()).orElseThrow().ids());
+    }
+
+    /**
+     * Test to verify that reindexing a post replaces its terms and category, and that removed posts are no longer
+     * found even once their ordinal is reused.
+     */
+    @Test
+    public void index_ReplacesPreviousEntry_AndRemoveFreesOrdinal() {
+        Post post = new Post("Spring Boot", "Content", java);
+
+        index.index(post);
+        index.markReady();
+
+        post.setTitle("Ktor");
+        post.setCategory(kotlin);
+        index.index(post);
+
+        assertEquals(Set.of(), index.search("spring", null).orElseThrow().ids());
+        assertEquals(Map.of(kotlin.getId(), 1), index.search("ktor", null).orElseThrow().categoryCounts());
+
+        index.remove(post.getId());
+
+        Post other = new Post("Quarkus", "Content", java);
+
+        index.index(other);
+
+        assertEquals(Set.of(), index.search("ktor", null).orElseThrow().ids());
+        assertEquals(Map.of(), index.search("ktor", null).orElseThrow().categoryCounts());
+        assertEquals(Set.of(other.getId()), index.search("quarkus", null).orElseThrow().ids());
+    }
+
+    /**
+     * Test to verify that the load does not bring back a post deleted, nor overwrite a post updated, after the load
+     * read it but before it reached the index.
+     */
+    @Test
+    public void load_SkipsPostsWrittenWhileLoading() {
+        Post deleted = new Post("Spring Boot", "Content", java);
+        Post updated = new Post("Spring Data", "Content", java);
+        Post kept = new Post("Spring for Kotlin", "Content", kotlin);
+        Post stale = new Post(updated.getTitle(), updated.getContent(), java);
+
+        stale.setId(updated.getId());
+        index.load(kept);
+
+        index.remove(deleted.getId());
+        updated.setTitle("Ktor");
+        updated.setCategory(kotlin);
+        index.index(updated);
+
+        index.load(deleted);
+        index.load(stale);
+        index.markReady();
+
+        assertTrue(index.isReady());
+        assertEquals(Set.of(kept.getId()), index.search("spring", null).orElseThrow().ids());
+        assertEquals(Map.of(kotlin.getId(), 2), index.search("content", null).orElseThrow().categoryCounts());
+
+        index.index(deleted);
+
+        assertEquals(Set.of(deleted.getId(), kept.getId()), index.search("spring", null).orElseThrow().ids());
+    }
+
+}
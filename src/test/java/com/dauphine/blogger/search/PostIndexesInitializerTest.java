@@ -0,0 +1,212 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.dto.Suggestion;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.services.CategoryService;
+import com.dauphine.blogger.services.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * Unit tests for the PostIndexesInitializer class.
+ * These tests validate the full load of the indexes, the writes applied while it runs, and the restart from the
+ * persisted segments and snapshots.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class PostIndexesInitializerTest {
+
+    /**
+     * Category of the loaded posts.
+     */
+    private final Category java = new Category("Java");
+
+    /**
+     * The directory holding the segments and snapshots, kept across restarts.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Mocked PostService streaming the posts.
+     */
+    private PostService postService;
+
+    /**
+     * Mocked CategoryService returning the categories.
+     */
+    private CategoryService categoryService;
+
+    /**
+     * Search index being loaded.
+     */
+    private PostSearchIndex postSearchIndex;
+
+    /**
+     * Facet index being loaded.
+     */
+    private PostFacetIndex postFacetIndex;
+
+    /**
+     * Suggestion index being loaded.
+     */
+    private SuggestionIndex suggestionIndex;
+
+    /**
+     * The initializer being tested.
+     */
+    private PostIndexesInitializer initializer;
+
+    /**
+     * Setup method to create empty indexes over the temporary directory.
+     */
+    @BeforeEach
+    public void setup() {
+        restart();
+    }
+
+    /**
+     * Test to verify that every post of the database is loaded when nothing is persisted, except the posts written
+     * while the load runs, which keep the state of their writes.
+     */
+    @Test
+    public void load_LoadsEveryPost_AndKeepsWritesAppliedWhileLoading() {
+        Post kept = post("Spring Boot");
+        Post deleted = post("Spring Data");
+
+        doAnswer(invocation -> {
+            Consumer<Post> action = invocation.getArgument(0);
+
+            action.accept(kept);
+            postSearchIndex.remove(deleted.getId());
+            postFacetIndex.remove(deleted.getId());
+            suggestionIndex.removePost(deleted.getId());
+            action.accept(deleted);
+            return null;
+        }).when(postService).forEachPost(any());
+
+        initializer.load();
+
+        verify(postService, never()).forEachPostUpdatedSince(any(), any());
+        verify(postService, never()).forEachPostId(any());
+        assertTrue(postSearchIndex.isReady() && postFacetIndex.isReady() && suggestionIndex.isReady());
+        assertEquals(Optional.of(Set.of(kept.getId())), postSearchIndex.search("spring"));
+        assertEquals(Set.of(kept.getId()), postFacetIndex.search("spring", null).orElseThrow().ids());
+        assertEquals(List.of(kept.getId()), ids(suggestionIndex.suggest("spring", 10)));
+        assertEquals(List.of(java.getId()), ids(suggestionIndex.suggest("ja", 10)));
+    }
+
+    /**
+     * Test to verify that a restart reopens the persisted indexes, only streams the posts written since their
+     * checkpoint, and drops the posts of the snapshots deleted meanwhile.
+     */
+    @Test
+    public void load_ReplaysPostsWrittenSinceSnapshots_AndDropsDeletedPosts() {
+        Post kept = post("Spring Boot");
+        Post deleted = post("Spring Data");
+        Post updated = post("Spring Batch");
+
+        doAnswer(invocation -> {
+            Consumer<Post> action = invocation.getArgument(0);
+
+            action.accept(kept);
+            action.accept(deleted);
+            action.accept(updated);
+            return null;
+        }).when(postService).forEachPost(any());
+
+        initializer.load();
+        restart();
+
+        Post created = post("Spring Security");
+
+        created.setUpdatedDate(LocalDateTime.now());
+
+        updated.setTitle("Ktor");
+        updated.setUpdatedDate(LocalDateTime.now());
+
+        doAnswer(invocation -> {
+            Consumer<Post> action = invocation.getArgument(1);
+
+            action.accept(updated);
+            action.accept(created);
+            return null;
+        }).when(postService).forEachPostUpdatedSince(any(), any());
+        doAnswer(invocation -> {
+            Consumer<UUID> action = invocation.getArgument(0);
+
+            List.of(kept.getId(), updated.getId(), created.getId()).forEach(action);
+            return null;
+        }).when(postService).forEachPostId(any());
+
+        initializer.load();
+
+        verify(postService, never()).forEachPost(any());
+        assertTrue(postSearchIndex.isReady() && postFacetIndex.isReady() && suggestionIndex.isReady());
+        assertEquals(Set.of(kept.getId(), created.getId()), postFacetIndex.search("spring", null).orElseThrow().ids());
+        assertEquals(Set.of(updated.getId()), postFacetIndex.search("ktor", null).orElseThrow().ids());
+        assertTrue(postSearchIndex.search("spring").orElseThrow().containsAll(Set.of(kept.getId(), created.getId())));
+        assertFalse(postSearchIndex.search("spring").orElseThrow().contains(updated.getId()));
+        assertEquals(Optional.of(Set.of(updated.getId())), postSearchIndex.search("ktor"));
+        assertEquals(Set.of(kept.getId(), created.getId()), Set.copyOf(ids(suggestionIndex.suggest("spring", 10))));
+        assertEquals(List.of(updated.getId()), ids(suggestionIndex.suggest("ktor", 10)));
+    }
+
+    /**
+     * Creates new indexes and a new initializer over the temporary directory, as a restart of the application would.
+     */
+    private void restart() {
+        final SearchSegmentStore store = new SearchSegmentStore(directory);
+
+        postService = mock(PostService.class);
+        categoryService = mock(CategoryService.class);
+        postSearchIndex = new PostSearchIndex(store, 2, 4, SearchSegment.MAX_SIZE);
+        postFacetIndex = new PostFacetIndex();
+        suggestionIndex = new SuggestionIndex(10);
+        initializer = new PostIndexesInitializer(postService, categoryService, postSearchIndex, postFacetIndex, suggestionIndex,
+                new PostIndexSnapshots(store, postFacetIndex, suggestionIndex), mock(AsyncTaskExecutor.class));
+
+        when(categoryService.getCategories()).thenReturn(List.of(java));
+    }
+
+    /**
+     * Builds a post of the category written an hour ago.
+     *
+     * @param title The title of the post
+     * @return The post
+     */
+    private Post post(String title) {
+        final Post post = new Post(UUID.randomUUID(), title, "Content", LocalDateTime.now().minusHours(1), java);
+
+        post.setUpdatedDate(LocalDateTime.now().minusHours(1));
+        return post;
+    }
+
+    /**
+     * Retrieves the IDs of suggestions.
+     *
+     * @param suggestions The suggestions
+     * @return The IDs of the suggestions, in order
+     */
+    private static List<UUID> ids(Optional<List<Suggestion>> suggestions) {
+        return suggestions.orElseThrow().stream().map(Suggestion::getId).toList();
+    }
+
+}
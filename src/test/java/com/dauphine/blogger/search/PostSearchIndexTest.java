@@ -0,0 +1,294 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.models.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the PostSearchIndex class.
+ * These tests validate the tokenization, the incremental updates, the candidates returned by a search, and the
+ * persistence of the index in segments.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class PostSearchIndexTest {
+
+    /**
+     * The index being tested.
+     */
+    private PostSearchIndex postSearchIndex;
+
+    /**
+     * The directory holding the segments of the index.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Creates a ready, empty index before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        postSearchIndex = newIndex();
+        postSearchIndex.markReady();
+    }
+
+    /**
+     * Test to verify that tokenize splits on anything but letters and digits and folds case and accents.
+     */
+    @Test
+    public void tokenize_SplitsOnSeparatorsAndFoldsCaseAndAccents() {
+        assertEquals(Set.of("SPRING", "BOOT", "3", "ETE"), PostSearchIndex.tokenize("Spring-Boot 3, été!"));
+        assertTrue(PostSearchIndex.tokenize(" -- ").isEmpty());
+    }
+
+    /**
+     * Test to verify that search returns every post containing the topic, including partial terms.
+     */
+    @Test
+    public void search_ReturnsPostsContainingTopic() {
+        Post java = post("Learning Java", "Streams and lambdas");
+        Post kotlin = post("Kotlin", "Coroutines");
+
+        postSearchIndex.index(java);
+        postSearchIndex.index(kotlin);
+
+        assertEquals(Optional.of(Set.of(java.getId())), postSearchIndex.search("ambda"));
+        assertEquals(Optional.of(Set.of(java.getId())), postSearchIndex.search("java STREAMS"));
+        assertEquals(Optional.of(Set.of()), postSearchIndex.search("python"));
+    }
+
+    /**
+     * Test to verify that the terms buffered before the index is ready are found through their trigrams once it is,
+     * like the terms buffered afterwards, and that fragments shorter than a trigram are still found.
+     */
+    @Test
+    public void search_FindsBufferedTermsContainingTopic_BeforeAndAfterReady() {
+        PostSearchIndex loading = newIndex();
+        Post before = post("Javascript", "Content");
+        Post after = post("Java", "Content");
+
+        loading.index(before);
+        loading.markReady();
+        loading.index(after);
+
+        assertEquals(Optional.of(Set.of(before.getId(), after.getId())), loading.search("ava"));
+        assertEquals(Optional.of(Set.of(before.getId())), loading.search("script"));
+        assertEquals(Optional.of(Set.of(before.getId())), loading.search("pt"));
+        assertEquals(Optional.of(Set.of()), loading.search("avaz"));
+
+        loading.remove(before.getId());
+
+        assertEquals(Optional.of(Set.of()), loading.search("script"));
+        assertEquals(Optional.of(Set.of(after.getId())), loading.search("ava"));
+    }
+
+    /**
+     * Test to verify that updating a post replaces its terms and that removing a post removes it from the results.
+     */
+    @Test
+    public void indexAndRemove_KeepIndexUpToDate() {
+        Post post = post("Old title", "Content");
+
+        postSearchIndex.index(post);
+        post.setTitle("New title");
+        postSearchIndex.index(post);
+
+        assertEquals(Optional.of(Set.of()), postSearchIndex.search("old"));
+        assertEquals(Optional.of(Set.of(post.getId())), postSearchIndex.search("new"));
+
+        postSearchIndex.remove(post.getId());
+
+        assertEquals(Optional.of(Set.of()), postSearchIndex.search("new"));
+    }
+
+    /**
+     * Test to verify that search cannot resolve a topic before the index is ready or without any term.
+     */
+    @Test
+    public void search_ReturnsEmpty_WhenIndexIsNotReadyOrTopicHasNoTerm() {
+        assertEquals(Optional.empty(), postSearchIndex.search("%"));
+        assertEquals(Optional.empty(), newIndex().search("java"));
+    }
+
+    /**
+     * Test to verify that matches checks the exact topic, ignoring case and accents.
+     */
+    @Test
+    public void matches_ChecksExactTopicIgnoringCaseAndAccents() {
+        Post post = post("Learning Java", "foo bar, déjà vu");
+
+        assertTrue(PostSearchIndex.matches(post, "ING JA"));
+        assertTrue(PostSearchIndex.matches(post, "o b"));
+        assertTrue(PostSearchIndex.matches(post, "deja"));
+        assertFalse(PostSearchIndex.matches(post, "bar foo"));
+    }
+
+    /**
+     * Test to verify that flushed posts are still found, and that re-indexed or removed posts are shadowed in the
+     * segments they were flushed to.
+     */
+    @Test
+    public void flush_KeepsResultsAndShadowsUpdatedPosts() throws IOException {
+        Post updated = post("Old title", "Content");
+        Post removed = post("Old news", "Content");
+
+        postSearchIndex.index(updated);
+        postSearchIndex.index(removed);
+        postSearchIndex.flush();
+
+        assertEquals(1, postSearchIndex.getSegmentCount());
+        assertEquals(Optional.of(Set.of(updated.getId(), removed.getId())), postSearchIndex.search("old"));
+
+        updated.setTitle("New title");
+        postSearchIndex.index(updated);
+        postSearchIndex.remove(removed.getId());
+
+        assertEquals(Optional.of(Set.of()), postSearchIndex.search("old"));
+        assertEquals(Optional.of(Set.of(updated.getId())), postSearchIndex.search("new"));
+
+        postSearchIndex.flush();
+
+        assertEquals(Optional.of(Set.of()), postSearchIndex.search("old"));
+        assertEquals(Optional.of(Set.of(updated.getId())), postSearchIndex.search("new"));
+    }
+
+    /**
+     * Test to verify that a new index reopens the flushed segments and tombstones, and returns the checkpoint from
+     * which posts must be replayed.
+     */
+    @Test
+    public void load_ReopensFlushedSegments() throws IOException {
+        Post kept = post("Java", "Content");
+        Post removed = post("Java news", "Content");
+
+        postSearchIndex.index(kept);
+        postSearchIndex.index(removed);
+        postSearchIndex.flush();
+        postSearchIndex.remove(removed.getId());
+        postSearchIndex.index(post("Kotlin", "Content"));
+        postSearchIndex.flush();
+
+        PostSearchIndex reopened = newIndex();
+        Optional<LocalDateTime> checkpoint = reopened.load();
+        reopened.markReady();
+
+        assertTrue(checkpoint.isPresent());
+        assertTrue(checkpoint.get().isBefore(LocalDateTime.now()));
+        assertEquals(2, reopened.getSegmentCount());
+        assertEquals(Optional.of(Set.of(kept.getId())), reopened.search("java"));
+    }
+
+    /**
+     * Test to verify that a post updated after the last flush, whose tombstone is lost with the buffer, is found by its
+     * new terms only once it is replayed into the reopened index.
+     */
+    @Test
+    public void load_ShadowsFlushedPosts_WhenUpdatedPostsAreReplayed() throws IOException {
+        Post post = post("Old title", "Content");
+
+        postSearchIndex.index(post);
+        postSearchIndex.flush();
+        post.setTitle("New title");
+        postSearchIndex.index(post);
+
+        PostSearchIndex reopened = newIndex();
+        reopened.load();
+        reopened.index(post);
+        reopened.markReady();
+
+        assertEquals(Optional.of(Set.of()), reopened.search("old"));
+        assertEquals(Optional.of(Set.of(post.getId())), reopened.search("new"));
+    }
+
+    /**
+     * Test to verify that load asks for a full rebuild when no segment was ever flushed.
+     */
+    @Test
+    public void load_ReturnsEmpty_WhenNothingWasFlushed() {
+        assertEquals(Optional.empty(), newIndex().load());
+    }
+
+    /**
+     * Test to verify that merge combines the smallest segments once there are too many, dropping shadowed posts.
+     */
+    @Test
+    public void merge_CombinesSegmentsAndDropsShadowedPosts() throws IOException {
+        Post removed = post("Java", "Content");
+
+        postSearchIndex.index(removed);
+        postSearchIndex.flush();
+
+        for (int i = 0; i < 3; i++) {
+            postSearchIndex.index(post("Java " + i, "Content"));
+            postSearchIndex.flush();
+        }
+
+        postSearchIndex.remove(removed.getId());
+        postSearchIndex.merge();
+
+        assertEquals(1, postSearchIndex.getSegmentCount());
+        assertEquals(3, postSearchIndex.search("java").orElseThrow().size());
+        assertFalse(postSearchIndex.search("java").orElseThrow().contains(removed.getId()));
+
+        PostSearchIndex reopened = newIndex();
+        reopened.load();
+        reopened.markReady();
+
+        assertEquals(postSearchIndex.search("java"), reopened.search("java"));
+    }
+
+    /**
+     * Test to verify that merge leaves the segments alone when merging them would exceed the maximum segment size.
+     */
+    @Test
+    public void merge_SkipsSegments_WhenMergedSegmentWouldBeTooLarge() throws IOException {
+        PostSearchIndex capped = new PostSearchIndex(new SearchSegmentStore(directory), 2, 4, 200);
+        capped.markReady();
+
+        for (int i = 0; i < 3; i++) {
+            capped.index(post("Java " + i, "Content"));
+            capped.flush();
+        }
+
+        capped.merge();
+
+        assertEquals(3, capped.getSegmentCount());
+        assertEquals(3, capped.search("java").orElseThrow().size());
+    }
+
+    /**
+     * Creates an index over the temporary directory, merging up to four segments above two segments.
+     *
+     * @return The created index
+     */
+    private PostSearchIndex newIndex() {
+        return new PostSearchIndex(new SearchSegmentStore(directory), 2, 4, SearchSegment.MAX_SIZE);
+    }
+
+    /**
+     * Creates a post with a random ID.
+     *
+     * @param title   The title of the post
+     * @param content The content of the post
+     * @return The created post
+     */
+    private static Post post(String title, String content) {
+        Post post = new Post(title, content, null);
+        post.setId(UUID.randomUUID());
+        return post;
+    }
+
+}
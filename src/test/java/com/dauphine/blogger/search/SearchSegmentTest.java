@@ -0,0 +1,146 @@
+package com.dauphine.blogger.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the SearchSegment class.
+ * These tests validate that a written segment is read back through its memory-mapped file.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class SearchSegmentTest {
+
+    /**
+     * The directory holding the segment files.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * Test to verify that forEachMatch returns the IDs of the terms containing the fragment, including non-ASCII terms.
+     */
+    @Test
+    public void forEachMatch_ReturnsIdsOfTermsContainingFragment() throws IOException {
+        UUID java = UUID.randomUUID();
+        UUID summer = UUID.randomUUID();
+        Path path = directory.resolve("segment.seg");
+
+        SortedMap<String, List<UUID>> postings = new TreeMap<>();
+        postings.put("JAVA", List.of(java));
+        postings.put("JAVASCRIPT", List.of(java, summer));
+        postings.put("ÉTÉ", List.of(summer));
+
+        SearchSegment.write(path, postings);
+        SearchSegment segment = SearchSegment.open(7, path);
+
+        Set<UUID> matches = new HashSet<>();
+        segment.forEachMatch("AVA", matches::add);
+
+        assertEquals(7, segment.getSequence());
+        assertEquals(Set.of(java, summer), matches);
+
+        matches.clear();
+        segment.forEachMatch("TÉ", matches::add);
+
+        assertEquals(Set.of(summer), matches);
+    }
+
+    /**
+     * Test to verify that forEachMatch finds a fragment at any position of the terms through the suffix array,
+     * reporting each matching term once even when it holds the fragment several times.
+     */
+    @Test
+    public void forEachMatch_FindsFragmentAtAnyPosition_OncePerTerm() throws IOException {
+        UUID banana = UUID.randomUUID();
+        UUID cabana = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        Path path = directory.resolve("segment.seg");
+
+        SortedMap<String, List<UUID>> postings = new TreeMap<>();
+        postings.put("BANANA", List.of(banana));
+        postings.put("CABANA", List.of(cabana));
+        postings.put("BAN", List.of(other));
+
+        SearchSegment.write(path, postings);
+        SearchSegment segment = SearchSegment.open(0, path);
+
+        List<UUID> matches = new ArrayList<>();
+        segment.forEachMatch("ANA", matches::add);
+
+        assertEquals(2, matches.size());
+        assertEquals(Set.of(banana, cabana), new HashSet<>(matches));
+
+        matches.clear();
+        segment.forEachMatch("BAN", matches::add);
+
+        assertEquals(Set.of(banana, cabana, other), new HashSet<>(matches));
+
+        matches.clear();
+        segment.forEachMatch("NAB", matches::add);
+
+        assertTrue(matches.isEmpty());
+    }
+
+    /**
+     * Test to verify that forEachPosting returns every term and ID in term order.
+     */
+    @Test
+    public void forEachPosting_ReturnsAllPostingsInTermOrder() throws IOException {
+        UUID id = UUID.randomUUID();
+        Path path = directory.resolve("segment.seg");
+
+        SortedMap<String, List<UUID>> postings = new TreeMap<>();
+        postings.put("B", List.of(id));
+        postings.put("A", List.of(id));
+
+        SearchSegment.write(path, postings);
+
+        List<String> terms = new ArrayList<>();
+        SearchSegment.open(0, path).forEachPosting((term, postingId) -> {
+            assertEquals(id, postingId);
+            terms.add(term);
+        });
+
+        assertEquals(List.of("A", "B"), terms);
+    }
+
+    /**
+     * Test to verify that open rejects a file which is not a segment.
+     */
+    @Test
+    public void open_ThrowsException_WhenFileIsNotASegment() throws IOException {
+        Path path = Files.writeString(directory.resolve("segment.seg"), "not a segment");
+
+        assertThrows(IOException.class, () -> SearchSegment.open(0, path));
+    }
+
+    /**
+     * Test to verify that open rejects a segment too large to be mapped as a single buffer, instead of failing
+     * with an unchecked exception. The file is sparse, so it takes no space on disk.
+     */
+    @Test
+    public void open_ThrowsException_WhenFileExceedsMaximumSize() throws IOException {
+        Path path = directory.resolve("segment.seg");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, SearchSegment.MAGIC));
+            channel.write(ByteBuffer.allocate(1), SearchSegment.MAX_SIZE);
+        }
+
+        assertThrows(IOException.class, () -> SearchSegment.open(0, path));
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.dauphine.blogger.search;
+
+import com.dauphine.blogger.dto.Suggestion;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the SuggestionIndex class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class SuggestionIndexTest {
+
+    /**
+     * The index being tested.
+     */
+    private SuggestionIndex index;
+
+    /**
+     * Setup method to create a ready index keeping at most 3 completions per prefix.
+     */
+    @BeforeEach
+    public void setup() {
+        index = new SuggestionIndex(3);
+        index.markReady();
+    }
+
+    /**
+     * Test to verify that suggest returns nothing until the index is ready.
+     */
+    @Test
+    public void suggest_ReturnsEmpty_WhenIndexIsNotReady() {
+        final SuggestionIndex notReady = new SuggestionIndex(3);
+        notReady.indexCategory(new Category("Java"));
+
+        assertEquals(Optional.empty(), notReady.suggest("J", 3));
+    }
+
+    /**
+     * Test to verify that suggest completes prefixes ignoring case and accents, categories first, then the most
+     * recent posts.
+     */
+    @Test
+    public void suggest_CompletesPrefixes_CategoriesThenRecentPosts() {
+        final Category category = new Category("Économie");
+        final Post older = post("Écoles de commerce", 2, category);
+        final Post newer = post("ecologie urbaine", 1, category);
+        index.indexCategory(category);
+        index.indexPost(older);
+        index.indexPost(newer);
+        index.indexPost(post("Sport", 0, category));
+
+        assertEquals(List.of(category.getId(), newer.getId(), older.getId()), ids(index.suggest("eco", 10)));
+        assertEquals(List.of(category.getId()), ids(index.suggest("ÉCON", 10)));
+        assertEquals(List.of(category.getId(), newer.getId()), ids(index.suggest("e", 2)));
+        assertTrue(ids(index.suggest("ecz", 10)).isEmpty());
+        assertEquals(Suggestion.Type.CATEGORY, index.suggest("eco", 1).orElseThrow().get(0).getType());
+    }
+
+    /**
+     * Test to verify that categories are ranked by their number of posts, which follows post writes.
+     */
+    @Test
+    public void suggest_RanksCategoriesByPopularity() {
+        final Category java = new Category("Java");
+        final Category javascript = new Category("JavaScript");
+        index.indexCategory(java);
+        index.indexCategory(javascript);
+
+        final Post post = post("Closures", 0, javascript);
+        index.indexPost(post);
+
+        assertEquals(List.of(javascript.getId(), java.getId()), ids(index.suggest("jav", 2)));
+
+        index.indexPost(post("Closures", 0, java));
+        index.indexPost(post("Streams", 0, java));
+
+        assertEquals(List.of(java.getId(), javascript.getId()), ids(index.suggest("jav", 2)));
+
+        index.removePost(post.getId());
+        index.indexPost(new Post(post.getId(), "Closures", "Content", post.getCreatedDate(), java));
+
+        assertEquals(List.of(java.getId(), javascript.getId()), ids(index.suggest("jav", 2)));
+    }
+
+    /**
+     * Test to verify that the best completions of a prefix are recomputed when an entry ranking among them is
+     * removed or renamed, and that the limit keeps the best ones.
+     */
+    @Test
+    public void suggest_RecomputesBestCompletions_WhenEntriesChange() {
+        final Category category = new Category("Other");
+        final Post first = post("Travel 1", 1, category);
+        final Post second = post("Travel 2", 2, category);
+        final Post third = post("Travel 3", 3, category);
+        final Post fourth = post("Travel 4", 4, category);
+        List.of(fourth, third, second, first).forEach(index::indexPost);
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), ids(index.suggest("tra", 10)));
+
+        index.removePost(first.getId());
+
+        assertEquals(List.of(second.getId(), third.getId(), fourth.getId()), ids(index.suggest("tra", 10)));
+
+        index.indexPost(new Post(second.getId(), "Cooking", "Content", second.getCreatedDate(), category));
+
+        assertEquals(List.of(third.getId(), fourth.getId()), ids(index.suggest("travel", 10)));
+        assertEquals(List.of(second.getId()), ids(index.suggest("c", 10)));
+
+        index.removeCategory(category.getId());
+        index.removePost(second.getId());
+
+        assertTrue(ids(index.suggest("c", 10)).isEmpty());
+    }
+
+    /**
+     * Test to verify that keys sharing prefixes split and merge the edges of the trie without losing completions,
+     * including keys ending inside an edge and the empty prefix.
+     */
+    @Test
+    public void suggest_SplitsAndMergesEdges_WhenKeysShareAPrefix() {
+        final Category category = new Category("Other");
+        final Post starters = post("Spring Boot starters", 1, category);
+        final Post spring = post("Spring", 2, category);
+        final Post batch = post("Spring Batch", 3, category);
+        index.indexPost(starters);
+
+        assertEquals(List.of(starters.getId()), ids(index.suggest("spring boot st", 10)));
+        assertTrue(ids(index.suggest("spring bootz", 10)).isEmpty());
+
+        index.indexPost(spring);
+        index.indexPost(batch);
+
+        assertEquals(List.of(starters.getId(), spring.getId(), batch.getId()), ids(index.suggest("spr", 10)));
+        assertEquals(List.of(starters.getId(), batch.getId()), ids(index.suggest("spring b", 10)));
+        assertEquals(List.of(batch.getId()), ids(index.suggest("spring ba", 10)));
+        assertEquals(List.of(starters.getId(), spring.getId(), batch.getId()), ids(index.suggest("", 10)));
+
+        index.removePost(spring.getId());
+        index.removePost(starters.getId());
+
+        assertEquals(List.of(batch.getId()), ids(index.suggest("spring", 10)));
+        assertEquals(List.of(batch.getId()), ids(index.suggest("spring batch", 10)));
+        assertTrue(ids(index.suggest("spring bo", 10)).isEmpty());
+
+        index.indexPost(starters);
+
+        assertEquals(List.of(starters.getId(), batch.getId()), ids(index.suggest("spring b", 10)));
+        assertEquals(List.of(starters.getId()), ids(index.suggest("spring boot", 10)));
+    }
+
+    /**
+     * Test to verify that the load does not bring back a post or category deleted, nor overwrite one renamed, after
+     * the load read it but before it reached the index.
+     */
+    @Test
+    public void load_SkipsPostsAndCategoriesWrittenWhileLoading() {
+        final SuggestionIndex loading = new SuggestionIndex(3);
+        final Category renamed = new Category("Java");
+        final Category deleted = new Category("Jakarta");
+        final Post removed = post("Javadoc tips", 1, renamed);
+        final Post kept = post("Java records", 2, renamed);
+
+        loading.indexCategory(new Category(renamed.getId(), "Kotlin"));
+        loading.removeCategory(deleted.getId());
+        loading.loadCategory(renamed);
+        loading.loadCategory(deleted);
+
+        loading.loadPost(kept);
+        loading.removePost(removed.getId());
+        loading.loadPost(removed);
+        loading.markReady();
+
+        assertEquals(List.of(kept.getId()), ids(loading.suggest("ja", 10)));
+        assertEquals(List.of(renamed.getId()), ids(loading.suggest("ko", 10)));
+    }
+
+    /**
+     * Builds a post created some minutes ago.
+     *
+     * @param title    The title of the post
+     * @param minutes  The number of minutes since the creation of the post
+     * @param category The category of the post
+     * @return The post
+     */
+    private static Post post(String title, int minutes, Category category) {
+        return new Post(UUID.randomUUID(), title, "Content", LocalDateTime.now().minusMinutes(minutes), category);
+    }
+
+    /**
+     * Retrieves the IDs of suggestions.
+     *
+     * @param suggestions The suggestions
+     * @return The IDs of the suggestions, in order
+     */
+    private static List<UUID> ids(Optional<List<Suggestion>> suggestions) {
+        return suggestions.orElseThrow().stream().map(Suggestion::getId).toList();
+    }
+
+}
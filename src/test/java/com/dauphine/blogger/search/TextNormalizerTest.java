@@ -0,0 +1,51 @@
+package com.dauphine.blogger.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the TextNormalizer class.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TextNormalizerTest {
+
+    /**
+     * Test to verify that normalize folds case and accents.
+     */
+    @Test
+    public void normalize_FoldsCaseAndAccents() {
+        assertEquals("L'ETE A NOEL", TextNormalizer.normalize("L'été à Noël"));
+        assertEquals("ECOLE", TextNormalizer.normalize("ÉCOLE"));
+        assertEquals("ECOLE", TextNormalizer.normalize("École"));
+        assertEquals("CAFE CREME", TextNormalizer.normalize("café crème"));
+    }
+
+    /**
+     * Test to verify that normalize replaces compatibility characters by their plain equivalent.
+     */
+    @Test
+    public void normalize_DecomposesCompatibilityCharacters() {
+        assertEquals("OFFICE", TextNormalizer.normalize("oﬃce"));
+        assertEquals("STRASSE", TextNormalizer.normalize("Straße"));
+        assertEquals("X2", TextNormalizer.normalize("x²"));
+    }
+
+    /**
+     * Test to verify that normalizing a normalized text returns it unchanged, and that null is kept.
+     */
+    @Test
+    public void normalize_IsIdempotent() {
+        for (String text : new String[]{"L'été à Noël", "oﬃce", "Straße", "ª", "ǰ"}) {
+            final String normalized = TextNormalizer.normalize(text);
+
+            assertEquals(normalized, TextNormalizer.normalize(normalized));
+        }
+
+        assertNull(TextNormalizer.normalize(null));
+    }
+
+}
@@ -1,29 +1,43 @@
 package com.dauphine.blogger.services;
 
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
 import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Category;
 import com.dauphine.blogger.repositories.CategoryRepository;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.search.TextNormalizer;
 import com.dauphine.blogger.services.implementations.CategoryServiceImplementation;
 import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
  * <p>
  * Unit tests for the CategoryServiceImplementation class.
- * These tests validate the functionality of the service methods and ensure correct interaction with the CategoryRepository.
+ * These tests validate the functionality of the service methods and ensure correct interaction with the CategoryRepository
+ * and the CategoryCache.
  * </p>
  *
  * @author Nelson PROIA <nelson.proia@dauphine.eu>
@@ -37,9 +51,23 @@ public class CategoryServiceImplementationTest {
     private CategoryRepository categoryRepository;
 
     /**
-     * The service implementation being tested, with the mocked repository injected.
+     * Meter registry recording the cache metrics.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Name index of the service, not ready until a test marks it so.
+     */
+    private CategoryNameIndex categoryNameIndex;
+
+    /**
+     * Change stamps of the service, so that the collections touched by the writes can be observed.
+     */
+    private ChangeStamps changeStamps;
+
+    /**
+     * The service implementation being tested, with the mocked repository and a real cache over it.
      */
-    @InjectMocks
     private CategoryServiceImplementation categoryService;
 
     /**
@@ -48,6 +76,10 @@ public class CategoryServiceImplementationTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        categoryNameIndex = new CategoryNameIndex(0.3, 20);
+        changeStamps = new ChangeStamps();
+        categoryService = new CategoryServiceImplementation(categoryRepository, new CategoryCache(categoryRepository, meterRegistry), categoryNameIndex, new SuggestionIndex(10), new TopicSearchCache(5_000_000, meterRegistry), new LatestPostsFeed(100), changeStamps);
     }
 
     /**
@@ -69,13 +101,178 @@ public class CategoryServiceImplementationTest {
     public void getCategoriesByName_ReturnsEmptyList_WhenNoCategoriesExist() {
         String name = "NonexistentCategory";
 
-        when(categoryRepository.findAllByName(name)).thenReturn(Collections.emptyList());
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category("Other")));
 
         List<Category> categories = categoryService.getCategoriesByName(name);
 
         assertTrue(categories.isEmpty());
     }
 
+    /**
+     * Test to verify that getCategoriesByName returns the categories whose name contains the specified name, ignoring case.
+     */
+    @Test
+    public void getCategoriesByName_ReturnsCategoriesContainingName() {
+        Category java = new Category("Java");
+
+        when(categoryRepository.findAll()).thenReturn(List.of(java, new Category("Kotlin")));
+
+        List<Category> categories = categoryService.getCategoriesByName("AV");
+
+        assertEquals(1, categories.size());
+        assertEquals(java.getId(), categories.get(0).getId());
+    }
+
+    /**
+     * Test to verify that getCategoriesByName is served by the name index once it is ready, tolerating typos and
+     * without reading the database.
+     */
+    @Test
+    public void getCategoriesByName_UsesNameIndex_WhenIndexIsReady() {
+        Category java = new Category("Java");
+
+        categoryNameIndex.index(java);
+        categoryNameIndex.index(new Category("Kotlin"));
+        categoryNameIndex.markReady();
+
+        List<Category> categories = categoryService.getCategoriesByName("Jaava");
+
+        assertEquals(List.of(java.getId()), categories.stream().map(Category::getId).toList());
+        verifyNoInteractions(categoryRepository);
+    }
+
+    /**
+     * Test to verify that the writes keep the name index up to date.
+     *
+     * @throws CategoryAlreadyExistsException if the category already exists
+     * @throws CategoryNotFoundByIdException  if the category is not found by ID
+     */
+    @Test
+    public void writes_UpdateNameIndex() throws CategoryAlreadyExistsException, CategoryNotFoundByIdException {
+        Category category = new Category("Java");
+
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(category);
+        when(categoryRepository.updateName(category.getId(), "Kotlin", "KOTLIN")).thenReturn(1);
+        when(categoryRepository.deleteCategoryById(category.getId())).thenReturn(1);
+        categoryNameIndex.markReady();
+
+        categoryService.createCategory("Java");
+
+        assertEquals(1, categoryService.getCategoriesByName("java").size());
+
+        categoryService.updateCategoryName(category.getId(), "Kotlin");
+
+        assertTrue(categoryService.getCategoriesByName("java").isEmpty());
+        assertEquals("Kotlin", categoryService.getCategoriesByName("kotlin").get(0).getName());
+
+        categoryService.deleteCategory(category.getId());
+
+        assertTrue(categoryService.getCategoriesByName("kotlin").isEmpty());
+    }
+
+    /**
+     * Test to verify that within a transaction, the name index is only updated once the transaction commits.
+     *
+     * @throws CategoryAlreadyExistsException if the category already exists
+     */
+    @Test
+    public void createCategory_UpdatesNameIndexAfterCommit_WithinTransaction() throws CategoryAlreadyExistsException {
+        Category category = new Category("Java");
+
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(category);
+        categoryNameIndex.markReady();
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            categoryService.createCategory("Java");
+
+            assertTrue(categoryService.getCategoriesByName("java").isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, categoryService.getCategoriesByName("java").size());
+    }
+
+    /**
+     * Test to verify that lookups load the categories once and are then served from the cache, counting hits and misses.
+     *
+     * @throws CategoryNotFoundByIdException if the category is not found by ID
+     */
+    @Test
+    public void getCategory_LoadsCategoriesOnce_AndCountsHitsAndMisses() throws CategoryNotFoundByIdException {
+        Category category = new Category("Java");
+
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+        assertEquals("Java", categoryService.getCategory(category.getId()).getName());
+        assertEquals("Java", categoryService.getCategory(category.getId()).getName());
+        assertEquals(1, categoryService.getCategories().size());
+
+        verify(categoryRepository, times(1)).findAll();
+        verify(categoryRepository, never()).findById(any());
+        assertEquals(2, meterRegistry.get(CategoryCache.REQUESTS_METRIC).tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get(CategoryCache.REQUESTS_METRIC).tag("result", "miss").counter().count());
+    }
+
+    /**
+     * Test to verify that getCategoriesById reads the categories from the database with a single query.
+     */
+    @Test
+    public void getCategoriesById_ReadsCategoriesFromDatabase() {
+        Category category = new Category("Java");
+        UUID missingId = UUID.randomUUID();
+
+        when(categoryRepository.findAllById(List.of(category.getId(), missingId))).thenReturn(List.of(category));
+
+        assertEquals(Map.of(category.getId(), category), categoryService.getCategoriesById(List.of(category.getId(), missingId)));
+        assertTrue(categoryService.getCategoriesById(List.of()).isEmpty());
+        verify(categoryRepository, times(1)).findAllById(any());
+        verify(categoryRepository, never()).findAll();
+    }
+
+    /**
+     * Test to verify that getCategory throws an exception when the category does not exist.
+     */
+    @Test
+    public void getCategory_ThrowsException_WhenCategoryDoesNotExist() {
+        when(categoryRepository.findAll()).thenReturn(Collections.emptyList());
+
+        assertThrows(CategoryNotFoundByIdException.class, () -> categoryService.getCategory(UUID.randomUUID()));
+    }
+
+    /**
+     * Test to verify that writes invalidate the cache, so that the next lookup reloads the categories.
+     *
+     * @throws CategoryAlreadyExistsException if the category already exists
+     * @throws CategoryNotFoundByIdException  if the category is not found by ID
+     */
+    @Test
+    public void writes_InvalidateCache() throws CategoryAlreadyExistsException, CategoryNotFoundByIdException {
+        Category category = new Category("Java");
+
+        when(categoryRepository.findAll())
+                .thenReturn(Collections.emptyList())
+                .thenReturn(List.of(category))
+                .thenReturn(Collections.emptyList());
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(category);
+        when(categoryRepository.deleteCategoryById(category.getId())).thenReturn(1);
+
+        assertTrue(categoryService.getCategories().isEmpty());
+
+        categoryService.createCategory("Java");
+
+        assertEquals(category.getId(), categoryService.getCategory(category.getId()).getId());
+
+        categoryService.deleteCategory(category.getId());
+
+        assertTrue(categoryService.getCategories().isEmpty());
+        verify(categoryRepository, times(3)).findAll();
+    }
+
     /**
      * Test to verify that createCategory creates a new category when the category does not already exist.
      *
@@ -86,8 +283,7 @@ public class CategoryServiceImplementationTest {
         String categoryName = "NewCategory";
         Category category = new Category(categoryName);
 
-        when(categoryRepository.existsByName(categoryName)).thenReturn(false);
-        when(categoryRepository.save(any(Category.class))).thenReturn(category);
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(category);
 
         Category createdCategory = categoryService.createCategory(categoryName);
 
@@ -102,7 +298,7 @@ public class CategoryServiceImplementationTest {
     public void createCategory_ThrowsException_WhenCategoryAlreadyExists() {
         String existingCategoryName = "ExistingCategory";
 
-        when(categoryRepository.existsByName(existingCategoryName)).thenReturn(true);
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenThrow(new DataIntegrityViolationException("category_name_key"));
 
         assertThrows(CategoryAlreadyExistsException.class, () -> categoryService.createCategory(existingCategoryName));
     }
@@ -117,15 +313,36 @@ public class CategoryServiceImplementationTest {
     public void updateCategoryName_UpdatesCategoryName_WhenCategoryExistsAndNewNameIsUnique() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
         UUID categoryId = UUID.randomUUID();
         String newName = "UpdatedName";
-        Category existingCategory = new Category("ExistingCategory");
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(existingCategory));
-        when(categoryRepository.existsByName(newName)).thenReturn(false);
-        when(categoryRepository.save(any(Category.class))).thenReturn(existingCategory);
+        when(categoryRepository.updateName(categoryId, newName, TextNormalizer.normalize(newName))).thenReturn(1);
+        when(categoryRepository.findVersionById(categoryId)).thenReturn(Optional.of(4L));
 
         Category updatedCategory = categoryService.updateCategoryName(categoryId, newName);
 
+        assertEquals(categoryId, updatedCategory.getId());
         assertEquals(newName, updatedCategory.getName());
+        assertEquals(4L, updatedCategory.getVersion());
+        verify(categoryRepository, never()).findById(any());
+    }
+
+    /**
+     * Test to verify that updateCategoryName touches both the category and the post collections, since the posts
+     * embed the name of their category.
+     *
+     * @throws CategoryNotFoundByIdException  if the category is not found by ID
+     * @throws CategoryAlreadyExistsException if a category with the new name already exists
+     */
+    @Test
+    public void updateCategoryName_TouchesCategoryAndPostCollections() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException {
+        UUID categoryId = UUID.randomUUID();
+        String newName = "UpdatedName";
+
+        when(categoryRepository.updateName(categoryId, newName, TextNormalizer.normalize(newName))).thenReturn(1);
+
+        categoryService.updateCategoryName(categoryId, newName);
+
+        assertEquals(1, changeStamps.get(ChangeStamps.Scope.CATEGORIES).version());
+        assertEquals(1, changeStamps.get(ChangeStamps.Scope.POSTS).version());
     }
 
     /**
@@ -136,23 +353,60 @@ public class CategoryServiceImplementationTest {
         UUID nonExistentCategoryId = UUID.randomUUID();
         String newName = "UpdatedName";
 
-        when(categoryRepository.findById(nonExistentCategoryId)).thenReturn(Optional.empty());
+        when(categoryRepository.updateName(nonExistentCategoryId, newName, TextNormalizer.normalize(newName))).thenReturn(0);
 
         assertThrows(CategoryNotFoundByIdException.class, () -> categoryService.updateCategoryName(nonExistentCategoryId, newName));
     }
 
+    /**
+     * Test to verify that updateCategoryName renames a category still at the expected version and returns its new
+     * version.
+     *
+     * @throws CategoryNotFoundByIdException  if the category is not found by ID
+     * @throws CategoryAlreadyExistsException if a category with the new name already exists
+     * @throws StaleVersionException          if the category is no longer at the expected version
+     */
+    @Test
+    public void updateCategoryName_ReturnsNextVersion_WhenVersionMatches() throws CategoryNotFoundByIdException, CategoryAlreadyExistsException, StaleVersionException {
+        UUID categoryId = UUID.randomUUID();
+        String newName = "UpdatedName";
+
+        when(categoryRepository.updateNameIfVersion(categoryId, newName, TextNormalizer.normalize(newName), 3L)).thenReturn(1);
+
+        Category updatedCategory = categoryService.updateCategoryName(categoryId, newName, 3L);
+
+        assertEquals(newName, updatedCategory.getName());
+        assertEquals(4L, updatedCategory.getVersion());
+        verify(categoryRepository, never()).updateName(any(), any(), any());
+    }
+
+    /**
+     * Test to verify that updateCategoryName tells a category no longer at the expected version apart from a missing
+     * one, and touches no collection.
+     */
+    @Test
+    public void updateCategoryName_ThrowsException_WhenVersionIsStale() {
+        UUID categoryId = UUID.randomUUID();
+        UUID nonExistentCategoryId = UUID.randomUUID();
+        String newName = "UpdatedName";
+
+        when(categoryRepository.updateNameIfVersion(any(), any(), any(), anyLong())).thenReturn(0);
+        when(categoryRepository.existsById(categoryId)).thenReturn(true);
+
+        assertThrows(StaleVersionException.class, () -> categoryService.updateCategoryName(categoryId, newName, 3L));
+        assertThrows(CategoryNotFoundByIdException.class, () -> categoryService.updateCategoryName(nonExistentCategoryId, newName, 3L));
+        assertEquals(0, changeStamps.get(ChangeStamps.Scope.CATEGORIES).version());
+    }
+
     /**
      * Test to verify that updateCategoryName throws an exception when the new name already exists.
      */
     @Test
     public void updateCategoryName_ThrowsException_WhenNewNameAlreadyExists() {
         UUID categoryId = UUID.randomUUID();
-        String existingName = "ExistingName";
         String newName = "ExistingName";
-        Category existingCategory = new Category(existingName);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(existingCategory));
-        when(categoryRepository.existsByName(newName)).thenReturn(true);
+        when(categoryRepository.updateName(categoryId, newName, TextNormalizer.normalize(newName))).thenThrow(new DataIntegrityViolationException("category_name_key"));
 
         assertThrows(CategoryAlreadyExistsException.class, () -> categoryService.updateCategoryName(categoryId, newName));
     }
@@ -166,13 +420,13 @@ public class CategoryServiceImplementationTest {
     public void deleteCategory_DeletesCategory_WhenCategoryExists() throws CategoryNotFoundByIdException {
         UUID categoryId = UUID.randomUUID();
 
-        when(categoryRepository.existsById(categoryId)).thenReturn(true);
-        doNothing().when(categoryRepository).deleteById(categoryId);
+        when(categoryRepository.deleteCategoryById(categoryId)).thenReturn(1);
 
         boolean deleted = categoryService.deleteCategory(categoryId);
 
         assertTrue(deleted);
-        verify(categoryRepository, times(1)).deleteById(categoryId);
+        verify(categoryRepository, times(1)).deleteCategoryById(categoryId);
+        verify(categoryRepository, never()).existsById(any());
     }
 
     /**
@@ -182,7 +436,7 @@ public class CategoryServiceImplementationTest {
     public void deleteCategory_ThrowsException_WhenCategoryDoesNotExist() {
         UUID nonExistentCategoryId = UUID.randomUUID();
 
-        when(categoryRepository.existsById(nonExistentCategoryId)).thenReturn(false);
+        when(categoryRepository.deleteCategoryById(nonExistentCategoryId)).thenReturn(0);
 
         assertThrows(CategoryNotFoundByIdException.class, () -> categoryService.deleteCategory(nonExistentCategoryId));
     }
@@ -0,0 +1,190 @@
+package com.dauphine.blogger.services;
+
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.concurrency.SingleFlight;
+import com.dauphine.blogger.exceptions.CategoryAlreadyExistsException;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.services.implementations.CategoryServiceImplementation;
+import com.dauphine.blogger.services.implementations.CoalescingCategoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * Unit tests for the CoalescingCategoryService class.
+ * These tests validate that identical concurrent reads share a single call to the CategoryServiceImplementation,
+ * unless a category write happened in between, and that writes are delegated as is.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class CoalescingCategoryServiceTest {
+
+    /**
+     * Number of concurrent callers.
+     */
+    private static final int CALLERS = 4;
+
+    /**
+     * Mocked CategoryServiceImplementation running the reads and the writes.
+     */
+    @Mock
+    private CategoryServiceImplementation categoryServiceImplementation;
+
+    /**
+     * Registry of the coalesced calls metrics.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Real ChangeStamps, so that writes can be simulated by touching the collections.
+     */
+    private ChangeStamps changeStamps;
+
+    /**
+     * Executor running the concurrent callers.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The service being tested, in front of the mocked implementation.
+     */
+    private CoalescingCategoryService categoryService;
+
+    /**
+     * Setup method to initialize mocks, the executor and the service before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        meterRegistry = new SimpleMeterRegistry();
+        changeStamps = new ChangeStamps();
+        executor = Executors.newFixedThreadPool(CALLERS);
+        categoryService = new CoalescingCategoryService(categoryServiceImplementation, new SingleFlight(meterRegistry), changeStamps);
+    }
+
+    /**
+     * Stops the executor after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test to verify that identical concurrent reads share a single call and its result, even when only the posts
+     * were written in between.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void getCategories_SharesInFlightRead_WhenNoCategoryWasWritten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Category> categories = List.of(new Category("Java"));
+        List<Future<List<Category>>> futures = new ArrayList<>();
+
+        when(categoryServiceImplementation.getCategories()).thenAnswer(invocation -> {
+            release.await();
+
+            return categories;
+        });
+
+        futures.add(executor.submit(() -> categoryService.getCategories()));
+        verify(categoryServiceImplementation, timeout(5000)).getCategories();
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        for (int i = 1; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> categoryService.getCategories()));
+        }
+
+        awaitSharedCalls(CALLERS - 1);
+        release.countDown();
+
+        for (Future<List<Category>> future : futures) {
+            assertSame(categories, future.get(5, TimeUnit.SECONDS));
+        }
+
+        verify(categoryServiceImplementation, times(1)).getCategories();
+    }
+
+    /**
+     * Test to verify that a read starting after a category write runs its own call instead of joining a read started
+     * before the write.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void getCategoriesByName_RunsOwnRead_WhenCategoriesWereWrittenSinceFlightStarted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Category> before = List.of(new Category("Java"));
+        List<Category> after = List.of(new Category("Java"), new Category("JavaScript"));
+
+        when(categoryServiceImplementation.getCategoriesByName("java"))
+                .thenAnswer(invocation -> {
+                    release.await();
+
+                    return before;
+                })
+                .thenReturn(after);
+
+        Future<List<Category>> first = executor.submit(() -> categoryService.getCategoriesByName("java"));
+
+        verify(categoryServiceImplementation, timeout(5000)).getCategoriesByName("java");
+        changeStamps.touch(ChangeStamps.Scope.CATEGORIES, ChangeStamps.Scope.POSTS);
+
+        assertSame(after, executor.submit(() -> categoryService.getCategoriesByName("java")).get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+
+        assertSame(before, first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "shared").counter().count());
+    }
+
+    /**
+     * Test to verify that writes are delegated as is.
+     *
+     * @throws CategoryAlreadyExistsException if the category already exists
+     */
+    @Test
+    public void createCategory_DelegatesToImplementation() throws CategoryAlreadyExistsException {
+        Category category = new Category("Java");
+
+        when(categoryServiceImplementation.createCategory("Java")).thenReturn(category);
+
+        assertSame(category, categoryService.createCategory("Java"));
+        verify(categoryServiceImplementation).createCategory("Java");
+        assertEquals(0, meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "executed").counter().count());
+    }
+
+    /**
+     * Waits until the specified number of calls joined a call in flight.
+     *
+     * @param count The number of shared calls to wait for
+     * @throws InterruptedException if the wait is interrupted
+     */
+    private void awaitSharedCalls(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "shared").counter().count() < count) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the call in flight");
+            Thread.sleep(5);
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.dauphine.blogger.services;
+
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.concurrency.SingleFlight;
+import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.services.implementations.CoalescingPostService;
+import com.dauphine.blogger.services.implementations.PostServiceImplementation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * Unit tests for the CoalescingPostService class.
+ * These tests validate that identical concurrent reads share a single call to the PostServiceImplementation, unless a
+ * write happened in between, and that writes are delegated as is.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class CoalescingPostServiceTest {
+
+    /**
+     * Number of concurrent callers.
+     */
+    private static final int CALLERS = 4;
+
+    /**
+     * Mocked PostServiceImplementation running the reads and the writes.
+     */
+    @Mock
+    private PostServiceImplementation postServiceImplementation;
+
+    /**
+     * Registry of the coalesced calls metrics.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Real ChangeStamps, so that writes can be simulated by touching the collections.
+     */
+    private ChangeStamps changeStamps;
+
+    /**
+     * Executor running the concurrent callers.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The service being tested, in front of the mocked implementation.
+     */
+    private CoalescingPostService postService;
+
+    /**
+     * Setup method to initialize mocks, the executor and the service before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        meterRegistry = new SimpleMeterRegistry();
+        changeStamps = new ChangeStamps();
+        executor = Executors.newFixedThreadPool(CALLERS);
+        postService = new CoalescingPostService(postServiceImplementation, new SingleFlight(meterRegistry), changeStamps);
+    }
+
+    /**
+     * Stops the executor after each test.
+     */
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test to verify that identical concurrent reads share a single call and its result.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void getPosts_SharesInFlightRead_WhenNoWriteHappened() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Post> posts = List.of(new Post("Title", "Content", new Category("Category")));
+        List<Future<List<Post>>> futures = new ArrayList<>();
+
+        when(postServiceImplementation.getPosts()).thenAnswer(invocation -> {
+            release.await();
+
+            return posts;
+        });
+
+        for (int i = 0; i < CALLERS; i++) {
+            futures.add(executor.submit(() -> postService.getPosts()));
+        }
+
+        awaitSharedCalls(CALLERS - 1);
+        release.countDown();
+
+        for (Future<List<Post>> future : futures) {
+            assertSame(posts, future.get(5, TimeUnit.SECONDS));
+        }
+
+        verify(postServiceImplementation, times(1)).getPosts();
+    }
+
+    /**
+     * Test to verify that a read starting after a write runs its own call instead of joining a read started before
+     * the write.
+     *
+     * @throws Exception if a caller fails
+     */
+    @Test
+    public void getPost_RunsOwnRead_WhenPostsWereWrittenSinceFlightStarted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        UUID id = UUID.randomUUID();
+        Post before = new Post("Before", "Content", new Category("Category"));
+        Post after = new Post("After", "Content", new Category("Category"));
+
+        when(postServiceImplementation.getPost(id))
+                .thenAnswer(invocation -> {
+                    release.await();
+
+                    return before;
+                })
+                .thenReturn(after);
+
+        Future<Post> first = executor.submit(() -> postService.getPost(id));
+
+        verify(postServiceImplementation, timeout(5000)).getPost(id);
+        changeStamps.touch(ChangeStamps.Scope.POSTS);
+
+        assertSame(after, executor.submit(() -> postService.getPost(id)).get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+
+        assertSame(before, first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "shared").counter().count());
+    }
+
+    /**
+     * Test to verify that writes are delegated as is.
+     *
+     * @throws PostNotFoundByIdException if the post with the specified ID does not exist
+     */
+    @Test
+    public void deletePost_DelegatesToImplementation() throws PostNotFoundByIdException {
+        UUID id = UUID.randomUUID();
+
+        when(postServiceImplementation.deletePost(id)).thenReturn(true);
+
+        assertTrue(postService.deletePost(id));
+        verify(postServiceImplementation).deletePost(id);
+        assertEquals(0, meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "executed").counter().count());
+    }
+
+    /**
+     * Waits until the specified number of calls joined a call in flight.
+     *
+     * @param count The number of shared calls to wait for
+     * @throws InterruptedException if the wait is interrupted
+     */
+    private void awaitSharedCalls(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (meterRegistry.get(SingleFlight.CALLS_METRIC).tag("result", "shared").counter().count() < count) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the call in flight");
+            Thread.sleep(5);
+        }
+    }
+
+}
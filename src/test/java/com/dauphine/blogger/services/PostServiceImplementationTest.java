@@ -1,24 +1,45 @@
 package com.dauphine.blogger.services;
 
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.dto.FacetedPosts;
+import com.dauphine.blogger.dto.PostBatchResult;
+import com.dauphine.blogger.dto.PostCursor;
+import com.dauphine.blogger.dto.PostRequest;
+import com.dauphine.blogger.dto.PostSummary;
 import com.dauphine.blogger.exceptions.CategoryNotFoundByIdException;
 import com.dauphine.blogger.exceptions.PostNotFoundByIdException;
+import com.dauphine.blogger.exceptions.StaleVersionException;
 import com.dauphine.blogger.models.Category;
 import com.dauphine.blogger.models.Post;
-import com.dauphine.blogger.repositories.CategoryRepository;
 import com.dauphine.blogger.repositories.PostRepository;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
 import com.dauphine.blogger.services.implementations.PostServiceImplementation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,15 +59,57 @@ public class PostServiceImplementationTest {
     private PostRepository postRepository;
 
     /**
-     * Mocked CategoryRepository used to simulate the repository layer for category operations.
+     * Mocked CategoryService used to simulate the cached category lookups.
      */
     @Mock
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
+
+    /**
+     * Mocked EntityManager used to verify that streamed posts are detached.
+     */
+    @Mock
+    private EntityManager entityManager;
+
+    /**
+     * Mocked PostSearchIndex used to simulate topic search resolution.
+     */
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    /**
+     * Mocked PostFacetIndex used to simulate faceted topic search resolution.
+     */
+    @Mock
+    private PostFacetIndex postFacetIndex;
+
+    /**
+     * Real SuggestionIndex, so that the completed titles can be observed.
+     */
+    private SuggestionIndex suggestionIndex;
+
+    /**
+     * Registry of the topic search cache metrics.
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * Real TopicSearchCache, so that cached topic searches can be observed.
+     */
+    private TopicSearchCache topicSearchCache;
+
+    /**
+     * Real LatestPostsFeed, so that the first pages served from memory can be observed.
+     */
+    private LatestPostsFeed latestPostsFeed;
+
+    /**
+     * Real ChangeStamps, so that the collections touched by the writes can be observed.
+     */
+    private ChangeStamps changeStamps;
 
     /**
      * The service implementation being tested, with mocked dependencies injected.
      */
-    @InjectMocks
     private PostServiceImplementation postService;
 
     /**
@@ -55,6 +118,13 @@ public class PostServiceImplementationTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+
+        meterRegistry = new SimpleMeterRegistry();
+        topicSearchCache = new TopicSearchCache(5_000_000, meterRegistry);
+        latestPostsFeed = new LatestPostsFeed(3);
+        changeStamps = new ChangeStamps();
+        suggestionIndex = new SuggestionIndex(10);
+        postService = new PostServiceImplementation(postRepository, categoryService, entityManager, postSearchIndex, suggestionIndex, postFacetIndex, topicSearchCache, latestPostsFeed, changeStamps, "like", 100);
     }
 
     /**
@@ -103,20 +173,295 @@ public class PostServiceImplementationTest {
     }
 
     /**
-     * Test to verify that getPostsByTopic returns posts matching the specified topic.
+     * Test to verify that getPosts with a cursor delegates the keyset page to the repository.
      */
     @Test
-    public void getPostsByTopic_ReturnsPosts_WhenTopicExists() {
+    public void getPosts_ReturnsPage_WhenCursorIsGiven() {
+        Post last = new Post("Last", "Content", new Category("Category"));
+        PostCursor after = PostCursor.after(last);
+        List<Post> posts = List.of(new Post("Title1", "Content1", new Category("Category1")));
+
+        when(postRepository.findPage(last.getCreatedDate(), last.getId(), Limit.of(10))).thenReturn(posts);
+
+        List<Post> retrievedPosts = postService.getPosts(after, 10);
+
+        assertEquals(posts, retrievedPosts);
+    }
+
+    /**
+     * Test to verify that the first page of a category is loaded once into the latest posts feed, then served from
+     * memory, including the posts created afterwards.
+     *
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     */
+    @Test
+    public void getPostsByCategoryId_ServesFirstPageFromFeed() throws CategoryNotFoundByIdException {
+        Category category = new Category("Category");
+        Post existing = new Post(UUID.randomUUID(), "Existing", "Content", LocalDateTime.now().minusDays(1), category);
+
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(postRepository.findPageByCategoryId(category.getId(), PostCursor.START.getCreatedDate(), PostCursor.START.getId(), Limit.of(3))).thenReturn(List.of(existing));
+        when(categoryService.getCategory(category.getId())).thenReturn(category);
+
+        assertEquals(List.of(existing), postService.getPostsByCategoryId(category.getId(), PostCursor.START, 2));
+
+        Post created = postService.createPost("Created", "Content", category.getId());
+        List<Post> firstPage = postService.getPostsByCategoryId(category.getId(), PostCursor.START, 2);
+
+        assertEquals(List.of(created.getId(), existing.getId()), firstPage.stream().map(Post::getId).toList());
+        verify(postRepository, times(1)).findPageByCategoryId(any(), any(), any(), any());
+    }
+
+    /**
+     * Test to verify that getPostsByTopic with a cursor delegates the keyset page to the repository.
+     */
+    @Test
+    public void getPostsByTopic_ReturnsPage_WhenCursorIsGiven() {
         String topic = "Topic";
         List<Post> posts = List.of(new Post("Title1", "Content with Topic", new Category("Category")));
 
-        when(postRepository.findByTitleOrContentContainingKeyword(topic)).thenReturn(posts);
+        when(postRepository.findPageByTitleOrContentContainingKeyword("TOPIC", PostCursor.START.getCreatedDate(), PostCursor.START.getId(), Limit.of(5))).thenReturn(posts);
+
+        List<Post> retrievedPosts = postService.getPostsByTopic(topic, PostCursor.START, 5);
+
+        assertEquals(posts, retrievedPosts);
+    }
+
+    /**
+     * Test to verify that getPostsByTopic returns posts matching the specified topic, folded to its normalized form.
+     */
+    @Test
+    public void getPostsByTopic_ReturnsPosts_WhenTopicExists() {
+        String topic = "Été";
+        List<Post> posts = List.of(new Post("Title1", "Content about the summer, l'été", new Category("Category")));
+
+        when(postRepository.findByTitleOrContentContainingKeyword("ETE")).thenReturn(posts);
 
         List<Post> retrievedPosts = postService.getPostsByTopic(topic);
 
         assertEquals(posts, retrievedPosts);
     }
 
+    /**
+     * Test to verify that getPostsByTopic serves repeated topics from the cache, whatever their case and accents,
+     * until a post is written, and publishes the hit ratio.
+     *
+     * @throws PostNotFoundByIdException if the specified post ID does not exist
+     */
+    @Test
+    public void getPostsByTopic_ServesCachedResults_UntilNextWrite() throws PostNotFoundByIdException {
+        Post post = new Post("Title", "Content about the summer, l'été", new Category("Category"));
+
+        when(postRepository.findByTitleOrContentContainingKeyword("ETE")).thenReturn(List.of(post));
+        when(postRepository.deletePostById(post.getId())).thenReturn(1);
+
+        postService.getPostsByTopic("été");
+        List<Post> cached = postService.getPostsByTopic("ETE");
+
+        verify(postRepository, times(1)).findByTitleOrContentContainingKeyword("ETE");
+        assertEquals(List.of(post.getId()), cached.stream().map(Post::getId).toList());
+        assertNotSame(post, cached.get(0));
+        assertEquals(0.5, meterRegistry.get(TopicSearchCache.HIT_RATIO_METRIC).gauge().value());
+
+        postService.deletePost(post.getId());
+        postService.getPostsByTopic("été");
+
+        verify(postRepository, times(2)).findByTitleOrContentContainingKeyword("ETE");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", TopicSearchCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+    }
+
+    /**
+     * Test to verify that getPostsByTopic fetches only the candidates of the index and keeps the exact matches.
+     */
+    @Test
+    public void getPostsByTopic_FetchesIndexCandidates_WhenIndexIsReady() {
+        String topic = "oo ba";
+        Post match = new Post("foo bar", "Content", new Category("Category"));
+        Post candidate = new Post("foo", "bar", new Category("Category"));
+
+        when(postSearchIndex.search(topic)).thenReturn(Optional.of(Set.of(match.getId(), candidate.getId())));
+        when(postRepository.findAllById(any())).thenReturn(List.of(candidate, match));
+
+        List<Post> retrievedPosts = postService.getPostsByTopic(topic);
+
+        assertEquals(List.of(match), retrievedPosts);
+        verify(postRepository, never()).findByTitleOrContentContainingKeyword(any());
+    }
+
+    /**
+     * Test to verify that getFacetedPostsByTopic loads only the hits of the index, sorted by creation date, and returns
+     * the counts of the index.
+     */
+    @Test
+    public void getFacetedPostsByTopic_FetchesIndexHits_WhenIndexIsReady() {
+        UUID categoryId = UUID.randomUUID();
+        Post older = new Post(UUID.randomUUID(), "Spring", "Content", LocalDateTime.now().minusDays(1), new Category("Category"));
+        Post newer = new Post(UUID.randomUUID(), "Spring", "Content", LocalDateTime.now(), new Category("Category"));
+        Map<UUID, Integer> counts = Map.of(categoryId, 2);
+
+        when(postFacetIndex.search("spring", categoryId)).thenReturn(Optional.of(new PostFacetIndex.Result(Set.of(older.getId(), newer.getId()), counts)));
+        when(postRepository.findAllById(any())).thenReturn(List.of(newer, older));
+
+        FacetedPosts faceted = postService.getFacetedPostsByTopic("spring", categoryId);
+
+        assertEquals(List.of(older, newer), faceted.getPosts());
+        assertEquals(counts, faceted.getCategoryCounts());
+        verify(postRepository, never()).findByTitleOrContentContainingKeyword(any());
+    }
+
+    /**
+     * Test to verify that getFacetedPostsByTopic counts the database matches by category while the index is not ready,
+     * and keeps only the posts of the requested category.
+     */
+    @Test
+    public void getFacetedPostsByTopic_CountsDatabaseMatches_WhenIndexIsNotReady() {
+        Category java = new Category("Java");
+        Category kotlin = new Category("Kotlin");
+        Post first = new Post("Spring Boot", "Content", java);
+        Post second = new Post("Spring Data", "Content", java);
+        Post third = new Post("Spring for Kotlin", "Content", kotlin);
+
+        when(postFacetIndex.search("spring", kotlin.getId())).thenReturn(Optional.empty());
+        when(postRepository.findByTitleOrContentContainingKeyword("SPRING")).thenReturn(List.of(first, second, third));
+
+        FacetedPosts faceted = postService.getFacetedPostsByTopic("spring", kotlin.getId());
+
+        assertEquals(List.of(third), faceted.getPosts());
+        assertEquals(Map.of(java.getId(), 2, kotlin.getId(), 1), faceted.getCategoryCounts());
+    }
+
+    /**
+     * Test to verify that getPostsByTopic in full-text mode returns the posts ranked by the database, in rank order,
+     * without going through the search index.
+     */
+    @Test
+    public void getPostsByTopic_ReturnsRankedPosts_WhenModeIsFullText() {
+        PostServiceImplementation fullTextService = new PostServiceImplementation(postRepository, categoryService, entityManager, postSearchIndex, new SuggestionIndex(10), new PostFacetIndex(), topicSearchCache, latestPostsFeed, changeStamps, "full-text", 10);
+        Post first = new Post("Crème brûlée", "Content", new Category("Category"));
+        Post second = new Post("Title", "Une crème", new Category("Category"));
+
+        when(postRepository.findIdsByFullTextQuery("CREME", 10)).thenReturn(List.of(first.getId(), second.getId()));
+        when(postRepository.findAllById(List.of(first.getId(), second.getId()))).thenReturn(List.of(second, first));
+
+        List<Post> retrievedPosts = fullTextService.getPostsByTopic("crème");
+
+        assertEquals(List.of(first, second), retrievedPosts);
+        verify(postSearchIndex, never()).search(any());
+        verify(postRepository, never()).findByTitleOrContentContainingKeyword(any());
+    }
+
+    /**
+     * Test to verify that getPostsByTopic in full-text mode does not load any post when nothing matches.
+     */
+    @Test
+    public void getPostsByTopic_ReturnsEmptyList_WhenFullTextFindsNothing() {
+        PostServiceImplementation fullTextService = new PostServiceImplementation(postRepository, categoryService, entityManager, postSearchIndex, new SuggestionIndex(10), new PostFacetIndex(), topicSearchCache, latestPostsFeed, changeStamps, "full-text", 10);
+
+        when(postRepository.findIdsByFullTextQuery("FOO", 10)).thenReturn(List.of());
+
+        assertTrue(fullTextService.getPostsByTopic("foo").isEmpty());
+        verify(postRepository, never()).findAllById(any());
+    }
+
+    /**
+     * Test to verify that an unknown topic search mode is rejected.
+     */
+    @Test
+    public void constructor_ThrowsException_WhenModeIsUnknown() {
+        assertThrows(IllegalArgumentException.class, () -> new PostServiceImplementation(postRepository, categoryService, entityManager, postSearchIndex, new SuggestionIndex(10), new PostFacetIndex(), topicSearchCache, latestPostsFeed, changeStamps, "fuzzy", 10));
+    }
+
+    /**
+     * Test to verify that getPostSummariesByTopic lets the database check the index candidates and sorts the summaries.
+     */
+    @Test
+    public void getPostSummariesByTopic_ChecksIndexCandidatesInDatabase_WhenIndexIsReady() {
+        String topic = "foo";
+        PostSummary newer = new PostSummary(UUID.randomUUID(), "foo", LocalDateTime.now(), null, null, "");
+        PostSummary older = new PostSummary(UUID.randomUUID(), "foo", LocalDateTime.now().minusDays(1), null, null, "");
+
+        when(postSearchIndex.search(topic)).thenReturn(Optional.of(Set.of(newer.getId(), older.getId())));
+        when(postRepository.findSummariesByIdInAndKeyword(any(), eq("FOO"))).thenReturn(new ArrayList<>(List.of(newer, older)));
+
+        List<PostSummary> summaries = postService.getPostSummariesByTopic(topic);
+
+        assertEquals(List.of(older, newer), summaries);
+        verify(postRepository, never()).findSummariesByKeyword(any());
+        verify(postRepository, never()).findAllById(any());
+    }
+
+    /**
+     * Test to verify that getPostSummariesByTopic searches the database while the index is not ready.
+     */
+    @Test
+    public void getPostSummariesByTopic_SearchesDatabase_WhenIndexIsNotReady() {
+        String topic = "foo";
+        List<PostSummary> summaries = List.of(new PostSummary(UUID.randomUUID(), "foo", LocalDateTime.now(), null, null, ""));
+
+        when(postSearchIndex.search(topic)).thenReturn(Optional.empty());
+        when(postRepository.findSummariesByKeyword("FOO")).thenReturn(summaries);
+
+        assertEquals(summaries, postService.getPostSummariesByTopic(topic));
+    }
+
+    /**
+     * Test to verify that createPosts resolves the categories with a single lookup, persists the valid items in
+     * flushed chunks and rejects the items referencing a missing category.
+     */
+    @Test
+    public void createPosts_PersistsValidItemsAndRejectsMissingCategories() {
+        Category category = new Category("Category");
+        UUID missingCategoryId = UUID.randomUUID();
+        List<PostRequest> requests = new ArrayList<>();
+
+        for (int i = 0; i < 150; i++) {
+            requests.add(new PostRequest("Title" + i, "Content", category.getId()));
+        }
+
+        requests.add(new PostRequest("Orphan", "Content", missingCategoryId));
+
+        when(categoryService.getCategoriesById(Set.of(category.getId(), missingCategoryId))).thenReturn(Map.of(category.getId(), category));
+
+        List<PostBatchResult> results = postService.createPosts(requests);
+
+        assertEquals(151, results.size());
+        assertEquals(150, results.stream().filter(result -> result.getStatus() == PostBatchResult.Status.CREATED).count());
+        assertEquals(PostBatchResult.Status.CATEGORY_NOT_FOUND, results.get(150).getStatus());
+        assertNull(results.get(150).getId());
+        verify(categoryService, times(1)).getCategoriesById(any());
+        verify(entityManager, times(150)).persist(any(Post.class));
+        verify(entityManager, times(2)).flush();
+        verify(postSearchIndex, times(150)).index(any(Post.class));
+        verify(postRepository, never()).save(any());
+    }
+
+    /**
+     * Test to verify that createPost, update and deletePost keep the search indexes up to date.
+     *
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     */
+    @Test
+    public void writes_UpdateSearchIndex() throws CategoryNotFoundByIdException, PostNotFoundByIdException {
+        UUID categoryId = UUID.randomUUID();
+        Category category = new Category("Category");
+        Post post = new Post("Title", "Content", category);
+
+        when(categoryService.getCategory(categoryId)).thenReturn(category);
+        when(postRepository.findById(post.getId())).thenReturn(Optional.of(post));
+        when(postRepository.save(any(Post.class))).thenReturn(post);
+        when(postRepository.deletePostById(post.getId())).thenReturn(1);
+
+        postService.createPost("Title", "Content", categoryId);
+        postService.update(post.getId(), "New Title", "New Content", categoryId);
+        postService.deletePost(post.getId());
+
+        verify(postSearchIndex, times(2)).index(post);
+        verify(postSearchIndex).remove(post.getId());
+        verify(postFacetIndex, times(2)).index(post);
+        verify(postFacetIndex).remove(post.getId());
+    }
+
     /**
      * Test to verify that getPostsByCategoryId returns posts belonging to the specified category.
      */
@@ -132,6 +477,39 @@ public class PostServiceImplementationTest {
         assertEquals(posts, retrievedPosts);
     }
 
+    /**
+     * Test to verify that forEachPost performs the action on each streamed post and detaches it afterwards.
+     */
+    @Test
+    public void forEachPost_PerformsActionAndDetachesEachPost() {
+        Post first = new Post("Title1", "Content1", new Category("Category"));
+        Post second = new Post("Title2", "Content2", new Category("Category"));
+        List<Post> visitedPosts = new ArrayList<>();
+
+        when(postRepository.streamAllByOrderByCreatedDate()).thenReturn(Stream.of(first, second));
+
+        postService.forEachPost(visitedPosts::add);
+
+        assertEquals(List.of(first, second), visitedPosts);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    /**
+     * Test to verify that forEachPostByCategoryId closes the underlying stream once consumed.
+     */
+    @Test
+    public void forEachPostByCategoryId_ClosesStream() {
+        UUID categoryId = UUID.randomUUID();
+        Runnable onClose = mock(Runnable.class);
+
+        when(postRepository.streamAllByCategoryId(categoryId)).thenReturn(Stream.<Post>empty().onClose(onClose));
+
+        postService.forEachPostByCategoryId(categoryId, post -> fail("No post expected"));
+
+        verify(onClose).run();
+    }
+
     /**
      * Test to verify that createPost creates a new post when the category exists.
      *
@@ -143,7 +521,7 @@ public class PostServiceImplementationTest {
         Category category = new Category("Category");
         Post post = new Post("Title", "Content", category);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryService.getCategory(categoryId)).thenReturn(category);
         when(postRepository.save(any(Post.class))).thenReturn(post);
 
         Post createdPost = postService.createPost("Title", "Content", categoryId);
@@ -152,14 +530,50 @@ public class PostServiceImplementationTest {
         assertEquals(post, createdPost);
     }
 
+    /**
+     * Test to verify that within a transaction, createPost only updates the in-memory indexes once the transaction
+     * commits.
+     *
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     */
+    @Test
+    public void createPost_UpdatesIndexesAfterCommit_WithinTransaction() throws CategoryNotFoundByIdException {
+        UUID categoryId = UUID.randomUUID();
+        Category category = new Category("Category");
+        Post post = new Post("Title", "Content", category);
+
+        when(categoryService.getCategory(categoryId)).thenReturn(category);
+        when(postRepository.save(any(Post.class))).thenReturn(post);
+        suggestionIndex.markReady();
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            postService.createPost("Title", "Content", categoryId);
+
+            verifyNoInteractions(postSearchIndex, postFacetIndex);
+            assertEquals(Optional.of(List.of()), suggestionIndex.suggest("tit", 10));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(postSearchIndex).index(post);
+        verify(postFacetIndex).index(post);
+        assertEquals(1, suggestionIndex.suggest("tit", 10).orElseThrow().size());
+    }
+
     /**
      * Test to verify that createPost throws an exception when the category does not exist.
+     *
+     * @throws CategoryNotFoundByIdException if the stubbed category lookup fails
      */
     @Test
-    public void createPost_ThrowsException_WhenCategoryDoesNotExist() {
+    public void createPost_ThrowsException_WhenCategoryDoesNotExist() throws CategoryNotFoundByIdException {
         UUID categoryId = UUID.randomUUID();
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryService.getCategory(categoryId)).thenThrow(new CategoryNotFoundByIdException(categoryId));
 
         assertThrows(CategoryNotFoundByIdException.class, () -> postService.createPost("Title", "Content", categoryId));
     }
@@ -177,27 +591,59 @@ public class PostServiceImplementationTest {
         Category category = new Category("Category");
         Post post = new Post("Title", "Content", category);
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryService.getCategory(categoryId)).thenReturn(category);
         when(postRepository.findById(postId)).thenReturn(Optional.of(post));
-        when(postRepository.save(any(Post.class))).thenReturn(post);
 
         Post updatedPost = postService.update(postId, "New Title", "New Content", categoryId);
 
         assertEquals("New Title", updatedPost.getTitle());
         assertEquals("New Content", updatedPost.getContent());
         assertEquals(category, updatedPost.getCategory());
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    /**
+     * Test to verify that update leaves a post untouched when it is no longer at the expected version, and updates it
+     * when it is.
+     *
+     * @throws CategoryNotFoundByIdException if the specified category ID does not exist
+     * @throws PostNotFoundByIdException     if the specified post ID does not exist
+     * @throws StaleVersionException         if the post is no longer at the expected version
+     */
+    @Test
+    public void update_ThrowsException_WhenVersionIsStale() throws CategoryNotFoundByIdException, PostNotFoundByIdException, StaleVersionException {
+        UUID postId = UUID.randomUUID();
+        UUID categoryId = UUID.randomUUID();
+        Category category = new Category("Category");
+        Post post = new Post("Title", "Content", category);
+        post.setVersion(2L);
+
+        when(categoryService.getCategory(categoryId)).thenReturn(category);
+        when(postRepository.findById(postId)).thenReturn(Optional.of(post));
+
+        assertThrows(StaleVersionException.class, () -> postService.update(postId, "New Title", "New Content", categoryId, 1L));
+        assertEquals("Title", post.getTitle());
+        verify(postRepository, never()).flush();
+        assertEquals(0, changeStamps.get(ChangeStamps.Scope.POSTS).version());
+
+        Post updatedPost = postService.update(postId, "New Title", "New Content", categoryId, 2L);
+
+        assertEquals("New Title", updatedPost.getTitle());
+        verify(postRepository).flush();
     }
 
     /**
      * Test to verify that update throws an exception when the post does not exist.
+     *
+     * @throws CategoryNotFoundByIdException if the stubbed category lookup fails
      */
     @Test
-    public void update_ThrowsException_WhenPostDoesNotExist() {
+    public void update_ThrowsException_WhenPostDoesNotExist() throws CategoryNotFoundByIdException {
         UUID postId = UUID.randomUUID();
         UUID categoryId = UUID.randomUUID();
         Category category = new Category("Category");
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryService.getCategory(categoryId)).thenReturn(category);
         when(postRepository.findById(postId)).thenReturn(Optional.empty());
 
         assertThrows(PostNotFoundByIdException.class, () -> postService.update(postId, "New Title", "New Content", categoryId));
@@ -205,13 +651,15 @@ public class PostServiceImplementationTest {
 
     /**
      * Test to verify that update throws an exception when the category does not exist.
+     *
+     * @throws CategoryNotFoundByIdException if the stubbed category lookup fails
      */
     @Test
-    public void update_ThrowsException_WhenCategoryDoesNotExist() {
+    public void update_ThrowsException_WhenCategoryDoesNotExist() throws CategoryNotFoundByIdException {
         UUID postId = UUID.randomUUID();
         UUID categoryId = UUID.randomUUID();
 
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryService.getCategory(categoryId)).thenThrow(new CategoryNotFoundByIdException(categoryId));
 
         assertThrows(CategoryNotFoundByIdException.class, () -> postService.update(postId, "New Title", "New Content", categoryId));
     }
@@ -225,13 +673,35 @@ public class PostServiceImplementationTest {
     public void deletePost_DeletesPost_WhenPostExists() throws PostNotFoundByIdException {
         UUID postId = UUID.randomUUID();
 
-        when(postRepository.existsById(postId)).thenReturn(true);
-        doNothing().when(postRepository).deleteById(postId);
+        when(postRepository.deletePostById(postId)).thenReturn(1);
 
         boolean deleted = postService.deletePost(postId);
 
         assertTrue(deleted);
-        verify(postRepository, times(1)).deleteById(postId);
+        verify(postRepository, times(1)).deletePostById(postId);
+        verify(postRepository, never()).existsById(any());
+    }
+
+    /**
+     * Test to verify that deletePost touches the post collection only when a post was deleted.
+     *
+     * @throws PostNotFoundByIdException if the specified post ID does not exist
+     */
+    @Test
+    public void deletePost_TouchesPostCollection_WhenPostExists() throws PostNotFoundByIdException {
+        UUID postId = UUID.randomUUID();
+        ChangeStamps.Stamp before = changeStamps.get(ChangeStamps.Scope.POSTS);
+
+        when(postRepository.deletePostById(any())).thenReturn(1, 0);
+
+        postService.deletePost(postId);
+        assertThrows(PostNotFoundByIdException.class, () -> postService.deletePost(UUID.randomUUID()));
+
+        ChangeStamps.Stamp after = changeStamps.get(ChangeStamps.Scope.POSTS);
+
+        assertEquals(before.version() + 1, after.version());
+        assertNotEquals(before.eTag(), after.eTag());
+        assertEquals(0, changeStamps.get(ChangeStamps.Scope.CATEGORIES).version());
     }
 
     /**
@@ -241,7 +711,7 @@ public class PostServiceImplementationTest {
     public void deletePost_ThrowsException_WhenPostDoesNotExist() {
         UUID postId = UUID.randomUUID();
 
-        when(postRepository.existsById(postId)).thenReturn(false);
+        when(postRepository.deletePostById(postId)).thenReturn(0);
 
         assertThrows(PostNotFoundByIdException.class, () -> postService.deletePost(postId));
     }
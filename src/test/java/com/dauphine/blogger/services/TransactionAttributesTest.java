@@ -0,0 +1,92 @@
+package com.dauphine.blogger.services;
+
+import com.dauphine.blogger.services.implementations.CategoryServiceImplementation;
+import com.dauphine.blogger.services.implementations.PostServiceImplementation;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Unit tests for the transaction attributes of the service implementations.
+ * These tests check that reads run in read-only transactions and writes in read-write ones, as resolved by Spring
+ * from the annotations.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TransactionAttributesTest {
+
+    /**
+     * Resolves the transaction attributes from the annotations.
+     */
+    private final TransactionAttributeSource source = new AnnotationTransactionAttributeSource();
+
+    /**
+     * Test to verify that every read of the post service runs in a read-only transaction, and every write in a
+     * read-write one.
+     */
+    @Test
+    public void postService_ReadsAreReadOnly_WritesAreReadWrite() {
+        for (Method method : publicMethods(PostServiceImplementation.class)) {
+            final TransactionAttribute attribute = source.getTransactionAttribute(method, PostServiceImplementation.class);
+
+            assertNotNull(attribute, method.getName());
+            assertEquals(!isWrite(method), attribute.isReadOnly(), method.getName());
+        }
+    }
+
+    /**
+     * Test to verify that the writes of the category service run in read-write transactions, and that the lookup
+     * bypassing the cache runs in a read-only one.
+     */
+    @Test
+    public void categoryService_WritesAreReadWrite() throws NoSuchMethodException {
+        for (Method method : publicMethods(CategoryServiceImplementation.class)) {
+            if (isWrite(method)) {
+                final TransactionAttribute attribute = source.getTransactionAttribute(method, CategoryServiceImplementation.class);
+
+                assertNotNull(attribute, method.getName());
+                assertFalse(attribute.isReadOnly(), method.getName());
+            }
+        }
+
+        final Method getCategoriesById = CategoryServiceImplementation.class.getMethod("getCategoriesById", Collection.class);
+
+        assertTrue(source.getTransactionAttribute(getCategoriesById, CategoryServiceImplementation.class).isReadOnly());
+    }
+
+    /**
+     * Retrieves the public methods declared by a class.
+     *
+     * @param type The class
+     * @return The public methods declared by the class
+     */
+    private static List<Method> publicMethods(Class<?> type) {
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> Modifier.isPublic(method.getModifiers()) && !method.isSynthetic())
+                .toList();
+    }
+
+    /**
+     * Checks whether a method writes to the database, according to its name.
+     *
+     * @param method The method
+     * @return true if the method creates, updates or deletes data, false otherwise
+     */
+    private static boolean isWrite(Method method) {
+        final String name = method.getName();
+
+        return name.startsWith("create") || name.startsWith("update") || name.startsWith("delete");
+    }
+
+}
@@ -0,0 +1,266 @@
+package com.dauphine.blogger.services;
+
+import com.dauphine.blogger.cache.CategoryCache;
+import com.dauphine.blogger.cache.ChangeStamps;
+import com.dauphine.blogger.cache.LatestPostsFeed;
+import com.dauphine.blogger.cache.TopicSearchCache;
+import com.dauphine.blogger.dto.TransferRecord;
+import com.dauphine.blogger.dto.TransferResult;
+import com.dauphine.blogger.exceptions.InvalidTransferException;
+import com.dauphine.blogger.models.Category;
+import com.dauphine.blogger.models.Post;
+import com.dauphine.blogger.repositories.CategoryRepository;
+import com.dauphine.blogger.repositories.PostRepository;
+import com.dauphine.blogger.search.CategoryNameIndex;
+import com.dauphine.blogger.search.PostFacetIndex;
+import com.dauphine.blogger.search.PostSearchIndex;
+import com.dauphine.blogger.search.SuggestionIndex;
+import com.dauphine.blogger.services.implementations.TransferServiceImplementation;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * Unit tests for the TransferServiceImplementation class.
+ * These tests validate the export order and the batching of the import.
+ * </p>
+ *
+ * @author Nelson PROIA <nelson.proia@dauphine.eu>
+ */
+public class TransferServiceImplementationTest {
+
+    /**
+     * Mocked PostRepository used to simulate the repository layer for post operations.
+     */
+    @Mock
+    private PostRepository postRepository;
+
+    /**
+     * Mocked CategoryRepository used to simulate the repository layer for category operations.
+     */
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    /**
+     * Mocked CategoryCache used to verify its invalidation.
+     */
+    @Mock
+    private CategoryCache categoryCache;
+
+    /**
+     * Mocked TopicSearchCache used to verify its invalidation.
+     */
+    @Mock
+    private TopicSearchCache topicSearchCache;
+
+    /**
+     * Mocked LatestPostsFeed used to verify its invalidation.
+     */
+    @Mock
+    private LatestPostsFeed latestPostsFeed;
+
+    /**
+     * Mocked ChangeStamps used to verify the touched collections.
+     */
+    @Mock
+    private ChangeStamps changeStamps;
+
+    /**
+     * Mocked PostSearchIndex used to verify the indexed posts.
+     */
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    /**
+     * Mocked PostFacetIndex used to verify the indexed posts.
+     */
+    @Mock
+    private PostFacetIndex postFacetIndex;
+
+    /**
+     * Mocked CategoryNameIndex used to verify the indexed categories.
+     */
+    @Mock
+    private CategoryNameIndex categoryNameIndex;
+
+    /**
+     * Mocked SuggestionIndex used to verify the indexed categories and posts.
+     */
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    /**
+     * Mocked EntityManager used to verify the persisted entities.
+     */
+    @Mock
+    private EntityManager entityManager;
+
+    /**
+     * The service implementation being tested, running each batch without a transaction.
+     */
+    private TransferServiceImplementation transferService;
+
+    /**
+     * Setup method to initialize mocks and the service implementation before each test.
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+
+        transferService = new TransferServiceImplementation(postRepository, categoryRepository, categoryCache, topicSearchCache, latestPostsFeed, changeStamps, postSearchIndex, postFacetIndex, categoryNameIndex, suggestionIndex, entityManager, TransactionOperations.withoutTransaction());
+    }
+
+    /**
+     * Test to verify that exportAll produces categories before posts.
+     */
+    @Test
+    public void exportAll_ProducesCategoriesBeforePosts() {
+        UUID categoryId = UUID.randomUUID();
+        TransferRecord category = new TransferRecord(categoryId, "Category");
+        TransferRecord post = new TransferRecord(UUID.randomUUID(), "Title", "Content", LocalDateTime.now(), categoryId);
+        List<TransferRecord> exported = new ArrayList<>();
+
+        when(categoryRepository.streamTransferRecords()).thenReturn(Stream.of(category));
+        when(postRepository.streamTransferRecords()).thenReturn(Stream.of(post));
+
+        transferService.exportAll(exported::add);
+
+        assertEquals(List.of(category, post), exported);
+    }
+
+    /**
+     * Test to verify that importAll persists new rows, updates existing ones and writes categories first.
+     *
+     * @throws InvalidTransferException if a record is invalid
+     */
+    @Test
+    public void importAll_PersistsNewRowsAndUpdatesExistingOnes() throws InvalidTransferException {
+        Category existingCategory = new Category(UUID.randomUUID(), "Old name");
+        UUID newCategoryId = UUID.randomUUID();
+
+        when(categoryRepository.findAllById(anyList())).thenReturn(List.of(existingCategory));
+        when(postRepository.findAllById(anyList())).thenReturn(List.of());
+
+        List<TransferRecord> records = List.of(
+                new TransferRecord(existingCategory.getId(), "New name"),
+                new TransferRecord(newCategoryId, "Created"),
+                new TransferRecord(UUID.randomUUID(), "Title", "Content", LocalDateTime.now(), newCategoryId)
+        );
+
+        TransferResult result = transferService.importAll(records.iterator());
+
+        assertEquals(2, result.getCategories());
+        assertEquals(1, result.getPosts());
+        assertEquals("New name", existingCategory.getName());
+
+        InOrder inOrder = inOrder(categoryRepository, entityManager, categoryCache, postRepository);
+        inOrder.verify(categoryRepository).findAllById(anyList());
+        inOrder.verify(entityManager).persist(any(Category.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(categoryCache).invalidate();
+        inOrder.verify(postRepository).findAllById(anyList());
+        inOrder.verify(entityManager).persist(any(Post.class));
+        verify(entityManager, never()).persist(existingCategory);
+        verify(topicSearchCache, times(2)).invalidate();
+        verify(latestPostsFeed, times(2)).invalidate();
+        verify(changeStamps).touch(ChangeStamps.Scope.CATEGORIES, ChangeStamps.Scope.POSTS);
+        verify(changeStamps).touch(ChangeStamps.Scope.POSTS);
+    }
+
+    /**
+     * Test to verify that importAll writes the imported categories and posts to the in-memory indexes once their
+     * batch is written.
+     *
+     * @throws InvalidTransferException if a record is invalid
+     */
+    @Test
+    public void importAll_IndexesWrittenRows() throws InvalidTransferException {
+        Category existingCategory = new Category(UUID.randomUUID(), "Old name");
+        Post existingPost = new Post(UUID.randomUUID(), "Old title", "Old content", LocalDateTime.now(), existingCategory);
+        UUID newPostId = UUID.randomUUID();
+
+        when(categoryRepository.findAllById(anyList())).thenReturn(List.of(existingCategory));
+        when(postRepository.findAllById(anyList())).thenReturn(List.of(existingPost));
+        when(entityManager.getReference(Category.class, existingCategory.getId())).thenReturn(existingCategory);
+
+        List<TransferRecord> records = List.of(
+                new TransferRecord(existingCategory.getId(), "New name"),
+                new TransferRecord(existingPost.getId(), "New title", "Content", LocalDateTime.now(), existingCategory.getId()),
+                new TransferRecord(newPostId, "Title", "Content", LocalDateTime.now(), existingCategory.getId())
+        );
+
+        transferService.importAll(records.iterator());
+
+        InOrder inOrder = inOrder(entityManager, categoryNameIndex, postSearchIndex);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(categoryNameIndex).index(existingCategory);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(postSearchIndex).index(existingPost);
+        inOrder.verify(postSearchIndex).index(argThat(post -> newPostId.equals(post.getId())));
+        verify(suggestionIndex).indexCategory(existingCategory);
+        verify(suggestionIndex, times(2)).indexPost(any(Post.class));
+        verify(postFacetIndex, times(2)).index(any(Post.class));
+        assertEquals("New title", existingPost.getTitle());
+    }
+
+    /**
+     * Test to verify that importAll writes large imports in batches.
+     *
+     * @throws InvalidTransferException if a record is invalid
+     */
+    @Test
+    public void importAll_WritesRecordsInBatches() throws InvalidTransferException {
+        int count = TransferServiceImplementation.BATCH_SIZE * 2 + 1;
+        List<TransferRecord> records = IntStream.range(0, count)
+                .mapToObj(i -> new TransferRecord(UUID.randomUUID(), "Category " + i))
+                .toList();
+
+        when(categoryRepository.findAllById(anyList())).thenReturn(List.of());
+
+        TransferResult result = transferService.importAll(records.iterator());
+
+        assertEquals(count, result.getCategories());
+        verify(categoryRepository, times(3)).findAllById(anyList());
+        verify(entityManager, times(3)).clear();
+        verify(entityManager, times(count)).persist(any(Category.class));
+    }
+
+    /**
+     * Test to verify that importAll throws an exception when a record has an unknown type.
+     */
+    @Test
+    public void importAll_ThrowsException_WhenTypeIsUnknown() {
+        TransferRecord record = new TransferRecord(UUID.randomUUID(), "Name");
+        record.setType("comment");
+
+        assertThrows(InvalidTransferException.class, () -> transferService.importAll(List.of(record).iterator()));
+    }
+
+    /**
+     * Test to verify that importAll throws an exception when a record has no id.
+     */
+    @Test
+    public void importAll_ThrowsException_WhenIdIsMissing() {
+        TransferRecord record = new TransferRecord(null, "Name");
+
+        assertThrows(InvalidTransferException.class, () -> transferService.importAll(List.of(record).iterator()));
+    }
+
+}